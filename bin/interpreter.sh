@@ -21,10 +21,15 @@ bin=$(cd "${bin}">/dev/null; pwd)
 
 
 function usage() {
-    echo "usage) $0 -p <port> -d <directory to load>"
+    echo "usage) $0 -p <port> -d <directory to load> [-c <readiness callback port>] [-t <thrift server type>] [-w <worker threads>] [-a <angular object update window msec>]"
 }
 
-while getopts "hp:d:" o; do
+CALLBACK_PORT=-1
+SERVER_TYPE=threadpool
+WORKER_THREADS=256
+ANGULAR_OBJECT_UPDATE_WINDOW=50
+
+while getopts "hp:d:c:t:w:a:" o; do
     case ${o} in
         h)
             usage
@@ -36,6 +41,18 @@ while getopts "hp:d:" o; do
         p)
             PORT=${OPTARG}
             ;;
+        c)
+            CALLBACK_PORT=${OPTARG}
+            ;;
+        t)
+            SERVER_TYPE=${OPTARG}
+            ;;
+        w)
+            WORKER_THREADS=${OPTARG}
+            ;;
+        a)
+            ANGULAR_OBJECT_UPDATE_WINDOW=${OPTARG}
+            ;;
         esac
 done
 
@@ -121,9 +138,9 @@ fi
 CLASSPATH+=":${ZEPPELIN_CLASSPATH}"
 
 if [[ -n "${SPARK_SUBMIT}" ]]; then
-    ${SPARK_SUBMIT} --class ${ZEPPELIN_SERVER} --driver-class-path "${CLASSPATH}" --driver-java-options "${JAVA_INTP_OPTS}" ${SPARK_SUBMIT_OPTIONS} ${SPARK_APP_JAR} ${PORT} &
+    ${SPARK_SUBMIT} --class ${ZEPPELIN_SERVER} --driver-class-path "${CLASSPATH}" --driver-java-options "${JAVA_INTP_OPTS}" ${SPARK_SUBMIT_OPTIONS} ${SPARK_APP_JAR} ${PORT} ${CALLBACK_PORT} ${SERVER_TYPE} ${WORKER_THREADS} ${ANGULAR_OBJECT_UPDATE_WINDOW} &
 else
-    ${ZEPPELIN_RUNNER} ${JAVA_INTP_OPTS} -cp ${CLASSPATH} ${ZEPPELIN_SERVER} ${PORT} &
+    ${ZEPPELIN_RUNNER} ${JAVA_INTP_OPTS} -cp ${CLASSPATH} ${ZEPPELIN_SERVER} ${PORT} ${CALLBACK_PORT} ${SERVER_TYPE} ${WORKER_THREADS} ${ANGULAR_OBJECT_UPDATE_WINDOW} &
 fi
 
 pid=$!
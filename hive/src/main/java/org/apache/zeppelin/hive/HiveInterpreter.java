@@ -20,18 +20,25 @@ package org.apache.zeppelin.hive;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Callable;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.zeppelin.interpreter.Interpreter;
 import org.apache.zeppelin.interpreter.InterpreterContext;
+import org.apache.zeppelin.interpreter.InterpreterOutput;
 import org.apache.zeppelin.interpreter.InterpreterPropertyBuilder;
 import org.apache.zeppelin.interpreter.InterpreterResult;
 import org.apache.zeppelin.interpreter.InterpreterResult.Code;
+import org.apache.zeppelin.interpreter.jdbc.JdbcConnectionPool;
+import org.apache.zeppelin.interpreter.jdbc.JdbcConnectionProvider;
+import org.apache.zeppelin.interpreter.jdbc.JdbcExecutor;
+import org.apache.zeppelin.interpreter.jdbc.QueryResultCache;
+import org.apache.zeppelin.interpreter.jdbc.StatementCallback;
+import org.apache.zeppelin.interpreter.jdbc.TableRowEncoder;
 import org.apache.zeppelin.scheduler.Scheduler;
 import org.apache.zeppelin.scheduler.SchedulerFactory;
 import org.slf4j.Logger;
@@ -39,32 +46,63 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Hive interpreter for Zeppelin.
+ *
+ * By default all paragraphs run one at a time on a single connection, so session state
+ * such as USE db, SET hive.* or temporary functions carries over from one paragraph to the
+ * next. The connection is reopened when it breaks, which starts a new session.
+ * With hive.pool.enabled, paragraphs run on pooled connections, concurrently when
+ * hive.concurrent.max > 1, and do not see the session state set by other paragraphs.
  */
 public class HiveInterpreter extends Interpreter {
   Logger logger = LoggerFactory.getLogger(HiveInterpreter.class);
   int commandTimeOut = 600000;
 
+  static final String HIVE_PREFIX = "hive";
   static final String HIVESERVER_URL = "hive.hiveserver2.url";
   static final String HIVESERVER_USER = "hive.hiveserver2.user";
   static final String HIVESERVER_PASSWORD = "hive.hiveserver2.password";
+  static final String HIVE_FETCH_SIZE = "hive.fetch.size";
+  static final String HIVE_MAX_RESULT = "hive.max.result";
+  static final String HIVE_POOL_ENABLED = "hive.pool.enabled";
+
+  static final String DEFAULT_FETCH_SIZE = "1000";
+  static final String DEFAULT_MAX_RESULT = "0";
+  static final String DEFAULT_POOL_ENABLED = "false";
+
+  static final String EXPLAIN_PREDICATE = "EXPLAIN ";
+  static final String TABLE_MAGIC_TAG = "%table ";
+  static final String NULL_VALUE = "null";
 
   static {
     Interpreter.register(
       "hql",
       "hive",
       HiveInterpreter.class.getName(),
-      new InterpreterPropertyBuilder()
+      QueryResultCache.addProperties(
+          JdbcExecutor.addProperties(new InterpreterPropertyBuilder(), HIVE_PREFIX), HIVE_PREFIX)
         .add(HIVESERVER_URL, "jdbc:hive2://localhost:10000", "The URL for HiveServer2.")
         .add(HIVESERVER_USER, "hive", "The hive user")
-        .add(HIVESERVER_PASSWORD, "", "The password for the hive user").build());
+        .add(HIVESERVER_PASSWORD, "", "The password for the hive user")
+        .add(HIVE_FETCH_SIZE, DEFAULT_FETCH_SIZE,
+            "Number of rows fetched from HiveServer2 per round trip. "
+            + "Rows are shown in the paragraph as soon as each batch arrives.")
+        .add(HIVE_MAX_RESULT, DEFAULT_MAX_RESULT,
+            "Max number of result rows to display. 0 displays all rows.")
+        .add(HIVE_POOL_ENABLED, DEFAULT_POOL_ENABLED,
+            "Run paragraphs on pooled connections. They don't share session state "
+            + "(USE, SET, temporary functions). false runs all paragraphs one by one "
+            + "on a single connection.")
+        .build());
   }
 
   public HiveInterpreter(Properties property) {
     super(property);
   }
 
-  Connection jdbcConnection;
+  JdbcExecutor jdbcExecutor;
+  QueryResultCache resultCache;
   Exception exceptionOnConnect;
+  private final TableRowEncoder rowEncoder = new TableRowEncoder(NULL_VALUE);
 
   //Test only method
   public Connection getJdbcConnection()
@@ -88,7 +126,7 @@ public class HiveInterpreter extends Interpreter {
       return;
     }
     try {
-      jdbcConnection = getJdbcConnection();
+      getJdbcExecutor().getPool().prepare();
       exceptionOnConnect = null;
       logger.info("Successfully created Jdbc connection");
     }
@@ -98,66 +136,113 @@ public class HiveInterpreter extends Interpreter {
     }
   }
 
+  /**
+   * Connect again when open() could not connect, e.g. HiveServer2 was down.
+   * @return false when still not connected. exceptionOnConnect tells why
+   */
+  private boolean reconnect() {
+    if (!(exceptionOnConnect instanceof SQLException)) {
+      return false;
+    }
+    try {
+      getJdbcExecutor().getPool().prepare();
+      exceptionOnConnect = null;
+      return true;
+    }
+    catch (SQLException e) {
+      logger.error("Cannot open connection", e);
+      exceptionOnConnect = e;
+      return false;
+    }
+  }
+
+  boolean isPoolEnabled() {
+    String value = getProperty(HIVE_POOL_ENABLED);
+    return Boolean.parseBoolean(value == null ? DEFAULT_POOL_ENABLED : value.trim());
+  }
+
   @Override
   public void close() {
     try {
-      if (jdbcConnection != null) {
-        jdbcConnection.close();
+      if (jdbcExecutor != null) {
+        jdbcExecutor.close();
       }
     }
-    catch (SQLException e) {
+    catch (Exception e) {
       logger.error("Cannot close connection", e);
     }
     finally {
-      jdbcConnection = null;
+      jdbcExecutor = null;
+      if (resultCache != null) {
+        resultCache.close();
+      }
+      resultCache = null;
       exceptionOnConnect = null;
     }
   }
 
-  Statement currentStatement;
-  private InterpreterResult executeSql(String sql) {
-    try {
-      if (exceptionOnConnect != null) {
-        return new InterpreterResult(Code.ERROR, exceptionOnConnect.getMessage());
+  synchronized QueryResultCache getResultCache() {
+    if (resultCache == null) {
+      resultCache = QueryResultCache.create(this, HIVE_PREFIX);
+    }
+    return resultCache;
+  }
+
+  synchronized JdbcExecutor getJdbcExecutor() {
+    if (jdbcExecutor == null) {
+      JdbcConnectionProvider provider = new JdbcConnectionProvider() {
+        @Override
+        public Connection getConnection() throws SQLException {
+          return getJdbcConnection();
+        }
+      };
+      if (isPoolEnabled()) {
+        jdbcExecutor = JdbcExecutor.create(this, HIVE_PREFIX, provider);
+      } else {
+        // a pool of one connection kept open keeps the session, and still
+        // replaces the connection when it breaks
+        jdbcExecutor = new JdbcExecutor(new JdbcConnectionPool(provider, 1, 1,
+            JdbcExecutor.getIntProperty(this, HIVE_PREFIX + JdbcExecutor.POOL_MAX_WAIT,
+                JdbcExecutor.DEFAULT_POOL_MAX_WAIT),
+            getProperty(HIVE_PREFIX + JdbcExecutor.POOL_VALIDATION_QUERY)));
       }
-      currentStatement = jdbcConnection.createStatement();
-      StringBuilder msg = null;
-      if (StringUtils.containsIgnoreCase(sql, "EXPLAIN ")) {
-        //return the explain as text, make this visual explain later
-        msg = new StringBuilder();
+    }
+    return jdbcExecutor;
+  }
+
+  private InterpreterResult executeSql(final String sql, final InterpreterContext context) {
+    return getResultCache().execute(context, sql, new Callable<InterpreterResult>() {
+      @Override
+      public InterpreterResult call() {
+        return executeQuery(sql, context);
       }
-      else {
-        msg = new StringBuilder("%table ");
+    });
+  }
+
+  private InterpreterResult executeQuery(final String sql, final InterpreterContext context) {
+    try {
+      if (exceptionOnConnect != null && !reconnect()) {
+        return new InterpreterResult(Code.ERROR, exceptionOnConnect.getMessage());
       }
-      ResultSet res = currentStatement.executeQuery(sql);
-      try {
-        ResultSetMetaData md = res.getMetaData();
-        for (int i = 1; i < md.getColumnCount() + 1; i++) {
-          if (i == 1) {
-            msg.append(md.getColumnName(i));
-          } else {
-            msg.append("\t" + md.getColumnName(i));
+      final int fetchSize = JdbcExecutor.getIntProperty(this, HIVE_FETCH_SIZE, DEFAULT_FETCH_SIZE);
+      final int maxResult = JdbcExecutor.getIntProperty(this, HIVE_MAX_RESULT, DEFAULT_MAX_RESULT);
+
+      String msg = getJdbcExecutor().execute(context, new StatementCallback<String>() {
+        @Override
+        public String doInStatement(Statement statement) throws SQLException {
+          if (fetchSize > 0) {
+            statement.setFetchSize(fetchSize);
           }
-        }
-        msg.append("\n");
-        while (res.next()) {
-          for (int i = 1; i < md.getColumnCount() + 1; i++) {
-            msg.append(res.getString(i) + "\t");
+          if (maxResult > 0) {
+            // one more row tells whether the result is limited
+            statement.setMaxRows(maxResult + 1);
           }
-          msg.append("\n");
+          return toMessage(sql, statement.executeQuery(sql), fetchSize, maxResult,
+              context == null ? null : context.getOut());
         }
-      }
-      finally {
-        try {
-          res.close();
-          currentStatement.close();
-        }
-        finally {
-          currentStatement = null;
-        }
-      }
+      });
 
-      InterpreterResult rett = new InterpreterResult(Code.SUCCESS, msg.toString());
+      InterpreterResult rett = new InterpreterResult(Code.SUCCESS, msg);
       return rett;
     }
     catch (SQLException ex) {
@@ -166,23 +251,55 @@ public class HiveInterpreter extends Interpreter {
     }
   }
 
+  /**
+   * Encodes the result set. Every fetchSize rows, the rows encoded so far are
+   * written to out, so the paragraph shows them while the remaining rows are fetched.
+   * The first write starts with the %table tag, so the partial output renders as a table.
+   */
+  String toMessage(String sql, ResultSet res, int fetchSize, int maxResult,
+                   InterpreterOutput out) throws SQLException {
+    StringBuilder msg = null;
+    if (StringUtils.containsIgnoreCase(sql, EXPLAIN_PREDICATE)) {
+      //return the explain as text, make this visual explain later
+      msg = new StringBuilder();
+    }
+    else {
+      msg = new StringBuilder(TABLE_MAGIC_TAG);
+    }
+    boolean table = msg.length() > 0;
+    int flushed = 0;
+    try {
+      int columnCount = rowEncoder.appendHeader(msg, res.getMetaData());
+      int rowCount = 0;
+      while ((maxResult <= 0 || rowCount < maxResult) && res.next()) {
+        rowEncoder.appendRow(msg, res, columnCount);
+        rowCount++;
+        if (out != null && fetchSize > 0 && rowCount % fetchSize == 0) {
+          out.write(msg.substring(flushed));
+          flushed = msg.length();
+        }
+      }
+      if (table && maxResult > 0 && rowCount == maxResult && res.next()) {
+        msg.append("\n<font color=red>Results are limited by ").append(maxResult)
+            .append(".</font>");
+      }
+    }
+    finally {
+      res.close();
+    }
+    return msg.toString();
+  }
+
   @Override
   public InterpreterResult interpret(String cmd, InterpreterContext contextInterpreter) {
     logger.info("Run SQL command '" + cmd + "'");
-    return executeSql(cmd);
+    return executeSql(cmd, contextInterpreter);
   }
 
   @Override
   public void cancel(InterpreterContext context) {
-    if (currentStatement != null) {
-      try {
-        currentStatement.cancel();
-      }
-      catch (SQLException ex) {
-      }
-      finally {
-        currentStatement = null;
-      }
+    if (jdbcExecutor != null) {
+      jdbcExecutor.cancel(context);
     }
   }
 
@@ -198,7 +315,11 @@ public class HiveInterpreter extends Interpreter {
 
   @Override
   public Scheduler getScheduler() {
-    return SchedulerFactory.singleton().createOrGetFIFOScheduler(
+    if (!isPoolEnabled()) {
+      return SchedulerFactory.singleton().createOrGetFIFOScheduler(
+          HiveInterpreter.class.getName() + this.hashCode());
+    }
+    return JdbcExecutor.getScheduler(this, HIVE_PREFIX,
         HiveInterpreter.class.getName() + this.hashCode());
   }
 
@@ -25,12 +25,17 @@ import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.*;
 import java.util.Calendar;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Executor;
 
 import org.apache.zeppelin.interpreter.InterpreterContext;
+import org.apache.zeppelin.interpreter.InterpreterOutput;
+import org.apache.zeppelin.interpreter.InterpreterOutputListener;
 import org.apache.zeppelin.interpreter.InterpreterResult;
+import org.apache.zeppelin.interpreter.jdbc.JdbcExecutor;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -61,6 +66,160 @@ public class HiveInterpreterTest {
     assertEquals(result.type(), InterpreterResult.Type.TEXT);
     t.close();
   }
+
+  @Test
+  public void testRowsAreStreamedPerFetch() throws SQLException {
+    HiveInterpreter t = new MockHiveInterpreter(new Properties());
+    final List<String> chunks = new LinkedList<String>();
+    InterpreterOutput out = new InterpreterOutput(new InterpreterOutputListener() {
+      @Override
+      public void onAppend(InterpreterOutput out, String output) {
+        chunks.add(output);
+      }
+    });
+
+    String msg = t.toMessage("select * from t", new RowsResultSet(5), 2, 0, out);
+
+    assertEquals("%table a\tb\n0\tv 0\n1\tnull\n2\tv2\n3\tnull\n4\tv4\n", msg);
+    assertEquals(2, chunks.size());
+    assertEquals("%table a\tb\n0\tv 0\n1\tnull\n", chunks.get(0));
+    assertEquals("2\tv2\n3\tnull\n", chunks.get(1));
+  }
+
+  @Test
+  public void testMaxResult() throws SQLException {
+    HiveInterpreter t = new MockHiveInterpreter(new Properties());
+    String msg = t.toMessage("select * from t", new RowsResultSet(5), 0, 2, null);
+    assertEquals("%table a\tb\n0\tv 0\n1\tnull\n\n"
+        + "<font color=red>Results are limited by 2.</font>", msg);
+  }
+
+  @Test
+  public void testMaxResultNotReached() throws SQLException {
+    HiveInterpreter t = new MockHiveInterpreter(new Properties());
+    String msg = t.toMessage("select * from t", new RowsResultSet(2), 0, 2, null);
+    assertEquals("%table a\tb\n0\tv 0\n1\tnull\n", msg);
+  }
+
+  @Test
+  public void testAllRowsByDefault() throws SQLException {
+    HiveInterpreter t = new MockHiveInterpreter(new Properties());
+    int maxResult = JdbcExecutor.getIntProperty(t, HiveInterpreter.HIVE_MAX_RESULT,
+        HiveInterpreter.DEFAULT_MAX_RESULT);
+    String msg = t.toMessage("select * from t", new RowsResultSet(2000), 0, maxResult, null);
+    assertEquals(2001, msg.split("\n").length);
+  }
+
+  @Test
+  public void testNullContext() {
+    HiveInterpreter t = new MockHiveInterpreter(new Properties());
+    t.open();
+    InterpreterResult result = t.interpret("select * from t", null);
+    assertEquals(InterpreterResult.Code.SUCCESS, result.code());
+    assertEquals(0, t.getJdbcExecutor().getPool().getNumActive());
+    t.close();
+  }
+
+  @Test
+  public void testParagraphsShareOneConnectionByDefault() {
+    CountingHiveInterpreter t = new CountingHiveInterpreter(new Properties());
+    t.open();
+    t.interpret("use db", null);
+    t.interpret("select * from t", null);
+    assertEquals(1, t.connections);
+    assertEquals(1, t.getJdbcExecutor().getPool().getMaxTotal());
+    t.close();
+  }
+
+  @Test
+  public void testPoolEnabled() {
+    Properties p = new Properties();
+    p.setProperty(HiveInterpreter.HIVE_POOL_ENABLED, "true");
+    HiveInterpreter t = new MockHiveInterpreter(p);
+    t.open();
+    assertEquals(Integer.parseInt(JdbcExecutor.DEFAULT_POOL_MAX_TOTAL),
+        t.getJdbcExecutor().getPool().getMaxTotal());
+    t.close();
+  }
+
+  @Test
+  public void testConnectionFailureOnOpen() {
+    CountingHiveInterpreter t = new CountingHiveInterpreter(new Properties());
+    t.fail = true;
+    t.open();
+    InterpreterResult result = t.interpret("select * from t", null);
+    assertEquals(InterpreterResult.Code.ERROR, result.code());
+    assertEquals("HiveServer2 is down", result.message());
+
+    // connects again once the server is back
+    t.fail = false;
+    result = t.interpret("select * from t", null);
+    assertEquals(InterpreterResult.Code.SUCCESS, result.code());
+    t.close();
+  }
+}
+
+class CountingHiveInterpreter extends HiveInterpreter {
+  int connections;
+  boolean fail;
+
+  public CountingHiveInterpreter(Properties property) {
+    super(property);
+  }
+
+  @Override
+  public Connection getJdbcConnection() throws SQLException {
+    if (fail) {
+      throw new SQLException("HiveServer2 is down");
+    }
+    connections++;
+    return new MockConnection();
+  }
+}
+
+/**
+ * Two columns (a, b). Row i has a = i and b = "v" + i for even rows, null otherwise.
+ * The b value of the first row contains a tab.
+ */
+class RowsResultSet extends MockResultSet {
+  private final int rows;
+  private int current = -1;
+
+  public RowsResultSet(int rows) {
+    this.rows = rows;
+  }
+
+  @Override
+  public boolean next() throws SQLException {
+    current++;
+    return current < rows;
+  }
+
+  @Override
+  public String getString(int columnIndex) throws SQLException {
+    if (columnIndex == 1) {
+      return String.valueOf(current);
+    }
+    if (current % 2 != 0) {
+      return null;
+    }
+    return current == 0 ? "v\t0" : "v" + current;
+  }
+
+  @Override
+  public ResultSetMetaData getMetaData() throws SQLException {
+    return new MockResultSetMetadata() {
+      @Override
+      public int getColumnCount() throws SQLException {
+        return 2;
+      }
+
+      @Override
+      public String getColumnName(int column) throws SQLException {
+        return column == 1 ? "a" : "b";
+      }
+    };
+  }
 }
 
 class MockHiveInterpreter extends HiveInterpreter {
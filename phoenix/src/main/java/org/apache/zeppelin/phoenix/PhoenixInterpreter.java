@@ -25,6 +25,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Callable;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.zeppelin.interpreter.Interpreter;
@@ -32,8 +33,12 @@ import org.apache.zeppelin.interpreter.InterpreterContext;
 import org.apache.zeppelin.interpreter.InterpreterPropertyBuilder;
 import org.apache.zeppelin.interpreter.InterpreterResult;
 import org.apache.zeppelin.interpreter.InterpreterResult.Code;
+import org.apache.zeppelin.interpreter.jdbc.JdbcConnectionProvider;
+import org.apache.zeppelin.interpreter.jdbc.JdbcExecutor;
+import org.apache.zeppelin.interpreter.jdbc.JdbcScriptRunner;
+import org.apache.zeppelin.interpreter.jdbc.QueryResultCache;
+import org.apache.zeppelin.interpreter.jdbc.SqlStatementCallback;
 import org.apache.zeppelin.scheduler.Scheduler;
-import org.apache.zeppelin.scheduler.SchedulerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,6 +56,7 @@ public class PhoenixInterpreter extends Interpreter {
   private static final String TAB = "\t";
   private static final String TABLE_MAGIC_TAG = "%table ";
 
+  static final String PHOENIX_PREFIX = "phoenix";
   static final String PHOENIX_JDBC_URL = "phoenix.jdbc.url";
   static final String PHOENIX_JDBC_USER = "phoenix.user";
   static final String PHOENIX_JDBC_PASSWORD = "phoenix.password";
@@ -63,8 +69,9 @@ public class PhoenixInterpreter extends Interpreter {
   static final String DEFAULT_MAX_RESULT = "1000";
   static final String DEFAULT_JDBC_DRIVER_NAME = "org.apache.phoenix.jdbc.PhoenixDriver";
 
-  private Connection jdbcConnection;
-  private Statement currentStatement;
+  private JdbcExecutor jdbcExecutor;
+  private JdbcScriptRunner scriptRunner;
+  private QueryResultCache resultCache;
   private Exception exceptionOnConnect;
   private int maxResult;
 
@@ -73,7 +80,11 @@ public class PhoenixInterpreter extends Interpreter {
       "sql",
       "phoenix",
       PhoenixInterpreter.class.getName(),
-      new InterpreterPropertyBuilder()
+      QueryResultCache.addProperties(
+          JdbcScriptRunner.addProperties(
+              JdbcExecutor.addProperties(new InterpreterPropertyBuilder(), PHOENIX_PREFIX),
+              PHOENIX_PREFIX),
+          PHOENIX_PREFIX)
         .add(PHOENIX_JDBC_URL, DEFAULT_JDBC_URL, "Phoenix JDBC connection string")
         .add(PHOENIX_JDBC_USER, DEFAULT_JDBC_USER, "The Phoenix user")
         .add(PHOENIX_JDBC_PASSWORD, DEFAULT_JDBC_PASSWORD, "The password for the Phoenix user")
@@ -94,19 +105,22 @@ public class PhoenixInterpreter extends Interpreter {
 
     try {
       Class.forName(getProperty(PHOENIX_JDBC_DRIVER_NAME));
-
       maxResult = Integer.valueOf(getProperty(PHOENIX_MAX_RESULT));
-      jdbcConnection = DriverManager.getConnection(
-        getProperty(PHOENIX_JDBC_URL),
-        getProperty(PHOENIX_JDBC_USER),
-        getProperty(PHOENIX_JDBC_PASSWORD)
-      );
-      exceptionOnConnect = null;
-      logger.info("Successfully created Jdbc connection");
     }
-    catch (ClassNotFoundException | SQLException e) {
+    catch (ClassNotFoundException e) {
       logger.error("Cannot open connection", e);
       exceptionOnConnect = e;
+      return;
+    }
+
+    exceptionOnConnect = null;
+    try {
+      getJdbcExecutor().getPool().prepare();
+      logger.info("Successfully created Jdbc connection");
+    }
+    catch (SQLException e) {
+      // the pool retries on the next query
+      logger.error("Cannot open connection", e);
     }
   }
 
@@ -115,95 +129,123 @@ public class PhoenixInterpreter extends Interpreter {
     logger.info("Jdbc close connection called!");
 
     try {
-      if (getJdbcConnection() != null) {
-        getJdbcConnection().close();
+      if (jdbcExecutor != null) {
+        jdbcExecutor.close();
       }
-    } catch (SQLException e) {
+    } catch (Exception e) {
       logger.error("Cannot close connection", e);
     }
     finally {
+      jdbcExecutor = null;
+      if (resultCache != null) {
+        resultCache.close();
+      }
+      resultCache = null;
+      scriptRunner = null;
       exceptionOnConnect = null;
     }
   }
 
+  private synchronized QueryResultCache getResultCache() {
+    if (resultCache == null) {
+      resultCache = QueryResultCache.create(this, PHOENIX_PREFIX);
+    }
+    return resultCache;
+  }
+
+  private synchronized JdbcExecutor getJdbcExecutor() {
+    if (jdbcExecutor == null) {
+      jdbcExecutor = JdbcExecutor.create(this, PHOENIX_PREFIX, new JdbcConnectionProvider() {
+        @Override
+        public Connection getConnection() throws SQLException {
+          return getJdbcConnection();
+        }
+      });
+    }
+    return jdbcExecutor;
+  }
+
+  private synchronized JdbcScriptRunner getScriptRunner() {
+    if (scriptRunner == null) {
+      scriptRunner = JdbcScriptRunner.create(this, PHOENIX_PREFIX, getJdbcExecutor());
+    }
+    return scriptRunner;
+  }
+
   private String clean(boolean isExplain, String str){
     return (isExplain || str == null) ? str : str.replace(TAB, WS).replace(NEWLINE, WS);  
   }
 
-  private InterpreterResult executeSql(String sql) {
-    try {
-      if (exceptionOnConnect != null) {
-        return new InterpreterResult(Code.ERROR, exceptionOnConnect.getMessage());
-      }
+  private InterpreterResult executeSql(final String sql, final InterpreterContext context) {
+    if (exceptionOnConnect != null) {
+      return new InterpreterResult(Code.ERROR, exceptionOnConnect.getMessage());
+    }
 
-      currentStatement = getJdbcConnection().createStatement();
+    return getResultCache().execute(context, sql, new Callable<InterpreterResult>() {
+      @Override
+      public InterpreterResult call() {
+        return getScriptRunner().run(context, sql, new SqlStatementCallback() {
+          @Override
+          public String doInStatement(String sql, Statement statement) throws SQLException {
+            return executeStatement(sql, statement);
+          }
+        });
+      }
+    });
+  }
 
-      boolean isExplain = StringUtils.containsIgnoreCase(sql, EXPLAIN_PREDICATE);
-      StringBuilder msg = (isExplain) ? new StringBuilder() : new StringBuilder(TABLE_MAGIC_TAG);
+  private String executeStatement(String sql, Statement statement) throws SQLException {
+    boolean isExplain = StringUtils.containsIgnoreCase(sql, EXPLAIN_PREDICATE);
+    StringBuilder msg = (isExplain) ? new StringBuilder() : new StringBuilder(TABLE_MAGIC_TAG);
 
-      ResultSet res = null;
-      try {
-        boolean hasResult = currentStatement.execute(sql);
-        if (hasResult){ //If query had results
-          res = currentStatement.getResultSet();
-          //Append column names
-          ResultSetMetaData md = res.getMetaData();
-          String row = clean(isExplain, md.getColumnName(1));
+    ResultSet res = null;
+    try {
+      boolean hasResult = statement.execute(sql);
+      if (hasResult){ //If query had results
+        res = statement.getResultSet();
+        //Append column names
+        ResultSetMetaData md = res.getMetaData();
+        String row = clean(isExplain, md.getColumnName(1));
+        for (int i = 2; i < md.getColumnCount() + 1; i++)
+          row += TAB + clean(isExplain, md.getColumnName(i));
+        msg.append(row + NEWLINE);
+
+        //Append rows
+        int rowCount = 0;
+        while (res.next() && rowCount < getMaxResult()) {
+          row = clean(isExplain, res.getString(1));
           for (int i = 2; i < md.getColumnCount() + 1; i++)
-            row += TAB + clean(isExplain, md.getColumnName(i));
+            row += TAB + clean(isExplain, res.getString(i));
           msg.append(row + NEWLINE);
-
-          //Append rows
-          int rowCount = 0;
-          while (res.next() && rowCount < getMaxResult()) {
-            row = clean(isExplain, res.getString(1));
-            for (int i = 2; i < md.getColumnCount() + 1; i++)
-              row += TAB + clean(isExplain, res.getString(i));
-            msg.append(row + NEWLINE);
-            rowCount++;
-          }
-        }
-        else { // May have been upsert or DDL
-          msg.append(UPDATE_HEADER + NEWLINE +
-            "Rows affected: " + currentStatement.getUpdateCount()
-            + NEWLINE);
-        }
-
-      } finally {
-        try {
-          if (res != null) res.close();
-          getJdbcConnection().commit();
-          currentStatement.close();
-        } finally {
-          currentStatement = null;
+          rowCount++;
         }
       }
+      else { // May have been upsert or DDL
+        msg.append(UPDATE_HEADER + NEWLINE +
+          "Rows affected: " + statement.getUpdateCount()
+          + NEWLINE);
+      }
 
-      return new InterpreterResult(Code.SUCCESS, msg.toString());
-    }
-    catch (SQLException ex) {
-      logger.error("Can not run " + sql, ex);
-      return new InterpreterResult(Code.ERROR, ex.getMessage());
+    } finally {
+      if (res != null) res.close();
+      statement.getConnection().commit();
     }
+
+    return msg.toString();
   }
 
   @Override
   public InterpreterResult interpret(String cmd, InterpreterContext contextInterpreter) {
     logger.info("Run SQL command '" + cmd + "'");
-    return executeSql(cmd);
+    return executeSql(cmd, contextInterpreter);
   }
 
   @Override
   public void cancel(InterpreterContext context) {
-    if (currentStatement != null) {
-      try {
-        currentStatement.cancel();
-      }
-      catch (SQLException ex) {
-      }
-      finally {
-        currentStatement = null;
-      }
+    if (scriptRunner != null) {
+      scriptRunner.cancel(context);
+    } else if (jdbcExecutor != null) {
+      jdbcExecutor.cancel(context);
     }
   }
 
@@ -219,7 +261,7 @@ public class PhoenixInterpreter extends Interpreter {
 
   @Override
   public Scheduler getScheduler() {
-    return SchedulerFactory.singleton().createOrGetFIFOScheduler(
+    return JdbcExecutor.getScheduler(this, PHOENIX_PREFIX,
         PhoenixInterpreter.class.getName() + this.hashCode());
   }
 
@@ -228,8 +270,12 @@ public class PhoenixInterpreter extends Interpreter {
     return null;
   }
 
-  public Connection getJdbcConnection() {
-    return jdbcConnection;
+  public Connection getJdbcConnection() throws SQLException {
+    return DriverManager.getConnection(
+      getProperty(PHOENIX_JDBC_URL),
+      getProperty(PHOENIX_JDBC_USER),
+      getProperty(PHOENIX_JDBC_PASSWORD)
+    );
   }
 
   public int getMaxResult() {
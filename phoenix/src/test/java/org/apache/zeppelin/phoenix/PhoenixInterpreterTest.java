@@ -20,17 +20,25 @@ package org.apache.zeppelin.phoenix;
 import static org.apache.zeppelin.phoenix.PhoenixInterpreter.*;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
 
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 import org.apache.zeppelin.interpreter.InterpreterResult;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.mockito.Matchers;
 import org.mockito.Mockito;
 
@@ -47,7 +55,7 @@ public class PhoenixInterpreterTest extends BasicJDBCTestCaseAdapter {
   private MockResultSet result = null;
 
   @Before
-  public void beforeTest() {
+  public void beforeTest() throws SQLException {
     MockConnection connection = getJDBCMockObjectFactory().getMockConnection();
 
     StatementResultSetHandler statementHandler = connection.getStatementResultSetHandler();
@@ -62,18 +70,33 @@ public class PhoenixInterpreterTest extends BasicJDBCTestCaseAdapter {
     properties.put(PHOENIX_MAX_RESULT, DEFAULT_MAX_RESULT);
 
     phoenixInterpreter = spy(new PhoenixInterpreter(properties));
-    when(phoenixInterpreter.getJdbcConnection()).thenReturn(connection);
+    doReturn(connection).when(phoenixInterpreter).getJdbcConnection();
   }
 
   @Test
   public void testOpenCommandIdempotency() throws SQLException {
     // Ensure that an attempt to open new connection will clean any remaining connections
+    final List<Connection> connections = new ArrayList<Connection>();
+    doAnswer(new Answer<Connection>() {
+      @Override
+      public Connection answer(InvocationOnMock invocation) {
+        Connection connection = new MockConnection();
+        connections.add(connection);
+        return connection;
+      }
+    }).when(phoenixInterpreter).getJdbcConnection();
+
     phoenixInterpreter.open();
     phoenixInterpreter.open();
     phoenixInterpreter.open();
 
     verify(phoenixInterpreter, times(3)).open();
     verify(phoenixInterpreter, times(3)).close();
+
+    assertEquals(3, connections.size());
+    assertTrue(connections.get(0).isClosed());
+    assertTrue(connections.get(1).isClosed());
+    assertFalse(connections.get(2).isClosed());
   }
 
   @Test
@@ -93,11 +116,7 @@ public class PhoenixInterpreterTest extends BasicJDBCTestCaseAdapter {
   @Test
   public void testConnectionClose() throws SQLException {
 
-    PhoenixInterpreter phoenixInterpreter = spy(new PhoenixInterpreter(new Properties()));
-
-    when(phoenixInterpreter.getJdbcConnection()).thenReturn(
-        getJDBCMockObjectFactory().getMockConnection());
-
+    phoenixInterpreter.open();
     phoenixInterpreter.close();
 
     verifyAllResultSetsClosed();
@@ -110,8 +129,8 @@ public class PhoenixInterpreterTest extends BasicJDBCTestCaseAdapter {
 
     PhoenixInterpreter phoenixInterpreter = spy(new PhoenixInterpreter(new Properties()));
 
-    when(phoenixInterpreter.getJdbcConnection()).thenReturn(
-        getJDBCMockObjectFactory().getMockConnection());
+    doReturn(getJDBCMockObjectFactory().getMockConnection()).when(phoenixInterpreter)
+        .getJdbcConnection();
 
     phoenixInterpreter.cancel(null);
 
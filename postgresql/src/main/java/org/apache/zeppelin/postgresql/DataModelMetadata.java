@@ -0,0 +1,374 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.zeppelin.postgresql;
+
+import static org.apache.commons.lang.StringUtils.isBlank;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Pattern;
+
+import org.apache.zeppelin.interpreter.jdbc.JdbcExecutor;
+import org.apache.zeppelin.scheduler.ExecutorFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Table, column and schema names of a database, used for SQL completion.
+ *
+ * Names are read per schema on a background thread, so neither opening the interpreter
+ * nor running a DDL statement waits for the metadata walk. A refresh re-reads only the
+ * requested schemas, and all names are then swapped in as one {@link CompletionIndex}.
+ * Names older than the TTL are refreshed on the next use.
+ *
+ * One instance is shared by all PostgreSqlInterpreter instances connected to the same
+ * URL as the same user, see {@link #acquire(String, JdbcExecutor)}. Each of them refreshes
+ * the names after its own TTL. Refreshes run on a thread of the instance, so a slow database
+ * does not delay the refreshes of the others, and borrow a connection of an interpreter that
+ * still holds the instance.
+ */
+public class DataModelMetadata {
+  private static final Logger logger = LoggerFactory.getLogger(DataModelMetadata.class);
+
+  static final String EXECUTOR_NAME = "DataModelMetadataRefresh";
+  /**
+   * Key of the names of tables without schema.
+   */
+  static final String NO_SCHEMA = "";
+
+  private static final Pattern DDL = Pattern.compile("\\s*(CREATE|ALTER|DROP|RENAME)\\b",
+      Pattern.CASE_INSENSITIVE);
+
+  private static final Map<String, DataModelMetadata> shared =
+      new HashMap<String, DataModelMetadata>();
+
+  private final String key;
+  private int references;
+  // executors of the interpreters holding the instance
+  private final List<JdbcExecutor> executors = new LinkedList<JdbcExecutor>();
+  private final ExecutorService refreshExecutor;
+
+  private final Map<String, String[]> schemaNames = new ConcurrentHashMap<String, String[]>();
+  private volatile CompletionIndex index = CompletionIndex.EMPTY;
+  private volatile long lastRefresh = -1;
+  private boolean refreshing;
+  // refresh requested while one runs. null for none
+  private Set<String> pendingSchemas;
+  private JdbcExecutor pendingExecutor;
+
+  DataModelMetadata(String key) {
+    this.key = key;
+    refreshExecutor = ExecutorFactory.singleton().createOrGet(executorName(key), 1);
+  }
+
+  private static String executorName(String key) {
+    return EXECUTOR_NAME + "|" + key;
+  }
+
+  /**
+   * Get the metadata shared for the key (URL and user), creating it if needed.
+   * Every call must be paired with {@link #release(DataModelMetadata, JdbcExecutor)}.
+   *
+   * @param executor executor of the interpreter, used to refresh the names until released
+   */
+  public static DataModelMetadata acquire(String key, JdbcExecutor executor) {
+    synchronized (shared) {
+      DataModelMetadata metadata = shared.get(key);
+      if (metadata == null) {
+        metadata = new DataModelMetadata(key);
+        shared.put(key, metadata);
+      }
+      metadata.references++;
+      synchronized (metadata) {
+        metadata.executors.add(executor);
+      }
+      return metadata;
+    }
+  }
+
+  /**
+   * Release the metadata. Call before closing the executor.
+   */
+  public static void release(DataModelMetadata metadata, JdbcExecutor executor) {
+    synchronized (shared) {
+      synchronized (metadata) {
+        metadata.executors.remove(executor);
+      }
+      metadata.references--;
+      if (metadata.references <= 0 && shared.get(metadata.key) == metadata) {
+        shared.remove(metadata.key);
+        // a running refresh completes, later ones are rejected
+        ExecutorFactory.singleton().shutdown(executorName(metadata.key));
+      }
+    }
+  }
+
+  /**
+   * @return number of acquired references to the metadata shared for the key
+   */
+  static int references(String key) {
+    synchronized (shared) {
+      DataModelMetadata metadata = shared.get(key);
+      return metadata == null ? 0 : metadata.references;
+    }
+  }
+
+  public CompletionIndex getIndex() {
+    return index;
+  }
+
+  public boolean isStale(long ttlMillis) {
+    return lastRefresh < 0 || System.currentTimeMillis() - lastRefresh > ttlMillis;
+  }
+
+  /**
+   * Refresh all schemas in background when the names are older than the TTL.
+   */
+  public void refreshIfStale(JdbcExecutor executor, long ttlMillis) {
+    if (isStale(ttlMillis)) {
+      refresh(executor, null);
+    }
+  }
+
+  /**
+   * Refresh the schemas referenced by a statement which changed the data model.
+   * When the statement does not name a known schema, all schemas are refreshed.
+   */
+  public void refreshAfter(String sql, JdbcExecutor executor) {
+    Set<String> schemas = getReferencedSchemas(sql);
+    refresh(executor, schemas.isEmpty() ? null : schemas);
+  }
+
+  /**
+   * Re-read the names of the given schemas in background, all schemas when null.
+   * When a refresh is already running, the requested schemas are refreshed once it completes.
+   * @return null when a refresh is already running, or the metadata was released
+   */
+  public Future<?> refresh(JdbcExecutor executor, Set<String> schemas) {
+    synchronized (this) {
+      if (refreshing) {
+        pendingSchemas = merge(pendingSchemas, pendingExecutor == null, schemas);
+        pendingExecutor = executor;
+        return null;
+      }
+      refreshing = true;
+    }
+    return submit(executor, schemas);
+  }
+
+  private static Set<String> merge(Set<String> pending, boolean none, Set<String> schemas) {
+    if (none) {
+      return schemas == null ? null : new HashSet<String>(schemas);
+    }
+    if (pending == null || schemas == null) {
+      return null;
+    }
+    pending.addAll(schemas);
+    return pending;
+  }
+
+  private Future<?> submit(final JdbcExecutor requested, final Set<String> schemas) {
+    try {
+      return refreshExecutor.submit(new Runnable() {
+        @Override
+        public void run() {
+          JdbcExecutor executor = liveExecutor(requested);
+          Connection connection = null;
+          try {
+            if (executor != null) {
+              connection = executor.borrowConnection();
+              load(connection, schemas);
+            }
+          } catch (Exception e) {
+            logger.error("Failed to refresh the data model metadata", e);
+          } finally {
+            if (connection != null) {
+              executor.releaseConnection(connection);
+            }
+          }
+          refreshPending();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // released by all interpreters
+      synchronized (this) {
+        refreshing = false;
+        pendingExecutor = null;
+        pendingSchemas = null;
+      }
+      return null;
+    }
+  }
+
+  private void refreshPending() {
+    JdbcExecutor executor;
+    Set<String> schemas;
+    synchronized (this) {
+      executor = pendingExecutor;
+      schemas = pendingSchemas;
+      pendingExecutor = null;
+      pendingSchemas = null;
+      if (executor == null) {
+        refreshing = false;
+        return;
+      }
+    }
+    submit(executor, schemas);
+  }
+
+  /**
+   * @return the requested executor while its interpreter holds the metadata, otherwise the
+   * executor of another holder. null when released by all
+   */
+  private synchronized JdbcExecutor liveExecutor(JdbcExecutor requested) {
+    if (executors.contains(requested)) {
+      return requested;
+    }
+    return executors.isEmpty() ? null : executors.get(0);
+  }
+
+  /**
+   * Read the names of the given schemas, all schemas when null, and swap in the new index.
+   */
+  void load(Connection connection, Set<String> schemas) throws SQLException {
+    long start = System.currentTimeMillis();
+    DatabaseMetaData meta = connection.getMetaData();
+    String catalog = connection.getCatalog();
+
+    Set<String> existingSchemas = getSchemas(meta);
+    boolean allSchemas = schemas == null;
+    if (allSchemas) {
+      schemaNames.keySet().retainAll(existingSchemas);
+      schemas = existingSchemas;
+    }
+
+    for (String schema : schemas) {
+      if (!existingSchemas.contains(schema)) {
+        schemaNames.remove(schema);
+        continue;
+      }
+      schemaNames.put(schema, getTableAndColumnNames(meta, catalog, schema));
+    }
+
+    rebuildIndex();
+    if (allSchemas) {
+      lastRefresh = System.currentTimeMillis();
+    }
+    logger.info("Refreshed data model metadata of {} schemas in {} ms. {} names", schemas.size(),
+        System.currentTimeMillis() - start, index.size());
+  }
+
+  private void rebuildIndex() {
+    int size = 0;
+    for (String[] names : schemaNames.values()) {
+      size += names.length + 1;
+    }
+    List<String> all = new ArrayList<String>(size);
+    for (Map.Entry<String, String[]> entry : schemaNames.entrySet()) {
+      if (!NO_SCHEMA.equals(entry.getKey())) {
+        all.add(entry.getKey() + ".");
+      }
+      for (String name : entry.getValue()) {
+        all.add(name);
+      }
+    }
+    index = CompletionIndex.of(all);
+  }
+
+  /**
+   * True for statements which may change the data model, e.g. CREATE TABLE.
+   */
+  public static boolean isDataModelChange(String sql) {
+    return DDL.matcher(sql).lookingAt();
+  }
+
+  /**
+   * Names of known schemas appearing as {@code schema.} in the statement.
+   */
+  Set<String> getReferencedSchemas(String sql) {
+    Set<String> schemas = new HashSet<String>();
+    String lowerSql = sql.toLowerCase(Locale.ENGLISH);
+    for (String schema : schemaNames.keySet()) {
+      if (!NO_SCHEMA.equals(schema)
+          && lowerSql.contains(schema.toLowerCase(Locale.ENGLISH) + ".")) {
+        schemas.add(schema);
+      }
+    }
+    return schemas;
+  }
+
+  private static Set<String> getSchemas(DatabaseMetaData meta) throws SQLException {
+    Set<String> schemas = new HashSet<String>();
+    ResultSet rs = meta.getSchemas();
+    if (rs == null) {
+      schemas.add(NO_SCHEMA);
+      return schemas;
+    }
+    try {
+      while (rs.next()) {
+        String schema = rs.getString("TABLE_SCHEM");
+        if (!isBlank(schema)) {
+          schemas.add(schema);
+        }
+      }
+    } finally {
+      rs.close();
+    }
+    if (schemas.isEmpty()) {
+      schemas.add(NO_SCHEMA);
+    }
+    return schemas;
+  }
+
+  private static String[] getTableAndColumnNames(DatabaseMetaData meta, String catalog,
+                                                 String schema) throws SQLException {
+    Set<String> names = new TreeSet<String>();
+    ResultSet columns = meta.getColumns(catalog, NO_SCHEMA.equals(schema) ? null : schema,
+        "%", "%");
+    if (columns == null) {
+      return new String[0];
+    }
+    try {
+      while (columns.next()) {
+        String tableName = columns.getString("TABLE_NAME");
+        if (!isBlank(tableName)) {
+          names.add(tableName);
+          String columnName = columns.getString("COLUMN_NAME");
+          if (!isBlank(columnName)) {
+            names.add(columnName);
+          }
+        }
+      }
+    } finally {
+      columns.close();
+    }
+    return names.toArray(new String[names.size()]);
+  }
+}
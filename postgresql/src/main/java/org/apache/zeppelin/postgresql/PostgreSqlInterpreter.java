@@ -26,6 +26,7 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Callable;
 import java.util.Set;
 
 import org.apache.zeppelin.interpreter.Interpreter;
@@ -33,15 +34,17 @@ import org.apache.zeppelin.interpreter.InterpreterContext;
 import org.apache.zeppelin.interpreter.InterpreterPropertyBuilder;
 import org.apache.zeppelin.interpreter.InterpreterResult;
 import org.apache.zeppelin.interpreter.InterpreterResult.Code;
+import org.apache.zeppelin.interpreter.jdbc.JdbcConnectionProvider;
+import org.apache.zeppelin.interpreter.jdbc.JdbcExecutor;
+import org.apache.zeppelin.interpreter.jdbc.JdbcScriptRunner;
+import org.apache.zeppelin.interpreter.jdbc.QueryResultCache;
+import org.apache.zeppelin.interpreter.jdbc.SqlStatementCallback;
 import org.apache.zeppelin.scheduler.Scheduler;
-import org.apache.zeppelin.scheduler.SchedulerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Function;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
-import com.google.common.collect.Sets.SetView;
 
 /**
  * PostgreSQL interpreter for Zeppelin. This interpreter can also be used for accessing HAWQ and
@@ -53,6 +56,14 @@ import com.google.common.collect.Sets.SetView;
  * <li>{@code postgresql.password} - JDBC password..</li>
  * <li>{@code postgresql.driver.name} - JDBC driver name.</li>
  * <li>{@code postgresql.max.result} - Max number of SQL result to display.</li>
+ * <li>{@code postgresql.completer.ttl} - Seconds before the names used for completion are
+ * refreshed in background, see {@link DataModelMetadata}.</li>
+ * <li>{@code postgresql.pool.*} - JDBC connection pool settings, see {@link JdbcExecutor}.</li>
+ * <li>{@code postgresql.concurrent.max} - Number of paragraphs run concurrently.</li>
+ * <li>{@code postgresql.statement.concurrent.max} - Number of SELECT statements of a paragraph
+ * run concurrently, see {@link JdbcScriptRunner}.</li>
+ * <li>{@code postgresql.statement.report} - Show the result of every statement of a paragraph
+ * instead of the last one.</li>
  * </ul>
  * 
  * <p>
@@ -84,11 +95,14 @@ public class PostgreSqlInterpreter extends Interpreter {
   static final String DEFAULT_JDBC_DRIVER_NAME = "org.postgresql.Driver";
   static final String DEFAULT_MAX_RESULT = "1000";
 
+  static final String POSTGRESQL_PREFIX = "postgresql";
   static final String POSTGRESQL_SERVER_URL = "postgresql.url";
   static final String POSTGRESQL_SERVER_USER = "postgresql.user";
   static final String POSTGRESQL_SERVER_PASSWORD = "postgresql.password";
   static final String POSTGRESQL_SERVER_DRIVER_NAME = "postgresql.driver.name";
   static final String POSTGRESQL_SERVER_MAX_RESULT = "postgresql.max.result";
+  static final String POSTGRESQL_COMPLETER_TTL = "postgresql.completer.ttl";
+  static final String DEFAULT_COMPLETER_TTL = "600";
   static final String EMPTY_COLUMN_VALUE = "";
 
   static {
@@ -96,22 +110,32 @@ public class PostgreSqlInterpreter extends Interpreter {
         "sql",
         "psql",
         PostgreSqlInterpreter.class.getName(),
-        new InterpreterPropertyBuilder()
+        QueryResultCache.addProperties(
+            JdbcScriptRunner.addProperties(
+                JdbcExecutor.addProperties(new InterpreterPropertyBuilder(), POSTGRESQL_PREFIX),
+                POSTGRESQL_PREFIX),
+            POSTGRESQL_PREFIX)
             .add(POSTGRESQL_SERVER_URL, DEFAULT_JDBC_URL, "The URL for PostgreSQL.")
             .add(POSTGRESQL_SERVER_USER, DEFAULT_JDBC_USER_NAME, "The PostgreSQL user name")
             .add(POSTGRESQL_SERVER_PASSWORD, DEFAULT_JDBC_USER_PASSWORD,
                 "The PostgreSQL user password")
             .add(POSTGRESQL_SERVER_DRIVER_NAME, DEFAULT_JDBC_DRIVER_NAME, "JDBC Driver Name")
             .add(POSTGRESQL_SERVER_MAX_RESULT, DEFAULT_MAX_RESULT,
-                "Max number of SQL result to display.").build());
+                "Max number of SQL result to display.")
+            .add(POSTGRESQL_COMPLETER_TTL, DEFAULT_COMPLETER_TTL,
+                "Seconds before table and column names used for completion are refreshed. "
+                + "-1 completes keywords only.").build());
   }
 
-  private Connection jdbcConnection;
-  private Statement currentStatement;
+  private JdbcExecutor jdbcExecutor;
+  private JdbcScriptRunner scriptRunner;
+  private QueryResultCache resultCache;
   private Exception exceptionOnConnect;
   private int maxResult;
 
   private SqlCompleter sqlCompleter;
+  private DataModelMetadata dataModel;
+  private long completerTtlMillis;
 
   private static final Function<CharSequence, String> sequenceToStringTransformer =
       new Function<CharSequence, String>() {
@@ -137,16 +161,16 @@ public class PostgreSqlInterpreter extends Interpreter {
     try {
 
       String driverName = getProperty(POSTGRESQL_SERVER_DRIVER_NAME);
-      String url = getProperty(POSTGRESQL_SERVER_URL);
-      String user = getProperty(POSTGRESQL_SERVER_USER);
-      String password = getProperty(POSTGRESQL_SERVER_PASSWORD);
       maxResult = Integer.valueOf(getProperty(POSTGRESQL_SERVER_MAX_RESULT));
 
       Class.forName(driverName);
 
-      jdbcConnection = DriverManager.getConnection(url, user, password);
-
-      sqlCompleter = createSqlCompleter(jdbcConnection);
+      Connection connection = getJdbcExecutor().borrowConnection();
+      try {
+        sqlCompleter = createSqlCompleter(connection);
+      } finally {
+        getJdbcExecutor().releaseConnection(connection);
+      }
 
       exceptionOnConnect = null;
       logger.info("Successfully created psql connection");
@@ -158,15 +182,48 @@ public class PostgreSqlInterpreter extends Interpreter {
     }
   }
 
+  private synchronized QueryResultCache getResultCache() {
+    if (resultCache == null) {
+      resultCache = QueryResultCache.create(this, POSTGRESQL_PREFIX);
+    }
+    return resultCache;
+  }
+
+  private synchronized JdbcExecutor getJdbcExecutor() {
+    if (jdbcExecutor == null) {
+      jdbcExecutor = JdbcExecutor.create(this, POSTGRESQL_PREFIX, new JdbcConnectionProvider() {
+        @Override
+        public Connection getConnection() throws SQLException {
+          return getJdbcConnection();
+        }
+      });
+    }
+    return jdbcExecutor;
+  }
+
+  private synchronized JdbcScriptRunner getScriptRunner() {
+    if (scriptRunner == null) {
+      scriptRunner = JdbcScriptRunner.create(this, POSTGRESQL_PREFIX, getJdbcExecutor());
+    }
+    return scriptRunner;
+  }
+
   private SqlCompleter createSqlCompleter(Connection jdbcConnection) {
 
     SqlCompleter completer = null;
     try {
       Set<String> keywordsCompletions = SqlCompleter.getSqlKeywordsCompletions(jdbcConnection);
-      Set<String> dataModelCompletions =
-          SqlCompleter.getDataModelMetadataCompletions(jdbcConnection);
-      SetView<String> allCompletions = Sets.union(keywordsCompletions, dataModelCompletions);
-      completer = new SqlCompleter(allCompletions, dataModelCompletions);
+
+      int ttl = JdbcExecutor.getIntProperty(this, POSTGRESQL_COMPLETER_TTL, DEFAULT_COMPLETER_TTL);
+      if (ttl >= 0) {
+        // names are shared with the other interpreters connected to the same database
+        completerTtlMillis = ttl * 1000L;
+        dataModel = DataModelMetadata.acquire(
+            getProperty(POSTGRESQL_SERVER_URL) + "|" + getProperty(POSTGRESQL_SERVER_USER),
+            getJdbcExecutor());
+        dataModel.refreshIfStale(getJdbcExecutor(), completerTtlMillis);
+      }
+      completer = new SqlCompleter(keywordsCompletions, dataModel);
 
     } catch (IOException | SQLException e) {
       logger.error("Cannot create SQL completer", e);
@@ -180,96 +237,110 @@ public class PostgreSqlInterpreter extends Interpreter {
 
     logger.info("Close psql connection!");
 
+    // before the executor closes, so other interpreters refresh the shared names
+    if (dataModel != null) {
+      DataModelMetadata.release(dataModel, jdbcExecutor);
+      dataModel = null;
+      sqlCompleter = null;
+    }
     try {
-      if (getJdbcConnection() != null) {
-        getJdbcConnection().close();
+      if (jdbcExecutor != null) {
+        jdbcExecutor.close();
       }
-    } catch (SQLException e) {
+    } catch (Exception e) {
       logger.error("Cannot close connection", e);
     } finally {
+      jdbcExecutor = null;
+      if (resultCache != null) {
+        resultCache.close();
+      }
+      resultCache = null;
+      scriptRunner = null;
       exceptionOnConnect = null;
     }
   }
 
-  private InterpreterResult executeSql(String sql) {
-    try {
+  private InterpreterResult executeSql(final String sql, final InterpreterContext context) {
 
-      if (exceptionOnConnect != null) {
-        return new InterpreterResult(Code.ERROR, exceptionOnConnect.getMessage());
+    if (exceptionOnConnect != null) {
+      return new InterpreterResult(Code.ERROR, exceptionOnConnect.getMessage());
+    }
+
+    return getResultCache().execute(context, sql, new Callable<InterpreterResult>() {
+      @Override
+      public InterpreterResult call() {
+        return getScriptRunner().run(context, sql, new SqlStatementCallback() {
+          @Override
+          public String doInStatement(String sql, Statement statement) throws SQLException {
+            return executeStatement(sql, statement);
+          }
+        });
       }
+    });
+  }
 
-      currentStatement = getJdbcConnection().createStatement();
+  private String executeStatement(String sql, Statement statement) throws SQLException {
 
-      currentStatement.setMaxRows(maxResult);
+    statement.setMaxRows(maxResult);
 
-      StringBuilder msg = null;
-      boolean isTableType = false;
+    StringBuilder msg = null;
+    boolean isTableType = false;
 
-      if (containsIgnoreCase(sql, EXPLAIN_PREDICATE)) {
-        msg = new StringBuilder();
-      } else {
-        msg = new StringBuilder(TABLE_MAGIC_TAG);
-        isTableType = true;
-      }
+    if (containsIgnoreCase(sql, EXPLAIN_PREDICATE)) {
+      msg = new StringBuilder();
+    } else {
+      msg = new StringBuilder(TABLE_MAGIC_TAG);
+      isTableType = true;
+    }
 
-      ResultSet resultSet = null;
-      try {
+    ResultSet resultSet = null;
+    try {
 
-        boolean isResultSetAvailable = currentStatement.execute(sql);
+      boolean isResultSetAvailable = statement.execute(sql);
 
-        if (isResultSetAvailable) {
-          resultSet = currentStatement.getResultSet();
+      if (isResultSetAvailable) {
+        resultSet = statement.getResultSet();
 
-          ResultSetMetaData md = resultSet.getMetaData();
+        ResultSetMetaData md = resultSet.getMetaData();
 
+        for (int i = 1; i < md.getColumnCount() + 1; i++) {
+          if (i > 1) {
+            msg.append(TAB);
+          }
+          msg.append(replaceReservedChars(isTableType, md.getColumnName(i)));
+        }
+        msg.append(NEWLINE);
+
+        int displayRowCount = 0;
+        while (resultSet.next() && displayRowCount < getMaxResult()) {
           for (int i = 1; i < md.getColumnCount() + 1; i++) {
-            if (i > 1) {
+            msg.append(replaceReservedChars(isTableType, resultSet.getString(i)));
+            if (i != md.getColumnCount()) {
               msg.append(TAB);
             }
-            msg.append(replaceReservedChars(isTableType, md.getColumnName(i)));
           }
           msg.append(NEWLINE);
-
-          int displayRowCount = 0;
-          while (resultSet.next() && displayRowCount < getMaxResult()) {
-            for (int i = 1; i < md.getColumnCount() + 1; i++) {
-              msg.append(replaceReservedChars(isTableType, resultSet.getString(i)));
-              if (i != md.getColumnCount()) {
-                msg.append(TAB);
-              }
-            }
-            msg.append(NEWLINE);
-            displayRowCount++;
-          }
-        } else {
-          // Response contains either an update count or there are no results.
-          int updateCount = currentStatement.getUpdateCount();
-          msg.append(UPDATE_COUNT_HEADER).append(NEWLINE);
-          msg.append(updateCount).append(NEWLINE);
-
-          // In case of update event (e.g. isResultSetAvailable = false) update the completion
-          // meta-data.
-          if (sqlCompleter != null) {
-            sqlCompleter.updateDataModelMetaData(getJdbcConnection());
-          }
+          displayRowCount++;
         }
-      } finally {
-        try {
-          if (resultSet != null) {
-            resultSet.close();
-          }
-          currentStatement.close();
-        } finally {
-          currentStatement = null;
+      } else {
+        // Response contains either an update count or there are no results.
+        int updateCount = statement.getUpdateCount();
+        msg.append(UPDATE_COUNT_HEADER).append(NEWLINE);
+        msg.append(updateCount).append(NEWLINE);
+
+        // In case of data model change refresh the completion meta-data in background.
+        DataModelMetadata metadata = dataModel;
+        if (metadata != null && DataModelMetadata.isDataModelChange(sql)) {
+          metadata.refreshAfter(sql, getJdbcExecutor());
         }
       }
-
-      return new InterpreterResult(Code.SUCCESS, msg.toString());
-
-    } catch (SQLException ex) {
-      logger.error("Cannot run " + sql, ex);
-      return new InterpreterResult(Code.ERROR, ex.getMessage());
+    } finally {
+      if (resultSet != null) {
+        resultSet.close();
+      }
     }
+
+    return msg.toString();
   }
 
   /**
@@ -285,7 +356,7 @@ public class PostgreSqlInterpreter extends Interpreter {
   @Override
   public InterpreterResult interpret(String cmd, InterpreterContext contextInterpreter) {
     logger.info("Run SQL command '{}'", cmd);
-    return executeSql(cmd);
+    return executeSql(cmd, contextInterpreter);
   }
 
   @Override
@@ -293,13 +364,10 @@ public class PostgreSqlInterpreter extends Interpreter {
 
     logger.info("Cancel current query statement.");
 
-    if (currentStatement != null) {
-      try {
-        currentStatement.cancel();
-      } catch (SQLException ex) {
-      } finally {
-        currentStatement = null;
-      }
+    if (scriptRunner != null) {
+      scriptRunner.cancel(context);
+    } else if (jdbcExecutor != null) {
+      jdbcExecutor.cancel(context);
     }
   }
 
@@ -315,13 +383,18 @@ public class PostgreSqlInterpreter extends Interpreter {
 
   @Override
   public Scheduler getScheduler() {
-    return SchedulerFactory.singleton().createOrGetFIFOScheduler(
+    return JdbcExecutor.getScheduler(this, POSTGRESQL_PREFIX,
         PostgreSqlInterpreter.class.getName() + this.hashCode());
   }
 
   @Override
   public List<String> completion(String buf, int cursor) {
 
+    DataModelMetadata metadata = dataModel;
+    if (metadata != null && jdbcExecutor != null) {
+      metadata.refreshIfStale(jdbcExecutor, completerTtlMillis);
+    }
+
     List<CharSequence> candidates = new ArrayList<CharSequence>();
     if (sqlCompleter != null && sqlCompleter.complete(buf, cursor, candidates) >= 0) {
       return Lists.transform(candidates, sequenceToStringTransformer);
@@ -334,8 +407,13 @@ public class PostgreSqlInterpreter extends Interpreter {
     return maxResult;
   }
 
-  // Test only method
-  protected Connection getJdbcConnection() {
-    return jdbcConnection;
+  /**
+   * Open a new connection for the pool. Overridden by tests.
+   */
+  protected Connection getJdbcConnection() throws SQLException {
+    String url = getProperty(POSTGRESQL_SERVER_URL);
+    String user = getProperty(POSTGRESQL_SERVER_USER);
+    String password = getProperty(POSTGRESQL_SERVER_PASSWORD);
+    return DriverManager.getConnection(url, user, password);
   }
 }
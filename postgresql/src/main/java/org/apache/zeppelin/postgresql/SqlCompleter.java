@@ -24,30 +24,28 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.SortedSet;
 import java.util.StringTokenizer;
 import java.util.TreeSet;
 import java.util.regex.Pattern;
 
 import jline.console.completer.ArgumentCompleter.ArgumentList;
 import jline.console.completer.ArgumentCompleter.WhitespaceArgumentDelimiter;
-import jline.console.completer.StringsCompleter;
+import jline.console.completer.Completer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.base.Joiner;
-import com.google.common.collect.Sets;
-import com.google.common.collect.Sets.SetView;
-
 /**
  * SQL auto complete functionality for the PostgreSqlInterpreter.
+ *
+ * Keywords are completed from a fixed index, table, column and schema names from the
+ * {@link DataModelMetadata}, which is refreshed in background.
  */
-public class SqlCompleter extends StringsCompleter {
+public class SqlCompleter implements Completer {
 
   private static Logger logger = LoggerFactory.getLogger(SqlCompleter.class);
 
@@ -65,11 +63,13 @@ public class SqlCompleter extends StringsCompleter {
     }
   };
 
-  private Set<String> modelCompletions = new HashSet<String>();
+  private final CompletionIndex keywords;
 
-  public SqlCompleter(Set<String> allCompletions, Set<String> dataModelCompletions) {
-    super(allCompletions);
-    this.modelCompletions = dataModelCompletions;
+  private final DataModelMetadata dataModel;
+
+  public SqlCompleter(Set<String> keywordCompletions, DataModelMetadata dataModel) {
+    this.keywords = CompletionIndex.of(keywordCompletions);
+    this.dataModel = dataModel;
   }
 
   @Override
@@ -83,8 +83,6 @@ public class SqlCompleter extends StringsCompleter {
     // white spaces.
     ArgumentList argumentList = sqlDelimiter.delimit(buffer, cursor);
     String argument = argumentList.getCursorArgument();
-    // cursor in the selected argument
-    int argumentPosition = argumentList.getArgumentPosition();
 
     if (isBlank(argument)) {
       int argumentsCount = argumentList.getArguments().length;
@@ -93,43 +91,27 @@ public class SqlCompleter extends StringsCompleter {
         return -1;
       }
       argument = argumentList.getArguments()[argumentsCount - 1];
-      argumentPosition = argument.length();
     }
 
-    int complete = super.complete(argument, argumentPosition, candidates);
-
-    logger.debug("complete:" + complete + ", size:" + candidates.size());
-
-    return complete;
-  }
-
-  public void updateDataModelMetaData(Connection connection) {
-
-    try {
-      Set<String> newModelCompletions = getDataModelMetadataCompletions(connection);
-      logger.debug("New model metadata is:" + Joiner.on(',').join(newModelCompletions));
-
-      // Sets.difference(set1, set2) - returned set contains all elements that are contained by set1
-      // and not contained by set2. set2 may also contain elements not present in set1; these are
-      // simply ignored.
-      SetView<String> removedCompletions = Sets.difference(modelCompletions, newModelCompletions);
-      logger.debug("Removed Model Completions: " + Joiner.on(',').join(removedCompletions));
-      this.getStrings().removeAll(removedCompletions);
+    SortedSet<String> matches = new TreeSet<String>();
+    keywords.complete(argument, matches);
+    if (dataModel != null) {
+      dataModel.getIndex().complete(argument, matches);
+    }
 
-      SetView<String> newCompletions = Sets.difference(newModelCompletions, modelCompletions);
-      logger.debug("New Completions: " + Joiner.on(',').join(newCompletions));
-      this.getStrings().addAll(newCompletions);
+    if (matches.size() == 1) {
+      candidates.add(matches.first() + " ");
+    } else {
+      candidates.addAll(matches);
+    }
 
-      modelCompletions = newModelCompletions;
+    logger.debug("complete:" + argument + ", size:" + candidates.size());
 
-    } catch (SQLException e) {
-      logger.error("Failed to update the metadata conmpletions", e);
-    }
+    return candidates.isEmpty() ? -1 : 0;
   }
 
   public static Set<String> getSqlKeywordsCompletions(Connection connection) throws IOException,
       SQLException {
-
     // Add the default SQL completions
     String keywords =
         new BufferedReader(new InputStreamReader(
@@ -191,58 +173,6 @@ public class SqlCompleter extends StringsCompleter {
     return completions;
   }
 
-  public static Set<String> getDataModelMetadataCompletions(Connection connection)
-      throws SQLException {
-    Set<String> completions = new TreeSet<String>();
-    getColumnNames(connection.getMetaData(), completions);
-    getSchemaNames(connection.getMetaData(), completions);
-    return completions;
-  }
-
-  private static void getColumnNames(DatabaseMetaData meta, Set<String> names) throws SQLException {
-
-    try {
-      ResultSet columns = meta.getColumns(meta.getConnection().getCatalog(), null, "%", "%");
-      try {
-
-        while (columns.next()) {
-          // Add the following strings: (1) column name, (2) table name
-          String name = columns.getString("TABLE_NAME");
-          if (!isBlank(name)) {
-            names.add(name);
-            names.add(columns.getString("COLUMN_NAME"));
-            // names.add(columns.getString("TABLE_NAME") + "." + columns.getString("COLUMN_NAME"));
-          }
-        }
-      } finally {
-        columns.close();
-      }
-
-      logger.debug(Joiner.on(',').join(names));
-    } catch (Throwable t) {
-      logger.error("Failed to retrieve the column name", t);
-    }
-  }
-
-  private static void getSchemaNames(DatabaseMetaData meta, Set<String> names) throws SQLException {
-
-    try {
-      ResultSet schemas = meta.getSchemas();
-      try {
-        while (schemas.next()) {
-          String schemaName = schemas.getString("TABLE_SCHEM");
-          if (!isBlank(schemaName)) {
-            names.add(schemaName + ".");
-          }
-        }
-      } finally {
-        schemas.close();
-      }
-    } catch (Throwable t) {
-      logger.error("Failed to retrieve the column name", t);
-    }
-  }
-
   // test purpose only
   WhitespaceArgumentDelimiter getSqlDelimiter() {
     return this.sqlDelimiter;
@@ -0,0 +1,209 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.zeppelin.postgresql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.zeppelin.interpreter.jdbc.JdbcConnectionPool;
+import org.apache.zeppelin.interpreter.jdbc.JdbcConnectionProvider;
+import org.apache.zeppelin.interpreter.jdbc.JdbcExecutor;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.mockrunner.jdbc.BasicJDBCTestCaseAdapter;
+import com.mockrunner.mock.jdbc.MockConnection;
+import com.mockrunner.mock.jdbc.MockDatabaseMetaData;
+import com.mockrunner.mock.jdbc.MockResultSet;
+
+public class DataModelMetadataTest extends BasicJDBCTestCaseAdapter {
+
+  private MockConnection connection;
+  private MockDatabaseMetaData meta;
+
+  @Before
+  public void beforeTest() throws SQLException {
+    connection = getJDBCMockObjectFactory().getMockConnection();
+    meta = (MockDatabaseMetaData) connection.getMetaData();
+
+    setSchemas();
+    setColumns("public", new String[] {"users", "users"}, new String[] {"id", "name"});
+    setColumns("sales", new String[] {"orders"}, new String[] {"amount"});
+  }
+
+  private void setSchemas() {
+    MockResultSet schemas = new MockResultSet("schemas");
+    schemas.addColumn("TABLE_SCHEM", new String[] {"public", "sales"});
+    meta.setSchemas(schemas);
+  }
+
+  private void setColumns(String schema, String[] tables, String[] columns) {
+    MockResultSet rs = new MockResultSet(schema);
+    rs.addColumn("TABLE_NAME", tables);
+    rs.addColumn("COLUMN_NAME", columns);
+    meta.setColumns(null, schema, "%", "%", rs);
+  }
+
+  private List<String> complete(DataModelMetadata metadata, String prefix) {
+    List<String> result = new ArrayList<String>();
+    metadata.getIndex().complete(prefix, result);
+    Collections.sort(result);
+    return result;
+  }
+
+  @Test
+  public void testLoad() throws SQLException {
+    DataModelMetadata metadata = new DataModelMetadata("test");
+    assertTrue(metadata.isStale(Long.MAX_VALUE));
+
+    metadata.load(connection, null);
+
+    assertFalse(metadata.isStale(Long.MAX_VALUE));
+    assertEquals(7, metadata.getIndex().size());
+    assertEquals(Collections.singletonList("users"), complete(metadata, "us"));
+    assertEquals(Collections.singletonList("sales."), complete(metadata, "sa"));
+    assertEquals(new ArrayList<String>(), complete(metadata, "x"));
+  }
+
+  @Test
+  public void testIncrementalLoad() throws SQLException {
+    DataModelMetadata metadata = new DataModelMetadata("test");
+    metadata.load(connection, null);
+
+    setSchemas();
+    setColumns("sales", new String[] {"orders", "returns"}, new String[] {"amount", "reason"});
+    metadata.load(connection, Collections.singleton("sales"));
+
+    assertEquals(Collections.singletonList("returns"), complete(metadata, "ret"));
+    // names of the other schemas are kept without reading them again
+    assertEquals(Collections.singletonList("users"), complete(metadata, "us"));
+  }
+
+  @Test
+  public void testReferencedSchemas() throws SQLException {
+    DataModelMetadata metadata = new DataModelMetadata("test");
+    metadata.load(connection, null);
+
+    assertEquals(Collections.singleton("sales"),
+        metadata.getReferencedSchemas("CREATE TABLE Sales.refunds (id int)"));
+    assertTrue(metadata.getReferencedSchemas("CREATE TABLE refunds (id int)").isEmpty());
+  }
+
+  @Test
+  public void testIsDataModelChange() {
+    assertTrue(DataModelMetadata.isDataModelChange("create table t (id int)"));
+    assertTrue(DataModelMetadata.isDataModelChange("  ALTER TABLE t ADD COLUMN c int"));
+    assertTrue(DataModelMetadata.isDataModelChange("DROP VIEW v"));
+    assertFalse(DataModelMetadata.isDataModelChange("INSERT INTO created VALUES (1)"));
+    assertFalse(DataModelMetadata.isDataModelChange("dropped"));
+  }
+
+  @Test
+  public void testAcquireShared() {
+    DataModelMetadata first = DataModelMetadata.acquire("url|user", null);
+    DataModelMetadata second = DataModelMetadata.acquire("url|user", null);
+    DataModelMetadata other = DataModelMetadata.acquire("url|other", null);
+    assertSame(first, second);
+    assertNotSame(first, other);
+
+    DataModelMetadata.release(first, null);
+    assertSame(second, DataModelMetadata.acquire("url|user", null));
+
+    DataModelMetadata.release(second, null);
+    DataModelMetadata.release(second, null);
+    DataModelMetadata.release(other, null);
+    assertEquals(0, DataModelMetadata.references("url|user"));
+    DataModelMetadata third = DataModelMetadata.acquire("url|user", null);
+    assertNotSame(first, third);
+    DataModelMetadata.release(third, null);
+  }
+
+  private JdbcExecutor executor(final AtomicInteger connections, final CountDownLatch ready) {
+    return new JdbcExecutor(new JdbcConnectionPool(new JdbcConnectionProvider() {
+      @Override
+      public Connection getConnection() throws SQLException {
+        connections.incrementAndGet();
+        try {
+          ready.await();
+        } catch (InterruptedException e) {
+          throw new SQLException(e);
+        }
+        return connection;
+      }
+    }, 1, 1, 1000, null));
+  }
+
+  @Test
+  public void testBackgroundRefresh() throws Exception {
+    JdbcExecutor executor = executor(new AtomicInteger(), new CountDownLatch(0));
+    DataModelMetadata metadata = DataModelMetadata.acquire("test", executor);
+    try {
+      Future<?> refresh = metadata.refresh(executor, null);
+      refresh.get();
+
+      assertFalse(metadata.isStale(Long.MAX_VALUE));
+      assertEquals(Collections.singletonList("orders"), complete(metadata, "ord"));
+    } finally {
+      DataModelMetadata.release(metadata, executor);
+      executor.close();
+    }
+  }
+
+  @Test
+  public void testPendingRefreshUsesExecutorOfHolder() throws Exception {
+    CountDownLatch ready = new CountDownLatch(1);
+    AtomicInteger closedConnections = new AtomicInteger();
+    AtomicInteger liveConnections = new AtomicInteger();
+    JdbcExecutor closed = executor(closedConnections, ready);
+    JdbcExecutor live = executor(liveConnections, new CountDownLatch(0));
+    DataModelMetadata metadata = DataModelMetadata.acquire("pending", closed);
+    DataModelMetadata.acquire("pending", live);
+    try {
+      Future<?> refresh = metadata.refresh(closed, null);
+      assertNull(metadata.refresh(closed, Collections.singleton("sales")));
+      long deadline = System.currentTimeMillis() + 10000;
+      while (closedConnections.get() == 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      // the interpreter which requested both refreshes closes while the first one runs
+      DataModelMetadata.release(metadata, closed);
+      ready.countDown();
+      refresh.get();
+
+      while (liveConnections.get() == 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(1, closedConnections.get());
+      assertEquals(1, liveConnections.get());
+    } finally {
+      DataModelMetadata.release(metadata, live);
+      closed.close();
+      live.close();
+    }
+  }
+}
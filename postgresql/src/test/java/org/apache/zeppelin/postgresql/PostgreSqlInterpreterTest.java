@@ -19,6 +19,8 @@ import static org.apache.zeppelin.postgresql.PostgreSqlInterpreter.DEFAULT_JDBC_
 import static org.apache.zeppelin.postgresql.PostgreSqlInterpreter.DEFAULT_JDBC_USER_NAME;
 import static org.apache.zeppelin.postgresql.PostgreSqlInterpreter.DEFAULT_JDBC_USER_PASSWORD;
 import static org.apache.zeppelin.postgresql.PostgreSqlInterpreter.DEFAULT_MAX_RESULT;
+import static org.apache.zeppelin.postgresql.PostgreSqlInterpreter.POSTGRESQL_COMPLETER_TTL;
+import static org.apache.zeppelin.postgresql.PostgreSqlInterpreter.POSTGRESQL_PREFIX;
 import static org.apache.zeppelin.postgresql.PostgreSqlInterpreter.POSTGRESQL_SERVER_DRIVER_NAME;
 import static org.apache.zeppelin.postgresql.PostgreSqlInterpreter.POSTGRESQL_SERVER_MAX_RESULT;
 import static org.apache.zeppelin.postgresql.PostgreSqlInterpreter.POSTGRESQL_SERVER_PASSWORD;
@@ -26,17 +28,26 @@ import static org.apache.zeppelin.postgresql.PostgreSqlInterpreter.POSTGRESQL_SE
 import static org.apache.zeppelin.postgresql.PostgreSqlInterpreter.POSTGRESQL_SERVER_USER;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 import org.apache.zeppelin.interpreter.InterpreterResult;
+import org.apache.zeppelin.interpreter.jdbc.QueryResultCache;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import com.mockrunner.jdbc.BasicJDBCTestCaseAdapter;
 import com.mockrunner.jdbc.StatementResultSetHandler;
@@ -52,7 +63,7 @@ public class PostgreSqlInterpreterTest extends BasicJDBCTestCaseAdapter {
   private MockResultSet result = null;
 
   @Before
-  public void beforeTest() {
+  public void beforeTest() throws SQLException {
     MockConnection connection = getJDBCMockObjectFactory().getMockConnection();
 
     StatementResultSetHandler statementHandler = connection.getStatementResultSetHandler();
@@ -65,20 +76,62 @@ public class PostgreSqlInterpreterTest extends BasicJDBCTestCaseAdapter {
     properties.put(POSTGRESQL_SERVER_USER, DEFAULT_JDBC_USER_NAME);
     properties.put(POSTGRESQL_SERVER_PASSWORD, DEFAULT_JDBC_USER_PASSWORD);
     properties.put(POSTGRESQL_SERVER_MAX_RESULT, DEFAULT_MAX_RESULT);
+    // keywords only, the data model is read in background
+    properties.put(POSTGRESQL_COMPLETER_TTL, "-1");
 
     psqlInterpreter = spy(new PostgreSqlInterpreter(properties));
-    when(psqlInterpreter.getJdbcConnection()).thenReturn(connection);
+    doReturn(connection).when(psqlInterpreter).getJdbcConnection();
   }
 
   @Test
   public void testOpenCommandIndempotency() throws SQLException {
     // Ensure that an attempt to open new connection will clean any remaining connections
+    final List<Connection> connections = new ArrayList<Connection>();
+    doAnswer(new Answer<Connection>() {
+      @Override
+      public Connection answer(InvocationOnMock invocation) {
+        Connection connection = new MockConnection();
+        connections.add(connection);
+        return connection;
+      }
+    }).when(psqlInterpreter).getJdbcConnection();
+
     psqlInterpreter.open();
     psqlInterpreter.open();
     psqlInterpreter.open();
 
     verify(psqlInterpreter, times(3)).open();
     verify(psqlInterpreter, times(3)).close();
+
+    assertEquals(3, connections.size());
+    assertTrue(connections.get(0).isClosed());
+    assertTrue(connections.get(1).isClosed());
+    assertFalse(connections.get(2).isClosed());
+  }
+
+  @Test
+  public void testDataModelReleasedOnClose() throws SQLException {
+    String key = DEFAULT_JDBC_URL + "|" + DEFAULT_JDBC_USER_NAME;
+    Properties properties = new Properties();
+    properties.put(POSTGRESQL_SERVER_DRIVER_NAME, DEFAULT_JDBC_DRIVER_NAME);
+    properties.put(POSTGRESQL_SERVER_URL, DEFAULT_JDBC_URL);
+    properties.put(POSTGRESQL_SERVER_USER, DEFAULT_JDBC_USER_NAME);
+    properties.put(POSTGRESQL_SERVER_MAX_RESULT, DEFAULT_MAX_RESULT);
+    properties.put(POSTGRESQL_COMPLETER_TTL, "3600");
+    PostgreSqlInterpreter interpreter = spy(new PostgreSqlInterpreter(properties));
+    doAnswer(new Answer<Connection>() {
+      @Override
+      public Connection answer(InvocationOnMock invocation) {
+        return new MockConnection();
+      }
+    }).when(interpreter).getJdbcConnection();
+
+    for (int i = 0; i < 2; i++) {
+      interpreter.open();
+      assertEquals(1, DataModelMetadata.references(key));
+      interpreter.close();
+      assertEquals(0, DataModelMetadata.references(key));
+    }
   }
 
   @Test
@@ -98,11 +151,7 @@ public class PostgreSqlInterpreterTest extends BasicJDBCTestCaseAdapter {
   @Test
   public void testConnectionClose() throws SQLException {
 
-    PostgreSqlInterpreter psqlInterpreter = spy(new PostgreSqlInterpreter(new Properties()));
-
-    when(psqlInterpreter.getJdbcConnection()).thenReturn(
-        getJDBCMockObjectFactory().getMockConnection());
-
+    psqlInterpreter.open();
     psqlInterpreter.close();
 
     verifyAllResultSetsClosed();
@@ -115,8 +164,8 @@ public class PostgreSqlInterpreterTest extends BasicJDBCTestCaseAdapter {
 
     PostgreSqlInterpreter psqlInterpreter = spy(new PostgreSqlInterpreter(new Properties()));
 
-    when(psqlInterpreter.getJdbcConnection()).thenReturn(
-        getJDBCMockObjectFactory().getMockConnection());
+    doReturn(getJDBCMockObjectFactory().getMockConnection()).when(psqlInterpreter)
+        .getJdbcConnection();
 
     psqlInterpreter.cancel(null);
 
@@ -250,6 +299,47 @@ public class PostgreSqlInterpreterTest extends BasicJDBCTestCaseAdapter {
     verifyAllStatementsClosed();
   }
 
+  @Test
+  public void testMultipleStatements() throws SQLException {
+
+    when(psqlInterpreter.getMaxResult()).thenReturn(1000);
+
+    result.addColumn("col1", new String[] {"val11"});
+
+    InterpreterResult interpreterResult = psqlInterpreter.interpret(
+        "select * from t;\nselect * from t where col1 = 'a;b';", null);
+
+    assertEquals(InterpreterResult.Code.SUCCESS, interpreterResult.code());
+    assertEquals(InterpreterResult.Type.TABLE, interpreterResult.type());
+    assertEquals("col1\nval11\n", interpreterResult.message());
+
+    verifySQLStatementExecuted("select * from t");
+    verifySQLStatementExecuted("select * from t where col1 = 'a;b'");
+    verifyAllResultSetsClosed();
+    verifyAllStatementsClosed();
+  }
+
+  @Test
+  public void testResultCache() throws SQLException {
+    Properties properties = new Properties();
+    properties.put(POSTGRESQL_SERVER_DRIVER_NAME, DEFAULT_JDBC_DRIVER_NAME);
+    properties.put(POSTGRESQL_SERVER_MAX_RESULT, DEFAULT_MAX_RESULT);
+    properties.put(POSTGRESQL_PREFIX + QueryResultCache.CACHE_ENABLED, "true");
+    PostgreSqlInterpreter cachingInterpreter = spy(new PostgreSqlInterpreter(properties));
+    doReturn(getJDBCMockObjectFactory().getMockConnection()).when(cachingInterpreter)
+        .getJdbcConnection();
+    when(cachingInterpreter.getMaxResult()).thenReturn(1000);
+
+    result.addColumn("col1", new String[] {"val11"});
+
+    InterpreterResult first = cachingInterpreter.interpret("select * from t", null);
+    InterpreterResult second = cachingInterpreter.interpret("select *  from t;", null);
+
+    assertEquals(InterpreterResult.Code.SUCCESS, second.code());
+    assertEquals(first.message(), second.message());
+    assertEquals(1, getStatementResultSetHandler().getExecutedStatements().size());
+  }
+
   @Test
   public void testAutoCompletion() throws SQLException {
     psqlInterpreter.open();
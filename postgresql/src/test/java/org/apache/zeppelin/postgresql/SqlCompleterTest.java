@@ -32,7 +32,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Joiner;
-import com.google.common.collect.Sets;
 import com.mockrunner.jdbc.BasicJDBCTestCaseAdapter;
 
 public class SqlCompleterTest extends BasicJDBCTestCaseAdapter {
@@ -49,13 +48,10 @@ public class SqlCompleterTest extends BasicJDBCTestCaseAdapter {
   public void beforeTest() throws IOException, SQLException {
     Set<String> keywordsCompletions =
         SqlCompleter.getSqlKeywordsCompletions(getJDBCMockObjectFactory().getMockConnection());
-    Set<String> dataModelCompletions =
-        SqlCompleter
-            .getDataModelMetadataCompletions(getJDBCMockObjectFactory().getMockConnection());
+    DataModelMetadata dataModel = new DataModelMetadata("test");
+    dataModel.load(getJDBCMockObjectFactory().getMockConnection(), null);
 
-    sqlCompleter =
-        new SqlCompleter(Sets.union(keywordsCompletions, dataModelCompletions),
-            dataModelCompletions);
+    sqlCompleter = new SqlCompleter(keywordsCompletions, dataModel);
     tester = new CompleterTester(sqlCompleter);
   }
 
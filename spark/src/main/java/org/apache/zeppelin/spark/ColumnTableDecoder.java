@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.spark;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * Builds a %table message from columns encoded by zeppelin_pyspark.py.
+ *
+ * Python sends a whole table in one byte array, so displaying a pandas DataFrame takes a
+ * single py4j call instead of printing it as text or calling into the JVM per row.
+ * Layout, integers are 4 byte big endian:
+ * <pre>
+ * numColumns numRows
+ * (length utf8-name) * numColumns
+ * (length utf8-cells) * numColumns   cells of a column are separated by '\n'
+ * </pre>
+ * Cells do not contain '\t' or '\n'.
+ */
+class ColumnTableDecoder {
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private ColumnTableDecoder() {}
+
+  /**
+   * @param data encoded columns
+   * @param maxResult number of rows to display. Python sends one more row to tell whether
+   *                  the result is limited.
+   */
+  static String toTableMessage(byte[] data, int maxResult) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+    int numColumns = in.readInt();
+    int numRows = in.readInt();
+
+    StringBuilder msg = new StringBuilder();
+    msg.append("%table ");
+    for (int i = 0; i < numColumns; i++) {
+      if (i > 0) {
+        msg.append('\t');
+      }
+      msg.append(readString(in));
+    }
+    msg.append('\n');
+
+    int displayRows = Math.min(maxResult, numRows);
+    String[][] columns = new String[numColumns][];
+    for (int i = 0; i < numColumns; i++) {
+      columns[i] = readString(in).split("\n", -1);
+      if (numRows > 0 && columns[i].length != numRows) {
+        throw new IOException("Column " + i + " has " + columns[i].length
+            + " cells, expected " + numRows);
+      }
+    }
+
+    for (int r = 0; r < displayRows; r++) {
+      for (int i = 0; i < numColumns; i++) {
+        if (i > 0) {
+          msg.append('\t');
+        }
+        msg.append(columns[i][r]);
+      }
+      msg.append('\n');
+    }
+
+    if (numRows > maxResult) {
+      msg.append("\n<font color=red>Results are limited by ").append(maxResult)
+          .append(".</font>");
+    }
+    return msg.toString();
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] b = new byte[in.readInt()];
+    in.readFully(b);
+    return new String(b, UTF8);
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.zeppelin.spark;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.spark.SparkConf;
+import org.apache.spark.scheduler.SparkListenerJobEnd;
+import org.apache.spark.scheduler.SparkListenerJobStart;
+import org.apache.spark.scheduler.SparkListenerStageSubmitted;
+import org.apache.spark.scheduler.SparkListenerTaskEnd;
+import org.apache.spark.scheduler.StageInfo;
+import org.apache.spark.ui.jobs.JobProgressListener;
+
+import scala.collection.JavaConversions;
+
+/**
+ * Keeps the number of total and completed tasks of the running jobs per job group,
+ * so that the progress of a paragraph is a map lookup instead of a walk over the
+ * DAGScheduler's active jobs and their stages.
+ *
+ * Counters are updated incrementally from the listener bus events. The tasks of all stages
+ * of a job are counted when the job starts, so that the progress does not go back when the
+ * next stage is submitted. Stages that were never submitted, because their output was
+ * already computed, are subtracted when the job ends. A finished job keeps counting in its
+ * group until no job of the group runs anymore. Extends
+ * JobProgressListener rather than implementing SparkListener, because SparkListener gains
+ * callbacks in every Spark release and a Java implementation would miss the new ones.
+ */
+public class JobGroupProgressListener extends JobProgressListener {
+  static final String JOB_GROUP_ID = "spark.jobGroup.id";
+
+  /**
+   * Task counters of a job, or of all running jobs of a group.
+   */
+  public static class Progress {
+    final AtomicInteger totalTasks = new AtomicInteger();
+    final AtomicInteger completedTasks = new AtomicInteger();
+
+    public int getTotalTasks() {
+      return totalTasks.get();
+    }
+
+    public int getCompletedTasks() {
+      return completedTasks.get();
+    }
+
+    /**
+     * @return 0 to 100
+     */
+    public int getPercentage() {
+      int total = totalTasks.get();
+      if (total <= 0) {
+        return 0;
+      }
+      return Math.min(100, completedTasks.get() * 100 / total);
+    }
+  }
+
+  private static class JobProgress extends Progress {
+    final String jobGroup;
+    final Map<Integer, Integer> stageTasks = new HashMap<Integer, Integer>();
+    final Set<Integer> submittedStageIds = new HashSet<Integer>();
+
+    JobProgress(String jobGroup) {
+      this.jobGroup = jobGroup;
+    }
+  }
+
+  private final Map<Integer, JobProgress> jobs = new ConcurrentHashMap<Integer, JobProgress>();
+  private final Map<Integer, JobProgress> stageToJob =
+      new ConcurrentHashMap<Integer, JobProgress>();
+  private final Map<String, Progress> groups = new ConcurrentHashMap<String, Progress>();
+
+  public JobGroupProgressListener(SparkConf conf) {
+    super(conf);
+  }
+
+  /**
+   * Progress of the running jobs of a group.
+   * @return null when no job of the group is running
+   */
+  public Progress getProgress(String jobGroup) {
+    return groups.get(jobGroup);
+  }
+
+  /**
+   * @return 0 to 100
+   */
+  public int getProgressPercentage(String jobGroup) {
+    Progress progress = groups.get(jobGroup);
+    return progress == null ? 0 : progress.getPercentage();
+  }
+
+  @Override
+  public void onJobStart(SparkListenerJobStart jobStart) {
+    super.onJobStart(jobStart);
+
+    String jobGroup = getJobGroup(jobStart.properties());
+    if (jobGroup == null) {
+      return;
+    }
+    JobProgress job = new JobProgress(jobGroup);
+    jobs.put(jobStart.jobId(), job);
+
+    Progress group = groups.get(jobGroup);
+    if (group == null) {
+      group = new Progress();
+      groups.put(jobGroup, group);
+    }
+
+    // Spark 1.2 and later know all stages of the job when it starts, older versions only
+    // tell about a stage when it is submitted.
+    List<StageInfo> stageInfos;
+    try {
+      stageInfos = JavaConversions.asJavaList(jobStart.stageInfos());
+    } catch (NoSuchMethodError e) {
+      return;
+    }
+    for (StageInfo stage : stageInfos) {
+      stageToJob.put(stage.stageId(), job);
+      addStage(job, group, stage);
+    }
+  }
+
+  @Override
+  public void onStageSubmitted(SparkListenerStageSubmitted stageSubmitted) {
+    super.onStageSubmitted(stageSubmitted);
+
+    StageInfo stage = stageSubmitted.stageInfo();
+    JobProgress job = stageToJob.get(stage.stageId());
+    if (job == null) {
+      job = findJob(getJobGroup(stageSubmitted.properties()));
+      if (job == null) {
+        return;
+      }
+      stageToJob.put(stage.stageId(), job);
+    }
+    addStage(job, groups.get(job.jobGroup), stage);
+    synchronized (job) {
+      job.submittedStageIds.add(stage.stageId());
+    }
+  }
+
+  @Override
+  public void onTaskEnd(SparkListenerTaskEnd taskEnd) {
+    super.onTaskEnd(taskEnd);
+
+    if (taskEnd.taskInfo() == null || !taskEnd.taskInfo().successful()) {
+      return;
+    }
+    JobProgress job = stageToJob.get(taskEnd.stageId());
+    if (job == null) {
+      return;
+    }
+    job.completedTasks.incrementAndGet();
+    Progress group = groups.get(job.jobGroup);
+    if (group != null) {
+      group.completedTasks.incrementAndGet();
+    }
+  }
+
+  @Override
+  public void onJobEnd(SparkListenerJobEnd jobEnd) {
+    super.onJobEnd(jobEnd);
+
+    JobProgress job = jobs.remove(jobEnd.jobId());
+    if (job == null) {
+      return;
+    }
+    stageToJob.values().removeAll(Collections.singleton(job));
+    Progress group = groups.get(job.jobGroup);
+    if (group == null) {
+      return;
+    }
+    if (findJob(job.jobGroup) == null) {
+      groups.remove(job.jobGroup);
+      return;
+    }
+
+    int skippedTasks = 0;
+    synchronized (job) {
+      for (Map.Entry<Integer, Integer> stage : job.stageTasks.entrySet()) {
+        if (!job.submittedStageIds.contains(stage.getKey())) {
+          skippedTasks += stage.getValue();
+        }
+      }
+    }
+    job.totalTasks.addAndGet(-skippedTasks);
+    group.totalTasks.addAndGet(-skippedTasks);
+  }
+
+  private JobProgress findJob(String jobGroup) {
+    if (jobGroup == null) {
+      return null;
+    }
+    for (JobProgress job : jobs.values()) {
+      if (jobGroup.equals(job.jobGroup)) {
+        return job;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Count the tasks of a stage once, a retried stage keeps the count of its first attempt.
+   */
+  private void addStage(JobProgress job, Progress group, StageInfo stage) {
+    if (group == null) {
+      return;
+    }
+    synchronized (job) {
+      if (job.stageTasks.containsKey(stage.stageId())) {
+        return;
+      }
+      job.stageTasks.put(stage.stageId(), stage.numTasks());
+    }
+    job.totalTasks.addAndGet(stage.numTasks());
+    group.totalTasks.addAndGet(stage.numTasks());
+  }
+
+  private static String getJobGroup(Properties properties) {
+    if (properties == null) {
+      return null;
+    }
+    return properties.getProperty(JOB_GROUP_ID);
+  }
+}
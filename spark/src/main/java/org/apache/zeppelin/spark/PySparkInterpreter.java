@@ -29,10 +29,17 @@ import java.net.MalformedURLException;
 import java.net.ServerSocket;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.compress.utils.IOUtils;
 import org.apache.commons.exec.CommandLine;
@@ -54,6 +61,8 @@ import org.apache.zeppelin.interpreter.InterpreterResult;
 import org.apache.zeppelin.interpreter.InterpreterResult.Code;
 import org.apache.zeppelin.interpreter.LazyOpenInterpreter;
 import org.apache.zeppelin.interpreter.WrappedInterpreter;
+import org.apache.zeppelin.scheduler.Scheduler;
+import org.apache.zeppelin.scheduler.SchedulerFactory;
 import org.apache.zeppelin.spark.dep.DependencyContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -74,7 +83,7 @@ public class PySparkInterpreter extends Interpreter implements ExecuteResultHand
   private PipedInputStream in;
   private ByteArrayOutputStream input;
   private String scriptPath;
-  boolean pythonscriptRunning = false;
+  volatile boolean pythonscriptRunning = false;
 
   static {
     Interpreter.register(
@@ -87,7 +96,11 @@ public class PySparkInterpreter extends Interpreter implements ExecuteResultHand
                "Spark home path. Should be provided for pyspark")
           .add("zeppelin.pyspark.python",
                SparkInterpreter.getSystemDefault("PYSPARK_PYTHON", null, "python"),
-               "Python command to run pyspark with").build());
+               "Python command to run pyspark with")
+          .add("zeppelin.pyspark.concurrency",
+               SparkInterpreter.getSystemDefault("ZEPPELIN_PYSPARK_CONCURRENCY",
+                   "zeppelin.pyspark.concurrency", "1"),
+               "Number of paragraphs of different notes executed at the same time").build());
   }
 
   public PySparkInterpreter(Properties property) {
@@ -180,6 +193,7 @@ public class PySparkInterpreter extends Interpreter implements ExecuteResultHand
     cmd.addArgument(scriptPath, false);
     cmd.addArgument(Integer.toString(port), false);
     cmd.addArgument(Integer.toString(getSparkInterpreter().getSparkVersion().toNumber()), false);
+    cmd.addArgument(Integer.toString(getConcurrency()), false);
     executor = new DefaultExecutor();
     outputStream = new ByteArrayOutputStream();
     PipedOutputStream ps = new PipedOutputStream();
@@ -233,18 +247,56 @@ public class PySparkInterpreter extends Interpreter implements ExecuteResultHand
     gatewayServer.shutdown();
   }
 
-  PythonInterpretRequest pythonInterpretRequest = null;
+  /**
+   * Statements waiting for a python worker thread, taken by getStatements().
+   */
+  private final LinkedBlockingQueue<PythonInterpretRequest> requests =
+      new LinkedBlockingQueue<PythonInterpretRequest>();
+  /**
+   * Requests being executed in python, by id.
+   */
+  private final Map<Integer, PythonInterpretRequest> runningRequests =
+      new ConcurrentHashMap<Integer, PythonInterpretRequest>();
+  private final AtomicInteger requestId = new AtomicInteger();
+  /**
+   * Paragraphs of the same note run one by one, in the order they are submitted.
+   * A lock is removed once no paragraph of the note holds or waits for it.
+   */
+  private final Map<String, NoteLock> noteLocks = new HashMap<String, NoteLock>();
+
+  /**
+   * Fair lock counting the paragraphs holding or waiting for it.
+   */
+  private static class NoteLock extends ReentrantLock {
+    private int users;
+
+    NoteLock() {
+      super(true);
+    }
+  }
 
   /**
    *
    */
   public class PythonInterpretRequest {
+    public int id;
     public String statements;
     public String jobGroup;
-
-    public PythonInterpretRequest(String statements, String jobGroup) {
+    private final InterpreterContext context;
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private String output;
+    private boolean error;
+
+    public PythonInterpretRequest(int id, String statements, String jobGroup,
+                                  InterpreterContext context) {
+      this.id = id;
       this.statements = statements;
       this.jobGroup = jobGroup;
+      this.context = context;
+    }
+
+    public int id() {
+      return id;
     }
 
     public String statements() {
@@ -254,35 +306,147 @@ public class PySparkInterpreter extends Interpreter implements ExecuteResultHand
     public String jobGroup() {
       return jobGroup;
     }
-  }
 
-  Integer statementSetNotifier = new Integer(0);
+    void finish(String output, boolean error) {
+      this.output = output;
+      this.error = error;
+      finished.countDown();
+    }
 
-  public PythonInterpretRequest getStatements() {
-    synchronized (statementSetNotifier) {
-      while (pythonInterpretRequest == null) {
+    InterpreterResult waitForResult() {
+      boolean interrupted = false;
+      while (true) {
         try {
-          statementSetNotifier.wait(1000);
+          finished.await();
+          break;
         } catch (InterruptedException e) {
+          interrupted = true;
         }
       }
-      PythonInterpretRequest req = pythonInterpretRequest;
-      pythonInterpretRequest = null;
-      return req;
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      return new InterpreterResult(error ? Code.ERROR : Code.SUCCESS, output);
+    }
+  }
+
+  /**
+   * Called by each python worker thread. Blocks until a statement is submitted.
+   */
+  public PythonInterpretRequest getStatements() {
+    PythonInterpretRequest req;
+    try {
+      req = requests.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+    runningRequests.put(req.id(), req);
+    return req;
+  }
+
+  public void setStatementsFinished(int id, String out, boolean error) {
+    PythonInterpretRequest req = runningRequests.remove(id);
+    if (req == null) {
+      logger.warn("No python interpret request " + id);
+      return;
+    }
+    req.finish(out, error);
+  }
+
+  /**
+   * Display a DataFrame for the python request being executed. Each python worker passes
+   * the id of its own request, so that concurrent paragraphs never see each other's
+   * context through the ZeppelinContext they share.
+   */
+  public String showDF(int id, Object df) {
+    ZeppelinContext z = getZeppelinContext();
+    return ZeppelinContext.showDF(z.sc, getRequestContext(id), df, z.getMaxResult());
+  }
+
+  /**
+   * @return context of the paragraph the running request belongs to
+   */
+  InterpreterContext getRequestContext(int id) {
+    PythonInterpretRequest req = runningRequests.get(id);
+    if (req == null) {
+      throw new InterpreterException("No python interpret request " + id);
+    }
+    return req.context;
+  }
+
+  PythonInterpretRequest submit(String statements, String jobGroup,
+                                InterpreterContext context) {
+    PythonInterpretRequest req = new PythonInterpretRequest(requestId.incrementAndGet(),
+        statements, jobGroup, context);
+    requests.add(req);
+    return req;
+  }
+
+  /**
+   * Fail the statements of the job group not taken by python yet.
+   */
+  void cancelQueued(String jobGroup) {
+    Iterator<PythonInterpretRequest> it = requests.iterator();
+    while (it.hasNext()) {
+      PythonInterpretRequest req = it.next();
+      if (req.jobGroup().equals(jobGroup) && requests.remove(req)) {
+        req.finish("cancelled", true);
+      }
+    }
+  }
+
+  /**
+   * Fail requests nobody will answer, when python process is gone.
+   */
+  void failAllRequests(String message) {
+    List<PythonInterpretRequest> pending = new LinkedList<PythonInterpretRequest>();
+    requests.drainTo(pending);
+    pending.addAll(runningRequests.values());
+    runningRequests.clear();
+    String processOutput = outputStream == null ? "" : outputStream.toString();
+    for (PythonInterpretRequest req : pending) {
+      req.finish(message + processOutput, true);
     }
   }
 
-  String statementOutput = null;
-  boolean statementError = false;
-  Integer statementFinishedNotifier = new Integer(0);
+  ReentrantLock lockNote(String noteId) {
+    NoteLock lock;
+    synchronized (noteLocks) {
+      lock = noteLocks.get(noteId);
+      if (lock == null) {
+        lock = new NoteLock();
+        noteLocks.put(noteId, lock);
+      }
+      lock.users++;
+    }
+    lock.lock();
+    return lock;
+  }
 
-  public void setStatementsFinished(String out, boolean error) {
-    synchronized (statementFinishedNotifier) {
-      statementOutput = out;
-      statementError = error;
-      statementFinishedNotifier.notify();
+  void unlockNote(String noteId, ReentrantLock lock) {
+    lock.unlock();
+    synchronized (noteLocks) {
+      NoteLock noteLock = (NoteLock) lock;
+      noteLock.users--;
+      if (noteLock.users == 0) {
+        noteLocks.remove(noteId);
+      }
     }
+  }
 
+  int getNoteLockCount() {
+    synchronized (noteLocks) {
+      return noteLocks.size();
+    }
+  }
+
+  private int getConcurrency() {
+    try {
+      return Math.max(1, Integer.parseInt(getProperty("zeppelin.pyspark.concurrency")));
+    } catch (NumberFormatException e) {
+      return 1;
+    }
   }
 
   boolean pythonScriptInitialized = false;
@@ -333,38 +497,45 @@ public class PySparkInterpreter extends Interpreter implements ExecuteResultHand
           + sparkInterpreter.getSparkContext().version() + " is not supported");
     }
     String jobGroup = sparkInterpreter.getJobGroup(context);
-    ZeppelinContext z = sparkInterpreter.getZeppelinContext();
-    z.setInterpreterContext(context);
-    z.setGui(context.getGui());
-    pythonInterpretRequest = new PythonInterpretRequest(st, jobGroup);
-    statementOutput = null;
-
-    synchronized (statementSetNotifier) {
-      statementSetNotifier.notify();
-    }
 
-    synchronized (statementFinishedNotifier) {
-      while (statementOutput == null) {
-        try {
-          statementFinishedNotifier.wait(1000);
-        } catch (InterruptedException e) {
-        }
+    ReentrantLock noteLock = lockNote(context.getNoteId());
+    try {
+      // z.show() in python resolves the context of its own request. This only serves
+      // code calling the java ZeppelinContext directly, which sees the context of the
+      // latest paragraph when paragraphs of several notes run concurrently.
+      ZeppelinContext z = sparkInterpreter.getZeppelinContext();
+      synchronized (z) {
+        z.setInterpreterContext(context);
+        z.setGui(context.getGui());
       }
-    }
-
-    if (statementError) {
-      return new InterpreterResult(Code.ERROR, statementOutput);
-    } else {
-      return new InterpreterResult(Code.SUCCESS, statementOutput);
+      PythonInterpretRequest req = submit(st, jobGroup, context);
+      if (!pythonscriptRunning) {
+        failAllRequests("python process not running");
+      }
+      return req.waitForResult();
+    } finally {
+      unlockNote(context.getNoteId(), noteLock);
     }
   }
 
   @Override
   public void cancel(InterpreterContext context) {
     SparkInterpreter sparkInterpreter = getSparkInterpreter();
+    cancelQueued(sparkInterpreter.getJobGroup(context));
     sparkInterpreter.cancel(context);
   }
 
+  @Override
+  public Scheduler getScheduler() {
+    int concurrency = getConcurrency();
+    if (concurrency > 1) {
+      return SchedulerFactory.singleton().createOrGetParallelScheduler(
+          PySparkInterpreter.class.getName() + this.hashCode(), concurrency);
+    } else {
+      return super.getScheduler();
+    }
+  }
+
   @Override
   public FormType getFormType() {
     return FormType.NATIVE;
@@ -464,11 +635,13 @@ public class PySparkInterpreter extends Interpreter implements ExecuteResultHand
   public void onProcessComplete(int exitValue) {
     pythonscriptRunning = false;
     logger.info("python process terminated. exit code " + exitValue);
+    failAllRequests("python process terminated ");
   }
 
   @Override
   public void onProcessFailed(ExecuteException e) {
     pythonscriptRunning = false;
     logger.error("python process failed", e);
+    failAllRequests("python process failed ");
   }
 }
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.zeppelin.spark;
+
+import java.lang.reflect.Method;
+
+import org.apache.spark.sql.Row;
+import org.apache.zeppelin.interpreter.jdbc.TableRowEncoder;
+
+/**
+ * Appends rows collected from a DataFrame to a %table message.
+ *
+ * Cells are read through the {@link Row} interface of Spark 1.3 and later and written into
+ * one StringBuilder, instead of invoking isNullAt and apply by reflection per cell and
+ * concatenating Strings. Rows of older Spark versions are read by reflection, with the
+ * accessors looked up once per row class. Tab and newline characters inside a cell are
+ * replaced by a white space, as for the other %table results.
+ */
+class RowTableEncoder {
+  private static final boolean ROW_INTERFACE = hasRowInterface();
+  private static final TableRowEncoder CELLS = new TableRowEncoder("null");
+
+  private RowTableEncoder() {}
+
+  private static boolean hasRowInterface() {
+    try {
+      Class.forName("org.apache.spark.sql.Row");
+      return true;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
+  /**
+   * Append the first numRows rows, each on a line with tab separated cells.
+   */
+  static void appendRows(StringBuilder msg, Object[] rows, int numRows, int numColumns)
+      throws ReflectiveOperationException {
+    if (ROW_INTERFACE && (numRows == 0 || rows[0] instanceof Row)) {
+      appendTypedRows(msg, rows, numRows, numColumns);
+    } else {
+      appendReflectiveRows(msg, rows, numRows, numColumns);
+    }
+  }
+
+  /**
+   * Append the footer telling that only maxResult of numRows rows are shown,
+   * if the rows exceed maxResult.
+   */
+  static void appendLimitFooter(StringBuilder msg, int numRows, int maxResult) {
+    if (numRows > maxResult) {
+      msg.append("\n<font color=red>Results are limited by ").append(maxResult)
+          .append(".</font>");
+    }
+  }
+
+  private static void appendTypedRows(StringBuilder msg, Object[] rows, int numRows,
+      int numColumns) {
+    for (int r = 0; r < numRows; r++) {
+      Row row = (Row) rows[r];
+      for (int i = 0; i < numColumns; i++) {
+        if (i > 0) {
+          msg.append('\t');
+        }
+        if (row.isNullAt(i)) {
+          CELLS.appendCell(msg, null);
+        } else {
+          CELLS.appendCell(msg, String.valueOf(row.get(i)));
+        }
+      }
+      msg.append('\n');
+    }
+  }
+
+  private static void appendReflectiveRows(StringBuilder msg, Object[] rows, int numRows,
+      int numColumns) throws ReflectiveOperationException {
+    Class<?> rowClass = null;
+    Method isNullAt = null;
+    Method apply = null;
+    for (int r = 0; r < numRows; r++) {
+      Object row = rows[r];
+      if (row.getClass() != rowClass) {
+        rowClass = row.getClass();
+        isNullAt = rowClass.getMethod("isNullAt", int.class);
+        apply = rowClass.getMethod("apply", int.class);
+      }
+      for (int i = 0; i < numColumns; i++) {
+        if (i > 0) {
+          msg.append('\t');
+        }
+        if ((Boolean) isNullAt.invoke(row, i)) {
+          CELLS.appendCell(msg, null);
+        } else {
+          CELLS.appendCell(msg, apply.invoke(row, i).toString());
+        }
+      }
+      msg.append('\n');
+    }
+  }
+}
@@ -21,6 +21,7 @@ import static scala.collection.JavaConversions.asJavaCollection;
 import static scala.collection.JavaConversions.asJavaIterable;
 import static scala.collection.JavaConversions.collectionAsScalaIterable;
 
+import java.io.IOException;
 import java.io.PrintStream;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -245,6 +246,10 @@ public class ZeppelinContext extends HashMap<String, Object> {
     this.maxResult = maxResult;
   }
 
+  public int getMaxResult() {
+    return maxResult;
+  }
+
   /**
    * show DataFrame or SchemaRDD
    * @param o DataFrame or SchemaRDD object
@@ -287,6 +292,17 @@ public class ZeppelinContext extends HashMap<String, Object> {
     return showDF(z.sc, z.interpreterContext, df, z.maxResult);
   }
 
+  /**
+   * Display a table sent by python in columnar form. See {@link ColumnTableDecoder}.
+   */
+  public static String showColumns(ZeppelinContext z, byte[] columns) {
+    try {
+      return ColumnTableDecoder.toTableMessage(columns, z.maxResult);
+    } catch (IOException e) {
+      throw new InterpreterException(e);
+    }
+  }
+
   public static String showDF(SparkContext sc,
       InterpreterContext interpreterContext,
       Object df, int maxResult) {
@@ -305,8 +321,6 @@ public class ZeppelinContext extends HashMap<String, Object> {
       throw new InterpreterException(e);
     }
 
-    String msg = null;
-
     // get field names
     Method queryExecution;
     QueryExecution qe;
@@ -322,48 +336,30 @@ public class ZeppelinContext extends HashMap<String, Object> {
         scala.collection.JavaConverters.asJavaListConverter(
             qe.analyzed().output()).asJava();
 
-    for (Attribute col : columns) {
-      if (msg == null) {
-        msg = col.name();
-      } else {
-        msg += "\t" + col.name();
+    int numRows = Math.min(maxResult, rows.length);
+    StringBuilder msg = new StringBuilder();
+    msg.append("%table ");
+    for (int i = 0; i < columns.size(); i++) {
+      if (i > 0) {
+        msg.append('\t');
       }
+      msg.append(columns.get(i).name());
     }
-
-    msg += "\n";
+    msg.append('\n');
 
     // ArrayType, BinaryType, BooleanType, ByteType, DecimalType, DoubleType, DynamicType,
     // FloatType, FractionalType, IntegerType, IntegralType, LongType, MapType, NativeType,
     // NullType, NumericType, ShortType, StringType, StructType
 
     try {
-      for (int r = 0; r < maxResult && r < rows.length; r++) {
-        Object row = rows[r];
-        Method isNullAt = row.getClass().getMethod("isNullAt", int.class);
-        Method apply = row.getClass().getMethod("apply", int.class);
-
-        for (int i = 0; i < columns.size(); i++) {
-          if (!(Boolean) isNullAt.invoke(row, i)) {
-            msg += apply.invoke(row, i).toString();
-          } else {
-            msg += "null";
-          }
-          if (i != columns.size() - 1) {
-            msg += "\t";
-          }
-        }
-        msg += "\n";
-      }
-    } catch (NoSuchMethodException | SecurityException | IllegalAccessException
-        | IllegalArgumentException | InvocationTargetException e) {
+      RowTableEncoder.appendRows(msg, rows, numRows, columns.size());
+    } catch (ReflectiveOperationException | SecurityException | IllegalArgumentException e) {
       throw new InterpreterException(e);
     }
 
-    if (rows.length > maxResult) {
-      msg += "\n<font color=red>Results are limited by " + maxResult + ".</font>";
-    }
+    RowTableEncoder.appendLimitFooter(msg, rows.length, maxResult);
     sc.clearJobGroup();
-    return "%table " + msg;
+    return msg.toString();
   }
 
   /**
@@ -19,10 +19,18 @@ package org.apache.zeppelin.spark.dep;
 
 import java.io.File;
 import java.net.MalformedURLException;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.zeppelin.scheduler.ExecutorFactory;
+import org.apache.zeppelin.spark.dep.ResolutionCache.CachedArtifact;
 
 import org.sonatype.aether.RepositorySystem;
 import org.sonatype.aether.RepositorySystemSession;
@@ -32,7 +40,6 @@ import org.sonatype.aether.graph.DependencyFilter;
 import org.sonatype.aether.repository.RemoteRepository;
 import org.sonatype.aether.repository.Authentication;
 import org.sonatype.aether.resolution.ArtifactResolutionException;
-import org.sonatype.aether.resolution.ArtifactResult;
 import org.sonatype.aether.resolution.DependencyRequest;
 import org.sonatype.aether.resolution.DependencyResolutionException;
 import org.sonatype.aether.util.artifact.DefaultArtifact;
@@ -45,19 +52,26 @@ import org.sonatype.aether.util.filter.PatternExclusionsDependencyFilter;
  *
  */
 public class DependencyContext {
+  static final String EXECUTOR_NAME = "DependencyContextFetch";
+  static final int FETCH_THREADS = 4;
+
   List<Dependency> dependencies = new LinkedList<Dependency>();
   List<Repository> repositories = new LinkedList<Repository>();
 
   List<File> files = new LinkedList<File>();
   List<File> filesDist = new LinkedList<File>();
   private RepositorySystem system = Booter.newRepositorySystem();
-  private RepositorySystemSession session;
+  private String localRepoPath;
+  private ResolutionCache resolutionCache;
   private RemoteRepository mavenCentral = Booter.newCentralRepository();
   private RemoteRepository mavenLocal = Booter.newLocalRepository();
   private List<RemoteRepository> additionalRepos = new LinkedList<RemoteRepository>();
 
   public DependencyContext(String localRepoPath, String additionalRemoteRepository) {
-    session =  Booter.newRepositorySystemSession(system, localRepoPath);
+    this.localRepoPath = localRepoPath;
+    RepositorySystemSession session = Booter.newRepositorySystemSession(system, localRepoPath);
+    resolutionCache = ResolutionCache.forLocalRepository(
+        session.getLocalRepository().getBasedir());
     addRepoFromProperty(additionalRemoteRepository);
   }
 
@@ -105,7 +119,9 @@ public class DependencyContext {
   }
 
   /**
-   * fetch all artifacts
+   * fetch all artifacts.
+   * Dependencies are resolved concurrently, each in its own session as sessions are not thread
+   * safe. The files keep the order of the dependencies.
    * @return
    * @throws MalformedURLException
    * @throws ArtifactResolutionException
@@ -113,15 +129,34 @@ public class DependencyContext {
    */
   public List<File> fetch() throws MalformedURLException,
       DependencyResolutionException, ArtifactResolutionException {
+    final List<RemoteRepository> repos = getRemoteRepositories();
+    ExecutorService executor = ExecutorFactory.singleton().createOrGet(EXECUTOR_NAME,
+        FETCH_THREADS);
 
+    List<Future<List<CachedArtifact>>> resolutions =
+        new LinkedList<Future<List<CachedArtifact>>>();
+    for (final Dependency dep : dependencies) {
+      if (dep.isLocalFsArtifact()) {
+        resolutions.add(null);
+      } else {
+        resolutions.add(executor.submit(new Callable<List<CachedArtifact>>() {
+          @Override
+          public List<CachedArtifact> call() throws Exception {
+            return fetchArtifactWithDep(dep, repos);
+          }
+        }));
+      }
+    }
+
+    Iterator<Future<List<CachedArtifact>>> it = resolutions.iterator();
     for (Dependency dep : dependencies) {
-      if (!dep.isLocalFsArtifact()) {
-        List<ArtifactResult> artifacts = fetchArtifactWithDep(dep);
-        for (ArtifactResult artifact : artifacts) {
+      Future<List<CachedArtifact>> resolution = it.next();
+      if (resolution != null) {
+        for (CachedArtifact artifact : getResolution(resolution)) {
           if (dep.isDist()) {
-            filesDist.add(artifact.getArtifact().getFile());
+            filesDist.add(artifact.getFile());
           }
-          files.add(artifact.getArtifact().getFile());
+          files.add(artifact.getFile());
         }
       } else {
         if (dep.isDist()) {
@@ -134,39 +169,87 @@ public class DependencyContext {
     return files;
   }
 
-  private List<ArtifactResult> fetchArtifactWithDep(Dependency dep)
+  private List<CachedArtifact> getResolution(Future<List<CachedArtifact>> resolution)
+      throws DependencyResolutionException, ArtifactResolutionException {
+    try {
+      return resolution.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof DependencyResolutionException) {
+        throw (DependencyResolutionException) cause;
+      } else if (cause instanceof ArtifactResolutionException) {
+        throw (ArtifactResolutionException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new RuntimeException(cause);
+    }
+  }
+
+  private List<RemoteRepository> getRemoteRepositories() {
+    List<RemoteRepository> repos = new LinkedList<RemoteRepository>();
+    repos.add(mavenCentral);
+    repos.add(mavenLocal);
+    repos.addAll(additionalRepos);
+    for (Repository repo : repositories) {
+      RemoteRepository rr = new RemoteRepository(repo.getName(), "default", repo.getUrl());
+      rr.setPolicy(repo.isSnapshot(), null);
+      Authentication auth = repo.getAuthentication();
+      if (auth != null) {
+        rr.setAuthentication(auth);
+      }
+      repos.add(rr);
+    }
+    return repos;
+  }
+
+  private List<CachedArtifact> fetchArtifactWithDep(Dependency dep, List<RemoteRepository> repos)
       throws DependencyResolutionException, ArtifactResolutionException {
-    Artifact artifact = new DefaultArtifact(
-        DependencyResolver.inferScalaVersion(dep.getGroupArtifactVersion()));
+    String coordinate = DependencyResolver.inferScalaVersion(dep.getGroupArtifactVersion());
+    List<String> exclusions =
+        new LinkedList<String>(DependencyResolver.inferScalaVersion(dep.getExclusions()));
+
+    List<String> repositoryKeys = new LinkedList<String>();
+    for (RemoteRepository repo : repos) {
+      repositoryKeys.add(DependencyResolver.repositoryKey(repo));
+    }
+    String key = ResolutionCache.key(coordinate, exclusions, repositoryKeys);
+    boolean cacheable = ResolutionCache.isCacheable(coordinate);
+    if (cacheable) {
+      List<CachedArtifact> cached = resolutionCache.get(key);
+      if (cached != null) {
+        return cached;
+      }
+    }
+
+    Artifact artifact = new DefaultArtifact(coordinate);
 
     DependencyFilter classpathFlter = DependencyFilterUtils
         .classpathFilter(JavaScopes.COMPILE);
-    PatternExclusionsDependencyFilter exclusionFilter = new PatternExclusionsDependencyFilter(
-        DependencyResolver.inferScalaVersion(dep.getExclusions()));
+    PatternExclusionsDependencyFilter exclusionFilter =
+        new PatternExclusionsDependencyFilter(exclusions);
 
     CollectRequest collectRequest = new CollectRequest();
     collectRequest.setRoot(new org.sonatype.aether.graph.Dependency(artifact,
         JavaScopes.COMPILE));
 
-    collectRequest.addRepository(mavenCentral);
-    collectRequest.addRepository(mavenLocal);
-    for (RemoteRepository repo : additionalRepos) {
+    for (RemoteRepository repo : repos) {
       collectRequest.addRepository(repo);
     }
-    for (Repository repo : repositories) {
-      RemoteRepository rr = new RemoteRepository(repo.getName(), "default", repo.getUrl());
-      rr.setPolicy(repo.isSnapshot(), null);
-      Authentication auth = repo.getAuthentication();
-      if (auth != null) {
-        rr.setAuthentication(auth);
-      }
-      collectRequest.addRepository(rr);
-    }
 
     DependencyRequest dependencyRequest = new DependencyRequest(collectRequest,
         DependencyFilterUtils.andFilter(exclusionFilter, classpathFlter));
 
-    return system.resolveDependencies(session, dependencyRequest).getArtifactResults();
+    RepositorySystemSession session = Booter.newRepositorySystemSession(system, localRepoPath);
+    List<CachedArtifact> resolved = DependencyResolver.toCachedArtifacts(
+        system.resolveDependencies(session, dependencyRequest).getArtifactResults());
+    if (cacheable) {
+      resolutionCache.put(key, resolved);
+    }
+    return resolved;
   }
 
   public List<File> getFiles() {
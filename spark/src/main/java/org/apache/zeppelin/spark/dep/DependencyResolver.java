@@ -23,13 +23,16 @@ import java.lang.reflect.Method;
 import java.net.URL;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.spark.SparkContext;
 import org.apache.spark.repl.SparkIMain;
+import org.apache.zeppelin.spark.dep.ResolutionCache.CachedArtifact;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonatype.aether.RepositorySystem;
@@ -69,6 +72,10 @@ public class DependencyResolver {
   private RepositorySystem system = Booter.newRepositorySystem();
   private List<RemoteRepository> repos = new LinkedList<RemoteRepository>();
   private RepositorySystemSession session;
+  private ResolutionCache resolutionCache;
+  // jars already added to the interpreter and to the SparkContext
+  private Set<String> loadedUrls = new HashSet<String>();
+  private Set<String> sparkContextJars = new HashSet<String>();
   private DependencyFilter classpathFlter = DependencyFilterUtils.classpathFilter(
                                                                                 JavaScopes.COMPILE,
                                                                                 JavaScopes.PROVIDED,
@@ -89,6 +96,8 @@ public class DependencyResolver {
     this.global = intp.global();
     this.sc = sc;
     session = Booter.newRepositorySystemSession(system, localRepoPath);
+    resolutionCache = ResolutionCache.forLocalRepository(
+        session.getLocalRepository().getBasedir());
     repos.add(Booter.newCentralRepository()); // add maven central
     repos.add(Booter.newLocalRepository());
     addRepoFromProperty(additionalRemoteRepository);
@@ -245,16 +254,19 @@ public class DependencyResolver {
 
   private void loadFromFs(String artifact, boolean addSparkContext) throws Exception {
     File jarFile = new File(artifact);
+    URL url = jarFile.toURI().toURL();
 
-    intp.global().new Run();
+    if (loadedUrls.add(url.toString())) {
+      intp.global().new Run();
 
-    if (sc.version().startsWith("1.1")) {
-      updateRuntimeClassPath_1_x(new URL[] {jarFile.toURI().toURL()});
-    } else {
-      updateRuntimeClassPath_2_x(new URL[] {jarFile.toURI().toURL()});
+      if (sc.version().startsWith("1.1")) {
+        updateRuntimeClassPath_1_x(new URL[] {url});
+      } else {
+        updateRuntimeClassPath_2_x(new URL[] {url});
+      }
     }
 
-    if (addSparkContext) {
+    if (addSparkContext && sparkContextJars.add(jarFile.getAbsolutePath())) {
       sc.addJar(jarFile.getAbsolutePath());
     }
   }
@@ -266,13 +278,11 @@ public class DependencyResolver {
     allExclusions.addAll(excludes);
     allExclusions.addAll(Arrays.asList(exclusions));
 
-    List<ArtifactResult> listOfArtifact;
-    listOfArtifact = getArtifactsWithDep(artifact, allExclusions);
+    List<CachedArtifact> listOfArtifact = resolveArtifacts(artifact, allExclusions);
 
-    Iterator<ArtifactResult> it = listOfArtifact.iterator();
+    Iterator<CachedArtifact> it = listOfArtifact.iterator();
     while (it.hasNext()) {
-      Artifact a = it.next().getArtifact();
-      String gav = a.getGroupId() + ":" + a.getArtifactId() + ":" + a.getVersion();
+      String gav = it.next().getCoordinate();
       for (String exclude : allExclusions) {
         if (gav.startsWith(exclude)) {
           it.remove();
@@ -283,34 +293,82 @@ public class DependencyResolver {
 
     List<URL> newClassPathList = new LinkedList<URL>();
     List<File> files = new LinkedList<File>();
-    for (ArtifactResult artifactResult : listOfArtifact) {
-      logger.info("Load " + artifactResult.getArtifact().getGroupId() + ":"
-          + artifactResult.getArtifact().getArtifactId() + ":"
-          + artifactResult.getArtifact().getVersion());
-      newClassPathList.add(artifactResult.getArtifact().getFile().toURI().toURL());
-      files.add(artifactResult.getArtifact().getFile());
-      loadedLibs.add(artifactResult.getArtifact().getGroupId() + ":"
-          + artifactResult.getArtifact().getArtifactId() + ":"
-          + artifactResult.getArtifact().getVersion());
+    for (CachedArtifact a : listOfArtifact) {
+      logger.info("Load " + a.getCoordinate());
+      URL url = a.getFile().toURI().toURL();
+      // jars loaded before are already on the classpath
+      if (loadedUrls.add(url.toString())) {
+        newClassPathList.add(url);
+      }
+      files.add(a.getFile());
+      loadedLibs.add(a.getCoordinate());
     }
 
-    intp.global().new Run();
-    if (sc.version().startsWith("1.1")) {
-      updateRuntimeClassPath_1_x(newClassPathList.toArray(new URL[0]));
-    } else {
-      updateRuntimeClassPath_2_x(newClassPathList.toArray(new URL[0]));
+    if (!newClassPathList.isEmpty()) {
+      URL[] urls = newClassPathList.toArray(new URL[0]);
+      intp.global().new Run();
+      if (sc.version().startsWith("1.1")) {
+        updateRuntimeClassPath_1_x(urls);
+      } else {
+        updateRuntimeClassPath_2_x(urls);
+      }
+      updateCompilerClassPath(urls);
     }
-    updateCompilerClassPath(newClassPathList.toArray(new URL[0]));
 
     if (addSparkContext) {
       for (File f : files) {
-        sc.addJar(f.getAbsolutePath());
+        if (sparkContextJars.add(f.getAbsolutePath())) {
+          sc.addJar(f.getAbsolutePath());
+        }
       }
     }
 
     return loadedLibs;
   }
 
+  /**
+   * Resolve an artifact with its dependencies, from the resolution cache when possible.
+   */
+  private List<CachedArtifact> resolveArtifacts(String artifact, Collection<String> excludes)
+      throws Exception {
+    List<String> repositories = new LinkedList<String>();
+    synchronized (repos) {
+      for (RemoteRepository repo : repos) {
+        repositories.add(repositoryKey(repo));
+      }
+    }
+    String key = ResolutionCache.key(inferScalaVersion(artifact), inferScalaVersion(excludes),
+        repositories);
+    boolean cacheable = ResolutionCache.isCacheable(artifact);
+    if (cacheable) {
+      List<CachedArtifact> cached = resolutionCache.get(key);
+      if (cached != null) {
+        logger.info("Resolved " + artifact + " from cache");
+        return cached;
+      }
+    }
+
+    List<CachedArtifact> resolved = toCachedArtifacts(getArtifactsWithDep(artifact, excludes));
+    if (cacheable) {
+      resolutionCache.put(key, resolved);
+    }
+    return resolved;
+  }
+
+  static String repositoryKey(RemoteRepository repo) {
+    return repo.getId() + "@" + repo.getUrl();
+  }
+
+  static List<CachedArtifact> toCachedArtifacts(List<ArtifactResult> results) {
+    List<CachedArtifact> artifacts = new LinkedList<CachedArtifact>();
+    for (ArtifactResult result : results) {
+      Artifact a = result.getArtifact();
+      artifacts.add(new CachedArtifact(
+          a.getGroupId() + ":" + a.getArtifactId() + ":" + a.getVersion(), a.getFile()));
+    }
+    return artifacts;
+  }
+
   /**
    *
    * @param dependency
@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.zeppelin.spark.dep;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Remembers the artifacts a dependency resolved to, so loading the same dependencies again,
+ * e.g. after an interpreter restart, does not walk the dependency graph through Aether.
+ *
+ * Entries are keyed by the coordinate, the exclusions and the repositories, and are stored
+ * next to the local repository. An entry is used only while all of its files still exist.
+ * SNAPSHOT versions, version ranges and LATEST/RELEASE are never cached since they may
+ * resolve differently later.
+ */
+public class ResolutionCache {
+  static final String FILE_NAME = "zeppelin-resolution-cache.properties";
+
+  private static final Logger logger = LoggerFactory.getLogger(ResolutionCache.class);
+  private static final Map<File, ResolutionCache> caches = new HashMap<File, ResolutionCache>();
+  // file locks are held by the JVM, not by the thread
+  private static final Object JVM_LOCK = new Object();
+
+  private final File file;
+  private final Properties entries = new Properties();
+
+  /**
+   * Artifact of a cached resolution.
+   */
+  public static class CachedArtifact {
+    private final String coordinate;
+    private final File file;
+
+    public CachedArtifact(String coordinate, File file) {
+      this.coordinate = coordinate;
+      this.file = file;
+    }
+
+    /**
+     * @return groupId:artifactId:version
+     */
+    public String getCoordinate() {
+      return coordinate;
+    }
+
+    public File getFile() {
+      return file;
+    }
+  }
+
+  ResolutionCache(File file) {
+    this.file = file;
+    load(entries);
+  }
+
+  /**
+   * Cache stored in the given local repository directory, shared within the process.
+   */
+  public static ResolutionCache forLocalRepository(File localRepository) {
+    File file = new File(localRepository, FILE_NAME).getAbsoluteFile();
+    synchronized (caches) {
+      ResolutionCache cache = caches.get(file);
+      if (cache == null) {
+        cache = new ResolutionCache(file);
+        caches.put(file, cache);
+      }
+      return cache;
+    }
+  }
+
+  public static String key(String artifact, Collection<String> excludes,
+      Collection<String> repositories) {
+    // exclusions are a set, the order of repositories matters for resolution
+    return artifact + "|" + StringUtils.join(new TreeSet<String>(excludes), ",") + "|"
+        + StringUtils.join(repositories, ",");
+  }
+
+  public static boolean isCacheable(String artifact) {
+    String[] parts = artifact.split(":");
+    if (parts.length < 3) {
+      return false;
+    }
+    String version = parts[parts.length - 1];
+    return !(version.endsWith("SNAPSHOT") || version.equals("LATEST")
+        || version.equals("RELEASE") || StringUtils.indexOfAny(version, "[](),") >= 0);
+  }
+
+  /**
+   * @return null when not cached or when a file of the entry is gone
+   */
+  public synchronized List<CachedArtifact> get(String key) {
+    String value = entries.getProperty(key);
+    if (value == null) {
+      return null;
+    }
+    List<CachedArtifact> artifacts = new LinkedList<CachedArtifact>();
+    for (String line : StringUtils.split(value, '\n')) {
+      int sep = line.indexOf('\t');
+      if (sep < 0) {
+        return null;
+      }
+      File f = new File(line.substring(sep + 1));
+      if (!f.isFile()) {
+        return null;
+      }
+      artifacts.add(new CachedArtifact(line.substring(0, sep), f));
+    }
+    return artifacts;
+  }
+
+  public synchronized void put(String key, List<CachedArtifact> artifacts) {
+    StringBuilder value = new StringBuilder();
+    for (CachedArtifact a : artifacts) {
+      if (value.length() > 0) {
+        value.append('\n');
+      }
+      value.append(a.getCoordinate()).append('\t').append(a.getFile().getAbsolutePath());
+    }
+    entries.setProperty(key, value.toString());
+    save();
+  }
+
+  private void load(Properties into) {
+    if (!file.isFile()) {
+      return;
+    }
+    InputStream in = null;
+    try {
+      in = new FileInputStream(file);
+      into.load(in);
+    } catch (IOException e) {
+      logger.warn("Can't read dependency resolution cache " + file, e);
+    } finally {
+      closeQuietly(in);
+    }
+  }
+
+  private void save() {
+    synchronized (JVM_LOCK) {
+      FileLock lock = null;
+      try {
+        file.getParentFile().mkdirs();
+        lock = lockFile();
+        // keep what other interpreter processes sharing the local repository added meanwhile
+        Properties merged = new Properties();
+        load(merged);
+        merged.putAll(entries);
+        entries.putAll(merged);
+        store(merged);
+      } catch (IOException e) {
+        logger.warn("Can't write dependency resolution cache " + file, e);
+      } finally {
+        release(lock);
+      }
+    }
+  }
+
+  /**
+   * Write to a temporary file of this process, then rename it over the cache file,
+   * so readers never see a partially written cache.
+   */
+  private void store(Properties properties) throws IOException {
+    File tmp = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+    OutputStream out = null;
+    try {
+      out = new FileOutputStream(tmp);
+      properties.store(out, "Zeppelin dependency resolution cache");
+      out.close();
+      out = null;
+      try {
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      closeQuietly(out);
+      if (tmp.exists()) {
+        tmp.delete();
+      }
+    }
+  }
+
+  private FileLock lockFile() throws IOException {
+    RandomAccessFile lockFile = new RandomAccessFile(new File(file.getPath() + ".lock"), "rw");
+    try {
+      return lockFile.getChannel().lock();
+    } catch (IOException e) {
+      lockFile.close();
+      throw e;
+    }
+  }
+
+  private static void release(FileLock lock) {
+    if (lock == null) {
+      return;
+    }
+    FileChannel channel = lock.channel();
+    try {
+      lock.release();
+    } catch (IOException e) {
+      logger.warn("Can't release dependency resolution cache lock", e);
+    } finally {
+      closeQuietly(channel);
+    }
+  }
+
+  private static void closeQuietly(Closeable c) {
+    if (c != null) {
+      try {
+        c.close();
+      } catch (IOException e) {
+        // ignore
+      }
+    }
+  }
+}
@@ -15,7 +15,7 @@
 # limitations under the License.
 #
 
-import sys, getopt, traceback
+import sys, getopt, traceback, threading, struct
 
 from py4j.java_gateway import java_import, JavaGateway, GatewayClient
 from py4j.protocol import Py4JJavaError
@@ -31,19 +31,52 @@ from pyspark.serializers import MarshalSerializer, PickleSerializer
 # for back compatibility
 from pyspark.sql import SQLContext, HiveContext, SchemaRDD, Row
 
+# keeps output of each worker thread apart
 class Logger(object):
   def __init__(self):
-    self.out = ""
+    self.local = threading.local()
 
   def write(self, message):
-    self.out = self.out + message
+    self.local.out = self.get() + message
 
   def get(self):
-    return self.out
+    return getattr(self.local, "out", "")
 
   def reset(self):
-    self.out = ""
-
+    self.local.out = ""
+
+
+def isPandasDataFrame(obj):
+  return type(obj).__module__.startswith("pandas") and hasattr(obj, "iloc") \
+      and hasattr(obj, "columns")
+
+def cellText(value):
+  if value is None:
+    return u"null"
+  if isinstance(value, str):
+    value = value.decode("utf-8", "replace")
+  else:
+    value = unicode(value)
+  return value.replace(u"\t", u" ").replace(u"\n", u" ")
+
+def frame(text):
+  data = text.encode("utf-8")
+  return struct.pack(">i", len(data)) + data
+
+# encodes a pandas DataFrame column by column, as read by ColumnTableDecoder.
+# the whole table goes to the JVM as one byte[] in a single py4j call.
+def encodeColumns(df, limit):
+  rows = df.head(limit)
+  numColumns = len(rows.columns)
+  buf = bytearray(struct.pack(">ii", numColumns, len(rows)))
+  for name in rows.columns:
+    buf += frame(cellText(name))
+  for i in range(numColumns):
+    buf += frame(u"\n".join([cellText(v) for v in rows.iloc[:, i]]))
+  return buf
+
+# id of the request each worker thread is executing
+currentRequest = threading.local()
 
 class PyZeppelinContext(dict):
   def __init__(self, zc):
@@ -52,7 +85,11 @@ class PyZeppelinContext(dict):
   def show(self, obj):
     from pyspark.sql import DataFrame
     if isinstance(obj, DataFrame):
-      print gateway.jvm.org.apache.zeppelin.spark.ZeppelinContext.showDF(self.z, obj._jdf)
+      # the jvm resolves the paragraph context of this worker's request
+      print intp.showDF(currentRequest.id, obj._jdf)
+    elif isPandasDataFrame(obj):
+      columns = encodeColumns(obj, self.z.getMaxResult() + 1)
+      print gateway.jvm.org.apache.zeppelin.spark.ZeppelinContext.showColumns(self.z, columns)
     else:
       print str(obj)
 
@@ -98,6 +135,7 @@ sys.stderr = output
 
 client = GatewayClient(port=int(sys.argv[1]))
 sparkVersion = SparkVersion(int(sys.argv[2]))
+concurrency = int(sys.argv[3]) if len(sys.argv) > 3 else 1
 
 if sparkVersion.isAutoConvertEnabled():
   gateway = JavaGateway(client, auto_convert = True)
@@ -135,40 +173,53 @@ sqlContext = sqlc
 
 z = PyZeppelinContext(intp.getZeppelinContext())
 
-while True :
-  req = intp.getStatements()
-  try:
-    stmts = req.statements().split("\n")
-    jobGroup = req.jobGroup()
-    final_code = None
+def serve():
+  while True :
+    req = intp.getStatements()
+    if req == None:
+      break
+
+    currentRequest.id = req.id()
+    try:
+      stmts = req.statements().split("\n")
+      jobGroup = req.jobGroup()
+      final_code = None
+
+      for s in stmts:
+        if s == None:
+          continue
 
-    for s in stmts:
-      if s == None:
-        continue
+        # skip comment
+        s_stripped = s.strip()
+        if len(s_stripped) == 0 or s_stripped.startswith("#"):
+          continue
 
-      # skip comment
-      s_stripped = s.strip()
-      if len(s_stripped) == 0 or s_stripped.startswith("#"):
-        continue
+        if final_code:
+          final_code += "\n" + s
+        else:
+          final_code = s
 
       if final_code:
-        final_code += "\n" + s
-      else:
-        final_code = s
-
-    if final_code:
-      compiledCode = compile(final_code, "<string>", "exec")
-      sc.setJobGroup(jobGroup, "Zeppelin")
-      eval(compiledCode)
-
-    intp.setStatementsFinished(output.get(), False)
-  except Py4JJavaError:
-    excInnerError = traceback.format_exc() # format_tb() does not return the inner exception
-    innerErrorStart = excInnerError.find("Py4JJavaError:")
-    if innerErrorStart > -1:
-       excInnerError = excInnerError[innerErrorStart:]
-    intp.setStatementsFinished(excInnerError + str(sys.exc_info()), True)
-  except:
-    intp.setStatementsFinished(traceback.format_exc(), True)
-
-  output.reset()
+        compiledCode = compile(final_code, "<string>", "exec")
+        sc.setJobGroup(jobGroup, "Zeppelin")
+        eval(compiledCode, globals())
+
+      intp.setStatementsFinished(req.id(), output.get(), False)
+    except Py4JJavaError:
+      excInnerError = traceback.format_exc() # format_tb() does not return the inner exception
+      innerErrorStart = excInnerError.find("Py4JJavaError:")
+      if innerErrorStart > -1:
+         excInnerError = excInnerError[innerErrorStart:]
+      intp.setStatementsFinished(req.id(), excInnerError + str(sys.exc_info()), True)
+    except:
+      intp.setStatementsFinished(req.id(), traceback.format_exc(), True)
+
+    output.reset()
+
+# statements of different notes run in separate threads
+for i in range(1, concurrency):
+  worker = threading.Thread(target=serve)
+  worker.daemon = True
+  worker.start()
+
+serve()
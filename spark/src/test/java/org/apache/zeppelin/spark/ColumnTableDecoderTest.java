@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.spark;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class ColumnTableDecoderTest {
+
+  private static byte[] encode(String[] names, String[] columns, int numRows)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(names.length);
+    out.writeInt(numRows);
+    for (String name : names) {
+      byte[] b = name.getBytes("UTF-8");
+      out.writeInt(b.length);
+      out.write(b);
+    }
+    for (String column : columns) {
+      byte[] b = column.getBytes("UTF-8");
+      out.writeInt(b.length);
+      out.write(b);
+    }
+    out.close();
+    return bytes.toByteArray();
+  }
+
+  @Test
+  public void testToTableMessage() throws IOException {
+    byte[] data = encode(new String[]{"name", "age"},
+        new String[]{"moon\npark\n한글", "33\n20\nnull"}, 3);
+    assertEquals("%table name\tage\nmoon\t33\npark\t20\n한글\tnull\n",
+        ColumnTableDecoder.toTableMessage(data, 10));
+  }
+
+  @Test
+  public void testLimit() throws IOException {
+    byte[] data = encode(new String[]{"v"}, new String[]{"1\n2\n3"}, 3);
+    assertEquals("%table v\n1\n2\n\n<font color=red>Results are limited by 2.</font>",
+        ColumnTableDecoder.toTableMessage(data, 2));
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    byte[] data = encode(new String[]{"a", "b"}, new String[]{"", ""}, 0);
+    assertEquals("%table a\tb\n", ColumnTableDecoder.toTableMessage(data, 10));
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.spark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.spark.SparkConf;
+import org.apache.spark.Success$;
+import org.apache.spark.scheduler.JobSucceeded$;
+import org.apache.spark.scheduler.SparkListenerJobEnd;
+import org.apache.spark.scheduler.SparkListenerJobStart;
+import org.apache.spark.scheduler.SparkListenerStageSubmitted;
+import org.apache.spark.scheduler.SparkListenerTaskEnd;
+import org.apache.spark.scheduler.StageInfo;
+import org.apache.spark.scheduler.TaskInfo;
+import org.apache.spark.storage.RDDInfo;
+import org.junit.Before;
+import org.junit.Test;
+
+import scala.collection.JavaConversions;
+
+/**
+ * Feeds JobGroupProgressListener with synthetic listener bus events.
+ */
+public class JobGroupProgressListenerTest {
+  private static final String GROUP = "zeppelin-paragraph";
+
+  private JobGroupProgressListener listener;
+  private Properties properties;
+  private long taskId;
+
+  @Before
+  public void setUp() {
+    listener = new JobGroupProgressListener(new SparkConf(false));
+    properties = new Properties();
+    properties.setProperty(JobGroupProgressListener.JOB_GROUP_ID, GROUP);
+  }
+
+  private StageInfo stage(int stageId, int numTasks) {
+    return new StageInfo(stageId, 0, "stage " + stageId, numTasks,
+        JavaConversions.asScalaBuffer(new LinkedList<RDDInfo>()),
+        JavaConversions.asScalaBuffer(new LinkedList<Object>()),
+        "details");
+  }
+
+  private void jobStart(int jobId, StageInfo... stages) {
+    List<StageInfo> stageInfos = Arrays.asList(stages);
+    listener.onJobStart(new SparkListenerJobStart(jobId, System.currentTimeMillis(),
+        JavaConversions.asScalaBuffer(stageInfos), properties));
+  }
+
+  private void stageSubmitted(StageInfo stage) {
+    listener.onStageSubmitted(new SparkListenerStageSubmitted(stage, properties));
+  }
+
+  private void taskEnd(StageInfo stage) {
+    TaskInfo info = new TaskInfo(taskId, (int) taskId, 0, System.currentTimeMillis(),
+        "executor", "localhost", null, false) {
+      @Override
+      public boolean successful() {
+        return true;
+      }
+    };
+    taskId++;
+    listener.onTaskEnd(new SparkListenerTaskEnd(stage.stageId(), 0, "ResultTask",
+        Success$.MODULE$, info, null));
+  }
+
+  private void jobEnd(int jobId) {
+    listener.onJobEnd(new SparkListenerJobEnd(jobId, System.currentTimeMillis(),
+        JobSucceeded$.MODULE$));
+  }
+
+  @Test
+  public void testProgress() {
+    StageInfo map = stage(0, 2);
+    StageInfo reduce = stage(1, 2);
+    jobStart(0, map, reduce);
+    assertEquals(4, listener.getProgress(GROUP).getTotalTasks());
+    assertEquals(0, listener.getProgressPercentage(GROUP));
+
+    stageSubmitted(map);
+    taskEnd(map);
+    assertEquals(25, listener.getProgressPercentage(GROUP));
+    taskEnd(map);
+    assertEquals(50, listener.getProgressPercentage(GROUP));
+    stageSubmitted(reduce);
+    assertEquals(50, listener.getProgressPercentage(GROUP));
+    taskEnd(reduce);
+    assertEquals(75, listener.getProgressPercentage(GROUP));
+    taskEnd(reduce);
+    assertEquals(100, listener.getProgressPercentage(GROUP));
+
+    jobEnd(0);
+    assertNull(listener.getProgress(GROUP));
+    assertEquals(0, listener.getProgressPercentage(GROUP));
+  }
+
+  @Test
+  public void testSkippedStageIsSubtractedAtJobEnd() {
+    // the map stage output is reused from a previous job, so only the reduce stage runs
+    StageInfo map = stage(0, 8);
+    StageInfo reduce = stage(1, 2);
+    StageInfo other = stage(2, 2);
+    jobStart(0, map, reduce);
+    jobStart(1, other);
+    assertEquals(12, listener.getProgress(GROUP).getTotalTasks());
+
+    stageSubmitted(reduce);
+    taskEnd(reduce);
+    taskEnd(reduce);
+    jobEnd(0);
+    assertEquals(4, listener.getProgress(GROUP).getTotalTasks());
+    assertEquals(50, listener.getProgressPercentage(GROUP));
+
+    stageSubmitted(other);
+    taskEnd(other);
+    taskEnd(other);
+    assertEquals(100, listener.getProgressPercentage(GROUP));
+    jobEnd(1);
+    assertNull(listener.getProgress(GROUP));
+  }
+
+  @Test
+  public void testStageUnknownAtJobStartIsCountedWhenSubmitted() {
+    StageInfo known = stage(0, 2);
+    StageInfo late = stage(1, 2);
+    jobStart(0, known);
+
+    stageSubmitted(known);
+    taskEnd(known);
+    taskEnd(known);
+    stageSubmitted(late);
+    assertEquals(4, listener.getProgress(GROUP).getTotalTasks());
+    assertEquals(50, listener.getProgressPercentage(GROUP));
+    jobEnd(0);
+  }
+
+  @Test
+  public void testResubmittedStageIsCountedOnce() {
+    StageInfo stage = stage(0, 2);
+    jobStart(0, stage);
+
+    stageSubmitted(stage);
+    taskEnd(stage);
+    stageSubmitted(stage);
+    assertEquals(2, listener.getProgress(GROUP).getTotalTasks());
+    taskEnd(stage);
+    assertEquals(100, listener.getProgressPercentage(GROUP));
+    jobEnd(0);
+  }
+
+  @Test
+  public void testJobsOfOtherGroupsAreIgnored() {
+    Properties other = properties;
+    properties = new Properties();
+    properties.setProperty(JobGroupProgressListener.JOB_GROUP_ID, "other");
+    StageInfo stage = stage(0, 2);
+    jobStart(0, stage);
+    stageSubmitted(stage);
+    properties = other;
+
+    assertNull(listener.getProgress(GROUP));
+    assertEquals(2, listener.getProgress("other").getTotalTasks());
+    jobEnd(0);
+    assertNull(listener.getProgress("other"));
+  }
+}
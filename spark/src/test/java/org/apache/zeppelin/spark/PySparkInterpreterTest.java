@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.spark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.zeppelin.display.AngularObjectRegistry;
+import org.apache.zeppelin.display.GUI;
+import org.apache.zeppelin.interpreter.InterpreterContext;
+import org.apache.zeppelin.interpreter.InterpreterContextRunner;
+import org.apache.zeppelin.interpreter.InterpreterResult;
+import org.apache.zeppelin.interpreter.InterpreterResult.Code;
+import org.apache.zeppelin.spark.PySparkInterpreter.PythonInterpretRequest;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Request queue of PySparkInterpreter, without starting python.
+ */
+public class PySparkInterpreterTest {
+  private PySparkInterpreter pyspark;
+
+  @Before
+  public void setUp() {
+    pyspark = new PySparkInterpreter(new Properties());
+  }
+
+  private InterpreterContext context(String noteId, String paragraphId) {
+    return new InterpreterContext(noteId, paragraphId, "title", "text",
+        new HashMap<String, Object>(), new GUI(), new AngularObjectRegistry("intpGroup", null),
+        new LinkedList<InterpreterContextRunner>());
+  }
+
+  @Test
+  public void testStatementsFinishedById() {
+    InterpreterContext contextA = context("note1", "a");
+    InterpreterContext contextB = context("note2", "b");
+    PythonInterpretRequest a = pyspark.submit("print 'a'", "zeppelin-a", contextA);
+    PythonInterpretRequest b = pyspark.submit("print 'b'", "zeppelin-b", contextB);
+
+    // two python workers take both statements
+    assertSame(a, pyspark.getStatements());
+    assertSame(b, pyspark.getStatements());
+    assertSame(contextA, pyspark.getRequestContext(a.id()));
+    assertSame(contextB, pyspark.getRequestContext(b.id()));
+
+    // and finish them in the reverse order
+    pyspark.setStatementsFinished(b.id(), "b\n", false);
+    pyspark.setStatementsFinished(a.id(), "error a", true);
+
+    InterpreterResult resultA = a.waitForResult();
+    assertEquals(Code.ERROR, resultA.code());
+    assertEquals("error a", resultA.message());
+    InterpreterResult resultB = b.waitForResult();
+    assertEquals(Code.SUCCESS, resultB.code());
+    assertEquals("b\n", resultB.message());
+  }
+
+  @Test
+  public void testCancelQueuedRequest() {
+    PythonInterpretRequest a = pyspark.submit("print 'a'", "zeppelin-a", context("n", "a"));
+    PythonInterpretRequest b = pyspark.submit("print 'b'", "zeppelin-b", context("n", "b"));
+
+    pyspark.cancelQueued("zeppelin-a");
+
+    InterpreterResult result = a.waitForResult();
+    assertEquals(Code.ERROR, result.code());
+    assertEquals("cancelled", result.message());
+    assertSame(b, pyspark.getStatements());
+  }
+
+  @Test
+  public void testFailAllRequestsOnProcessExit() {
+    PythonInterpretRequest running =
+        pyspark.submit("print 'a'", "zeppelin-a", context("n1", "a"));
+    PythonInterpretRequest queued =
+        pyspark.submit("print 'b'", "zeppelin-b", context("n2", "b"));
+    assertSame(running, pyspark.getStatements());
+
+    pyspark.onProcessComplete(1);
+
+    for (PythonInterpretRequest req : new PythonInterpretRequest[]{running, queued}) {
+      InterpreterResult result = req.waitForResult();
+      assertEquals(Code.ERROR, result.code());
+      assertTrue(result.message().startsWith("python process terminated"));
+    }
+    // late answer of the dead process is ignored
+    pyspark.setStatementsFinished(running.id(), "a\n", false);
+  }
+
+  @Test
+  public void testNoteLockRemovedWhenUnused() throws InterruptedException {
+    ReentrantLock lock = pyspark.lockNote("note");
+    final CountDownLatch done = new CountDownLatch(1);
+    Thread other = new Thread() {
+      @Override
+      public void run() {
+        ReentrantLock sameLock = pyspark.lockNote("note");
+        pyspark.unlockNote("note", sameLock);
+        done.countDown();
+      }
+    };
+    other.start();
+    while (!lock.hasQueuedThreads()) {
+      Thread.sleep(10);
+    }
+    assertEquals(1, pyspark.getNoteLockCount());
+
+    pyspark.unlockNote("note", lock);
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    assertEquals(0, pyspark.getNoteLockCount());
+  }
+}
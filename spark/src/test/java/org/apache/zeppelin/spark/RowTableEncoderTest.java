@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.spark;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.spark.sql.RowFactory;
+import org.junit.Test;
+
+public class RowTableEncoderTest {
+
+  /**
+   * Row of Spark versions without the Row interface, read by reflection.
+   */
+  public static class LegacyRow {
+    private final Object[] values;
+
+    public LegacyRow(Object... values) {
+      this.values = values;
+    }
+
+    public boolean isNullAt(int i) {
+      return values[i] == null;
+    }
+
+    public Object apply(int i) {
+      return values[i];
+    }
+  }
+
+  /**
+   * Another row class, so the reflective path has to look up its accessors again.
+   */
+  public static class OtherLegacyRow extends LegacyRow {
+    public OtherLegacyRow(Object... values) {
+      super(values);
+    }
+  }
+
+  private static String encode(Object[] rows, int numRows, int numColumns)
+      throws ReflectiveOperationException {
+    StringBuilder msg = new StringBuilder();
+    RowTableEncoder.appendRows(msg, rows, numRows, numColumns);
+    return msg.toString();
+  }
+
+  @Test
+  public void testRowInterface() throws ReflectiveOperationException {
+    Object[] rows = new Object[] {
+        RowFactory.create("a", 1, 1.5d),
+        RowFactory.create("b", 2, 2.5d)
+    };
+    assertEquals("a\t1\t1.5\nb\t2\t2.5\n", encode(rows, 2, 3));
+  }
+
+  @Test
+  public void testRowInterfaceNullCells() throws ReflectiveOperationException {
+    Object[] rows = new Object[] {RowFactory.create(null, "x", null)};
+    assertEquals("null\tx\tnull\n", encode(rows, 1, 3));
+  }
+
+  @Test
+  public void testRowInterfaceEscapesTabAndNewline() throws ReflectiveOperationException {
+    Object[] rows = new Object[] {RowFactory.create("a\tb", "c\nd\n", "e")};
+    assertEquals("a b\tc d \te\n", encode(rows, 1, 3));
+  }
+
+  @Test
+  public void testReflectiveRows() throws ReflectiveOperationException {
+    Object[] rows = new Object[] {
+        new LegacyRow("a", 1),
+        new LegacyRow("b", 2),
+        new OtherLegacyRow("c", 3),
+        new LegacyRow("d", 4)
+    };
+    assertEquals("a\t1\nb\t2\nc\t3\nd\t4\n", encode(rows, 4, 2));
+  }
+
+  @Test
+  public void testReflectiveNullCells() throws ReflectiveOperationException {
+    Object[] rows = new Object[] {new LegacyRow(null, "x"), new LegacyRow("y", null)};
+    assertEquals("null\tx\ny\tnull\n", encode(rows, 2, 2));
+  }
+
+  @Test
+  public void testReflectiveEscapesTabAndNewline() throws ReflectiveOperationException {
+    Object[] rows = new Object[] {new LegacyRow("a\tb", "c\nd")};
+    assertEquals("a b\tc d\n", encode(rows, 1, 2));
+  }
+
+  @Test
+  public void testOnlyNumRowsAreAppended() throws ReflectiveOperationException {
+    Object[] rows = new Object[] {
+        RowFactory.create("a"), RowFactory.create("b"), RowFactory.create("c")
+    };
+    assertEquals("a\nb\n", encode(rows, 2, 1));
+    assertEquals("", encode(rows, 0, 1));
+  }
+
+  @Test
+  public void testLimitFooter() {
+    StringBuilder msg = new StringBuilder("a\n");
+    RowTableEncoder.appendLimitFooter(msg, 3, 2);
+    assertEquals("a\n\n<font color=red>Results are limited by 2.</font>", msg.toString());
+
+    msg = new StringBuilder("a\n");
+    RowTableEncoder.appendLimitFooter(msg, 2, 2);
+    assertEquals("a\n", msg.toString());
+  }
+}
@@ -133,6 +133,21 @@ public class SparkInterpreterTest {
     assertNotNull(SparkInterpreter.setupListeners(sc));
   }
 
+  @Test
+  public void testProgressOfFinishedJobsIsDropped() throws InterruptedException {
+    assertEquals(Code.SUCCESS,
+        repl.interpret("sc.parallelize(1 to 10, 4).count()", context).code());
+
+    // listener events are delivered asynchronously
+    JobGroupProgressListener listener = repl.getJobProgressListener();
+    String jobGroup = repl.getJobGroup(context);
+    for (int i = 0; i < 100 && listener.getProgress(jobGroup) != null; i++) {
+      Thread.sleep(100);
+    }
+    assertNull(listener.getProgress(jobGroup));
+    assertEquals(0, repl.getProgress(context));
+  }
+
   @Test
   public void testSparkSql(){
     repl.interpret("case class Person(name:String, age:Int)\n", context);
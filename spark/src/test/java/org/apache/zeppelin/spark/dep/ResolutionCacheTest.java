@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.zeppelin.spark.dep;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.apache.zeppelin.spark.dep.ResolutionCache.CachedArtifact;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResolutionCacheTest {
+  private File dir;
+
+  @Before
+  public void setUp() {
+    dir = new File(System.getProperty("java.io.tmpdir") + "/ZeppelinLTest_"
+        + System.currentTimeMillis());
+    dir.mkdirs();
+  }
+
+  @After
+  public void tearDown() {
+    for (File f : dir.listFiles()) {
+      f.delete();
+    }
+    dir.delete();
+  }
+
+  private List<CachedArtifact> artifacts(String... names) throws IOException {
+    List<CachedArtifact> artifacts = new LinkedList<CachedArtifact>();
+    for (String name : names) {
+      File jar = new File(dir, name + ".jar");
+      jar.createNewFile();
+      artifacts.add(new CachedArtifact("g:" + name + ":1.0", jar));
+    }
+    return artifacts;
+  }
+
+  @Test
+  public void testPersistedEntry() throws IOException {
+    String key = ResolutionCache.key("g:a:1.0", Arrays.asList("x:y"), Arrays.asList("central@url"));
+    new ResolutionCache(new File(dir, ResolutionCache.FILE_NAME)).put(key, artifacts("a", "b"));
+
+    List<CachedArtifact> cached =
+        new ResolutionCache(new File(dir, ResolutionCache.FILE_NAME)).get(key);
+    assertEquals(2, cached.size());
+    assertEquals("g:a:1.0", cached.get(0).getCoordinate());
+    assertEquals(new File(dir, "b.jar").getAbsoluteFile(), cached.get(1).getFile());
+  }
+
+  @Test
+  public void testEntryWithMissingFileIsIgnored() throws IOException {
+    ResolutionCache cache = new ResolutionCache(new File(dir, ResolutionCache.FILE_NAME));
+    cache.put("key", artifacts("a", "b"));
+    new File(dir, "b.jar").delete();
+
+    assertNull(cache.get("key"));
+  }
+
+  @Test
+  public void testConcurrentWritersKeepAllEntries() throws Exception {
+    final List<CachedArtifact> artifacts = artifacts("a");
+    List<Thread> writers = new LinkedList<Thread>();
+    for (int w = 0; w < 2; w++) {
+      // one cache per interpreter process sharing the local repository
+      final ResolutionCache cache = new ResolutionCache(new File(dir, ResolutionCache.FILE_NAME));
+      final String prefix = "writer" + w + "_";
+      writers.add(new Thread() {
+        @Override
+        public void run() {
+          for (int i = 0; i < 20; i++) {
+            cache.put(prefix + i, artifacts);
+          }
+        }
+      });
+    }
+    for (Thread writer : writers) {
+      writer.start();
+    }
+    for (Thread writer : writers) {
+      writer.join();
+    }
+
+    ResolutionCache cache = new ResolutionCache(new File(dir, ResolutionCache.FILE_NAME));
+    for (int i = 0; i < 20; i++) {
+      assertEquals(1, cache.get("writer0_" + i).size());
+      assertEquals(1, cache.get("writer1_" + i).size());
+    }
+    for (File f : dir.listFiles()) {
+      assertFalse(f.getName().endsWith(".tmp"));
+    }
+  }
+
+  @Test
+  public void testKey() {
+    List<String> repos = Arrays.asList("central@url", "local@url");
+    assertEquals(ResolutionCache.key("g:a:1.0", Arrays.asList("x:y", "z:w"), repos),
+        ResolutionCache.key("g:a:1.0", Arrays.asList("z:w", "x:y"), repos));
+    assertFalse(ResolutionCache.key("g:a:1.0", Arrays.asList("x:y"), repos)
+        .equals(ResolutionCache.key("g:a:1.0", Arrays.asList("x:y"), repos.subList(0, 1))));
+  }
+
+  @Test
+  public void testIsCacheable() {
+    assertTrue(ResolutionCache.isCacheable("g:a:1.0"));
+    assertTrue(ResolutionCache.isCacheable("g:a:jar:1.0"));
+    assertFalse(ResolutionCache.isCacheable("g:a:1.0-SNAPSHOT"));
+    assertFalse(ResolutionCache.isCacheable("g:a:[1.0,2.0)"));
+    assertFalse(ResolutionCache.isCacheable("g:a:LATEST"));
+    assertFalse(ResolutionCache.isCacheable("/path/to/local.jar"));
+  }
+}
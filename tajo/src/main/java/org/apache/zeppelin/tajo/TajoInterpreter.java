@@ -32,8 +32,10 @@ import org.apache.zeppelin.interpreter.InterpreterContext;
 import org.apache.zeppelin.interpreter.InterpreterPropertyBuilder;
 import org.apache.zeppelin.interpreter.InterpreterResult;
 import org.apache.zeppelin.interpreter.InterpreterResult.Code;
+import org.apache.zeppelin.interpreter.jdbc.JdbcConnectionProvider;
+import org.apache.zeppelin.interpreter.jdbc.JdbcExecutor;
+import org.apache.zeppelin.interpreter.jdbc.StatementCallback;
 import org.apache.zeppelin.scheduler.Scheduler;
-import org.apache.zeppelin.scheduler.SchedulerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,10 +45,10 @@ import org.slf4j.LoggerFactory;
 public class TajoInterpreter extends Interpreter {
   private Logger logger = LoggerFactory.getLogger(TajoInterpreter.class);
 
-  private Connection connection;
-  private Statement statement;
+  private JdbcExecutor jdbcExecutor;
   private Exception exceptionOnConnect;
 
+  public static final String TAJO_PREFIX = "tajo";
   public static final String TAJO_JDBC_URI = "tajo.jdbc.uri";
   public static final String TAJO_DRIVER_NAME = "org.apache.tajo.jdbc.TajoDriver";
 
@@ -55,7 +57,7 @@ public class TajoInterpreter extends Interpreter {
       "tql",
       "tajo",
       TajoInterpreter.class.getName(),
-      new InterpreterPropertyBuilder()
+      JdbcExecutor.addProperties(new InterpreterPropertyBuilder(), TAJO_PREFIX)
         .add(TAJO_JDBC_URI, "jdbc:tajo://localhost:26002/default", "The URL for TajoServer.")
         .build());
   }
@@ -78,77 +80,58 @@ public class TajoInterpreter extends Interpreter {
       exceptionOnConnect = e;
       return;
     }
+    exceptionOnConnect = null;
     try {
-      connection = getJdbcConnection();
-      exceptionOnConnect = null;
+      getJdbcExecutor().getPool().prepare();
       logger.info("Successfully created connection");
     }
     catch (SQLException e) {
+      // the pool retries on the next query
       logger.error("Cannot open connection", e);
-      exceptionOnConnect = e;
     }
   }
 
   @Override
   public void close() {
     try {
-      if (connection != null) {
-        connection.close();
+      if (jdbcExecutor != null) {
+        jdbcExecutor.close();
       }
     }
-    catch (SQLException e) {
+    catch (Exception e) {
       logger.error("Cannot close connection", e);
     }
     finally {
-      connection = null;
+      jdbcExecutor = null;
       exceptionOnConnect = null;
     }
   }
 
-  private InterpreterResult executeSql(String sql) {
+  private synchronized JdbcExecutor getJdbcExecutor() {
+    if (jdbcExecutor == null) {
+      jdbcExecutor = JdbcExecutor.create(this, TAJO_PREFIX, new JdbcConnectionProvider() {
+        @Override
+        public Connection getConnection() throws SQLException {
+          return getJdbcConnection();
+        }
+      });
+    }
+    return jdbcExecutor;
+  }
+
+  private InterpreterResult executeSql(final String sql, InterpreterContext context) {
     try {
       if (exceptionOnConnect != null) {
         return new InterpreterResult(Code.ERROR, exceptionOnConnect.getMessage());
       }
-      statement = connection.createStatement();
-      StringBuilder msg = null;
-      if (StringUtils.containsIgnoreCase(sql, "EXPLAIN ")) {
-        //return the explain as text, make this visual explain later
-        msg = new StringBuilder();
-      }
-      else {
-        msg = new StringBuilder("%table ");
-      }
-
-      ResultSet res = statement.executeQuery(sql);
-      try {
-        ResultSetMetaData md = res.getMetaData();
-        for (int i = 1; i < md.getColumnCount() + 1; i++) {
-          if (i == 1) {
-            msg.append(md.getColumnName(i));
-          } else {
-            msg.append("\t" + md.getColumnName(i));
-          }
-        }
-        msg.append("\n");
-        while (res.next()) {
-          for (int i = 1; i < md.getColumnCount() + 1; i++) {
-            msg.append(res.getString(i) + "\t");
-          }
-          msg.append("\n");
-        }
-      }
-      finally {
-        try {
-          res.close();
-          statement.close();
-        }
-        finally {
-          statement = null;
+      String msg = getJdbcExecutor().execute(context, new StatementCallback<String>() {
+        @Override
+        public String doInStatement(Statement statement) throws SQLException {
+          return toMessage(sql, statement.executeQuery(sql));
         }
-      }
+      });
 
-      InterpreterResult interpreterResult = new InterpreterResult(Code.SUCCESS, msg.toString());
+      InterpreterResult interpreterResult = new InterpreterResult(Code.SUCCESS, msg);
       return interpreterResult;
     }
     catch (SQLException ex) {
@@ -157,25 +140,52 @@ public class TajoInterpreter extends Interpreter {
     }
   }
 
+  private String toMessage(String sql, ResultSet res) throws SQLException {
+    StringBuilder msg = null;
+    if (StringUtils.containsIgnoreCase(sql, "EXPLAIN ")) {
+      //return the explain as text, make this visual explain later
+      msg = new StringBuilder();
+    }
+    else {
+      msg = new StringBuilder("%table ");
+    }
+
+    try {
+      ResultSetMetaData md = res.getMetaData();
+      for (int i = 1; i < md.getColumnCount() + 1; i++) {
+        if (i == 1) {
+          msg.append(md.getColumnName(i));
+        } else {
+          msg.append("\t" + md.getColumnName(i));
+        }
+      }
+      msg.append("\n");
+      while (res.next()) {
+        for (int i = 1; i < md.getColumnCount() + 1; i++) {
+          msg.append(res.getString(i) + "\t");
+        }
+        msg.append("\n");
+      }
+    }
+    finally {
+      res.close();
+    }
+    return msg.toString();
+  }
+
   @Override
   public InterpreterResult interpret(String cmd, InterpreterContext contextInterpreter) {
     logger.info("Run SQL command '" + cmd + "'");
-    return executeSql(cmd);
+    return executeSql(cmd, contextInterpreter);
   }
 
   @Override
   public void cancel(InterpreterContext context) {
     // Currently, Tajo doesn't provide JDBC cancel method. It will be implemented in
     // Tajo 0.11.0 version. You can find related issue progress at TAJO-751.
-//    if (statement != null) {
-//      try {
-//        statement.cancel();
-//      }
-//      catch (SQLException ex) {
-//      }
-//      finally {
-//        statement = null;
-//      }
+    // Once available, statements are cancelled per paragraph by the executor.
+//    if (jdbcExecutor != null) {
+//      jdbcExecutor.cancel(context);
 //    }
   }
 
@@ -191,7 +201,7 @@ public class TajoInterpreter extends Interpreter {
 
   @Override
   public Scheduler getScheduler() {
-    return SchedulerFactory.singleton().createOrGetFIFOScheduler(
+    return JdbcExecutor.getScheduler(this, TAJO_PREFIX,
       TajoInterpreter.class.getName() + this.hashCode());
   }
 
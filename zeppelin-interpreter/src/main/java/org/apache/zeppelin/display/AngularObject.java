@@ -37,6 +37,11 @@ public class AngularObject<T> {
   private transient AngularObjectListener listener;
   private transient List<AngularObjectWatcher> watchers
     = new LinkedList<AngularObjectWatcher>();
+  // values not yet passed to watchers, guarded by watchers
+  private transient boolean watchPending = false;
+  private transient Object pendingBefore;
+  private transient Object pendingAfter;
+  private transient boolean dispatching = false;
   
   private String noteId;   // noteId belonging to. null for global scope 
 
@@ -90,6 +95,11 @@ public class AngularObject<T> {
     set(o, true);
   }
 
+  /**
+   * Watchers of an object are called one at a time, in a single task on the
+   * angularObjectWatcher executor. Values set while the watchers are running are coalesced:
+   * the next call gets the value before the first of them and the value after the last.
+   */
   public void set(T o, boolean emit) {
     final T before = object;
     final T after = o;
@@ -98,24 +108,56 @@ public class AngularObject<T> {
       emit();
     }
 
-    final Logger logger = LoggerFactory.getLogger(AngularObject.class);
-    List<AngularObjectWatcher> ws = new LinkedList<AngularObjectWatcher>();
     synchronized (watchers) {
-      ws.addAll(watchers);
+      if (watchers.isEmpty()) {
+        return;
+      }
+      if (!watchPending) {
+        pendingBefore = before;
+        watchPending = true;
+      }
+      pendingAfter = after;
+      if (dispatching) {
+        return;
+      }
+      dispatching = true;
     }
 
     ExecutorService executor = ExecutorFactory.singleton().createOrGet("angularObjectWatcher", 50);
-    for (final AngularObjectWatcher w : ws) {
-      executor.submit(new Runnable() {
-        @Override
-        public void run() {
-          try {
-            w.watch(before, after);
-          } catch (Exception e) {
-            logger.error("Exception on watch", e);
-          }
+    executor.submit(new Runnable() {
+      @Override
+      public void run() {
+        dispatchWatch();
+      }
+    });
+  }
+
+  private void dispatchWatch() {
+    Logger logger = LoggerFactory.getLogger(AngularObject.class);
+    while (true) {
+      Object before;
+      Object after;
+      List<AngularObjectWatcher> ws;
+      synchronized (watchers) {
+        if (!watchPending) {
+          dispatching = false;
+          return;
         }
-      });
+        before = pendingBefore;
+        after = pendingAfter;
+        watchPending = false;
+        pendingBefore = null;
+        pendingAfter = null;
+        ws = new LinkedList<AngularObjectWatcher>(watchers);
+      }
+
+      for (AngularObjectWatcher w : ws) {
+        try {
+          w.watch(before, after);
+        } catch (Exception e) {
+          logger.error("Exception on watch", e);
+        }
+      }
     }
   }
 
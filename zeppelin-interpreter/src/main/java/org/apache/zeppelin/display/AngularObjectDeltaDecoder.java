@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.display;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Restores values from messages of {@link AngularObjectDeltaEncoder}.
+ */
+public class AngularObjectDeltaDecoder {
+  private final Map<String, Received> received = new HashMap<String, Received>();
+
+  private static class Received {
+    long version;
+    Object tree;
+  }
+
+  /**
+   * @param key identifies the object, as given to the encoder
+   * @param message message parsed from json
+   * @return value of the object. The caller may modify it
+   * @throws IllegalStateException when the message is a difference from a value
+   *         that was not received. The next full value recovers
+   */
+  public synchronized Object decode(String key, Map<?, ?> message) {
+    long version = ((Number) message.get("version")).longValue();
+    Received last = received.get(key);
+    Object tree;
+
+    if (message.containsKey("patch")) {
+      long baseVersion = ((Number) message.get("baseVersion")).longValue();
+      if (last == null || last.version != baseVersion) {
+        received.remove(key);
+        throw new IllegalStateException("Angular object " + key.trim() + " version "
+            + (last == null ? "none" : last.version) + " can't be patched to " + version);
+      }
+      try {
+        tree = AngularObjectPatch.apply(last.tree, (List<?>) message.get("patch"));
+      } catch (RuntimeException e) {
+        // tree may be partially patched
+        received.remove(key);
+        throw new IllegalStateException("Can't patch angular object " + key.trim(), e);
+      }
+    } else {
+      tree = AngularObjectPatch.copy(message.get("object"));
+    }
+
+    if (last == null) {
+      last = new Received();
+      received.put(key, last);
+    }
+    last.version = version;
+    last.tree = tree;
+    return AngularObjectPatch.copy(tree);
+  }
+
+  public synchronized void forget(String key) {
+    received.remove(key);
+  }
+
+  public synchronized void clear() {
+    received.clear();
+  }
+}
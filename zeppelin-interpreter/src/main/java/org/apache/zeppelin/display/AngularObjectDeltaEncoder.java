@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.display;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.Gson;
+
+/**
+ * Encodes successive values of angular objects as versioned messages.
+ *
+ * A message carries the full value ({"version": n, "object": value}) or the difference
+ * from the value previously sent for the same key
+ * ({"version": n, "baseVersion": n - 1, "patch": [...]}, see {@link AngularObjectPatch}).
+ * The difference is sent only when it is smaller than the value. Every keyframeInterval
+ * versions the full value is sent, so a receiver that lost track recovers.
+ *
+ * Messages must reach the receiver in the order they are encoded.
+ * {@link AngularObjectDeltaDecoder} restores the values.
+ * Messages can be shared by several receivers, when a receiver that does not have the value
+ * of baseVersion gets the full value instead of the patch.
+ */
+public class AngularObjectDeltaEncoder {
+  public static final int DEFAULT_KEYFRAME_INTERVAL = 50;
+
+  private final Gson gson = new Gson();
+  private final int keyframeInterval;
+  private final Map<String, Sent> sent = new HashMap<String, Sent>();
+
+  private static class Sent {
+    long version;
+    int sinceKeyframe;
+    Object tree;
+  }
+
+  public AngularObjectDeltaEncoder() {
+    this(DEFAULT_KEYFRAME_INTERVAL);
+  }
+
+  public AngularObjectDeltaEncoder(int keyframeInterval) {
+    this.keyframeInterval = keyframeInterval;
+  }
+
+  public static String key(String... parts) {
+    StringBuilder sb = new StringBuilder();
+    for (String part : parts) {
+      sb.append(part).append('\n');
+    }
+    return sb.toString();
+  }
+
+  /**
+   * @param key identifies the object for this receiver
+   * @param value current value of the object
+   * @return message to send. A new, modifiable map. Serialize it before the value changes
+   */
+  public synchronized Map<String, Object> encode(String key, Object value) {
+    String json = gson.toJson(value);
+    Object tree = gson.fromJson(json, Object.class);
+    Map<String, Object> message = new HashMap<String, Object>();
+
+    Sent last = sent.get(key);
+    if (last != null && last.sinceKeyframe + 1 < keyframeInterval) {
+      List<Map<String, Object>> patch = AngularObjectPatch.diff(last.tree, tree);
+      if (gson.toJson(patch).length() < json.length()) {
+        message.put("version", last.version + 1);
+        message.put("baseVersion", last.version);
+        message.put("patch", patch);
+        last.version++;
+        last.sinceKeyframe++;
+        last.tree = tree;
+        return message;
+      }
+    }
+
+    if (last == null) {
+      last = new Sent();
+      sent.put(key, last);
+    }
+    last.version++;
+    last.sinceKeyframe = 0;
+    last.tree = tree;
+    message.put("version", last.version);
+    // the value itself, not the tree, keeps numbers as they are
+    message.put("object", value);
+    return message;
+  }
+
+  /**
+   * @return version the value was last encoded with.
+   *         0 when the key was not encoded, or the value changed since
+   */
+  public synchronized long versionOf(String key, Object value) {
+    Sent last = sent.get(key);
+    if (last == null) {
+      return 0;
+    }
+    Object tree = gson.fromJson(gson.toJson(value), Object.class);
+    boolean same = tree == null ? last.tree == null : tree.equals(last.tree);
+    return same ? last.version : 0;
+  }
+
+  /**
+   * Send the full value next time. Call when the receiver drops the object or when
+   * a message may not have reached it.
+   */
+  public synchronized void forget(String key) {
+    sent.remove(key);
+  }
+
+  /**
+   * Forget all keys starting with the prefix, e.g. key(interpreterGroupId) for the objects
+   * of an interpreter group.
+   */
+  public synchronized void forgetStartingWith(String prefix) {
+    Iterator<String> it = sent.keySet().iterator();
+    while (it.hasNext()) {
+      if (it.next().startsWith(prefix)) {
+        it.remove();
+      }
+    }
+  }
+
+  public synchronized void clear() {
+    sent.clear();
+  }
+}
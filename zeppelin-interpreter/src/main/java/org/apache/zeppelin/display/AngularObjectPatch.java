@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.display;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes and applies structural differences between two json trees.
+ *
+ * A tree is what gson produces when parsing json into Object: Map, List, String, Number,
+ * Boolean or null. A patch is a list of operations, each a Map with an "op" and a "path".
+ * Path elements are object keys (String) or list indices (Number).
+ *
+ * <ul>
+ *   <li>{"op": "set", "path": [...], "value": v} replaces or adds the value at path</li>
+ *   <li>{"op": "remove", "path": [...]} removes a key from an object</li>
+ *   <li>{"op": "truncate", "path": [...], "length": n} shortens a list to n elements</li>
+ *   <li>{"op": "append", "path": [...], "values": [...]} adds elements to the end of a list
+ *   </li>
+ * </ul>
+ */
+public class AngularObjectPatch {
+  public static final String OP_SET = "set";
+  public static final String OP_REMOVE = "remove";
+  public static final String OP_TRUNCATE = "truncate";
+  public static final String OP_APPEND = "append";
+
+  private AngularObjectPatch() {
+  }
+
+  /**
+   * @return operations that turn before into after. Empty when both are equal
+   */
+  public static List<Map<String, Object>> diff(Object before, Object after) {
+    List<Map<String, Object>> ops = new LinkedList<Map<String, Object>>();
+    diff(new LinkedList<Object>(), before, after, ops);
+    return ops;
+  }
+
+  private static void diff(LinkedList<Object> path, Object before, Object after,
+      List<Map<String, Object>> ops) {
+    if (before instanceof Map && after instanceof Map) {
+      Map<?, ?> b = (Map<?, ?>) before;
+      Map<?, ?> a = (Map<?, ?>) after;
+      for (Object key : b.keySet()) {
+        if (!a.containsKey(key)) {
+          ops.add(op(OP_REMOVE, path, key));
+        }
+      }
+      for (Map.Entry<?, ?> e : a.entrySet()) {
+        if (!b.containsKey(e.getKey())) {
+          Map<String, Object> set = op(OP_SET, path, e.getKey());
+          set.put("value", e.getValue());
+          ops.add(set);
+        } else {
+          path.addLast(e.getKey());
+          diff(path, b.get(e.getKey()), e.getValue(), ops);
+          path.removeLast();
+        }
+      }
+    } else if (before instanceof List && after instanceof List) {
+      List<?> b = (List<?>) before;
+      List<?> a = (List<?>) after;
+      int common = Math.min(a.size(), b.size());
+      for (int i = 0; i < common; i++) {
+        path.addLast(i);
+        diff(path, b.get(i), a.get(i), ops);
+        path.removeLast();
+      }
+      if (a.size() < b.size()) {
+        Map<String, Object> truncate = op(OP_TRUNCATE, path, null);
+        truncate.put("length", a.size());
+        ops.add(truncate);
+      } else if (a.size() > b.size()) {
+        Map<String, Object> append = op(OP_APPEND, path, null);
+        append.put("values", new ArrayList<Object>(a.subList(common, a.size())));
+        ops.add(append);
+      }
+    } else if (!equals(before, after)) {
+      Map<String, Object> set = op(OP_SET, path, null);
+      set.put("value", after);
+      ops.add(set);
+    }
+  }
+
+  private static boolean equals(Object before, Object after) {
+    if (before instanceof Number && after instanceof Number) {
+      return ((Number) before).doubleValue() == ((Number) after).doubleValue();
+    }
+    return before == null ? after == null : before.equals(after);
+  }
+
+  private static Map<String, Object> op(String op, List<Object> path, Object last) {
+    Map<String, Object> m = new HashMap<String, Object>();
+    m.put("op", op);
+    List<Object> p = new ArrayList<Object>(path);
+    if (last != null) {
+      p.add(last);
+    }
+    m.put("path", p);
+    return m;
+  }
+
+  /**
+   * Apply operations to the tree. Containers of the tree are modified in place.
+   * @return patched tree. Differs from target only when the root is replaced
+   */
+  public static Object apply(Object target, List<?> ops) {
+    Object root = target;
+    for (Object o : ops) {
+      Map<?, ?> op = (Map<?, ?>) o;
+      String type = (String) op.get("op");
+      List<?> path = (List<?>) op.get("path");
+
+      if (OP_TRUNCATE.equals(type) || OP_APPEND.equals(type)) {
+        List<Object> list = asList(resolve(root, path, path.size()));
+        if (OP_TRUNCATE.equals(type)) {
+          int length = ((Number) op.get("length")).intValue();
+          while (list.size() > length) {
+            list.remove(list.size() - 1);
+          }
+        } else {
+          for (Object v : (List<?>) op.get("values")) {
+            list.add(copy(v));
+          }
+        }
+      } else if (OP_SET.equals(type) || OP_REMOVE.equals(type)) {
+        if (path.isEmpty()) {
+          if (OP_REMOVE.equals(type)) {
+            throw new IllegalArgumentException("Can't remove root");
+          }
+          root = copy(op.get("value"));
+          continue;
+        }
+
+        Object parent = resolve(root, path, path.size() - 1);
+        Object last = path.get(path.size() - 1);
+        if (parent instanceof Map) {
+          Map<Object, Object> map = asMap(parent);
+          if (OP_SET.equals(type)) {
+            map.put(last, copy(op.get("value")));
+          } else {
+            map.remove(last);
+          }
+        } else if (parent instanceof List && OP_SET.equals(type)) {
+          asList(parent).set(((Number) last).intValue(), copy(op.get("value")));
+        } else {
+          throw new IllegalArgumentException("Invalid path " + path);
+        }
+      } else {
+        throw new IllegalArgumentException("Unknown operation " + type);
+      }
+    }
+    return root;
+  }
+
+  private static Object resolve(Object root, List<?> path, int depth) {
+    Object node = root;
+    for (int i = 0; i < depth; i++) {
+      Object key = path.get(i);
+      if (node instanceof Map) {
+        node = ((Map<?, ?>) node).get(key);
+      } else if (node instanceof List && key instanceof Number) {
+        node = ((List<?>) node).get(((Number) key).intValue());
+      } else {
+        throw new IllegalArgumentException("Invalid path " + path);
+      }
+    }
+    return node;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Object> asList(Object o) {
+    if (!(o instanceof List)) {
+      throw new IllegalArgumentException("Not a list");
+    }
+    return (List<Object>) o;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<Object, Object> asMap(Object o) {
+    return (Map<Object, Object>) o;
+  }
+
+  /**
+   * @return deep copy of the tree
+   */
+  public static Object copy(Object tree) {
+    if (tree instanceof Map) {
+      Map<Object, Object> copy = new LinkedHashMap<Object, Object>();
+      for (Map.Entry<?, ?> e : ((Map<?, ?>) tree).entrySet()) {
+        copy.put(e.getKey(), copy(e.getValue()));
+      }
+      return copy;
+    } else if (tree instanceof List) {
+      List<Object> copy = new ArrayList<Object>();
+      for (Object o : (List<?>) tree) {
+        copy.add(copy(o));
+      }
+      return copy;
+    } else {
+      return tree;
+    }
+  }
+}
@@ -17,11 +17,10 @@
 
 package org.apache.zeppelin.display;
 
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * AngularObjectRegistry keeps all the object that binded to Angular Display System.
@@ -29,10 +28,13 @@ import java.util.Map;
  * It keeps two different set of AngularObjects :
  *  - globalRegistry: Shared to all notebook that uses the same interpreter group
  *  - localRegistry: AngularObject is valid only inside of a single notebook
+ *
+ * Each note has its own concurrent map. Reads don't lock. add and remove lock only the
+ * note they change, and list of objects of a note is a snapshot rebuilt after a change.
  */
 public class AngularObjectRegistry {
-  Map<String, Map<String, AngularObject>> registry = 
-      new HashMap<String, Map<String, AngularObject>>();
+  private final ConcurrentHashMap<String, NoteRegistry> registry =
+      new ConcurrentHashMap<String, NoteRegistry>();
   private final String GLOBAL_KEY = "_GLOBAL_";
   private AngularObjectRegistryListener listener;
   private String interpreterId;
@@ -77,22 +79,31 @@ public class AngularObjectRegistry {
     }
   }
   
-  private Map<String, AngularObject> getRegistryForKey(String noteId) {
-    synchronized (registry) {
-      String key = getRegistryKey(noteId);
-      if (!registry.containsKey(key)) {
-        registry.put(key, new HashMap<String, AngularObject>());
+  private NoteRegistry getRegistryForKey(String noteId) {
+    String key = getRegistryKey(noteId);
+    NoteRegistry r = registry.get(key);
+    if (r == null) {
+      NoteRegistry newRegistry = new NoteRegistry();
+      r = registry.putIfAbsent(key, newRegistry);
+      if (r == null) {
+        r = newRegistry;
       }
-      
-      return registry.get(key);
     }
+    return r;
+  }
+
+  /**
+   * @return registry of the note, null if nothing was added to the note
+   */
+  private NoteRegistry findRegistryForKey(String noteId) {
+    return registry.get(getRegistryKey(noteId));
   }
  
   public AngularObject add(String name, Object o, String noteId, boolean emit) {
     AngularObject ao = createNewAngularObject(name, o, noteId);
 
-    synchronized (registry) {
-      Map<String, AngularObject> noteLocalRegistry = getRegistryForKey(noteId);
+    NoteRegistry noteLocalRegistry = getRegistryForKey(noteId);
+    synchronized (noteLocalRegistry) {
       noteLocalRegistry.put(name, ao);
       if (listener != null && emit) {
         listener.onAdd(interpreterId, ao);
@@ -103,7 +114,7 @@ public class AngularObjectRegistry {
   }
 
   protected AngularObject createNewAngularObject(String name, Object o, String noteId) {
-    return new AngularObject(name, o, noteId, angularObjectListener);
+    return new AngularObject<Object>(name, o, noteId, angularObjectListener);
   }
 
   protected AngularObjectListener getAngularObjectListener() {
@@ -115,41 +126,40 @@ public class AngularObjectRegistry {
   }
 
   public AngularObject remove(String name, String noteId, boolean emit) {
-    synchronized (registry) {
-      Map<String, AngularObject> r = getRegistryForKey(noteId);
+    NoteRegistry r = getRegistryForKey(noteId);
+    synchronized (r) {
       AngularObject o = r.remove(name);
       if (listener != null && emit) {
-        listener.onRemove(interpreterId, name, noteId);;
+        listener.onRemove(interpreterId, name, noteId);
       }
       return o;
     }
   }
 
   public void removeAll(String noteId) {
-    synchronized (registry) {
-      List<AngularObject> all = getAll(noteId);
-      for (AngularObject ao : all) {
-        remove(ao.getName(), noteId);
-      }
+    List<AngularObject> all = getAll(noteId);
+    for (AngularObject ao : all) {
+      remove(ao.getName(), noteId);
     }
   }
 
   public AngularObject get(String name, String noteId) {
-    synchronized (registry) {
-      Map<String, AngularObject> r = getRegistryForKey(noteId);
-      return r.get(name);
+    NoteRegistry r = findRegistryForKey(noteId);
+    if (r == null) {
+      return null;
     }
+    return r.get(name);
   }
 
+  /**
+   * @return snapshot of objects of the note. Not modifiable.
+   */
   public List<AngularObject> getAll(String noteId) {
-    List<AngularObject> all = new LinkedList<AngularObject>();
-    synchronized (registry) {
-      Map<String, AngularObject> r = getRegistryForKey(noteId);
-      if (r != null) {
-        all.addAll(r.values());
-      }
+    NoteRegistry r = findRegistryForKey(noteId);
+    if (r == null) {
+      return Collections.emptyList();
     }
-    return all;
+    return r.snapshot();
   }
   
   /**
@@ -158,16 +168,22 @@ public class AngularObjectRegistry {
    * @return
    */
   public List<AngularObject> getAllWithGlobal(String noteId) {
-    List<AngularObject> all = new LinkedList<AngularObject>();
-    synchronized (registry) {
-      Map<String, AngularObject> global = getRegistryForKey(null);
-      if (global != null) {
-        all.addAll(global.values());
-      }
-      Map<String, AngularObject> local = getRegistryForKey(noteId);
-      if (local != null) {
-        all.addAll(local.values());
-      }
+    List<AngularObject> global = getAll(null);
+    List<AngularObject> local = getAll(noteId);
+    List<AngularObject> all = new ArrayList<AngularObject>(global.size() + local.size());
+    all.addAll(global);
+    all.addAll(local);
+    return all;
+  }
+
+  /**
+   * Get all objects of all notebooks, including global objects
+   * @return
+   */
+  public List<AngularObject> getAllNotesAndGlobal() {
+    List<AngularObject> all = new ArrayList<AngularObject>();
+    for (NoteRegistry r : registry.values()) {
+      all.addAll(r.snapshot());
     }
     return all;
   }
@@ -175,4 +191,45 @@ public class AngularObjectRegistry {
   public String getInterpreterGroupId() {
     return interpreterId;
   }
+
+  /**
+   * Objects of a note. Changes are made holding the lock of this NoteRegistry.
+   */
+  private static class NoteRegistry {
+    private final ConcurrentHashMap<String, AngularObject> objects =
+        new ConcurrentHashMap<String, AngularObject>();
+    // null after a change, until the next snapshot() call
+    private volatile List<AngularObject> snapshot = Collections.emptyList();
+
+    AngularObject get(String name) {
+      return objects.get(name);
+    }
+
+    void put(String name, AngularObject ao) {
+      objects.put(name, ao);
+      snapshot = null;
+    }
+
+    AngularObject remove(String name) {
+      AngularObject ao = objects.remove(name);
+      if (ao != null) {
+        snapshot = null;
+      }
+      return ao;
+    }
+
+    List<AngularObject> snapshot() {
+      List<AngularObject> s = snapshot;
+      if (s == null) {
+        synchronized (this) {
+          s = snapshot;
+          if (s == null) {
+            s = Collections.unmodifiableList(new ArrayList<AngularObject>(objects.values()));
+            snapshot = s;
+          }
+        }
+      }
+      return s;
+    }
+  }
 }
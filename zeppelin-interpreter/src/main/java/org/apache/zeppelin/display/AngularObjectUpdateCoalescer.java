@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.display;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects updates of angular objects and delivers them in batches.
+ *
+ * An object updated several times within the window is delivered once, with the value it
+ * has at delivery time. Objects in a batch are ordered by their first update in the window.
+ * Batches of a coalescer are delivered one at a time.
+ */
+public class AngularObjectUpdateCoalescer {
+  Logger logger = LoggerFactory.getLogger(AngularObjectUpdateCoalescer.class);
+  public static final long DEFAULT_WINDOW = 50;
+
+  private static final ScheduledExecutorService scheduler =
+      Executors.newScheduledThreadPool(2, new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+          Thread t = new Thread(r, "AngularObjectUpdateCoalescer");
+          t.setDaemon(true);
+          return t;
+        }
+      });
+
+  /**
+   * Receives coalesced updates.
+   */
+  public static interface BatchListener {
+    public void updated(List<AngularObject> objects);
+  }
+
+  private volatile long window;
+  private final BatchListener listener;
+  private final Map<String, AngularObject> pending = new LinkedHashMap<String, AngularObject>();
+  private boolean flushScheduled = false;
+  private final Object deliveryLock = new Object();
+
+  /**
+   * @param window msec to collect updates before delivering them. 0 delivers every update
+   *               right away
+   */
+  public AngularObjectUpdateCoalescer(long window, BatchListener listener) {
+    this.window = window;
+    this.listener = listener;
+  }
+
+  public void setWindow(long window) {
+    this.window = window;
+  }
+
+  public long getWindow() {
+    return window;
+  }
+
+  public void updated(AngularObject object) {
+    if (window <= 0) {
+      flush();
+      deliver(Collections.singletonList(object));
+      return;
+    }
+
+    synchronized (pending) {
+      pending.put(key(object.getNoteId(), object.getName()), object);
+      if (flushScheduled) {
+        return;
+      }
+      flushScheduled = true;
+    }
+
+    scheduler.schedule(new Runnable() {
+      @Override
+      public void run() {
+        flush();
+      }
+    }, window, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Forget the pending update of a removed object.
+   */
+  public void removed(String noteId, String name) {
+    synchronized (pending) {
+      pending.remove(key(noteId, name));
+    }
+  }
+
+  /**
+   * Forget all pending updates, e.g. of a destroyed interpreter group.
+   */
+  public void clear() {
+    synchronized (pending) {
+      pending.clear();
+    }
+  }
+
+  /**
+   * Deliver pending updates now.
+   */
+  public void flush() {
+    synchronized (deliveryLock) {
+      List<AngularObject> batch;
+      synchronized (pending) {
+        flushScheduled = false;
+        if (pending.isEmpty()) {
+          return;
+        }
+        batch = new LinkedList<AngularObject>(pending.values());
+        pending.clear();
+      }
+      deliver(batch);
+    }
+  }
+
+  private void deliver(List<AngularObject> batch) {
+    synchronized (deliveryLock) {
+      try {
+        listener.updated(batch);
+      } catch (Exception e) {
+        logger.error("Can't deliver angular object updates", e);
+      }
+    }
+  }
+
+  private static String key(String noteId, String name) {
+    return (noteId == null ? "" : noteId) + "\n" + name;
+  }
+}
@@ -23,8 +23,6 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Input type.
@@ -150,153 +148,115 @@ public class Input implements Serializable {
 
 
   private static String[] getNameAndDisplayName(String str) {
-    Pattern p = Pattern.compile("([^(]*)\\s*[(]([^)]*)[)]");
-    Matcher m = p.matcher(str.trim());
-    if (m == null || m.find() == false) {
+    String trimmed = str.trim();
+    int open = trimmed.indexOf('(');
+    int close = open < 0 ? -1 : trimmed.indexOf(')', open + 1);
+    if (close < 0) {
       return null;
     }
     String[] ret = new String[2];
-    ret[0] = m.group(1);
-    ret[1] = m.group(2);
+    ret[0] = trimmed.substring(0, open);
+    ret[1] = trimmed.substring(open + 1, close);
     return ret;
   }
 
   private static String[] getType(String str) {
-    Pattern p = Pattern.compile("([^:]*)\\s*:\\s*(.*)");
-    Matcher m = p.matcher(str.trim());
-    if (m == null || m.find() == false) {
+    String trimmed = str.trim();
+    int colon = trimmed.indexOf(':');
+    if (colon < 0) {
       return null;
     }
     String[] ret = new String[2];
-    ret[0] = m.group(1).trim();
-    ret[1] = m.group(2).trim();
+    ret[0] = trimmed.substring(0, colon).trim();
+    ret[1] = trimmed.substring(colon + 1).trim();
     return ret;
   }
 
   public static Map<String, Input> extractSimpleQueryParam(String script) {
-    Map<String, Input> params = new HashMap<String, Input>();
     if (script == null) {
-      return params;
+      return new HashMap<String, Input>();
     }
-    String replaced = script;
+    return InputTemplate.parse(script).getInputs();
+  }
 
-    Pattern pattern = Pattern.compile("([_])?[$][{]([^=}]*([=][^}]*)?)[}]");
+  /**
+   * Build an input from a form of the script.
+   *
+   * @param m form between "${" and "}"
+   * @param hidden true for "_${...}" form
+   */
+  static Input fromForm(String m, boolean hidden) {
+    String namePart;
+    String valuePart;
+
+    int p = m.indexOf('=');
+    if (p > 0) {
+      namePart = m.substring(0, p);
+      valuePart = m.substring(p + 1);
+    } else {
+      namePart = m;
+      valuePart = null;
+    }
 
-    Matcher match = pattern.matcher(replaced);
-    while (match.find()) {
-      String hiddenPart = match.group(1);
-      boolean hidden = false;
-      if ("_".equals(hiddenPart)) {
-        hidden = true;
-      }
-      String m = match.group(2);
-
-      String namePart;
-      String valuePart;
-
-      int p = m.indexOf('=');
-      if (p > 0) {
-        namePart = m.substring(0, p);
-        valuePart = m.substring(p + 1);
-      } else {
-        namePart = m;
-        valuePart = null;
-      }
 
+    String varName;
+    String displayName = null;
+    String type = null;
+    String defaultValue = "";
+    ParamOption[] paramOptions = null;
 
-      String varName;
-      String displayName = null;
-      String type = null;
-      String defaultValue = "";
-      ParamOption[] paramOptions = null;
-
-      // get var name type
-      String varNamePart;
-      String[] typeArray = getType(namePart);
-      if (typeArray != null) {
-        type = typeArray[0];
-        varNamePart = typeArray[1];
-      } else {
-        varNamePart = namePart;
-      }
+    // get var name type
+    String varNamePart;
+    String[] typeArray = getType(namePart);
+    if (typeArray != null) {
+      type = typeArray[0];
+      varNamePart = typeArray[1];
+    } else {
+      varNamePart = namePart;
+    }
 
-      // get var name and displayname
-      String[] varNameArray = getNameAndDisplayName(varNamePart);
-      if (varNameArray != null) {
-        varName = varNameArray[0];
-        displayName = varNameArray[1];
-      } else {
-        varName = varNamePart.trim();
-      }
+    // get var name and displayname
+    String[] varNameArray = getNameAndDisplayName(varNamePart);
+    if (varNameArray != null) {
+      varName = varNameArray[0];
+      displayName = varNameArray[1];
+    } else {
+      varName = varNamePart.trim();
+    }
 
-      // get defaultValue
-      if (valuePart != null) {
-        // find default value
-        int optionP = valuePart.indexOf(",");
-        if (optionP > 0) { // option available
-          defaultValue = valuePart.substring(0, optionP);
-          String optionPart = valuePart.substring(optionP + 1);
-          String[] options = Input.splitPipe(optionPart);
+    // get defaultValue
+    if (valuePart != null) {
+      // find default value
+      int optionP = valuePart.indexOf(",");
+      if (optionP > 0) { // option available
+        defaultValue = valuePart.substring(0, optionP);
+        String optionPart = valuePart.substring(optionP + 1);
+        String[] options = Input.splitPipe(optionPart);
 
-          paramOptions = new ParamOption[options.length];
+        paramOptions = new ParamOption[options.length];
 
-          for (int i = 0; i < options.length; i++) {
+        for (int i = 0; i < options.length; i++) {
 
-            String[] optNameArray = getNameAndDisplayName(options[i]);
-            if (optNameArray != null) {
-              paramOptions[i] = new ParamOption(optNameArray[0], optNameArray[1]);
-            } else {
-              paramOptions[i] = new ParamOption(options[i], null);
-            }
+          String[] optNameArray = getNameAndDisplayName(options[i]);
+          if (optNameArray != null) {
+            paramOptions[i] = new ParamOption(optNameArray[0], optNameArray[1]);
+          } else {
+            paramOptions[i] = new ParamOption(options[i], null);
           }
-
-
-        } else { // no option
-          defaultValue = valuePart;
         }
 
+
+      } else { // no option
+        defaultValue = valuePart;
       }
 
-      Input param = new Input(varName, displayName, type, defaultValue, paramOptions, hidden);
-      params.put(varName, param);
     }
 
-    params.remove("pql");
-    return params;
+    return new Input(varName, displayName, type, defaultValue, paramOptions, hidden);
   }
 
   public static String getSimpleQuery(Map<String, Object> params, String script) {
-    String replaced = script;
-
-    for (String key : params.keySet()) {
-      Object value = params.get(key);
-      replaced =
-          replaced.replaceAll("[_]?[$][{]([^:]*[:])?" + key + "([(][^)]*[)])?(=[^}]*)?[}]",
-                              value.toString());
-    }
-
-    Pattern pattern = Pattern.compile("[$][{]([^=}]*[=][^}]*)[}]");
-    while (true) {
-      Matcher match = pattern.matcher(replaced);
-      if (match != null && match.find()) {
-        String m = match.group(1);
-        int p = m.indexOf('=');
-        String replacement = m.substring(p + 1);
-        int optionP = replacement.indexOf(",");
-        if (optionP > 0) {
-          replacement = replacement.substring(0, optionP);
-        }
-        replaced =
-            replaced.replaceFirst("[_]?[$][{]"
-                + m.replaceAll("[(]", ".").replaceAll("[)]", ".").replaceAll("[|]", ".") + "[}]",
-                replacement);
-      } else {
-        break;
-      }
-    }
-
-    replaced = replaced.replace("[_]?[$][{]([^=}]*)[}]", "");
-    return replaced;
+    return InputTemplate.parse(script).render(params);
   }
 
 
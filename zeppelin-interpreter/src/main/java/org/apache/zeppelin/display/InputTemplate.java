@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.display;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Script with simple dynamic forms, parsed once.
+ *
+ * The script is split into text and "${...}" forms ("_${...}" for hidden forms), so the inputs
+ * and the query of every run are built in one pass over the parts, instead of a regex per
+ * param over the whole script. Keep the template while the script doesn't change.
+ */
+public class InputTemplate {
+  private final String script;
+  private final String[] texts;
+  private final Form[] forms;
+
+  private static class Form {
+    // as written in the script
+    final String text;
+    // between "${" and "}"
+    final String content;
+    final boolean hidden;
+    final String name;
+    // substituted when the param has no value. null to keep the form as is
+    final String defaultValue;
+
+    Form(String text, String content, boolean hidden) {
+      this.text = text;
+      this.content = content;
+      this.hidden = hidden;
+      this.name = Input.fromForm(content, hidden).getName();
+
+      int p = content.indexOf('=');
+      if (p < 0) {
+        defaultValue = null;
+      } else {
+        String value = content.substring(p + 1);
+        int optionP = value.indexOf(',');
+        defaultValue = optionP > 0 ? value.substring(0, optionP) : value;
+      }
+    }
+  }
+
+  private InputTemplate(String script, String[] texts, Form[] forms) {
+    this.script = script;
+    this.texts = texts;
+    this.forms = forms;
+  }
+
+  public static InputTemplate parse(String script) {
+    List<String> texts = new ArrayList<String>();
+    List<Form> forms = new ArrayList<Form>();
+
+    int textStart = 0;
+    int start = script.indexOf("${");
+    while (start >= 0) {
+      int end = script.indexOf('}', start + 2);
+      if (end < 0) {
+        break;
+      }
+      boolean hidden = start > textStart && script.charAt(start - 1) == '_';
+      int formStart = hidden ? start - 1 : start;
+      texts.add(script.substring(textStart, formStart));
+      forms.add(new Form(script.substring(formStart, end + 1),
+          script.substring(start + 2, end), hidden));
+      textStart = end + 1;
+      start = script.indexOf("${", textStart);
+    }
+    texts.add(script.substring(textStart));
+
+    return new InputTemplate(script,
+        texts.toArray(new String[texts.size()]), forms.toArray(new Form[forms.size()]));
+  }
+
+  public String getScript() {
+    return script;
+  }
+
+  /**
+   * @return new inputs of the forms, by name
+   */
+  public Map<String, Input> getInputs() {
+    Map<String, Input> inputs = new HashMap<String, Input>();
+    for (Form form : forms) {
+      Input input = Input.fromForm(form.content, form.hidden);
+      inputs.put(input.getName(), input);
+    }
+    inputs.remove("pql");
+    return inputs;
+  }
+
+  /**
+   * Replace the forms by the value of their param, or by their default value.
+   * Forms without both are kept.
+   */
+  public String render(Map<String, Object> params) {
+    StringBuilder query = new StringBuilder(script.length());
+    for (int i = 0; i < forms.length; i++) {
+      query.append(texts[i]);
+      Form form = forms[i];
+      Object value = params == null ? null : params.get(form.name);
+      if (value != null) {
+        query.append(value.toString());
+      } else if (form.defaultValue != null) {
+        query.append(form.defaultValue);
+      } else {
+        query.append(form.text);
+      }
+    }
+    query.append(texts[forms.length]);
+    return query.toString();
+  }
+}
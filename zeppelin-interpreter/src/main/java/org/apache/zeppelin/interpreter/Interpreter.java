@@ -145,8 +145,7 @@ public abstract class Interpreter {
     Properties p = new Properties();
     p.putAll(property);
 
-    Map<String, InterpreterProperty> defaultProperties = Interpreter
-        .findRegisteredInterpreterByClassName(getClassName()).getProperties();
+    Map<String, InterpreterProperty> defaultProperties = getDefaultProperties();
     for (String k : defaultProperties.keySet()) {
       if (!p.containsKey(k)) {
         String value = defaultProperties.get(k).getDefaultValue();
@@ -164,8 +163,7 @@ public abstract class Interpreter {
       return property.getProperty(key);
     }
 
-    Map<String, InterpreterProperty> defaultProperties = Interpreter
-        .findRegisteredInterpreterByClassName(getClassName()).getProperties();
+    Map<String, InterpreterProperty> defaultProperties = getDefaultProperties();
     if (defaultProperties.containsKey(key)) {
       return defaultProperties.get(key).getDefaultValue();
     }
@@ -173,6 +171,14 @@ public abstract class Interpreter {
     return null;
   }
 
+  private Map<String, InterpreterProperty> getDefaultProperties() {
+    RegisteredInterpreter registered = findRegisteredInterpreterByClassName(getClassName());
+    if (registered == null || registered.getProperties() == null) {
+      return Collections.emptyMap();
+    }
+    return registered.getProperties();
+  }
+
 
   public String getClassName() {
     return this.getClass().getName();
@@ -35,6 +35,7 @@ public class InterpreterContext {
   private GUI gui;
   private AngularObjectRegistry angularObjectRegistry;
   private List<InterpreterContextRunner> runners;
+  private InterpreterOutput out;
 
   public InterpreterContext(String noteId,
                             String paragraphId,
@@ -45,6 +46,20 @@ public class InterpreterContext {
                             AngularObjectRegistry angularObjectRegistry,
                             List<InterpreterContextRunner> runners
                             ) {
+    this(noteId, paragraphId, paragraphTitle, paragraphText, config, gui,
+        angularObjectRegistry, runners, new InterpreterOutput(null));
+  }
+
+  public InterpreterContext(String noteId,
+                            String paragraphId,
+                            String paragraphTitle,
+                            String paragraphText,
+                            Map<String, Object> config,
+                            GUI gui,
+                            AngularObjectRegistry angularObjectRegistry,
+                            List<InterpreterContextRunner> runners,
+                            InterpreterOutput out
+                            ) {
     this.noteId = noteId;
     this.paragraphId = paragraphId;
     this.paragraphTitle = paragraphTitle;
@@ -53,6 +68,7 @@ public class InterpreterContext {
     this.gui = gui;
     this.angularObjectRegistry = angularObjectRegistry;
     this.runners = runners;
+    this.out = out;
   }
 
   
@@ -88,4 +104,8 @@ public class InterpreterContext {
     return runners;
   }
 
+  public InterpreterOutput getOut() {
+    return out;
+  }
+
 }
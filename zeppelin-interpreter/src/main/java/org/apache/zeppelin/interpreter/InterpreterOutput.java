@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.zeppelin.interpreter;
+
+/**
+ * Output channel of a running paragraph.
+ * Interpreters can write partial output here before returning the final InterpreterResult,
+ * so the front-end can render it incrementally.
+ */
+public class InterpreterOutput {
+  private final InterpreterOutputListener listener;
+
+  public InterpreterOutput(InterpreterOutputListener listener) {
+    this.listener = listener;
+  }
+
+  public void write(String output) {
+    if (output == null || output.isEmpty() || listener == null) {
+      return;
+    }
+    listener.onAppend(this, output);
+  }
+
+  public InterpreterOutputListener getListener() {
+    return listener;
+  }
+}
@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.interpreter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * OutputStream of a REPL style interpreter.
+ *
+ * What is written is forwarded in chunks of complete lines to the {@link InterpreterOutput}
+ * of the running paragraph, at most once per flush interval unless a chunk is full.
+ * For the final paragraph result only the last {@code maxBytes} are kept, so a chatty loop
+ * can not grow the buffer without bound. Streaming stops as well once {@code maxBytes}
+ * were sent.
+ */
+public class InterpreterOutputStream extends OutputStream {
+  public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+  private final Charset charset = Charset.defaultCharset();
+  private final int maxBytes;
+  private final int chunkSize;
+  private final long flushIntervalMs;
+
+  // the last maxBytes written, a ring buffer
+  private final byte[] tail;
+  private int tailStart;
+  private int tailLength;
+  private long truncated;
+
+  private InterpreterOutput output;
+  private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+  private long streamed;
+  private long lastFlush;
+
+  public InterpreterOutputStream(int maxBytes, long flushIntervalMs) {
+    this(maxBytes, DEFAULT_CHUNK_SIZE, flushIntervalMs);
+  }
+
+  public InterpreterOutputStream(int maxBytes, int chunkSize, long flushIntervalMs) {
+    if (maxBytes <= 0) {
+      throw new IllegalArgumentException("maxBytes must be positive");
+    }
+    this.maxBytes = maxBytes;
+    this.chunkSize = chunkSize;
+    this.flushIntervalMs = flushIntervalMs;
+    this.tail = new byte[maxBytes];
+  }
+
+  /**
+   * Forward the output to the given paragraph output, null to stop streaming.
+   * Pending output of the previous paragraph output is dropped.
+   */
+  public synchronized void setInterpreterOutput(InterpreterOutput output) {
+    this.output = output;
+    pending.reset();
+    streamed = 0;
+    lastFlush = System.currentTimeMillis();
+  }
+
+  public synchronized InterpreterOutput getInterpreterOutput() {
+    return output;
+  }
+
+  @Override
+  public synchronized void write(int b) {
+    write(new byte[] {(byte) b}, 0, 1);
+  }
+
+  @Override
+  public synchronized void write(byte[] b, int off, int len) {
+    if (len <= 0) {
+      return;
+    }
+    appendTail(b, off, len);
+
+    if (output != null && streamed < maxBytes) {
+      pending.write(b, off, len);
+      if (pending.size() >= chunkSize
+          || System.currentTimeMillis() - lastFlush >= flushIntervalMs) {
+        sendPending();
+      }
+    }
+  }
+
+  /**
+   * Send the pending complete lines to the paragraph output.
+   */
+  @Override
+  public synchronized void flush() {
+    if (output != null && pending.size() > 0) {
+      sendPending();
+    }
+  }
+
+  /**
+   * Number of bytes dropped from the head of the output.
+   */
+  public synchronized long getTruncatedBytes() {
+    return truncated;
+  }
+
+  /**
+   * Drop the output kept for the result. Streaming continues to the same paragraph output.
+   */
+  public synchronized void reset() {
+    tailStart = 0;
+    tailLength = 0;
+    truncated = 0;
+    pending.reset();
+    streamed = 0;
+  }
+
+  /**
+   * The retained tail of the output, prefixed with a note when the head was dropped.
+   */
+  @Override
+  public synchronized String toString() {
+    byte[] bytes = new byte[tailLength];
+    int first = Math.min(tailLength, maxBytes - tailStart);
+    System.arraycopy(tail, tailStart, bytes, 0, first);
+    System.arraycopy(tail, 0, bytes, first, tailLength - first);
+    if (truncated == 0) {
+      return new String(bytes, charset);
+    }
+    int start = 0;
+    while (start < bytes.length && isContinuationByte(bytes[start])) {
+      start++;
+    }
+    return "... " + truncated + " bytes truncated ...\n"
+        + new String(bytes, start, bytes.length - start, charset);
+  }
+
+  private void appendTail(byte[] b, int off, int len) {
+    if (len >= maxBytes) {
+      truncated += tailLength + len - maxBytes;
+      System.arraycopy(b, off + len - maxBytes, tail, 0, maxBytes);
+      tailStart = 0;
+      tailLength = maxBytes;
+      return;
+    }
+    int overflow = tailLength + len - maxBytes;
+    if (overflow > 0) {
+      tailStart = (tailStart + overflow) % maxBytes;
+      tailLength -= overflow;
+      truncated += overflow;
+    }
+    int end = (tailStart + tailLength) % maxBytes;
+    int first = Math.min(len, maxBytes - end);
+    System.arraycopy(b, off, tail, end, first);
+    System.arraycopy(b, off + first, tail, 0, len - first);
+    tailLength += len;
+  }
+
+  private void sendPending() {
+    byte[] bytes = pending.toByteArray();
+    int cut = bytes.length;
+    if (cut < chunkSize) {
+      // keep an incomplete line until it is complete or the chunk is full
+      while (cut > 0 && bytes[cut - 1] != '\n') {
+        cut--;
+      }
+    }
+    if (streamed + cut >= maxBytes) {
+      cut = (int) (maxBytes - streamed);
+    }
+    cut = charBoundary(bytes, cut);
+    if (cut == 0) {
+      return;
+    }
+
+    StringBuilder chunk = new StringBuilder(new String(bytes, 0, cut, charset));
+    streamed += cut;
+    if (streamed >= maxBytes) {
+      streamed = maxBytes;
+      chunk.append("\n... output exceeds ").append(maxBytes)
+          .append(" bytes, the last ones are shown when the paragraph finishes ...\n");
+      pending.reset();
+    } else {
+      pending.reset();
+      pending.write(bytes, cut, bytes.length - cut);
+    }
+    lastFlush = System.currentTimeMillis();
+    output.write(chunk.toString());
+  }
+
+  /**
+   * Move the cut before a multi byte character instead of splitting it.
+   */
+  private static int charBoundary(byte[] bytes, int cut) {
+    if (cut <= 0) {
+      return 0;
+    }
+    int start = cut - 1;
+    while (start > 0 && isContinuationByte(bytes[start])) {
+      start--;
+    }
+    return start + charLength(bytes[start]) > cut ? start : cut;
+  }
+
+  private static int charLength(byte lead) {
+    if ((lead & 0xE0) == 0xC0) {
+      return 2;
+    } else if ((lead & 0xF0) == 0xE0) {
+      return 3;
+    } else if ((lead & 0xF8) == 0xF0) {
+      return 4;
+    }
+    return 1;
+  }
+
+  private static boolean isContinuationByte(byte b) {
+    return (b & 0xC0) == 0x80;
+  }
+}
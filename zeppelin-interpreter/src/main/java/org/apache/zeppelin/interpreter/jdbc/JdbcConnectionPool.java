@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.interpreter.jdbc;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.NoSuchElementException;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.pool2.BasePooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool of JDBC connections shared by the paragraphs of a SQL interpreter.
+ *
+ * Connections are validated when borrowed, either with the configured validation query or,
+ * when there is none, by checking that the connection is still open. A connection that fails
+ * validation is discarded and replaced by a new one, so a restarted database is picked up
+ * without reopening the interpreter.
+ */
+public class JdbcConnectionPool {
+  private Logger logger = LoggerFactory.getLogger(JdbcConnectionPool.class);
+
+  private final GenericObjectPool<Connection> pool;
+  private final String validationQuery;
+
+  public JdbcConnectionPool(JdbcConnectionProvider provider,
+                            int maxTotal,
+                            int maxIdle,
+                            long maxWaitMillis,
+                            String validationQuery) {
+    this.validationQuery = StringUtils.isBlank(validationQuery) ? null : validationQuery;
+
+    GenericObjectPoolConfig config = new GenericObjectPoolConfig();
+    config.setMaxTotal(maxTotal);
+    config.setMaxIdle(Math.min(maxIdle, maxTotal));
+    config.setMinIdle(0);
+    config.setMaxWaitMillis(maxWaitMillis);
+    config.setBlockWhenExhausted(true);
+    config.setTestOnBorrow(true);
+    config.setTestOnReturn(false);
+    config.setJmxEnabled(false);
+
+    pool = new GenericObjectPool<Connection>(new PooledConnectionFactory(provider), config);
+  }
+
+  /**
+   * Borrow a validated connection. Must be given back with {@link #release(Connection)} or
+   * {@link #invalidate(Connection)}.
+   */
+  public Connection borrow() throws SQLException {
+    try {
+      return pool.borrowObject();
+    } catch (SQLException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new SQLException("Cannot get connection from pool: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Borrow a validated connection without waiting.
+   * @return null if all connections are in use
+   */
+  public Connection tryBorrow() throws SQLException {
+    try {
+      return pool.borrowObject(0);
+    } catch (NoSuchElementException e) {
+      return null;
+    } catch (SQLException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new SQLException("Cannot get connection from pool: " + e.getMessage(), e);
+    }
+  }
+
+  public void release(Connection connection) {
+    if (connection == null) {
+      return;
+    }
+    try {
+      pool.returnObject(connection);
+    } catch (IllegalStateException e) {
+      // pool already closed or connection invalidated
+      closeQuietly(connection);
+    }
+  }
+
+  /**
+   * Drop a connection that is known to be broken. The next borrow opens a new one.
+   */
+  public void invalidate(Connection connection) {
+    if (connection == null) {
+      return;
+    }
+    try {
+      pool.invalidateObject(connection);
+    } catch (Exception e) {
+      logger.debug("Cannot invalidate connection", e);
+      closeQuietly(connection);
+    }
+  }
+
+  /**
+   * Open one connection up front, so configuration errors show up when the interpreter opens.
+   */
+  public void prepare() throws SQLException {
+    try {
+      pool.addObject();
+    } catch (SQLException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new SQLException("Cannot open connection: " + e.getMessage(), e);
+    }
+  }
+
+  public boolean isValid(Connection connection) {
+    try {
+      if (connection.isClosed()) {
+        return false;
+      }
+      if (validationQuery == null) {
+        return true;
+      }
+      Statement statement = connection.createStatement();
+      try {
+        ResultSet rs = statement.executeQuery(validationQuery);
+        rs.close();
+      } finally {
+        statement.close();
+      }
+      return true;
+    } catch (SQLException e) {
+      logger.info("Connection validation failed: " + e.getMessage());
+      return false;
+    }
+  }
+
+  public int getNumActive() {
+    return pool.getNumActive();
+  }
+
+  public int getNumIdle() {
+    return pool.getNumIdle();
+  }
+
+  public int getMaxTotal() {
+    return pool.getMaxTotal();
+  }
+
+  public void close() {
+    pool.close();
+  }
+
+  private void closeQuietly(Connection connection) {
+    try {
+      connection.close();
+    } catch (SQLException e) {
+      logger.debug("Cannot close connection", e);
+    }
+  }
+
+  private class PooledConnectionFactory extends BasePooledObjectFactory<Connection> {
+    private final JdbcConnectionProvider provider;
+
+    PooledConnectionFactory(JdbcConnectionProvider provider) {
+      this.provider = provider;
+    }
+
+    @Override
+    public Connection create() throws Exception {
+      Connection connection = provider.getConnection();
+      if (connection == null) {
+        throw new SQLException("Connection provider returned no connection");
+      }
+      return connection;
+    }
+
+    @Override
+    public PooledObject<Connection> wrap(Connection connection) {
+      return new DefaultPooledObject<Connection>(connection);
+    }
+
+    @Override
+    public boolean validateObject(PooledObject<Connection> p) {
+      return isValid(p.getObject());
+    }
+
+    @Override
+    public void destroyObject(PooledObject<Connection> p) {
+      closeQuietly(p.getObject());
+    }
+  }
+}
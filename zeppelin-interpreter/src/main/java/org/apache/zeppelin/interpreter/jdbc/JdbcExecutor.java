@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.interpreter.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.zeppelin.interpreter.Interpreter;
+import org.apache.zeppelin.interpreter.InterpreterContext;
+import org.apache.zeppelin.interpreter.InterpreterPropertyBuilder;
+import org.apache.zeppelin.scheduler.Scheduler;
+import org.apache.zeppelin.scheduler.SchedulerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Execution core shared by the JDBC based interpreters.
+ *
+ * Every paragraph runs on its own statement, created on a connection borrowed from a
+ * {@link JdbcConnectionPool}. Running statements are tracked by paragraph id, so
+ * {@link #cancel(InterpreterContext)} only cancels the query of the given paragraph and
+ * paragraphs can be run concurrently by a ParallelScheduler.
+ *
+ * Pool settings are read from interpreter properties named after a prefix, e.g.
+ * {@code hive.pool.max.total}. Use {@link #addProperties(InterpreterPropertyBuilder, String)}
+ * to register them along with the interpreter.
+ */
+public class JdbcExecutor {
+  private static final Logger logger = LoggerFactory.getLogger(JdbcExecutor.class);
+
+  public static final String POOL_MAX_TOTAL = ".pool.max.total";
+  public static final String POOL_MAX_IDLE = ".pool.max.idle";
+  public static final String POOL_MAX_WAIT = ".pool.max.wait";
+  public static final String POOL_VALIDATION_QUERY = ".pool.validation.query";
+  public static final String CONCURRENT_MAX = ".concurrent.max";
+
+  public static final String DEFAULT_POOL_MAX_TOTAL = "10";
+  public static final String DEFAULT_POOL_MAX_IDLE = "2";
+  public static final String DEFAULT_POOL_MAX_WAIT = "60000";
+  public static final String DEFAULT_POOL_VALIDATION_QUERY = "";
+  public static final String DEFAULT_CONCURRENT_MAX = "1";
+
+  /**
+   * Key used for statements run without an interpreter context.
+   */
+  static final String NO_PARAGRAPH = "";
+
+  private final JdbcConnectionPool pool;
+  private final Map<String, List<Statement>> runningStatements =
+      new ConcurrentHashMap<String, List<Statement>>();
+
+  public JdbcExecutor(JdbcConnectionPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Create an executor configured from the properties of the given interpreter.
+   */
+  public static JdbcExecutor create(Interpreter interpreter,
+                                    String prefix,
+                                    JdbcConnectionProvider provider) {
+    JdbcConnectionPool pool = new JdbcConnectionPool(
+        provider,
+        getIntProperty(interpreter, prefix + POOL_MAX_TOTAL, DEFAULT_POOL_MAX_TOTAL),
+        getIntProperty(interpreter, prefix + POOL_MAX_IDLE, DEFAULT_POOL_MAX_IDLE),
+        getIntProperty(interpreter, prefix + POOL_MAX_WAIT, DEFAULT_POOL_MAX_WAIT),
+        interpreter.getProperty(prefix + POOL_VALIDATION_QUERY));
+    return new JdbcExecutor(pool);
+  }
+
+  public static InterpreterPropertyBuilder addProperties(InterpreterPropertyBuilder builder,
+                                                         String prefix) {
+    return builder
+        .add(prefix + POOL_MAX_TOTAL, DEFAULT_POOL_MAX_TOTAL,
+            "Max number of pooled JDBC connections.")
+        .add(prefix + POOL_MAX_IDLE, DEFAULT_POOL_MAX_IDLE,
+            "Max number of idle JDBC connections kept open.")
+        .add(prefix + POOL_MAX_WAIT, DEFAULT_POOL_MAX_WAIT,
+            "Milliseconds to wait for a free connection.")
+        .add(prefix + POOL_VALIDATION_QUERY, DEFAULT_POOL_VALIDATION_QUERY,
+            "Query used to validate connections. Empty only checks the connection is open.")
+        .add(prefix + CONCURRENT_MAX, DEFAULT_CONCURRENT_MAX,
+            "Number of paragraphs run concurrently. 1 runs paragraphs one by one.");
+  }
+
+  /**
+   * FIFO scheduler by default, ParallelScheduler when {@code <prefix>.concurrent.max} > 1.
+   */
+  public static Scheduler getScheduler(Interpreter interpreter, String prefix, String name) {
+    int maxConcurrency = getIntProperty(interpreter, prefix + CONCURRENT_MAX,
+        DEFAULT_CONCURRENT_MAX);
+    if (maxConcurrency > 1) {
+      return SchedulerFactory.singleton().createOrGetParallelScheduler(name, maxConcurrency);
+    } else {
+      return SchedulerFactory.singleton().createOrGetFIFOScheduler(name);
+    }
+  }
+
+  public static int getIntProperty(Interpreter interpreter, String key, String defaultValue) {
+    String value = interpreter.getProperty(key);
+    try {
+      return Integer.parseInt(value == null ? defaultValue : value.trim());
+    } catch (NumberFormatException e) {
+      logger.warn("Invalid value '" + value + "' for " + key + ", use " + defaultValue);
+      return Integer.parseInt(defaultValue);
+    }
+  }
+
+  public static String paragraphKey(InterpreterContext context) {
+    if (context == null || context.getParagraphId() == null) {
+      return NO_PARAGRAPH;
+    }
+    return context.getParagraphId();
+  }
+
+  public <T> T execute(InterpreterContext context, StatementCallback<T> callback)
+      throws SQLException {
+    return execute(paragraphKey(context), callback);
+  }
+
+  /**
+   * Run the callback on a new statement registered under the given paragraph id.
+   * If the statement fails and its connection turns out to be broken, the connection is
+   * dropped from the pool instead of being reused.
+   */
+  public <T> T execute(String paragraphId, StatementCallback<T> callback) throws SQLException {
+    return execute(paragraphId, pool.borrow(), callback);
+  }
+
+  /**
+   * Run the callback like {@link #execute(String, StatementCallback)}, on a connection
+   * borrowed with {@link #tryBorrowConnection()}. The connection is given back afterwards.
+   */
+  public <T> T execute(String paragraphId, Connection connection, StatementCallback<T> callback)
+      throws SQLException {
+    boolean broken = false;
+    Statement statement = null;
+    try {
+      statement = connection.createStatement();
+      register(paragraphId, statement);
+      return callback.doInStatement(statement);
+    } catch (SQLException e) {
+      broken = !pool.isValid(connection);
+      throw e;
+    } catch (RuntimeException e) {
+      broken = !pool.isValid(connection);
+      throw e;
+    } finally {
+      if (statement != null) {
+        unregister(paragraphId, statement);
+        try {
+          statement.close();
+        } catch (SQLException e) {
+          logger.debug("Cannot close statement", e);
+        }
+      }
+      if (broken) {
+        logger.info("Discard broken connection");
+        pool.invalidate(connection);
+      } else {
+        pool.release(connection);
+      }
+    }
+  }
+
+  /**
+   * Borrow a connection for work that does not belong to a paragraph, e.g. metadata lookup.
+   */
+  public Connection borrowConnection() throws SQLException {
+    return pool.borrow();
+  }
+
+  /**
+   * Borrow a connection if one is free right now.
+   * @return null if all pooled connections are in use
+   */
+  public Connection tryBorrowConnection() throws SQLException {
+    return pool.tryBorrow();
+  }
+
+  public void releaseConnection(Connection connection) {
+    pool.release(connection);
+  }
+
+  public void cancel(InterpreterContext context) {
+    cancel(paragraphKey(context));
+  }
+
+  /**
+   * Cancel statements running for the given paragraph only.
+   */
+  public void cancel(String paragraphId) {
+    List<Statement> statements = runningStatements.get(paragraphId);
+    if (statements == null) {
+      return;
+    }
+    List<Statement> toCancel;
+    synchronized (statements) {
+      toCancel = new LinkedList<Statement>(statements);
+    }
+    for (Statement statement : toCancel) {
+      try {
+        statement.cancel();
+      } catch (SQLException e) {
+        logger.info("Cannot cancel statement of paragraph " + paragraphId, e);
+      }
+    }
+  }
+
+  public boolean isRunning(String paragraphId) {
+    return runningStatements.containsKey(paragraphId);
+  }
+
+  public JdbcConnectionPool getPool() {
+    return pool;
+  }
+
+  /**
+   * Cancel everything still running and close all pooled connections.
+   */
+  public void close() {
+    for (String paragraphId : runningStatements.keySet()) {
+      cancel(paragraphId);
+    }
+    pool.close();
+  }
+
+  private void register(String paragraphId, Statement statement) {
+    synchronized (runningStatements) {
+      List<Statement> statements = runningStatements.get(paragraphId);
+      if (statements == null) {
+        statements = new LinkedList<Statement>();
+        runningStatements.put(paragraphId, statements);
+      }
+      synchronized (statements) {
+        statements.add(statement);
+      }
+    }
+  }
+
+  private void unregister(String paragraphId, Statement statement) {
+    synchronized (runningStatements) {
+      List<Statement> statements = runningStatements.get(paragraphId);
+      if (statements == null) {
+        return;
+      }
+      synchronized (statements) {
+        statements.remove(statement);
+        if (statements.isEmpty()) {
+          runningStatements.remove(paragraphId);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,364 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.zeppelin.interpreter.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.apache.zeppelin.interpreter.Interpreter;
+import org.apache.zeppelin.interpreter.InterpreterContext;
+import org.apache.zeppelin.interpreter.InterpreterPropertyBuilder;
+import org.apache.zeppelin.interpreter.InterpreterResult;
+import org.apache.zeppelin.interpreter.InterpreterResult.Code;
+import org.apache.zeppelin.interpreter.InterpreterResult.Type;
+import org.apache.zeppelin.scheduler.ExecutorFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the ';' separated statements of a paragraph through a {@link JdbcExecutor}.
+ *
+ * Statements run one by one on a single connection borrowed for the whole paragraph, so
+ * session state such as SET, temporary tables or an open transaction carries over from one
+ * statement to the next. With {@code <prefix>.statement.concurrent.max} > 1 consecutive read
+ * only statements (see {@link SqlScript#isReadOnly}) instead run concurrently on other pooled
+ * connections and do not see that session state, while any other statement waits for the
+ * statements before it to finish and runs alone. A read only statement runs on the session
+ * connection when no other pooled connection is free, so concurrent paragraphs never wait for
+ * connections held by each other. Execution stops at the first failure.
+ *
+ * The paragraph gives the result of its last statement, or the error of the statement that
+ * failed. With {@code <prefix>.statement.report} set to true, several statements give one html
+ * section each instead.
+ */
+public class JdbcScriptRunner {
+  private static final Logger logger = LoggerFactory.getLogger(JdbcScriptRunner.class);
+
+  public static final String STATEMENT_CONCURRENT_MAX = ".statement.concurrent.max";
+  public static final String DEFAULT_STATEMENT_CONCURRENT_MAX = "1";
+  public static final String STATEMENT_REPORT = ".statement.report";
+  public static final String DEFAULT_STATEMENT_REPORT = "false";
+
+  static final String EXECUTOR_NAME = "JdbcScriptRunner";
+  static final String NOT_EXECUTED = "Not executed";
+
+  private final JdbcExecutor jdbcExecutor;
+  private final int maxConcurrency;
+  private final boolean report;
+  private final Map<String, AtomicBoolean> aborted = new ConcurrentHashMap<String, AtomicBoolean>();
+
+  public JdbcScriptRunner(JdbcExecutor jdbcExecutor, int maxConcurrency) {
+    this(jdbcExecutor, maxConcurrency, false);
+  }
+
+  public JdbcScriptRunner(JdbcExecutor jdbcExecutor, int maxConcurrency, boolean report) {
+    this.jdbcExecutor = jdbcExecutor;
+    this.maxConcurrency = Math.max(1, maxConcurrency);
+    this.report = report;
+  }
+
+  public static JdbcScriptRunner create(Interpreter interpreter, String prefix,
+                                        JdbcExecutor jdbcExecutor) {
+    String report = interpreter.getProperty(prefix + STATEMENT_REPORT);
+    return new JdbcScriptRunner(jdbcExecutor,
+        JdbcExecutor.getIntProperty(interpreter,
+            prefix + STATEMENT_CONCURRENT_MAX, DEFAULT_STATEMENT_CONCURRENT_MAX),
+        Boolean.parseBoolean(report == null ? DEFAULT_STATEMENT_REPORT : report.trim()));
+  }
+
+  public static InterpreterPropertyBuilder addProperties(InterpreterPropertyBuilder builder,
+                                                         String prefix) {
+    return builder.add(prefix + STATEMENT_CONCURRENT_MAX, DEFAULT_STATEMENT_CONCURRENT_MAX,
+        "Number of SELECT statements of a paragraph run concurrently. "
+        + "1 runs statements one by one.")
+        .add(prefix + STATEMENT_REPORT, DEFAULT_STATEMENT_REPORT,
+            "true shows the result of every statement of a paragraph as html, "
+            + "false only the result of the last one.");
+  }
+
+  public InterpreterResult run(InterpreterContext context, String script,
+                               SqlStatementCallback callback) {
+    List<String> statements = SqlScript.split(script);
+    if (statements.size() <= 1) {
+      return execute(JdbcExecutor.paragraphKey(context),
+          statements.isEmpty() ? script : statements.get(0), callback);
+    }
+
+    String paragraphId = JdbcExecutor.paragraphKey(context);
+    AtomicBoolean abortFlag = new AtomicBoolean(false);
+    aborted.put(paragraphId, abortFlag);
+    try {
+      InterpreterResult[] results = runAll(paragraphId, statements, callback, abortFlag);
+      return report ? toReport(statements, results) : toResult(statements, results);
+    } finally {
+      aborted.remove(paragraphId);
+    }
+  }
+
+  /**
+   * Stop running statements of the paragraph and skip the remaining ones.
+   */
+  public void cancel(InterpreterContext context) {
+    String paragraphId = JdbcExecutor.paragraphKey(context);
+    AtomicBoolean abortFlag = aborted.get(paragraphId);
+    if (abortFlag != null) {
+      abortFlag.set(true);
+    }
+    jdbcExecutor.cancel(paragraphId);
+  }
+
+  public int getMaxConcurrency() {
+    return maxConcurrency;
+  }
+
+  public boolean isReport() {
+    return report;
+  }
+
+  private InterpreterResult[] runAll(final String paragraphId, final List<String> statements,
+                                     final SqlStatementCallback callback,
+                                     final AtomicBoolean abortFlag) {
+    final InterpreterResult[] results = new InterpreterResult[statements.size()];
+    try {
+      jdbcExecutor.execute(paragraphId, new StatementCallback<Void>() {
+        @Override
+        public Void doInStatement(Statement statement) throws SQLException {
+          runAll(paragraphId, statements, callback, abortFlag, statement, results);
+          return null;
+        }
+      });
+    } catch (SQLException e) {
+      // the failed statement already has its result, unless no connection could be borrowed
+      if (!hasError(results)) {
+        logger.error("Cannot run statements", e);
+        results[firstNotExecuted(results)] = new InterpreterResult(Code.ERROR, e.getMessage());
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Run the statements, the sequential ones on the given statement of the paragraph session.
+   * A failure of a sequential statement is rethrown once the concurrent ones completed, so that
+   * the executor can drop a broken session connection.
+   */
+  private void runAll(String paragraphId, List<String> statements,
+                      SqlStatementCallback callback, AtomicBoolean abortFlag,
+                      Statement session, InterpreterResult[] results) throws SQLException {
+    List<Integer> pendingIndexes = new LinkedList<Integer>();
+    List<Future<InterpreterResult>> pending = new LinkedList<Future<InterpreterResult>>();
+    SQLException sessionError = null;
+    boolean failed = false;
+
+    for (int i = 0; i < statements.size() && !failed && !abortFlag.get(); i++) {
+      String sql = statements.get(i);
+      boolean concurrent = maxConcurrency > 1 && SqlScript.isReadOnly(sql);
+
+      if (!concurrent || pending.size() >= maxConcurrency) {
+        failed = await(pendingIndexes, pending, results);
+        if (failed || abortFlag.get()) {
+          break;
+        }
+      }
+
+      Connection connection = concurrent ? tryBorrowConnection() : null;
+      if (connection != null) {
+        pendingIndexes.add(i);
+        pending.add(submit(paragraphId, connection, sql, callback));
+      } else {
+        try {
+          results[i] = new InterpreterResult(Code.SUCCESS, callback.doInStatement(sql, session));
+        } catch (SQLException e) {
+          logger.error("Cannot run " + sql, e);
+          results[i] = new InterpreterResult(Code.ERROR, e.getMessage());
+          sessionError = e;
+          failed = true;
+        }
+      }
+    }
+    await(pendingIndexes, pending, results);
+    if (sessionError != null) {
+      throw sessionError;
+    }
+  }
+
+  /**
+   * @return a free pooled connection, or null to run on the session connection
+   */
+  private Connection tryBorrowConnection() {
+    try {
+      return jdbcExecutor.tryBorrowConnection();
+    } catch (SQLException e) {
+      logger.info("Cannot get another connection, run on the session connection", e);
+      return null;
+    }
+  }
+
+  private Future<InterpreterResult> submit(final String paragraphId,
+                                           final Connection connection, final String sql,
+                                           final SqlStatementCallback callback) {
+    ExecutorService executor = ExecutorFactory.singleton().createOrGet(EXECUTOR_NAME);
+    return executor.submit(new Callable<InterpreterResult>() {
+      @Override
+      public InterpreterResult call() throws Exception {
+        return execute(paragraphId, connection, sql, callback);
+      }
+    });
+  }
+
+  /**
+   * Wait for the pending statements.
+   * @return true if one of them failed
+   */
+  private boolean await(List<Integer> pendingIndexes, List<Future<InterpreterResult>> pending,
+                        InterpreterResult[] results) {
+    boolean failed = false;
+    for (int i = 0; i < pending.size(); i++) {
+      int index = pendingIndexes.get(i);
+      try {
+        results[index] = pending.get(i).get();
+      } catch (InterruptedException | ExecutionException e) {
+        logger.error("Statement did not complete", e);
+        results[index] = new InterpreterResult(Code.ERROR, e.getMessage());
+      }
+      failed |= results[index].code() == Code.ERROR;
+    }
+    pendingIndexes.clear();
+    pending.clear();
+    return failed;
+  }
+
+  private InterpreterResult execute(String paragraphId, String sql,
+                                    SqlStatementCallback callback) {
+    return execute(paragraphId, null, sql, callback);
+  }
+
+  /**
+   * Run the statement on the given borrowed connection, or on a newly borrowed one if null.
+   */
+  private InterpreterResult execute(String paragraphId, Connection connection, final String sql,
+                                    final SqlStatementCallback callback) {
+    StatementCallback<String> statementCallback = new StatementCallback<String>() {
+      @Override
+      public String doInStatement(Statement statement) throws SQLException {
+        return callback.doInStatement(sql, statement);
+      }
+    };
+    try {
+      String msg = connection == null
+          ? jdbcExecutor.execute(paragraphId, statementCallback)
+          : jdbcExecutor.execute(paragraphId, connection, statementCallback);
+      return new InterpreterResult(Code.SUCCESS, msg);
+    } catch (SQLException e) {
+      logger.error("Cannot run " + sql, e);
+      return new InterpreterResult(Code.ERROR, e.getMessage());
+    }
+  }
+
+  private static boolean hasError(InterpreterResult[] results) {
+    for (InterpreterResult result : results) {
+      if (result != null && result.code() == Code.ERROR) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int firstNotExecuted(InterpreterResult[] results) {
+    for (int i = 0; i < results.length; i++) {
+      if (results[i] == null) {
+        return i;
+      }
+    }
+    return results.length - 1;
+  }
+
+  /**
+   * The error of the first failed statement, otherwise the result of the last statement run.
+   */
+  private InterpreterResult toResult(List<String> statements, InterpreterResult[] results) {
+    InterpreterResult last = null;
+    for (int i = 0; i < statements.size(); i++) {
+      InterpreterResult result = results[i];
+      if (result == null) {
+        continue;
+      }
+      if (result.code() == Code.ERROR) {
+        return new InterpreterResult(Code.ERROR, Type.TEXT,
+            statements.get(i) + "\n" + result.message());
+      }
+      last = result;
+    }
+    return last == null ? new InterpreterResult(Code.SUCCESS, NOT_EXECUTED) : last;
+  }
+
+  private InterpreterResult toReport(List<String> statements, InterpreterResult[] results) {
+    Code code = Code.SUCCESS;
+    StringBuilder html = new StringBuilder();
+    for (int i = 0; i < statements.size(); i++) {
+      InterpreterResult result = results[i];
+      if (result != null && result.code() == Code.ERROR) {
+        code = Code.ERROR;
+      }
+
+      html.append("<div class=\"statement-result\">");
+      html.append("<h5><code>").append(escape(statements.get(i))).append("</code></h5>");
+      if (result == null) {
+        html.append("<p><i>").append(NOT_EXECUTED).append("</i></p>");
+      } else if (result.code() == Code.ERROR) {
+        html.append("<pre class=\"text-danger\">").append(escape(result.message()))
+            .append("</pre>");
+      } else if (result.type() == Type.TABLE) {
+        appendTable(html, result.message());
+      } else {
+        html.append("<pre>").append(escape(result.message())).append("</pre>");
+      }
+      html.append("</div>");
+    }
+    return new InterpreterResult(code, Type.HTML, html.toString());
+  }
+
+  private void appendTable(StringBuilder html, String tsv) {
+    html.append("<table class=\"table table-hover table-condensed\">");
+    boolean header = true;
+    for (String line : tsv.split("\n")) {
+      html.append("<tr>");
+      for (String cell : line.split("\t", -1)) {
+        html.append(header ? "<th>" : "<td>").append(escape(cell))
+            .append(header ? "</th>" : "</td>");
+      }
+      html.append("</tr>");
+      header = false;
+    }
+    html.append("</table>");
+  }
+
+  private static String escape(String text) {
+    return text == null ? "" : StringEscapeUtils.escapeHtml4(text);
+  }
+}
@@ -0,0 +1,356 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.zeppelin.interpreter.jdbc;
+
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.zeppelin.interpreter.Interpreter;
+import org.apache.zeppelin.interpreter.InterpreterContext;
+import org.apache.zeppelin.interpreter.InterpreterException;
+import org.apache.zeppelin.interpreter.InterpreterPropertyBuilder;
+import org.apache.zeppelin.interpreter.InterpreterResult;
+import org.apache.zeppelin.interpreter.InterpreterResult.Code;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Opt-in cache of SQL query results.
+ *
+ * Each interpreter (and so each interpreter setting) has its own cache. Entries are keyed by
+ * the normalized SQL text, which already contains the values bound by dynamic forms.
+ * Only successful results of read only scripts are cached. Running any other statement
+ * through the interpreter drops all entries, as it may have changed the cached data.
+ *
+ * Entries expire after {@code <prefix>.cache.ttl} seconds and the least recently used entry
+ * is evicted once {@code <prefix>.cache.max.entries} is reached. Results larger than
+ * {@code <prefix>.cache.max.result.size} characters are not cached. A paragraph bypasses the
+ * cache, and refreshes its entry, when its config has {@code bypassResultCache = true}.
+ *
+ * An enabled cache created for an interpreter registers its hit, miss, bypass and eviction
+ * counts as an MBean of the interpreter process, see QueryResultCacheMBean.
+ */
+public class QueryResultCache implements QueryResultCacheMBean {
+  private static final Logger logger = LoggerFactory.getLogger(QueryResultCache.class);
+
+  public static final String CACHE_ENABLED = ".cache.enabled";
+  public static final String CACHE_TTL = ".cache.ttl";
+  public static final String CACHE_MAX_ENTRIES = ".cache.max.entries";
+  public static final String CACHE_MAX_RESULT_SIZE = ".cache.max.result.size";
+
+  public static final String DEFAULT_CACHE_ENABLED = "false";
+  public static final String DEFAULT_CACHE_TTL = "300";
+  public static final String DEFAULT_CACHE_MAX_ENTRIES = "100";
+  public static final String DEFAULT_CACHE_MAX_RESULT_SIZE = "1000000";
+
+  /**
+   * Paragraph config key to bypass the cache.
+   */
+  public static final String BYPASS_CONFIG = "bypassResultCache";
+
+  private final boolean enabled;
+  private final long ttlMillis;
+  private final int maxEntries;
+  private final int maxResultSize;
+  private final LinkedHashMap<String, Entry> entries;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong bypasses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private ObjectName objectName;
+
+  public QueryResultCache(boolean enabled, long ttlMillis, int maxEntries, int maxResultSize) {
+    this.enabled = enabled;
+    this.ttlMillis = ttlMillis;
+    this.maxEntries = maxEntries;
+    this.maxResultSize = maxResultSize;
+    this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        if (size() > QueryResultCache.this.maxEntries) {
+          evictions.incrementAndGet();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Create the cache of the interpreter. Call close() once the interpreter closes.
+   */
+  public static QueryResultCache create(Interpreter interpreter, String prefix) {
+    QueryResultCache cache = new QueryResultCache(
+        Boolean.parseBoolean(getProperty(interpreter, prefix + CACHE_ENABLED,
+            DEFAULT_CACHE_ENABLED)),
+        JdbcExecutor.getIntProperty(interpreter, prefix + CACHE_TTL, DEFAULT_CACHE_TTL) * 1000L,
+        JdbcExecutor.getIntProperty(interpreter, prefix + CACHE_MAX_ENTRIES,
+            DEFAULT_CACHE_MAX_ENTRIES),
+        JdbcExecutor.getIntProperty(interpreter, prefix + CACHE_MAX_RESULT_SIZE,
+            DEFAULT_CACHE_MAX_RESULT_SIZE));
+    if (cache.isEnabled()) {
+      String group = interpreter.getInterpreterGroup() == null ? "none"
+          : interpreter.getInterpreterGroup().getId();
+      cache.register("org.apache.zeppelin:type=QueryResultCache,interpreter="
+          + ObjectName.quote(prefix) + ",group=" + ObjectName.quote(group));
+    }
+    return cache;
+  }
+
+  synchronized void register(String name) {
+    try {
+      ObjectName objectName = new ObjectName(name);
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+      this.objectName = objectName;
+    } catch (JMException e) {
+      logger.warn("Can't register result cache " + name, e);
+    }
+  }
+
+  /**
+   * Unregister the counters.
+   */
+  public synchronized void close() {
+    if (objectName == null) {
+      return;
+    }
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    } catch (JMException e) {
+      logger.warn("Can't unregister result cache " + objectName, e);
+    }
+    objectName = null;
+  }
+
+  public static InterpreterPropertyBuilder addProperties(InterpreterPropertyBuilder builder,
+                                                         String prefix) {
+    return builder
+        .add(prefix + CACHE_ENABLED, DEFAULT_CACHE_ENABLED,
+            "Cache results of read only queries.")
+        .add(prefix + CACHE_TTL, DEFAULT_CACHE_TTL,
+            "Seconds a cached result is used.")
+        .add(prefix + CACHE_MAX_ENTRIES, DEFAULT_CACHE_MAX_ENTRIES,
+            "Max number of cached results.")
+        .add(prefix + CACHE_MAX_RESULT_SIZE, DEFAULT_CACHE_MAX_RESULT_SIZE,
+            "Max number of characters of a cached result. Larger results are not cached.");
+  }
+
+  private static String getProperty(Interpreter interpreter, String key, String defaultValue) {
+    String value = interpreter.getProperty(key);
+    return value == null ? defaultValue : value.trim();
+  }
+
+  /**
+   * Return the cached result of the sql, or run the query and cache its result.
+   */
+  public InterpreterResult execute(InterpreterContext context, String sql,
+                                   Callable<InterpreterResult> query) {
+    if (!enabled) {
+      return call(query);
+    }
+
+    if (!isReadOnly(sql)) {
+      InterpreterResult result = call(query);
+      invalidateAll();
+      return result;
+    }
+
+    String key = normalize(sql);
+    if (isBypassed(context)) {
+      bypasses.incrementAndGet();
+    } else {
+      InterpreterResult cached = get(key);
+      if (cached != null) {
+        hits.incrementAndGet();
+        logger.debug("Result cache hit. {}", this);
+        return cached;
+      }
+      misses.incrementAndGet();
+    }
+
+    InterpreterResult result = call(query);
+    if (result.code() == Code.SUCCESS
+        && (result.message() == null || result.message().length() <= maxResultSize)) {
+      put(key, result);
+    }
+    return result;
+  }
+
+  synchronized InterpreterResult get(String key) {
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (currentTimeMillis() - entry.created > ttlMillis) {
+      entries.remove(key);
+      evictions.incrementAndGet();
+      return null;
+    }
+    return entry.result;
+  }
+
+  synchronized void put(String key, InterpreterResult result) {
+    entries.put(key, new Entry(result, currentTimeMillis()));
+  }
+
+  public synchronized void invalidateAll() {
+    entries.clear();
+  }
+
+  /**
+   * Drop expired entries.
+   */
+  public synchronized void purge() {
+    long now = currentTimeMillis();
+    Iterator<Entry> it = entries.values().iterator();
+    while (it.hasNext()) {
+      if (now - it.next().created > ttlMillis) {
+        it.remove();
+        evictions.incrementAndGet();
+      }
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  @Override
+  public int getSize() {
+    return size();
+  }
+
+  @Override
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  @Override
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  @Override
+  public long getBypassCount() {
+    return bypasses.get();
+  }
+
+  @Override
+  public long getEvictionCount() {
+    return evictions.get();
+  }
+
+  protected long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+
+  @Override
+  public String toString() {
+    return "QueryResultCache[size=" + size() + ", hits=" + hits + ", misses=" + misses
+        + ", bypasses=" + bypasses + ", evictions=" + evictions + "]";
+  }
+
+  static boolean isBypassed(InterpreterContext context) {
+    if (context == null || context.getConfig() == null) {
+      return false;
+    }
+    Object bypass = context.getConfig().get(BYPASS_CONFIG);
+    return bypass != null && Boolean.parseBoolean(bypass.toString());
+  }
+
+  static boolean isReadOnly(String sql) {
+    List<String> statements = SqlScript.split(sql);
+    if (statements.isEmpty()) {
+      return false;
+    }
+    for (String statement : statements) {
+      if (!SqlScript.isReadOnly(statement)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Collapse white spaces outside of quoted text and drop the trailing separators,
+   * so formatting differences do not produce different keys.
+   */
+  static String normalize(String sql) {
+    StringBuilder sb = new StringBuilder(sql.length());
+    char quote = 0;
+    boolean space = false;
+    for (int i = 0; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (quote != 0) {
+        sb.append(c);
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (Character.isWhitespace(c)) {
+        space = sb.length() > 0;
+      } else {
+        if (space) {
+          sb.append(' ');
+          space = false;
+        }
+        if (c == '\'' || c == '"' || c == '`') {
+          quote = c;
+        }
+        sb.append(c);
+      }
+    }
+    int end = sb.length();
+    while (end > 0 && (sb.charAt(end - 1) == ';' || sb.charAt(end - 1) == ' ')) {
+      end--;
+    }
+    sb.setLength(end);
+    return sb.toString();
+  }
+
+  private InterpreterResult call(Callable<InterpreterResult> query) {
+    try {
+      return query.call();
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new InterpreterException(e);
+    }
+  }
+
+  private static class Entry {
+    final InterpreterResult result;
+    final long created;
+
+    Entry(InterpreterResult result, long created) {
+      this.result = result;
+      this.created = created;
+    }
+  }
+}
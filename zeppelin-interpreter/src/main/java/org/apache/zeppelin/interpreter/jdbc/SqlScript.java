@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.zeppelin.interpreter.jdbc;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Splits a SQL script into statements and classifies them.
+ *
+ * Statements are separated by ';'. Separators inside quoted strings, quoted identifiers,
+ * PostgreSQL dollar quoted bodies ($$ ... $$, $tag$ ... $tag$) and comments are ignored.
+ */
+public class SqlScript {
+  private static final char SEPARATOR = ';';
+
+  private static final Pattern WRITE_KEYWORDS = Pattern.compile(
+      "\\b(INTO|INSERT|UPDATE|DELETE|UPSERT|MERGE)\\b", Pattern.CASE_INSENSITIVE);
+
+  private static final String[] READ_ONLY_PREFIXES = {
+    "SELECT", "WITH", "VALUES", "EXPLAIN", "SHOW", "DESCRIBE", "DESC"
+  };
+
+  private SqlScript() {
+  }
+
+  /**
+   * @return statements of the script, trimmed, without separators and empty statements
+   */
+  public static List<String> split(String script) {
+    List<String> statements = new LinkedList<String>();
+    if (script == null) {
+      return statements;
+    }
+
+    int length = script.length();
+    int start = 0;
+    int i = 0;
+    while (i < length) {
+      char c = script.charAt(i);
+      if (c == '\'' || c == '"' || c == '`') {
+        i = skipQuoted(script, i, c);
+      } else if (c == '-' && i + 1 < length && script.charAt(i + 1) == '-') {
+        i = skipTo(script, i + 2, "\n");
+      } else if (c == '/' && i + 1 < length && script.charAt(i + 1) == '*') {
+        i = skipTo(script, i + 2, "*/");
+      } else if (c == '$') {
+        i = skipDollarQuoted(script, i);
+      } else if (c == SEPARATOR) {
+        addStatement(statements, script.substring(start, i));
+        start = i + 1;
+        i++;
+      } else {
+        i++;
+      }
+    }
+    addStatement(statements, script.substring(start));
+    return statements;
+  }
+
+  /**
+   * True when the statement only reads data, so it can run concurrently with other reads.
+   * Detection is keyword based: SELECT ... INTO and data modifying WITH queries are
+   * treated as writes, functions with side effects are not detected.
+   */
+  public static boolean isReadOnly(String statement) {
+    String sql = stripLeadingComments(statement).toUpperCase(Locale.ENGLISH);
+    boolean readPrefix = false;
+    for (String prefix : READ_ONLY_PREFIXES) {
+      if (sql.startsWith(prefix)
+          && (sql.length() == prefix.length()
+          || !Character.isLetterOrDigit(sql.charAt(prefix.length())))) {
+        readPrefix = true;
+        break;
+      }
+    }
+    return readPrefix && !WRITE_KEYWORDS.matcher(withoutLiterals(sql)).find();
+  }
+
+  static String stripLeadingComments(String statement) {
+    String sql = statement.trim();
+    while (true) {
+      if (sql.startsWith("--")) {
+        sql = sql.substring(Math.min(skipTo(sql, 2, "\n"), sql.length())).trim();
+      } else if (sql.startsWith("/*")) {
+        sql = sql.substring(Math.min(skipTo(sql, 2, "*/"), sql.length())).trim();
+      } else {
+        return sql;
+      }
+    }
+  }
+
+  /**
+   * Blank out quoted strings, so keywords inside literals are not taken into account.
+   */
+  private static String withoutLiterals(String sql) {
+    StringBuilder sb = new StringBuilder(sql.length());
+    int i = 0;
+    while (i < sql.length()) {
+      char c = sql.charAt(i);
+      if (c == '\'' || c == '"' || c == '`') {
+        int end = skipQuoted(sql, i, c);
+        sb.append(' ');
+        i = end;
+      } else {
+        sb.append(c);
+        i++;
+      }
+    }
+    return sb.toString();
+  }
+
+  private static void addStatement(List<String> statements, String statement) {
+    String trimmed = statement.trim();
+    if (!stripLeadingComments(trimmed).isEmpty()) {
+      statements.add(trimmed);
+    }
+  }
+
+  /**
+   * @return index after the closing quote. A doubled quote is an escaped quote.
+   */
+  private static int skipQuoted(String script, int open, char quote) {
+    int i = open + 1;
+    while (i < script.length()) {
+      if (script.charAt(i) == quote) {
+        if (i + 1 < script.length() && script.charAt(i + 1) == quote) {
+          i += 2;
+          continue;
+        }
+        return i + 1;
+      }
+      i++;
+    }
+    return i;
+  }
+
+  private static int skipTo(String script, int from, String end) {
+    int i = script.indexOf(end, from);
+    return i < 0 ? script.length() : i + end.length();
+  }
+
+  private static int skipDollarQuoted(String script, int open) {
+    int i = open + 1;
+    while (i < script.length()
+        && (Character.isLetterOrDigit(script.charAt(i)) || script.charAt(i) == '_')) {
+      i++;
+    }
+    if (i >= script.length() || script.charAt(i) != '$'
+        || (i > open + 1 && Character.isDigit(script.charAt(open + 1)))) {
+      // not a dollar quote tag, e.g. a positional parameter like $1
+      return open + 1;
+    }
+    String tag = script.substring(open, i + 1);
+    return skipTo(script, i + 1, tag);
+  }
+}
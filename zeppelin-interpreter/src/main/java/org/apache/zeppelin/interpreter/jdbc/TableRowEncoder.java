@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.zeppelin.interpreter.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Encodes ResultSet rows into the tab separated format of %table results.
+ *
+ * Cells are copied straight into the target StringBuilder, so no intermediate
+ * String is created per cell or per row. Tab and newline characters inside a cell
+ * would break the table layout and are replaced by a white space.
+ */
+public class TableRowEncoder {
+  public static final char TAB = '\t';
+  public static final char NEWLINE = '\n';
+  public static final char WHITESPACE = ' ';
+
+  private final String nullValue;
+
+  public TableRowEncoder(String nullValue) {
+    this.nullValue = nullValue;
+  }
+
+  /**
+   * Appends the column names followed by a newline.
+   * @return number of columns
+   */
+  public int appendHeader(StringBuilder sb, ResultSetMetaData md) throws SQLException {
+    int columnCount = md.getColumnCount();
+    for (int i = 1; i <= columnCount; i++) {
+      if (i > 1) {
+        sb.append(TAB);
+      }
+      appendCell(sb, md.getColumnName(i));
+    }
+    sb.append(NEWLINE);
+    return columnCount;
+  }
+
+  /**
+   * Appends the current row of the result set followed by a newline.
+   */
+  public void appendRow(StringBuilder sb, ResultSet res, int columnCount) throws SQLException {
+    for (int i = 1; i <= columnCount; i++) {
+      if (i > 1) {
+        sb.append(TAB);
+      }
+      appendCell(sb, res.getString(i));
+    }
+    sb.append(NEWLINE);
+  }
+
+  public void appendCell(StringBuilder sb, String value) {
+    if (value == null) {
+      sb.append(nullValue);
+      return;
+    }
+
+    int length = value.length();
+    int start = 0;
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c == TAB || c == NEWLINE) {
+        sb.append(value, start, i).append(WHITESPACE);
+        start = i + 1;
+      }
+    }
+    sb.append(value, start, length);
+  }
+}
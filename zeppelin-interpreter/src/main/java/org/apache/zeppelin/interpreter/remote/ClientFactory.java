@@ -25,39 +25,57 @@ import org.apache.commons.pool2.PooledObject;
 import org.apache.commons.pool2.impl.DefaultPooledObject;
 import org.apache.thrift.protocol.TBinaryProtocol;
 import org.apache.thrift.protocol.TProtocol;
+import org.apache.thrift.transport.TFramedTransport;
 import org.apache.thrift.transport.TSocket;
+import org.apache.thrift.transport.TTransport;
 import org.apache.thrift.transport.TTransportException;
 import org.apache.zeppelin.interpreter.InterpreterException;
 import org.apache.zeppelin.interpreter.thrift.RemoteInterpreterService;
 import org.apache.zeppelin.interpreter.thrift.RemoteInterpreterService.Client;
 
 /**
- *
+ * Creates pooled clients of RemoteInterpreterService.
+ * Each client has its own connection.
  */
 public class ClientFactory extends BasePooledObjectFactory<Client>{
   private String host;
   private int port;
+  private boolean framed;
+  private int connectTimeout;
   Map<Client, TSocket> clientSocketMap = new HashMap<Client, TSocket>();
 
   public ClientFactory(String host, int port) {
+    this(host, port, false, 0);
+  }
+
+  /**
+   * @param framed use framed transport, required by non-blocking servers
+   * @param connectTimeout connect timeout in msec, 0 for none
+   */
+  public ClientFactory(String host, int port, boolean framed, int connectTimeout) {
     this.host = host;
     this.port = port;
+    this.framed = framed;
+    this.connectTimeout = connectTimeout;
   }
 
   @Override
   public Client create() throws Exception {
-    TSocket transport = new TSocket(host, port);
+    TSocket socket = new TSocket(host, port, connectTimeout);
     try {
-      transport.open();
+      socket.open();
     } catch (TTransportException e) {
       throw new InterpreterException(e);
     }
+    // no read timeout. interpret() blocks until the paragraph finishes
+    socket.setTimeout(0);
 
+    TTransport transport = framed ? new TFramedTransport(socket) : socket;
     TProtocol protocol = new  TBinaryProtocol(transport);
     Client client = new RemoteInterpreterService.Client(protocol);
 
     synchronized (clientSocketMap) {
-      clientSocketMap.put(client, transport);
+      clientSocketMap.put(client, socket);
     }
     return client;
   }
@@ -67,12 +85,20 @@ public class ClientFactory extends BasePooledObjectFactory<Client>{
     return new DefaultPooledObject<Client>(client);
   }
 
+  @Override
+  public boolean validateObject(PooledObject<Client> p) {
+    synchronized (clientSocketMap) {
+      TSocket socket = clientSocketMap.get(p.getObject());
+      return socket != null && socket.isOpen();
+    }
+  }
+
   @Override
   public void destroyObject(PooledObject<Client> p) {
     synchronized (clientSocketMap) {
-      if (clientSocketMap.containsKey(p)) {
-        clientSocketMap.get(p).close();
-        clientSocketMap.remove(p);
+      TSocket socket = clientSocketMap.remove(p.getObject());
+      if (socket != null) {
+        socket.close();
       }
     }
   }
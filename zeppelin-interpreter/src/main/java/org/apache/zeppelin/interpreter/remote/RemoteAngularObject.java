@@ -44,7 +44,7 @@ public class RemoteAngularObject extends AngularObject {
 
     if (emitRemoteProcess) {
       // send updated value to remote interpreter
-      remoteInterpreterProcess.updateRemoteAngularObject(getName(), getNoteId(), o);
+      remoteInterpreterProcess.updateRemoteAngularObject(this);
     }
   }
 }
@@ -29,8 +29,6 @@ import org.apache.zeppelin.interpreter.thrift.RemoteInterpreterService.Client;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.gson.Gson;
-
 /**
  *
  */
@@ -70,7 +68,6 @@ public class RemoteAngularObjectRegistry extends AngularObjectRegistry {
    * @return
    */
   public AngularObject addAndNotifyRemoteProcess(String name, Object o, String noteId) {
-    Gson gson = new Gson();
     RemoteInterpreterProcess remoteInterpreterProcess = getRemoteInterpreterProcess();
     if (!remoteInterpreterProcess.isRunning()) {
       return null;
@@ -79,7 +76,7 @@ public class RemoteAngularObjectRegistry extends AngularObjectRegistry {
     Client client = null;
     try {
       client = remoteInterpreterProcess.getClient();
-      client.angularObjectAdd(name, noteId, gson.toJson(o));
+      client.angularObjectAdd(name, noteId, RemoteAngularObjectValue.encode(o));
       return super.add(name, o, noteId, true);
     } catch (Exception e) {
       logger.error("Error", e);
@@ -109,6 +106,7 @@ public class RemoteAngularObjectRegistry extends AngularObjectRegistry {
     try {
       client = remoteInterpreterProcess.getClient();
       client.angularObjectRemove(name, noteId);
+      remoteInterpreterProcess.forgetAngularObject(name, noteId);
       return super.remove(name, noteId);
     } catch (Exception e) {
       logger.error("Error", e);
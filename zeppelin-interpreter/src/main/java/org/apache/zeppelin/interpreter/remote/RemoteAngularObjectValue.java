@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.interpreter.remote;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Json form of an angular object value sent with angularObjectAdd.
+ * The value is sent with its class name, so the other side gets a list, a number
+ * or a boolean back instead of a map or a string. Values of a class it can't load,
+ * and untyped json, are read as generic json types (Map, List, Double, Boolean, String).
+ */
+class RemoteAngularObjectValue {
+  private static final String TYPE = "type";
+  private static final String VALUE = "value";
+  private static final Gson gson = new Gson();
+
+  private RemoteAngularObjectValue() {
+  }
+
+  public static String encode(Object value) {
+    if (value == null) {
+      return "null";
+    }
+    JsonObject json = new JsonObject();
+    json.addProperty(TYPE, typeOf(value).getName());
+    json.add(VALUE, gson.toJsonTree(value));
+    return gson.toJson(json);
+  }
+
+  /**
+   * Collections are sent with their interface, because gson can't create
+   * implementations like Arrays$ArrayList or unmodifiable collections.
+   */
+  private static Class<?> typeOf(Object value) {
+    if (value instanceof List) {
+      return List.class;
+    } else if (value instanceof Set) {
+      return Set.class;
+    } else if (value instanceof Collection) {
+      return Collection.class;
+    } else if (value instanceof Map) {
+      return Map.class;
+    } else {
+      return value.getClass();
+    }
+  }
+
+  public static Object decode(String json) {
+    if (json == null) {
+      return null;
+    }
+    JsonElement element = new JsonParser().parse(json);
+    if (!isTyped(element)) {
+      return gson.fromJson(element, Object.class);
+    }
+
+    JsonObject typed = element.getAsJsonObject();
+    JsonElement value = typed.get(VALUE);
+    try {
+      Class<?> cls = loadClass(typed.get(TYPE).getAsString());
+      return gson.fromJson(value, cls);
+    } catch (Exception e) {
+      // class is not available on this side, or gson can't create it
+      return gson.fromJson(value, Object.class);
+    }
+  }
+
+  private static boolean isTyped(JsonElement element) {
+    if (!element.isJsonObject()) {
+      return false;
+    }
+    JsonObject json = element.getAsJsonObject();
+    JsonElement type = json.get(TYPE);
+    return json.entrySet().size() == 2 && json.has(VALUE)
+        && type != null && type.isJsonPrimitive() && type.getAsJsonPrimitive().isString();
+  }
+
+  private static Class<?> loadClass(String className) throws ClassNotFoundException {
+    ClassLoader cl = Thread.currentThread().getContextClassLoader();
+    if (cl == null) {
+      cl = RemoteAngularObjectValue.class.getClassLoader();
+    }
+    return Class.forName(className, false, cl);
+  }
+}
@@ -23,6 +23,9 @@ import java.util.Map;
 import java.util.Properties;
 
 import org.apache.thrift.TException;
+import org.apache.zeppelin.display.AngularObject;
+import org.apache.zeppelin.display.AngularObjectRegistry;
+import org.apache.zeppelin.display.AngularObjectUpdateCoalescer;
 import org.apache.zeppelin.display.GUI;
 import org.apache.zeppelin.interpreter.Interpreter;
 import org.apache.zeppelin.interpreter.InterpreterContext;
@@ -47,6 +50,8 @@ import com.google.gson.reflect.TypeToken;
  *
  */
 public class RemoteInterpreter extends Interpreter {
+  // how long a finished paragraph waits for output events the event poller is delivering
+  static final long OUTPUT_DELIVERY_TIMEOUT_MSEC = 1000;
   Logger logger = LoggerFactory.getLogger(RemoteInterpreter.class);
   Gson gson = new Gson();
   private String interpreterRunner;
@@ -59,6 +64,11 @@ public class RemoteInterpreter extends Interpreter {
     = new HashMap<String, RemoteInterpreterProcess>();
 
   private int connectTimeout;
+  private RemoteInterpreterProcessAdmission processAdmission;
+  private RemoteInterpreterServer.ServerType serverType =
+      RemoteInterpreterServer.ServerType.THREADPOOL;
+  private int serverWorkerThreads = RemoteInterpreterServer.DEFAULT_WORKER_THREADS;
+  private long angularObjectUpdateWindow = AngularObjectUpdateCoalescer.DEFAULT_WINDOW;
 
   public RemoteInterpreter(Properties property,
       String className,
@@ -94,6 +104,33 @@ public class RemoteInterpreter extends Interpreter {
     return className;
   }
 
+  /**
+   * Set admission of the interpreter process, when it is created by this interpreter.
+   * Should be called before setInterpreterGroup()
+   */
+  public void setProcessAdmission(RemoteInterpreterProcessAdmission processAdmission) {
+    this.processAdmission = processAdmission;
+  }
+
+  /**
+   * Set thrift server type of the interpreter process, when it is created by this interpreter.
+   * Should be called before setInterpreterGroup()
+   * @param serverWorkerThreads max threads running calls, for non-blocking server types
+   */
+  public void setServerType(RemoteInterpreterServer.ServerType serverType,
+      int serverWorkerThreads) {
+    this.serverType = serverType;
+    this.serverWorkerThreads = serverWorkerThreads;
+  }
+
+  /**
+   * Set msec the interpreter process coalesces angular object updates before sending them.
+   * Should be called before setInterpreterGroup()
+   */
+  public void setAngularObjectUpdateWindow(long angularObjectUpdateWindow) {
+    this.angularObjectUpdateWindow = angularObjectUpdateWindow;
+  }
+
   public RemoteInterpreterProcess getInterpreterProcess() {
     synchronized (interpreterGroupReference) {
       if (interpreterGroupReference.containsKey(getInterpreterGroupKey(getInterpreterGroup()))) {
@@ -145,6 +182,7 @@ public class RemoteInterpreter extends Interpreter {
             client.createInterpreter(intp.getClassName(), (Map) property);
 
           }
+          pushAngularObjects(client);
         } catch (TException e) {
           throw new InterpreterException(e);
         } finally {
@@ -157,6 +195,21 @@ public class RemoteInterpreter extends Interpreter {
 
 
 
+  /**
+   * Send angular objects already in the registry to a newly started process,
+   * e.g. the ones kept when an idle process was shut down.
+   */
+  private void pushAngularObjects(Client client) throws TException {
+    AngularObjectRegistry registry = getInterpreterGroup().getAngularObjectRegistry();
+    if (registry == null) {
+      return;
+    }
+    for (AngularObject ao : registry.getAllNotesAndGlobal()) {
+      client.angularObjectAdd(ao.getName(), ao.getNoteId(),
+          RemoteAngularObjectValue.encode(ao.get()));
+    }
+  }
+
   @Override
   public void open() {
     init();
@@ -206,9 +259,28 @@ public class RemoteInterpreter extends Interpreter {
       interpreterContextRunnerPool.addAll(noteId, runners);
     }
 
+    interpreterProcess.touch();
+    boolean outputRegistered = context.getOut() != null
+        && context.getNoteId() != null && context.getParagraphId() != null;
+    if (outputRegistered) {
+      interpreterProcess.addInterpreterOutput(
+          context.getNoteId(), context.getParagraphId(), context.getOut());
+    }
+
     try {
       GUI settings = context.getGui();
       RemoteInterpreterResult remoteResult = client.interpret(className, st, convert(context));
+      if (outputRegistered) {
+        // output still queued in the remote process comes with the result, after the
+        // events the poller already took
+        if (remoteResult.getOutputEvents() > 0 && !interpreterProcess.waitForInterpreterOutput(
+            context.getNoteId(), context.getParagraphId(), remoteResult.getOutputEvents(),
+            OUTPUT_DELIVERY_TIMEOUT_MSEC)) {
+          logger.warn("Output of paragraph " + context.getParagraphId()
+              + " may be out of order, not delivered in time");
+        }
+        context.getOut().write(remoteResult.getOutput());
+      }
 
       Map<String, Object> remoteConfig = (Map<String, Object>) gson.fromJson(
           remoteResult.getConfig(), new TypeToken<Map<String, Object>>() {
@@ -228,6 +300,11 @@ public class RemoteInterpreter extends Interpreter {
     } catch (TException e) {
       throw new InterpreterException(e);
     } finally {
+      if (outputRegistered) {
+        interpreterProcess.removeInterpreterOutput(
+            context.getNoteId(), context.getParagraphId());
+      }
+      interpreterProcess.touch();
       interpreterProcess.releaseClient(client);
     }
   }
@@ -281,6 +358,7 @@ public class RemoteInterpreter extends Interpreter {
   @Override
   public int getProgress(InterpreterContext context) {
     RemoteInterpreterProcess interpreterProcess = getInterpreterProcess();
+    interpreterProcess.touch();
     Client client = null;
     try {
       client = interpreterProcess.getClient();
@@ -301,6 +379,7 @@ public class RemoteInterpreter extends Interpreter {
   @Override
   public List<String> completion(String buf, int cursor) {
     RemoteInterpreterProcess interpreterProcess = getInterpreterProcess();
+    interpreterProcess.touch();
     Client client = null;
     try {
       client = interpreterProcess.getClient();
@@ -339,9 +418,12 @@ public class RemoteInterpreter extends Interpreter {
       // when interpreter process is not created or terminated
       if (intpProcess == null || (!intpProcess.isRunning() && intpProcess.getPort() > 0)
           || (!intpProcess.isRunning() && intpProcess.getPort() == -1)) {
-        interpreterGroupReference.put(getInterpreterGroupKey(interpreterGroup),
-            new RemoteInterpreterProcess(interpreterRunner,
-                interpreterPath, env, connectTimeout));
+        RemoteInterpreterProcess newProcess = new RemoteInterpreterProcess(interpreterRunner,
+            interpreterPath, env, connectTimeout);
+        newProcess.setAdmission(processAdmission);
+        newProcess.setServerType(serverType, serverWorkerThreads);
+        newProcess.setAngularObjectUpdateWindow(angularObjectUpdateWindow);
+        interpreterGroupReference.put(getInterpreterGroupKey(interpreterGroup), newProcess);
 
         logger.info("setInterpreterGroup = "
             + getInterpreterGroupKey(interpreterGroup) + " class=" + className
@@ -18,17 +18,24 @@
 package org.apache.zeppelin.interpreter.remote;
 
 import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
 import org.apache.thrift.TException;
 import org.apache.zeppelin.display.AngularObject;
+import org.apache.zeppelin.display.AngularObjectDeltaDecoder;
+import org.apache.zeppelin.display.AngularObjectDeltaEncoder;
 import org.apache.zeppelin.display.AngularObjectRegistry;
 import org.apache.zeppelin.interpreter.InterpreterContextRunner;
 import org.apache.zeppelin.interpreter.InterpreterGroup;
+import org.apache.zeppelin.interpreter.InterpreterOutput;
 import org.apache.zeppelin.interpreter.thrift.RemoteInterpreterEvent;
 import org.apache.zeppelin.interpreter.thrift.RemoteInterpreterEventType;
 import org.apache.zeppelin.interpreter.thrift.RemoteInterpreterService.Client;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  *
  */
@@ -39,6 +46,7 @@ public class RemoteInterpreterEventPoller extends Thread {
 
   private RemoteInterpreterProcess interpreterProcess;
   private InterpreterGroup interpreterGroup;
+  private final AngularObjectDeltaDecoder angularObjectDecoder = new AngularObjectDeltaDecoder();
 
   public RemoteInterpreterEventPoller() {
     shutdown = false;
@@ -80,6 +88,10 @@ public class RemoteInterpreterEventPoller extends Thread {
 
       AngularObjectRegistry angularObjectRegistry = interpreterGroup.getAngularObjectRegistry();
 
+      if (event.getType() != RemoteInterpreterEventType.NO_OP) {
+        interpreterProcess.touch();
+      }
+
       try {
         if (event.getType() == RemoteInterpreterEventType.NO_OP) {
           continue;
@@ -90,24 +102,36 @@ public class RemoteInterpreterEventPoller extends Thread {
         } else if (event.getType() == RemoteInterpreterEventType.ANGULAR_OBJECT_UPDATE) {
           AngularObject angularObject = gson.fromJson(event.getData(),
               AngularObject.class);
-          AngularObject localAngularObject = angularObjectRegistry.get(
-              angularObject.getName(), angularObject.getNoteId());
-          if (localAngularObject instanceof RemoteAngularObject) {
-            // to avoid ping-pong loop
-            ((RemoteAngularObject) localAngularObject).set(
-                angularObject.get(), true, false);
-          } else {
-            localAngularObject.set(angularObject.get());
+          updateLocalAngularObject(angularObjectRegistry, angularObject.getName(),
+              angularObject.getNoteId(), angularObject.get());
+        } else if (event.getType()
+            == RemoteInterpreterEventType.ANGULAR_OBJECT_UPDATE_BATCH) {
+          List<Map<String, Object>> messages = gson.fromJson(event.getData(),
+              new TypeToken<List<Map<String, Object>>>() {}.getType());
+          for (Map<String, Object> message : messages) {
+            updateLocalAngularObject(angularObjectRegistry, message);
           }
         } else if (event.getType() == RemoteInterpreterEventType.ANGULAR_OBJECT_REMOVE) {
           AngularObject angularObject = gson.fromJson(event.getData(), AngularObject.class);
           angularObjectRegistry.remove(angularObject.getName(), angularObject.getNoteId());
+          angularObjectDecoder.forget(AngularObjectDeltaEncoder.key(
+              angularObject.getNoteId(), angularObject.getName()));
         } else if (event.getType() == RemoteInterpreterEventType.RUN_INTERPRETER_CONTEXT_RUNNER) {
           InterpreterContextRunner runnerFromRemote = gson.fromJson(
               event.getData(), RemoteInterpreterContextRunner.class);
 
           interpreterProcess.getInterpreterContextRunnerPool().run(
               runnerFromRemote.getNoteId(), runnerFromRemote.getParagraphId());
+        } else if (event.getType() == RemoteInterpreterEventType.OUTPUT_APPEND) {
+          Map<String, String> outputAppend = gson.fromJson(event.getData(),
+              new TypeToken<Map<String, String>>() {}.getType());
+          String noteId = outputAppend.get("noteId");
+          String paragraphId = outputAppend.get("paragraphId");
+          InterpreterOutput out = interpreterProcess.getInterpreterOutput(noteId, paragraphId);
+          if (out != null) {
+            out.write(outputAppend.get("data"));
+          }
+          interpreterProcess.interpreterOutputDelivered(noteId, paragraphId);
         }
         logger.debug("Event from remoteproceess {}", event.getType());
       } catch (Exception e) {
@@ -116,6 +140,33 @@ public class RemoteInterpreterEventPoller extends Thread {
     }
   }
 
+  private void updateLocalAngularObject(AngularObjectRegistry angularObjectRegistry,
+      String name, String noteId, Object value) {
+    AngularObject localAngularObject = angularObjectRegistry.get(name, noteId);
+    if (localAngularObject == null) {
+      logger.debug("Angular object {} removed", name);
+    } else if (localAngularObject instanceof RemoteAngularObject) {
+      // to avoid ping-pong loop
+      ((RemoteAngularObject) localAngularObject).set(value, true, false);
+    } else {
+      localAngularObject.set(value);
+    }
+  }
+
+  private void updateLocalAngularObject(AngularObjectRegistry angularObjectRegistry,
+      Map<String, Object> message) {
+    String name = (String) message.get("name");
+    String noteId = (String) message.get("noteId");
+    Object value;
+    try {
+      value = angularObjectDecoder.decode(AngularObjectDeltaEncoder.key(noteId, name), message);
+    } catch (IllegalStateException e) {
+      logger.error("Can't update angular object " + name, e);
+      return;
+    }
+    updateLocalAngularObject(angularObjectRegistry, name, noteId, value);
+  }
+
   private void waitQuietly() {
     try {
       synchronized (this) {
@@ -21,15 +21,28 @@ import com.google.gson.Gson;
 import org.apache.commons.exec.*;
 import org.apache.commons.exec.environment.EnvironmentUtils;
 import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.apache.thrift.TException;
+import org.apache.zeppelin.display.AngularObject;
+import org.apache.zeppelin.display.AngularObjectDeltaEncoder;
+import org.apache.zeppelin.display.AngularObjectUpdateCoalescer;
 import org.apache.zeppelin.interpreter.InterpreterException;
 import org.apache.zeppelin.interpreter.InterpreterGroup;
+import org.apache.zeppelin.interpreter.InterpreterOutput;
 import org.apache.zeppelin.interpreter.thrift.RemoteInterpreterService.Client;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -37,6 +50,12 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class RemoteInterpreterProcess implements ExecuteResultHandler {
   private static final Logger logger = LoggerFactory.getLogger(RemoteInterpreterProcess.class);
+  private static final int READINESS_CHECK_INTERVAL_MS = 100;
+  // each running paragraph holds a client during interpret() and borrows one to poll status
+  private static final int CLIENT_POOL_MAX_TOTAL = 64;
+  private static final int CLIENT_POOL_MAX_IDLE = 8;
+  private static final long CLIENT_POOL_EVICTION_INTERVAL_MS = 30 * 1000;
+  private static final long CLIENT_POOL_MIN_EVICTABLE_IDLE_MS = 60 * 1000;
   
   private final AtomicInteger referenceCount;
   private DefaultExecutor executor;
@@ -50,7 +69,21 @@ public class RemoteInterpreterProcess implements ExecuteResultHandler {
   private Map<String, String> env;
   private final RemoteInterpreterEventPoller remoteInterpreterEventPoller;
   private final InterpreterContextRunnerPool interpreterContextRunnerPool;
+  private final Map<String, InterpreterOutput> interpreterOutputs =
+      new ConcurrentHashMap<String, InterpreterOutput>();
+  private final Map<String, AtomicInteger> interpreterOutputEvents =
+      new ConcurrentHashMap<String, AtomicInteger>();
   private int connectTimeout;
+  private volatile long lastActivityTime = System.currentTimeMillis();
+  private RemoteInterpreterProcessAdmission admission;
+  private volatile long pid = -1;
+  private RemoteInterpreterServer.ServerType serverType =
+      RemoteInterpreterServer.ServerType.THREADPOOL;
+  private int serverWorkerThreads = RemoteInterpreterServer.DEFAULT_WORKER_THREADS;
+  private long angularObjectUpdateWindow = AngularObjectUpdateCoalescer.DEFAULT_WINDOW;
+  private final AngularObjectUpdateCoalescer angularObjectUpdates =
+      new AngularObjectUpdateCoalescer(angularObjectUpdateWindow, new RemoteUpdateListener());
+  private final AngularObjectDeltaEncoder angularObjectEncoder = new AngularObjectDeltaEncoder();
 
   public RemoteInterpreterProcess(String intpRunner,
       String intpDir,
@@ -78,6 +111,40 @@ public class RemoteInterpreterProcess implements ExecuteResultHandler {
     return port;
   }
 
+  /**
+   * @return pid reported by the interpreter process when it became ready, -1 if unknown
+   */
+  public long getPid() {
+    return pid;
+  }
+
+  public void setAdmission(RemoteInterpreterProcessAdmission admission) {
+    this.admission = admission;
+  }
+
+  /**
+   * Set thrift server type of the interpreter process, and the max number of threads
+   * running calls for non-blocking types. Takes effect on next process start.
+   */
+  public void setServerType(RemoteInterpreterServer.ServerType serverType,
+      int serverWorkerThreads) {
+    this.serverType = serverType;
+    this.serverWorkerThreads = serverWorkerThreads;
+  }
+
+  public RemoteInterpreterServer.ServerType getServerType() {
+    return serverType;
+  }
+
+  /**
+   * Set msec angular object updates are coalesced, in both directions.
+   * Takes effect on next process start for updates from the process.
+   */
+  public void setAngularObjectUpdateWindow(long angularObjectUpdateWindow) {
+    this.angularObjectUpdateWindow = angularObjectUpdateWindow;
+    angularObjectUpdates.setWindow(angularObjectUpdateWindow);
+  }
+
   public int reference(InterpreterGroup interpreterGroup) {
     synchronized (referenceCount) {
       if (executor == null) {
@@ -88,12 +155,35 @@ public class RemoteInterpreterProcess implements ExecuteResultHandler {
           throw new InterpreterException(e1);
         }
 
+        if (admission != null) {
+          admission.admit(this);
+        }
+
+        // the interpreter process connects here once its server accepts calls
+        ServerSocket readinessCallback;
+        try {
+          readinessCallback = new ServerSocket(0, 1, InetAddress.getByName("localhost"));
+        } catch (IOException e) {
+          terminated();
+          throw new InterpreterException(e);
+        }
+
+        // new process has no angular object values yet
+        angularObjectEncoder.clear();
 
         CommandLine cmdLine = CommandLine.parse(interpreterRunner);
         cmdLine.addArgument("-d", false);
         cmdLine.addArgument(interpreterDir, false);
         cmdLine.addArgument("-p", false);
         cmdLine.addArgument(Integer.toString(port), false);
+        cmdLine.addArgument("-c", false);
+        cmdLine.addArgument(Integer.toString(readinessCallback.getLocalPort()), false);
+        cmdLine.addArgument("-t", false);
+        cmdLine.addArgument(serverType.name().toLowerCase(), false);
+        cmdLine.addArgument("-w", false);
+        cmdLine.addArgument(Integer.toString(serverWorkerThreads), false);
+        cmdLine.addArgument("-a", false);
+        cmdLine.addArgument(Long.toString(angularObjectUpdateWindow), false);
 
         executor = new DefaultExecutor();
 
@@ -109,23 +199,18 @@ public class RemoteInterpreterProcess implements ExecuteResultHandler {
           executor.execute(cmdLine, procEnv, this);
         } catch (IOException e) {
           running = false;
+          closeQuietly(readinessCallback);
+          terminated();
           throw new InterpreterException(e);
         }
 
-
-        long startTime = System.currentTimeMillis();
-        while (System.currentTimeMillis() - startTime < connectTimeout) {
-          if (RemoteInterpreterUtils.checkIfRemoteEndpointAccessible("localhost", port)) {
-            break;
-          } else {
-            try {
-              Thread.sleep(500);
-            } catch (InterruptedException e) {
-            }
-          }
+        waitForReadiness(readinessCallback);
+        touch();
+        if (admission != null) {
+          admission.started(this);
         }
-        
-        clientPool = new GenericObjectPool<Client>(new ClientFactory("localhost", port));
+
+        clientPool = createClientPool();
 
         remoteInterpreterEventPoller.setInterpreterGroup(interpreterGroup);
         remoteInterpreterEventPoller.setInterpreterProcess(this);
@@ -135,6 +220,90 @@ public class RemoteInterpreterProcess implements ExecuteResultHandler {
     }
   }
 
+  private GenericObjectPool<Client> createClientPool() {
+    GenericObjectPoolConfig config = new GenericObjectPoolConfig();
+    config.setMaxTotal(CLIENT_POOL_MAX_TOTAL);
+    config.setMaxIdle(CLIENT_POOL_MAX_IDLE);
+    config.setMaxWaitMillis(connectTimeout);
+    config.setTestOnBorrow(true);
+    config.setTimeBetweenEvictionRunsMillis(CLIENT_POOL_EVICTION_INTERVAL_MS);
+    config.setMinEvictableIdleTimeMillis(CLIENT_POOL_MIN_EVICTABLE_IDLE_MS);
+    return new GenericObjectPool<Client>(
+        new ClientFactory("localhost", port, serverType.isFramed(), connectTimeout), config);
+  }
+
+  /**
+   * Wait until the interpreter process connects to the readiness callback,
+   * instead of polling its port. Returns early when the process exits.
+   */
+  private void waitForReadiness(ServerSocket readinessCallback) {
+    long startTime = System.currentTimeMillis();
+    try {
+      readinessCallback.setSoTimeout(READINESS_CHECK_INTERVAL_MS);
+      while (running && System.currentTimeMillis() - startTime < connectTimeout) {
+        Socket socket;
+        try {
+          socket = readinessCallback.accept();
+        } catch (SocketTimeoutException e) {
+          // check if the process is still running
+          continue;
+        }
+        try {
+          readReadiness(socket);
+        } finally {
+          socket.close();
+        }
+        logger.info("Interpreter process ready in {} ms", System.currentTimeMillis() - startTime);
+        return;
+      }
+      if (running) {
+        logger.warn("Interpreter process did not report readiness in {} ms", connectTimeout);
+      } else {
+        logger.error("Interpreter process exited before it was ready");
+      }
+    } catch (IOException e) {
+      logger.error("Can't wait for interpreter process readiness", e);
+    } finally {
+      closeQuietly(readinessCallback);
+    }
+  }
+
+  /**
+   * Read "port pid" sent by the interpreter process. pid is optional.
+   */
+  private void readReadiness(Socket socket) throws IOException {
+    socket.setSoTimeout(READINESS_CHECK_INTERVAL_MS);
+    try {
+      BufferedReader reader = new BufferedReader(
+          new InputStreamReader(socket.getInputStream(), "UTF-8"));
+      String line = reader.readLine();
+      if (line == null) {
+        return;
+      }
+      String[] tokens = line.trim().split(" ");
+      if (tokens.length > 1) {
+        pid = Long.parseLong(tokens[1]);
+      }
+    } catch (SocketTimeoutException | NumberFormatException e) {
+      logger.warn("Can't read pid of interpreter process", e);
+    }
+  }
+
+  private void terminated() {
+    pid = -1;
+    if (admission != null) {
+      admission.terminated(this);
+    }
+  }
+
+  private void closeQuietly(ServerSocket socket) {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      logger.error("Can't close readiness callback", e);
+    }
+  }
+
   public Client getClient() throws Exception {
     return clientPool.borrowObject();
   }
@@ -185,6 +354,7 @@ public class RemoteInterpreterProcess implements ExecuteResultHandler {
         executor = null;
         watchdog = null;
         running = false;
+        terminated();
         logger.info("Remote process terminated");
       }
       return r;
@@ -201,6 +371,7 @@ public class RemoteInterpreterProcess implements ExecuteResultHandler {
   public void onProcessComplete(int exitValue) {
     logger.info("Interpreter process exited {}", exitValue);
     running = false;
+    terminated();
 
   }
 
@@ -208,12 +379,30 @@ public class RemoteInterpreterProcess implements ExecuteResultHandler {
   public void onProcessFailed(ExecuteException e) {
     logger.info("Interpreter process failed {}", e);
     running = false;
+    terminated();
   }
 
   public boolean isRunning() {
     return running;
   }
 
+  /**
+   * Record activity (interpret, completion, angular object event) on this process.
+   */
+  public void touch() {
+    lastActivityTime = System.currentTimeMillis();
+  }
+
+  /**
+   * @return milliseconds since last activity, -1 when process is not running
+   */
+  public long getIdleTime() {
+    if (!running) {
+      return -1;
+    }
+    return System.currentTimeMillis() - lastActivityTime;
+  }
+
   public int getNumActiveClient() {
     if (clientPool == null) {
       return 0;
@@ -231,25 +420,48 @@ public class RemoteInterpreterProcess implements ExecuteResultHandler {
   }
 
   /**
-   * Called when angular object is updated in client side to propagate
-   * change to the remote process
-   * @param name
-   * @param o
+   * Send the value of the object to the remote process. Updates within the angular object
+   * update window are sent once, with the latest value.
    */
-  public void updateRemoteAngularObject(String name, String noteId, Object o) {
+  public void updateRemoteAngularObject(AngularObject object) {
+    angularObjectUpdates.updated(object);
+  }
+
+  private class RemoteUpdateListener implements AngularObjectUpdateCoalescer.BatchListener {
+    @Override
+    public void updated(List<AngularObject> objects) {
+      updateRemoteAngularObjects(objects);
+    }
+  }
+
+  private void updateRemoteAngularObjects(List<AngularObject> objects) {
+    if (!running) {
+      // value is kept in the registry and sent again when the process starts
+      return;
+    }
+    touch();
+
     Client client = null;
     try {
       client = getClient();
-    } catch (NullPointerException e) {
-      // remote process not started
-      return;
     } catch (Exception e) {
       logger.error("Can't update angular object", e);
+      return;
     }
 
     try {
       Gson gson = new Gson();
-      client.angularObjectUpdate(name, noteId, gson.toJson(o));
+      for (AngularObject object : objects) {
+        String key = AngularObjectDeltaEncoder.key(object.getNoteId(), object.getName());
+        try {
+          client.angularObjectUpdate(object.getName(), object.getNoteId(),
+              gson.toJson(angularObjectEncoder.encode(key, object.get())));
+        } catch (TException e) {
+          // the update may not have been applied. send the full value next time
+          angularObjectEncoder.forget(key);
+          throw e;
+        }
+      }
     } catch (TException e) {
       logger.error("Can't update angular object", e);
     } finally {
@@ -257,7 +469,81 @@ public class RemoteInterpreterProcess implements ExecuteResultHandler {
     }
   }
 
+  /**
+   * Called when the object is removed from the remote process.
+   */
+  public void forgetAngularObject(String name, String noteId) {
+    angularObjectEncoder.forget(AngularObjectDeltaEncoder.key(noteId, name));
+  }
+
   public InterpreterContextRunnerPool getInterpreterContextRunnerPool() {
     return interpreterContextRunnerPool;
   }
+
+  /**
+   * Register output of the paragraph being interpreted,
+   * so OUTPUT_APPEND events from the remote process can be delivered to it.
+   */
+  public void addInterpreterOutput(String noteId, String paragraphId, InterpreterOutput out) {
+    String key = outputKey(noteId, paragraphId);
+    interpreterOutputEvents.put(key, new AtomicInteger());
+    interpreterOutputs.put(key, out);
+  }
+
+  public void removeInterpreterOutput(String noteId, String paragraphId) {
+    String key = outputKey(noteId, paragraphId);
+    interpreterOutputs.remove(key);
+    interpreterOutputEvents.remove(key);
+  }
+
+  /**
+   * Called by the event poller once an OUTPUT_APPEND event of the paragraph is delivered.
+   */
+  public void interpreterOutputDelivered(String noteId, String paragraphId) {
+    AtomicInteger delivered = interpreterOutputEvents.get(outputKey(noteId, paragraphId));
+    if (delivered == null) {
+      return;
+    }
+    synchronized (delivered) {
+      delivered.incrementAndGet();
+      delivered.notifyAll();
+    }
+  }
+
+  /**
+   * Wait until the given number of OUTPUT_APPEND events of the paragraph, which the remote
+   * process already handed to the event poller, are delivered.
+   * @return false on timeout
+   */
+  public boolean waitForInterpreterOutput(String noteId, String paragraphId, int events,
+                                          long timeoutMillis) {
+    AtomicInteger delivered = interpreterOutputEvents.get(outputKey(noteId, paragraphId));
+    if (delivered == null) {
+      return true;
+    }
+    long deadline = System.currentTimeMillis() + timeoutMillis;
+    synchronized (delivered) {
+      while (delivered.get() < events) {
+        long wait = deadline - System.currentTimeMillis();
+        if (wait <= 0) {
+          return false;
+        }
+        try {
+          delivered.wait(wait);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  public InterpreterOutput getInterpreterOutput(String noteId, String paragraphId) {
+    return interpreterOutputs.get(outputKey(noteId, paragraphId));
+  }
+
+  private String outputKey(String noteId, String paragraphId) {
+    return noteId + ":" + paragraphId;
+  }
 }
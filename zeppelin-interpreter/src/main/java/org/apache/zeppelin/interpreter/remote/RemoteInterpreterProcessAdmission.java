@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.interpreter.remote;
+
+import org.apache.zeppelin.interpreter.InterpreterException;
+
+/**
+ * Decides whether a remote interpreter process can be started,
+ * and is told when it starts and terminates.
+ */
+public interface RemoteInterpreterProcessAdmission {
+  /**
+   * Called before the process is forked. May block until resources are available.
+   * @throws InterpreterException when the process can not be started
+   */
+  public void admit(RemoteInterpreterProcess process) throws InterpreterException;
+
+  /**
+   * Called when the process is ready. {@link RemoteInterpreterProcess#getPid()} is known
+   * when the process reported it.
+   */
+  public void started(RemoteInterpreterProcess process);
+
+  /**
+   * Called when the process is shut down, failed to start or exited.
+   * May be called more than once for the same process.
+   */
+  public void terminated(RemoteInterpreterProcess process);
+}
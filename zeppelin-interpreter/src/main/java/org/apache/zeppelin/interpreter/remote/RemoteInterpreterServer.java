@@ -18,22 +18,44 @@
 package org.apache.zeppelin.interpreter.remote;
 
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.net.Socket;
 import java.net.URL;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.thrift.TException;
+import org.apache.thrift.protocol.TProtocol;
+import org.apache.thrift.server.ServerContext;
+import org.apache.thrift.server.THsHaServer;
+import org.apache.thrift.server.TServer;
+import org.apache.thrift.server.TServerEventHandler;
 import org.apache.thrift.server.TThreadPoolServer;
+import org.apache.thrift.server.TThreadedSelectorServer;
+import org.apache.thrift.transport.TNonblockingServerSocket;
 import org.apache.thrift.transport.TServerSocket;
+import org.apache.thrift.transport.TTransport;
 import org.apache.thrift.transport.TTransportException;
 import org.apache.zeppelin.display.AngularObject;
 import org.apache.zeppelin.display.AngularObjectRegistry;
 import org.apache.zeppelin.display.AngularObjectRegistryListener;
+import org.apache.zeppelin.display.AngularObjectDeltaDecoder;
+import org.apache.zeppelin.display.AngularObjectDeltaEncoder;
+import org.apache.zeppelin.display.AngularObjectUpdateCoalescer;
 import org.apache.zeppelin.display.GUI;
 import org.apache.zeppelin.interpreter.ClassloaderInterpreter;
 import org.apache.zeppelin.interpreter.Interpreter;
@@ -42,6 +64,8 @@ import org.apache.zeppelin.interpreter.InterpreterContext;
 import org.apache.zeppelin.interpreter.InterpreterContextRunner;
 import org.apache.zeppelin.interpreter.InterpreterException;
 import org.apache.zeppelin.interpreter.InterpreterGroup;
+import org.apache.zeppelin.interpreter.InterpreterOutput;
+import org.apache.zeppelin.interpreter.InterpreterOutputListener;
 import org.apache.zeppelin.interpreter.InterpreterResult;
 import org.apache.zeppelin.interpreter.InterpreterResult.Code;
 import org.apache.zeppelin.interpreter.LazyOpenInterpreter;
@@ -68,6 +92,9 @@ public class RemoteInterpreterServer
   extends Thread
   implements RemoteInterpreterService.Iface, AngularObjectRegistryListener {
   Logger logger = LoggerFactory.getLogger(RemoteInterpreterServer.class);
+  public static final int DEFAULT_WORKER_THREADS = 256;
+  private static final int SELECTOR_THREADS = 2;
+  private static final int WORKER_KEEP_ALIVE_SEC = 60;
 
   InterpreterGroup interpreterGroup;
   AngularObjectRegistry angularObjectRegistry;
@@ -76,20 +103,191 @@ public class RemoteInterpreterServer
   RemoteInterpreterService.Processor<RemoteInterpreterServer> processor;
   RemoteInterpreterServer handler;
   private int port;
-  private TThreadPoolServer server;
+  private TServer server;
+  // workers interpret() may hold, null when every connection has its own thread
+  private Semaphore interpretWorkers;
 
   List<RemoteInterpreterEvent> eventQueue = new LinkedList<RemoteInterpreterEvent>();
+  // OUTPUT_APPEND events in eventQueue, and the number taken by getEvent per paragraph
+  // being interpreted
+  private final Map<RemoteInterpreterEvent, PendingOutput> pendingOutputs =
+      new IdentityHashMap<RemoteInterpreterEvent, PendingOutput>();
+  private final Map<String, Integer> sentOutputEvents = new HashMap<String, Integer>();
+  // events are not lost once queued, so only full values are needed to recover
+  private final AngularObjectDeltaEncoder angularObjectEncoder = new AngularObjectDeltaEncoder();
+  private final AngularObjectDeltaDecoder angularObjectDecoder = new AngularObjectDeltaDecoder();
+  private AngularObjectUpdateCoalescer angularObjectUpdates = new AngularObjectUpdateCoalescer(
+      AngularObjectUpdateCoalescer.DEFAULT_WINDOW,
+      new AngularObjectUpdateCoalescer.BatchListener() {
+        @Override
+        public void updated(List<AngularObject> objects) {
+          List<Map<String, Object>> messages = new LinkedList<Map<String, Object>>();
+          for (AngularObject object : objects) {
+            Map<String, Object> message = angularObjectEncoder.encode(
+                AngularObjectDeltaEncoder.key(object.getNoteId(), object.getName()),
+                object.get());
+            message.put("name", object.getName());
+            message.put("noteId", object.getNoteId());
+            messages.add(message);
+          }
+          sendEvent(new RemoteInterpreterEvent(
+              RemoteInterpreterEventType.ANGULAR_OBJECT_UPDATE_BATCH, gson.toJson(messages)));
+        }
+      });
 
   public RemoteInterpreterServer(int port) throws TTransportException {
+    this(port, -1);
+  }
+
+  public RemoteInterpreterServer(int port, int callbackPort) throws TTransportException {
+    this(port, callbackPort, ServerType.THREADPOOL, DEFAULT_WORKER_THREADS);
+  }
+
+  /**
+   * @param callbackPort port on localhost to connect to once the server is serving,
+   *                     -1 for none. See {@link RemoteInterpreterProcess}.
+   * @param workerThreads max threads running calls, for non-blocking server types
+   */
+  public RemoteInterpreterServer(int port, int callbackPort, ServerType serverType,
+      int workerThreads) throws TTransportException {
     this.port = port;
     interpreterGroup = new InterpreterGroup();
     angularObjectRegistry = new AngularObjectRegistry(interpreterGroup.getId(), this);
     interpreterGroup.setAngularObjectRegistry(angularObjectRegistry);
 
     processor = new RemoteInterpreterService.Processor<RemoteInterpreterServer>(this);
-    TServerSocket serverTransport = new TServerSocket(port);
-    server = new TThreadPoolServer(
-        new TThreadPoolServer.Args(serverTransport).processor(processor));
+    if (serverType.isFramed()) {
+      int shortCallWorkers = getShortCallWorkers(workerThreads);
+      int interpretThreads = Math.max(1, workerThreads - shortCallWorkers);
+      interpretWorkers = new Semaphore(interpretThreads);
+      workerThreads = interpretThreads + shortCallWorkers;
+    }
+    if (serverType == ServerType.HSHA) {
+      server = new THsHaServer(new THsHaServer.Args(new TNonblockingServerSocket(port))
+          .processor(processor)
+          .executorService(createWorkerPool(workerThreads)));
+    } else if (serverType == ServerType.SELECTOR) {
+      TThreadedSelectorServer.Args serverArgs =
+          new TThreadedSelectorServer.Args(new TNonblockingServerSocket(port));
+      server = new TThreadedSelectorServer(serverArgs
+          .processor(processor)
+          .selectorThreads(SELECTOR_THREADS)
+          .executorService(createWorkerPool(workerThreads)));
+    } else {
+      TServerSocket serverTransport = new TServerSocket(port);
+      server = new TThreadPoolServer(
+          new TThreadPoolServer.Args(serverTransport).processor(processor));
+    }
+    logger.info("Remote interpreter server type {}", serverType);
+    if (callbackPort > 0) {
+      server.setServerEventHandler(new ReadinessCallback(callbackPort));
+    }
+  }
+
+  /**
+   * Thrift server implementations.
+   *
+   * THREADPOOL keeps a thread per client connection, for the life of the connection.
+   * HSHA reads and writes framed connections with a single selector thread and runs
+   * calls in a worker pool, so idle pooled connections don't hold any thread.
+   * SELECTOR is like HSHA, with a thread accepting connections and a few selector threads.
+   */
+  public static enum ServerType {
+    THREADPOOL,
+    HSHA,
+    SELECTOR;
+
+    /**
+     * @return true when clients should use framed transport
+     */
+    public boolean isFramed() {
+      return this != THREADPOOL;
+    }
+
+    public static ServerType fromString(String type) {
+      return valueOf(type.trim().toUpperCase());
+    }
+  }
+
+  /**
+   * Workers kept for short calls such as cancel, getProgress and getEvent, so they are
+   * served while interpret() calls hold all the other workers until their paragraph ends.
+   */
+  static int getShortCallWorkers(int workerThreads) {
+    return Math.max(1, workerThreads / 4);
+  }
+
+  /**
+   * Threads are created up to workerThreads and expire when idle. When all of them are busy,
+   * up to workerThreads calls wait in the queue. Further calls are rejected and the server
+   * closes their connection, so the selector thread never blocks and the client gets a
+   * transport error.
+   */
+  private ExecutorService createWorkerPool(int workerThreads) {
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(workerThreads, workerThreads,
+        WORKER_KEEP_ALIVE_SEC, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<Runnable>(workerThreads));
+    pool.allowCoreThreadTimeOut(true);
+    return pool;
+  }
+
+  /**
+   * Tells the process which started this server that it accepts calls,
+   * by connecting to the callback port once the server starts serving.
+   */
+  private class ReadinessCallback implements TServerEventHandler {
+    private final int callbackPort;
+
+    ReadinessCallback(int callbackPort) {
+      this.callbackPort = callbackPort;
+    }
+
+    @Override
+    public void preServe() {
+      Socket socket = null;
+      try {
+        socket = new Socket("localhost", callbackPort);
+        OutputStream out = socket.getOutputStream();
+        out.write((port + " " + getPid() + "\n").getBytes());
+        out.flush();
+      } catch (IOException e) {
+        logger.error("Can't notify readiness to port " + callbackPort, e);
+      } finally {
+        if (socket != null) {
+          try {
+            socket.close();
+          } catch (IOException e) {
+            logger.error("Can't close readiness callback", e);
+          }
+        }
+      }
+    }
+
+    /**
+     * @return pid of this process, from the jvm name "pid@hostname". -1 if unknown
+     */
+    private long getPid() {
+      String name = ManagementFactory.getRuntimeMXBean().getName();
+      try {
+        return Long.parseLong(name.substring(0, name.indexOf('@')));
+      } catch (RuntimeException e) {
+        return -1;
+      }
+    }
+
+    @Override
+    public ServerContext createContext(TProtocol input, TProtocol output) {
+      return null;
+    }
+
+    @Override
+    public void deleteContext(ServerContext serverContext, TProtocol input, TProtocol output) {
+    }
+
+    @Override
+    public void processContext(ServerContext serverContext, TTransport inputTransport,
+        TTransport outputTransport) {
+    }
   }
 
   @Override
@@ -119,10 +317,26 @@ public class RemoteInterpreterServer
   }
 
 
+  /**
+   * @param window msec to coalesce angular object updates before sending them to zeppelin
+   */
+  public void setAngularObjectUpdateWindow(long window) {
+    angularObjectUpdates.setWindow(window);
+  }
+
   public static void main(String[] args)
       throws TTransportException, InterruptedException {
     int port = Integer.parseInt(args[0]);
-    RemoteInterpreterServer remoteInterpreterServer = new RemoteInterpreterServer(port);
+    int callbackPort = args.length > 1 ? Integer.parseInt(args[1]) : -1;
+    ServerType serverType = args.length > 2 ?
+        ServerType.fromString(args[2]) : ServerType.THREADPOOL;
+    int workerThreads = args.length > 3 ?
+        Integer.parseInt(args[3]) : DEFAULT_WORKER_THREADS;
+    long angularObjectUpdateWindow = args.length > 4 ?
+        Long.parseLong(args[4]) : AngularObjectUpdateCoalescer.DEFAULT_WINDOW;
+    RemoteInterpreterServer remoteInterpreterServer =
+        new RemoteInterpreterServer(port, callbackPort, serverType, workerThreads);
+    remoteInterpreterServer.setAngularObjectUpdateWindow(angularObjectUpdateWindow);
     remoteInterpreterServer.start();
     remoteInterpreterServer.join();
     System.exit(0);
@@ -187,9 +401,31 @@ public class RemoteInterpreterServer
   @Override
   public RemoteInterpreterResult interpret(String className, String st,
       RemoteInterpreterContext interpreterContext) throws TException {
+    if (interpretWorkers == null) {
+      return interpretJob(className, st, interpreterContext);
+    }
+    if (!interpretWorkers.tryAcquire()) {
+      throw new TException("All workers for interpret are busy, "
+          + "increase zeppelin.interpreter.thrift.workers");
+    }
+    try {
+      return interpretJob(className, st, interpreterContext);
+    } finally {
+      interpretWorkers.release();
+    }
+  }
+
+  private RemoteInterpreterResult interpretJob(String className, String st,
+      RemoteInterpreterContext interpreterContext) throws TException {
     Interpreter intp = getInterpreter(className);
     InterpreterContext context = convert(interpreterContext);
 
+    String outputKey = outputKey(interpreterContext.getNoteId(),
+        interpreterContext.getParagraphId());
+    synchronized (eventQueue) {
+      sentOutputEvents.put(outputKey, 0);
+    }
+
     Scheduler scheduler = intp.getScheduler();
     InterpretJobListener jobListener = new InterpretJobListener();
     InterpretJob job = new InterpretJob(
@@ -218,9 +454,9 @@ public class RemoteInterpreterServer
     } else {
       result = (InterpreterResult) job.getReturn();
     }
-    return convert(result,
+    return takeInterpreterOutput(outputKey, convert(result,
         context.getConfig(),
-        context.getGui());
+        context.getGui()));
   }
 
   class InterpretJobListener implements JobListener {
@@ -329,9 +565,73 @@ public class RemoteInterpreterServer
             new TypeToken<Map<String, Object>>() {}.getType()),
         gson.fromJson(ric.getGui(), GUI.class),
         interpreterGroup.getAngularObjectRegistry(),
-        contextRunners);
+        contextRunners,
+        createInterpreterOutput(ric.getNoteId(), ric.getParagraphId()));
   }
 
+  /**
+   * Output written by the interpreter is relayed to the zeppelin server
+   * as OUTPUT_APPEND events.
+   */
+  private InterpreterOutput createInterpreterOutput(final String noteId,
+                                                    final String paragraphId) {
+    return new InterpreterOutput(new InterpreterOutputListener() {
+      @Override
+      public void onAppend(InterpreterOutput out, String output) {
+        Map<String, String> appendOutput = new HashMap<String, String>();
+        appendOutput.put("noteId", noteId);
+        appendOutput.put("paragraphId", paragraphId);
+        appendOutput.put("data", output);
+
+        RemoteInterpreterEvent event = new RemoteInterpreterEvent(
+            RemoteInterpreterEventType.OUTPUT_APPEND, gson.toJson(appendOutput));
+        synchronized (eventQueue) {
+          pendingOutputs.put(event, new PendingOutput(outputKey(noteId, paragraphId), output));
+          sendEvent(event);
+        }
+      }
+    });
+  }
+
+  /**
+   * Move the output of the paragraph still queued as OUTPUT_APPEND events into the result,
+   * along with the number of events already taken by the event poller. The zeppelin server
+   * completes the paragraph when interpret returns and would drop output arriving later.
+   */
+  private RemoteInterpreterResult takeInterpreterOutput(String outputKey,
+                                                        RemoteInterpreterResult result) {
+    StringBuilder output = new StringBuilder();
+    synchronized (eventQueue) {
+      Iterator<RemoteInterpreterEvent> events = eventQueue.iterator();
+      while (events.hasNext()) {
+        RemoteInterpreterEvent event = events.next();
+        PendingOutput pending = pendingOutputs.get(event);
+        if (pending != null && pending.key.equals(outputKey)) {
+          output.append(pending.data);
+          pendingOutputs.remove(event);
+          events.remove();
+        }
+      }
+      Integer sent = sentOutputEvents.remove(outputKey);
+      result.setOutputEvents(sent == null ? 0 : sent);
+    }
+    result.setOutput(output.toString());
+    return result;
+  }
+
+  private static String outputKey(String noteId, String paragraphId) {
+    return noteId + ":" + paragraphId;
+  }
+
+  private static class PendingOutput {
+    final String key;
+    final String data;
+
+    PendingOutput(String key, String data) {
+      this.key = key;
+      this.data = data;
+    }
+  }
 
   static class ParagraphRunner extends InterpreterContextRunner {
 
@@ -358,7 +658,9 @@ public class RemoteInterpreterServer
         result.type().name(),
         result.message(),
         gson.toJson(config),
-        gson.toJson(gui));
+        gson.toJson(gui),
+        "",
+        0);
   }
 
   @Override
@@ -386,18 +688,21 @@ public class RemoteInterpreterServer
 
   @Override
   public void onAdd(String interpreterGroupId, AngularObject object) {
+    // updates sent after this are applied on top of it
+    angularObjectUpdates.flush();
     sendEvent(new RemoteInterpreterEvent(
         RemoteInterpreterEventType.ANGULAR_OBJECT_ADD, gson.toJson(object)));
   }
 
   @Override
   public void onUpdate(String interpreterGroupId, AngularObject object) {
-    sendEvent(new RemoteInterpreterEvent(
-        RemoteInterpreterEventType.ANGULAR_OBJECT_UPDATE, gson.toJson(object)));
+    angularObjectUpdates.updated(object);
   }
 
   @Override
   public void onRemove(String interpreterGroupId, String name, String noteId) {
+    angularObjectUpdates.removed(noteId, name);
+    angularObjectEncoder.forget(AngularObjectDeltaEncoder.key(noteId, name));
     Map<String, String> removeObject = new HashMap<String, String>();
     removeObject.put("name", name);
     removeObject.put("noteId", noteId);
@@ -425,9 +730,13 @@ public class RemoteInterpreterServer
 
       if (eventQueue.isEmpty()) {
         return new RemoteInterpreterEvent(RemoteInterpreterEventType.NO_OP, "");
-      } else {
-        return eventQueue.remove(0);
       }
+      RemoteInterpreterEvent event = eventQueue.remove(0);
+      PendingOutput output = pendingOutputs.remove(event);
+      if (output != null && sentOutputEvents.containsKey(output.key)) {
+        sentOutputEvents.put(output.key, sentOutputEvents.get(output.key) + 1);
+      }
+      return event;
     }
   }
 
@@ -436,7 +745,7 @@ public class RemoteInterpreterServer
    * @param className
    * @param name
    * @param noteId noteId where the update issues
-   * @param object
+   * @param object message of AngularObjectDeltaEncoder, in json
    * @throws TException
    */
   @Override
@@ -450,6 +759,22 @@ public class RemoteInterpreterServer
       return;
     }
 
+    Object value;
+    try {
+      Map<String, Object> message = gson.fromJson(object,
+          new TypeToken<Map<String, Object>>() {}.getType());
+      value = angularObjectDecoder.decode(
+          AngularObjectDeltaEncoder.key(noteId, name), message);
+    } catch (IllegalStateException e) {
+      // zeppelin sends the full value after a failed call, and at least every
+      // AngularObjectDeltaEncoder.DEFAULT_KEYFRAME_INTERVAL updates
+      logger.warn("Can't update angular object " + name, e);
+      return;
+    }
+    setAngularObjectValue(ao, gson.toJson(value));
+  }
+
+  private void setAngularObjectValue(AngularObject ao, String object) {
     if (object == null) {
       ao.set(null, false);
       return;
@@ -467,23 +792,8 @@ public class RemoteInterpreterServer
       }
     }
 
-    // Generic java object type for json.
-    if (value == null) {
-      try {
-        value = gson.fromJson(object,
-          new TypeToken<Map<String, Object>>() {
-          }.getType());
-      } catch (Exception e) {
-        // no lock
-      }
-    }
-
-    // try string object type at last
-    if (value == null) {
-      value = gson.fromJson(object, String.class);
-    }
-
-    ao.set(value, false);
+    // generic java object type for json
+    ao.set(RemoteAngularObjectValue.decode(object), false);
   }
 
   /**
@@ -497,25 +807,11 @@ public class RemoteInterpreterServer
     // first try local objects
     AngularObject ao = registry.get(name, noteId);
     if (ao != null) {
-      angularObjectUpdate(name, noteId, object);
+      ao.set(RemoteAngularObjectValue.decode(object), false);
       return;
     }
 
-    // Generic java object type for json.
-    Object value = null;
-    try {
-      value = gson.fromJson(object,
-          new TypeToken<Map<String, Object>>() {
-          }.getType());
-    } catch (Exception e) {
-      // nolock
-    }
-
-    // try string object type at last
-    if (value == null) {
-      value = gson.fromJson(object, String.class);
-    }
-
+    Object value = RemoteAngularObjectValue.decode(object);
     registry.add(name, value, noteId, false);
   }
 
@@ -523,5 +819,6 @@ public class RemoteInterpreterServer
   public void angularObjectRemove(String name, String noteId) throws TException {
     AngularObjectRegistry registry = interpreterGroup.getAngularObjectRegistry();
     registry.remove(name, noteId, false);
+    angularObjectDecoder.forget(AngularObjectDeltaEncoder.key(noteId, name));
   }
 }
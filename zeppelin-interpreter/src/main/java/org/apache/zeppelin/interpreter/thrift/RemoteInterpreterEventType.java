@@ -33,7 +33,9 @@ public enum RemoteInterpreterEventType implements org.apache.thrift.TEnum {
   ANGULAR_OBJECT_ADD(2),
   ANGULAR_OBJECT_UPDATE(3),
   ANGULAR_OBJECT_REMOVE(4),
-  RUN_INTERPRETER_CONTEXT_RUNNER(5);
+  RUN_INTERPRETER_CONTEXT_RUNNER(5),
+  OUTPUT_APPEND(6),
+  ANGULAR_OBJECT_UPDATE_BATCH(7);
 
   private final int value;
 
@@ -64,6 +66,10 @@ public enum RemoteInterpreterEventType implements org.apache.thrift.TEnum {
         return ANGULAR_OBJECT_REMOVE;
       case 5:
         return RUN_INTERPRETER_CONTEXT_RUNNER;
+      case 6:
+        return OUTPUT_APPEND;
+      case 7:
+        return ANGULAR_OBJECT_UPDATE_BATCH;
       default:
         return null;
     }
@@ -60,6 +60,8 @@ public class RemoteInterpreterResult implements org.apache.thrift.TBase<RemoteIn
   private static final org.apache.thrift.protocol.TField MSG_FIELD_DESC = new org.apache.thrift.protocol.TField("msg", org.apache.thrift.protocol.TType.STRING, (short)3);
   private static final org.apache.thrift.protocol.TField CONFIG_FIELD_DESC = new org.apache.thrift.protocol.TField("config", org.apache.thrift.protocol.TType.STRING, (short)4);
   private static final org.apache.thrift.protocol.TField GUI_FIELD_DESC = new org.apache.thrift.protocol.TField("gui", org.apache.thrift.protocol.TType.STRING, (short)5);
+  private static final org.apache.thrift.protocol.TField OUTPUT_FIELD_DESC = new org.apache.thrift.protocol.TField("output", org.apache.thrift.protocol.TType.STRING, (short)6);
+  private static final org.apache.thrift.protocol.TField OUTPUT_EVENTS_FIELD_DESC = new org.apache.thrift.protocol.TField("outputEvents", org.apache.thrift.protocol.TType.I32, (short)7);
 
   private static final Map<Class<? extends IScheme>, SchemeFactory> schemes = new HashMap<Class<? extends IScheme>, SchemeFactory>();
   static {
@@ -72,6 +74,8 @@ public class RemoteInterpreterResult implements org.apache.thrift.TBase<RemoteIn
   public String msg; // required
   public String config; // required
   public String gui; // required
+  public String output; // required
+  public int outputEvents; // required
 
   /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
   public enum _Fields implements org.apache.thrift.TFieldIdEnum {
@@ -79,7 +83,9 @@ public class RemoteInterpreterResult implements org.apache.thrift.TBase<RemoteIn
     TYPE((short)2, "type"),
     MSG((short)3, "msg"),
     CONFIG((short)4, "config"),
-    GUI((short)5, "gui");
+    GUI((short)5, "gui"),
+    OUTPUT((short)6, "output"),
+    OUTPUT_EVENTS((short)7, "outputEvents");
 
     private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
 
@@ -104,6 +110,10 @@ public class RemoteInterpreterResult implements org.apache.thrift.TBase<RemoteIn
           return CONFIG;
         case 5: // GUI
           return GUI;
+        case 6: // OUTPUT
+          return OUTPUT;
+        case 7: // OUTPUT_EVENTS
+          return OUTPUT_EVENTS;
         default:
           return null;
       }
@@ -144,6 +154,8 @@ public class RemoteInterpreterResult implements org.apache.thrift.TBase<RemoteIn
   }
 
   // isset id assignments
+  private static final int __OUTPUTEVENTS_ISSET_ID = 0;
+  private byte __isset_bitfield = 0;
   public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
   static {
     Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
@@ -157,6 +169,10 @@ public class RemoteInterpreterResult implements org.apache.thrift.TBase<RemoteIn
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
     tmpMap.put(_Fields.GUI, new org.apache.thrift.meta_data.FieldMetaData("gui", org.apache.thrift.TFieldRequirementType.DEFAULT, 
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
+    tmpMap.put(_Fields.OUTPUT, new org.apache.thrift.meta_data.FieldMetaData("output", org.apache.thrift.TFieldRequirementType.DEFAULT, 
+        new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
+    tmpMap.put(_Fields.OUTPUT_EVENTS, new org.apache.thrift.meta_data.FieldMetaData("outputEvents", org.apache.thrift.TFieldRequirementType.DEFAULT, 
+        new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I32)));
     metaDataMap = Collections.unmodifiableMap(tmpMap);
     org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(RemoteInterpreterResult.class, metaDataMap);
   }
@@ -169,7 +185,9 @@ public class RemoteInterpreterResult implements org.apache.thrift.TBase<RemoteIn
     String type,
     String msg,
     String config,
-    String gui)
+    String gui,
+    String output,
+    int outputEvents)
   {
     this();
     this.code = code;
@@ -177,12 +195,16 @@ public class RemoteInterpreterResult implements org.apache.thrift.TBase<RemoteIn
     this.msg = msg;
     this.config = config;
     this.gui = gui;
+    this.output = output;
+    this.outputEvents = outputEvents;
+    setOutputEventsIsSet(true);
   }
 
   /**
    * Performs a deep copy on <i>other</i>.
    */
   public RemoteInterpreterResult(RemoteInterpreterResult other) {
+    __isset_bitfield = other.__isset_bitfield;
     if (other.isSetCode()) {
       this.code = other.code;
     }
@@ -198,6 +220,10 @@ public class RemoteInterpreterResult implements org.apache.thrift.TBase<RemoteIn
     if (other.isSetGui()) {
       this.gui = other.gui;
     }
+    if (other.isSetOutput()) {
+      this.output = other.output;
+    }
+    this.outputEvents = other.outputEvents;
   }
 
   public RemoteInterpreterResult deepCopy() {
@@ -211,6 +237,9 @@ public class RemoteInterpreterResult implements org.apache.thrift.TBase<RemoteIn
     this.msg = null;
     this.config = null;
     this.gui = null;
+    this.output = null;
+    setOutputEventsIsSet(false);
+    this.outputEvents = 0;
   }
 
   public String getCode() {
@@ -333,6 +362,53 @@ public class RemoteInterpreterResult implements org.apache.thrift.TBase<RemoteIn
     }
   }
 
+  public String getOutput() {
+    return this.output;
+  }
+
+  public RemoteInterpreterResult setOutput(String output) {
+    this.output = output;
+    return this;
+  }
+
+  public void unsetOutput() {
+    this.output = null;
+  }
+
+  /** Returns true if field output is set (has been assigned a value) and false otherwise */
+  public boolean isSetOutput() {
+    return this.output != null;
+  }
+
+  public void setOutputIsSet(boolean value) {
+    if (!value) {
+      this.output = null;
+    }
+  }
+
+  public int getOutputEvents() {
+    return this.outputEvents;
+  }
+
+  public RemoteInterpreterResult setOutputEvents(int outputEvents) {
+    this.outputEvents = outputEvents;
+    setOutputEventsIsSet(true);
+    return this;
+  }
+
+  public void unsetOutputEvents() {
+    __isset_bitfield = EncodingUtils.clearBit(__isset_bitfield, __OUTPUTEVENTS_ISSET_ID);
+  }
+
+  /** Returns true if field outputEvents is set (has been assigned a value) and false otherwise */
+  public boolean isSetOutputEvents() {
+    return EncodingUtils.testBit(__isset_bitfield, __OUTPUTEVENTS_ISSET_ID);
+  }
+
+  public void setOutputEventsIsSet(boolean value) {
+    __isset_bitfield = EncodingUtils.setBit(__isset_bitfield, __OUTPUTEVENTS_ISSET_ID, value);
+  }
+
   public void setFieldValue(_Fields field, Object value) {
     switch (field) {
     case CODE:
@@ -375,6 +451,22 @@ public class RemoteInterpreterResult implements org.apache.thrift.TBase<RemoteIn
       }
       break;
 
+    case OUTPUT:
+      if (value == null) {
+        unsetOutput();
+      } else {
+        setOutput((String)value);
+      }
+      break;
+
+    case OUTPUT_EVENTS:
+      if (value == null) {
+        unsetOutputEvents();
+      } else {
+        setOutputEvents((Integer)value);
+      }
+      break;
+
     }
   }
 
@@ -395,6 +487,12 @@ public class RemoteInterpreterResult implements org.apache.thrift.TBase<RemoteIn
     case GUI:
       return getGui();
 
+    case OUTPUT:
+      return getOutput();
+
+    case OUTPUT_EVENTS:
+      return Integer.valueOf(getOutputEvents());
+
     }
     throw new IllegalStateException();
   }
@@ -416,6 +514,10 @@ public class RemoteInterpreterResult implements org.apache.thrift.TBase<RemoteIn
       return isSetConfig();
     case GUI:
       return isSetGui();
+    case OUTPUT:
+      return isSetOutput();
+    case OUTPUT_EVENTS:
+      return isSetOutputEvents();
     }
     throw new IllegalStateException();
   }
@@ -478,6 +580,24 @@ public class RemoteInterpreterResult implements org.apache.thrift.TBase<RemoteIn
         return false;
     }
 
+    boolean this_present_output = true && this.isSetOutput();
+    boolean that_present_output = true && that.isSetOutput();
+    if (this_present_output || that_present_output) {
+      if (!(this_present_output && that_present_output))
+        return false;
+      if (!this.output.equals(that.output))
+        return false;
+    }
+
+    boolean this_present_outputEvents = true;
+    boolean that_present_outputEvents = true;
+    if (this_present_outputEvents || that_present_outputEvents) {
+      if (!(this_present_outputEvents && that_present_outputEvents))
+        return false;
+      if (this.outputEvents != that.outputEvents)
+        return false;
+    }
+
     return true;
   }
 
@@ -510,6 +630,16 @@ public class RemoteInterpreterResult implements org.apache.thrift.TBase<RemoteIn
     if (present_gui)
       list.add(gui);
 
+    boolean present_output = true && (isSetOutput());
+    list.add(present_output);
+    if (present_output)
+      list.add(output);
+
+    boolean present_outputEvents = true;
+    list.add(present_outputEvents);
+    if (present_outputEvents)
+      list.add(outputEvents);
+
     return list.hashCode();
   }
 
@@ -571,6 +701,26 @@ public class RemoteInterpreterResult implements org.apache.thrift.TBase<RemoteIn
         return lastComparison;
       }
     }
+    lastComparison = Boolean.valueOf(isSetOutput()).compareTo(other.isSetOutput());
+    if (lastComparison != 0) {
+      return lastComparison;
+    }
+    if (isSetOutput()) {
+      lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.output, other.output);
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+    }
+    lastComparison = Boolean.valueOf(isSetOutputEvents()).compareTo(other.isSetOutputEvents());
+    if (lastComparison != 0) {
+      return lastComparison;
+    }
+    if (isSetOutputEvents()) {
+      lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.outputEvents, other.outputEvents);
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+    }
     return 0;
   }
 
@@ -630,6 +780,18 @@ public class RemoteInterpreterResult implements org.apache.thrift.TBase<RemoteIn
       sb.append(this.gui);
     }
     first = false;
+    if (!first) sb.append(", ");
+    sb.append("output:");
+    if (this.output == null) {
+      sb.append("null");
+    } else {
+      sb.append(this.output);
+    }
+    first = false;
+    if (!first) sb.append(", ");
+    sb.append("outputEvents:");
+    sb.append(this.outputEvents);
+    first = false;
     sb.append(")");
     return sb.toString();
   }
@@ -649,6 +811,8 @@ public class RemoteInterpreterResult implements org.apache.thrift.TBase<RemoteIn
 
   private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
     try {
+      // it doesn't seem like you should have to do this, but java serialization is wacky, and doesn't call the default constructor.
+      __isset_bitfield = 0;
       read(new org.apache.thrift.protocol.TCompactProtocol(new org.apache.thrift.transport.TIOStreamTransport(in)));
     } catch (org.apache.thrift.TException te) {
       throw new java.io.IOException(te);
@@ -713,6 +877,22 @@ public class RemoteInterpreterResult implements org.apache.thrift.TBase<RemoteIn
               org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
             }
             break;
+          case 6: // OUTPUT
+            if (schemeField.type == org.apache.thrift.protocol.TType.STRING) {
+              struct.output = iprot.readString();
+              struct.setOutputIsSet(true);
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+            }
+            break;
+          case 7: // OUTPUT_EVENTS
+            if (schemeField.type == org.apache.thrift.protocol.TType.I32) {
+              struct.outputEvents = iprot.readI32();
+              struct.setOutputEventsIsSet(true);
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+            }
+            break;
           default:
             org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
         }
@@ -753,6 +933,14 @@ public class RemoteInterpreterResult implements org.apache.thrift.TBase<RemoteIn
         oprot.writeString(struct.gui);
         oprot.writeFieldEnd();
       }
+      if (struct.output != null) {
+        oprot.writeFieldBegin(OUTPUT_FIELD_DESC);
+        oprot.writeString(struct.output);
+        oprot.writeFieldEnd();
+      }
+      oprot.writeFieldBegin(OUTPUT_EVENTS_FIELD_DESC);
+      oprot.writeI32(struct.outputEvents);
+      oprot.writeFieldEnd();
       oprot.writeFieldStop();
       oprot.writeStructEnd();
     }
@@ -786,7 +974,13 @@ public class RemoteInterpreterResult implements org.apache.thrift.TBase<RemoteIn
       if (struct.isSetGui()) {
         optionals.set(4);
       }
-      oprot.writeBitSet(optionals, 5);
+      if (struct.isSetOutput()) {
+        optionals.set(5);
+      }
+      if (struct.isSetOutputEvents()) {
+        optionals.set(6);
+      }
+      oprot.writeBitSet(optionals, 7);
       if (struct.isSetCode()) {
         oprot.writeString(struct.code);
       }
@@ -802,12 +996,18 @@ public class RemoteInterpreterResult implements org.apache.thrift.TBase<RemoteIn
       if (struct.isSetGui()) {
         oprot.writeString(struct.gui);
       }
+      if (struct.isSetOutput()) {
+        oprot.writeString(struct.output);
+      }
+      if (struct.isSetOutputEvents()) {
+        oprot.writeI32(struct.outputEvents);
+      }
     }
 
     @Override
     public void read(org.apache.thrift.protocol.TProtocol prot, RemoteInterpreterResult struct) throws org.apache.thrift.TException {
       TTupleProtocol iprot = (TTupleProtocol) prot;
-      BitSet incoming = iprot.readBitSet(5);
+      BitSet incoming = iprot.readBitSet(7);
       if (incoming.get(0)) {
         struct.code = iprot.readString();
         struct.setCodeIsSet(true);
@@ -828,6 +1028,14 @@ public class RemoteInterpreterResult implements org.apache.thrift.TBase<RemoteIn
         struct.gui = iprot.readString();
         struct.setGuiIsSet(true);
       }
+      if (incoming.get(5)) {
+        struct.output = iprot.readString();
+        struct.setOutputIsSet(true);
+      }
+      if (incoming.get(6)) {
+        struct.outputEvents = iprot.readI32();
+        struct.setOutputEventsIsSet(true);
+      }
     }
   }
 
@@ -34,7 +34,9 @@ struct RemoteInterpreterResult {
   2: string type,
   3: string msg,
   4: string config,   // json serialized config
-  5: string gui       // json serialized gui
+  5: string gui,      // json serialized gui
+  6: string output,   // output not yet sent as OUTPUT_APPEND events
+  7: i32 outputEvents // number of OUTPUT_APPEND events of the paragraph already sent
 }
 
 enum RemoteInterpreterEventType {
@@ -42,7 +44,9 @@ enum RemoteInterpreterEventType {
   ANGULAR_OBJECT_ADD = 2,
   ANGULAR_OBJECT_UPDATE = 3,
   ANGULAR_OBJECT_REMOVE = 4,
-  RUN_INTERPRETER_CONTEXT_RUNNER = 5
+  RUN_INTERPRETER_CONTEXT_RUNNER = 5,
+  OUTPUT_APPEND = 6,
+  ANGULAR_OBJECT_UPDATE_BATCH = 7
 }
 
 struct RemoteInterpreterEvent {
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.display;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+
+public class AngularObjectDeltaEncoderTest {
+  private Gson gson = new Gson();
+
+  private Map<?, ?> send(AngularObjectDeltaEncoder encoder, String key, Object value) {
+    return gson.fromJson(gson.toJson(encoder.encode(key, value)), Map.class);
+  }
+
+  private Object tree(Object value) {
+    return gson.fromJson(gson.toJson(value), Object.class);
+  }
+
+  private List<Integer> range(int n) {
+    List<Integer> list = new LinkedList<Integer>();
+    for (int i = 0; i < n; i++) {
+      list.add(i);
+    }
+    return list;
+  }
+
+  @Test
+  public void testDeltaForLargeValue() {
+    AngularObjectDeltaEncoder encoder = new AngularObjectDeltaEncoder();
+    AngularObjectDeltaDecoder decoder = new AngularObjectDeltaDecoder();
+    List<Integer> value = range(1000);
+
+    Map<?, ?> first = send(encoder, "k", value);
+    assertTrue(first.containsKey("object"));
+    assertEquals(tree(value), decoder.decode("k", first));
+
+    value.add(1000);
+    Map<?, ?> second = send(encoder, "k", value);
+    assertTrue(second.containsKey("patch"));
+    assertFalse(second.containsKey("object"));
+    assertTrue(gson.toJson(second).length() < 100);
+    assertEquals(tree(value), decoder.decode("k", second));
+  }
+
+  @Test
+  public void testFullValueWhenSmaller() {
+    AngularObjectDeltaEncoder encoder = new AngularObjectDeltaEncoder();
+    send(encoder, "k", 1);
+    Map<?, ?> m = send(encoder, "k", "two");
+    assertTrue(m.containsKey("object"));
+    assertEquals(2, ((Number) m.get("version")).intValue());
+  }
+
+  @Test
+  public void testKeyframe() {
+    AngularObjectDeltaEncoder encoder = new AngularObjectDeltaEncoder(3);
+    List<Integer> value = range(100);
+    int full = 0;
+    for (int i = 0; i < 9; i++) {
+      value.set(0, i);
+      if (send(encoder, "k", value).containsKey("object")) {
+        full++;
+      }
+    }
+    assertEquals(3, full);
+  }
+
+  @Test
+  public void testMissedMessage() {
+    AngularObjectDeltaEncoder encoder = new AngularObjectDeltaEncoder();
+    AngularObjectDeltaDecoder decoder = new AngularObjectDeltaDecoder();
+    List<Integer> value = range(100);
+    decoder.decode("k", send(encoder, "k", value));
+    value.set(0, 10);
+    send(encoder, "k", value);   // lost
+    value.set(0, 20);
+    try {
+      decoder.decode("k", send(encoder, "k", value));
+      fail();
+    } catch (IllegalStateException e) {
+      // expected
+    }
+
+    encoder.forget("k");
+    assertEquals(20, ((Number) ((List<?>) decoder.decode("k", send(encoder, "k", value)))
+        .get(0)).intValue());
+  }
+
+  @Test
+  public void testVersionOf() {
+    AngularObjectDeltaEncoder encoder = new AngularObjectDeltaEncoder();
+    List<Integer> value = range(10);
+    assertEquals(0, encoder.versionOf("k", value));
+
+    send(encoder, "k", value);
+    send(encoder, "k", value);
+    assertEquals(2, encoder.versionOf("k", value));
+
+    value.set(0, 10);
+    assertEquals(0, encoder.versionOf("k", value));
+  }
+
+  @Test
+  public void testForgetStartingWith() {
+    AngularObjectDeltaEncoder encoder = new AngularObjectDeltaEncoder();
+    String a = AngularObjectDeltaEncoder.key("group1", "note", "a");
+    String b = AngularObjectDeltaEncoder.key("group2", "note", "b");
+    send(encoder, a, 1);
+    send(encoder, b, 1);
+
+    encoder.forgetStartingWith(AngularObjectDeltaEncoder.key("group1"));
+    assertEquals(0, encoder.versionOf(a, 1));
+    assertEquals(1, encoder.versionOf(b, 1));
+  }
+}
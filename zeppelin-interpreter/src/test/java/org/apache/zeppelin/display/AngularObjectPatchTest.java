@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.display;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+
+public class AngularObjectPatchTest {
+  private Gson gson = new Gson();
+
+  private Object tree(String json) {
+    return gson.fromJson(json, Object.class);
+  }
+
+  private Object roundTrip(String before, String after) {
+    List<Map<String, Object>> ops = AngularObjectPatch.diff(tree(before), tree(after));
+    // operations go through json, as they do on the wire
+    List<?> received = gson.fromJson(gson.toJson(ops), List.class);
+    return AngularObjectPatch.apply(tree(before), received);
+  }
+
+  @Test
+  public void testEqual() {
+    assertTrue(AngularObjectPatch.diff(tree("{\"a\":[1,2,{\"b\":\"c\"}]}"),
+        tree("{\"a\":[1,2,{\"b\":\"c\"}]}")).isEmpty());
+  }
+
+  @Test
+  public void testRoundTrip() {
+    String[][] cases = new String[][] {
+        {"{\"a\":1,\"b\":2}", "{\"a\":1,\"b\":3,\"c\":[4]}"},
+        {"{\"a\":1,\"b\":2}", "{\"b\":2}"},
+        {"[1,2,3,4]", "[1,5]"},
+        {"[1,2]", "[1,2,[3],{\"x\":true}]"},
+        {"{\"rows\":[[1,\"a\"],[2,\"b\"]]}", "{\"rows\":[[1,\"a\"],[2,\"c\"],[3,\"d\"]]}"},
+        {"{\"a\":{\"b\":{\"c\":1}}}", "{\"a\":[\"b\"]}"},
+        {"\"text\"", "{\"a\":1}"},
+        {"[1]", "null"},
+        {"null", "[1]"},
+    };
+    for (String[] c : cases) {
+      assertEquals(tree(c[1]), roundTrip(c[0], c[1]));
+    }
+  }
+
+  @Test
+  public void testSmallChangeInLargeValue() {
+    StringBuilder before = new StringBuilder("[");
+    for (int i = 0; i < 1000; i++) {
+      before.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append("}");
+    }
+    String after = before.toString() + ",{\"id\":1000}]";
+
+    List<Map<String, Object>> ops = AngularObjectPatch.diff(
+        tree(before.toString() + "]"), tree(after));
+    assertEquals(1, ops.size());
+    assertEquals(AngularObjectPatch.OP_APPEND, ops.get(0).get("op"));
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.display;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures AngularObjectRegistry throughput under a mixed workload of many notes
+ * sharing an interpreter group. Each operation is one of, by probability
+ *   get 60%, getAllWithGlobal 25%, getAll 5%, object value update 5%, remove and add 5%
+ * on a random note.
+ *
+ * Not run by the build. Run with
+ *   java -cp [test classpath] org.apache.zeppelin.display.AngularObjectRegistryBenchmark
+ *     [notes=200] [objects per note=20] [threads=1,4,16] [msec per run=3000]
+ */
+public class AngularObjectRegistryBenchmark {
+  private static final int GLOBAL_OBJECTS = 50;
+
+  public static void main(String[] args) throws Exception {
+    int notes = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    int objects = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+    String threadCounts = args.length > 2 ? args[2] : "1,4,16";
+    long duration = args.length > 3 ? Long.parseLong(args[3]) : 3000;
+
+    System.out.println(notes + " notes, " + objects + " objects each, "
+        + GLOBAL_OBJECTS + " global objects");
+    System.out.println("threads   ops/sec");
+    for (String t : threadCounts.split(",")) {
+      int threads = Integer.parseInt(t.trim());
+      // warm up
+      run(notes, objects, threads, duration / 2);
+      long ops = run(notes, objects, threads, duration);
+      System.out.println(String.format("%7d %9d", threads, ops * 1000 / duration));
+    }
+  }
+
+  private static long run(final int notes, final int objects, int threads, long duration)
+      throws InterruptedException {
+    final AngularObjectRegistry registry = new AngularObjectRegistry("intpGroup", null);
+    for (int i = 0; i < GLOBAL_OBJECTS; i++) {
+      registry.add("global" + i, i, null);
+    }
+    for (int n = 0; n < notes; n++) {
+      for (int i = 0; i < objects; i++) {
+        registry.add("object" + i, i, "note" + n);
+      }
+    }
+
+    final AtomicBoolean stop = new AtomicBoolean(false);
+    final AtomicLong ops = new AtomicLong();
+    List<Thread> workers = new LinkedList<Thread>();
+    for (int i = 0; i < threads; i++) {
+      final Random random = new Random(i);
+      Thread worker = new Thread() {
+        public void run() {
+          long count = 0;
+          while (!stop.get()) {
+            String noteId = "note" + random.nextInt(notes);
+            String name = "object" + random.nextInt(objects);
+            int op = random.nextInt(100);
+            if (op < 60) {
+              registry.get(name, noteId);
+            } else if (op < 85) {
+              registry.getAllWithGlobal(noteId);
+            } else if (op < 90) {
+              registry.getAll(noteId);
+            } else if (op < 95) {
+              AngularObject ao = registry.get(name, noteId);
+              if (ao != null) {
+                ao.set(op, false);
+              }
+            } else {
+              registry.remove(name, noteId);
+              registry.add(name, op, noteId);
+            }
+            count++;
+          }
+          ops.addAndGet(count);
+        }
+      };
+      worker.start();
+      workers.add(worker);
+    }
+
+    Thread.sleep(duration);
+    stop.set(true);
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    return ops.get();
+  }
+}
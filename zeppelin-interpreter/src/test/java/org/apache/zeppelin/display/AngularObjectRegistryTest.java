@@ -19,6 +19,7 @@ package org.apache.zeppelin.display;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
@@ -72,5 +73,30 @@ public class AngularObjectRegistryTest {
     // null namespace
     registry.add("name1", "global1", null);
     assertEquals("global1", registry.get("name1", null).get());
+
+    // all notes and global
+    assertEquals(2, registry.getAllNotesAndGlobal().size());
+  }
+
+  @Test
+  public void testSnapshot() {
+    AngularObjectRegistry registry = new AngularObjectRegistry("intpId", null);
+    assertEquals(0, registry.getAll("note1").size());
+    assertEquals(null, registry.get("name1", "note1"));
+
+    registry.add("name1", "value1", "note1");
+    List<AngularObject> before = registry.getAll("note1");
+    registry.add("name2", "value2", "note1");
+    registry.add("global1", "value", null);
+
+    // snapshot taken before is not changed
+    assertEquals(1, before.size());
+    assertEquals(2, registry.getAll("note1").size());
+    assertEquals(3, registry.getAllWithGlobal("note1").size());
+    assertEquals(1, registry.getAllWithGlobal("note2").size());
+
+    registry.removeAll("note1");
+    assertEquals(0, registry.getAll("note1").size());
+    assertEquals(1, registry.getAllNotesAndGlobal().size());
   }
 }
@@ -19,6 +19,9 @@ package org.apache.zeppelin.display;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.zeppelin.interpreter.InterpreterContext;
@@ -75,4 +78,43 @@ public class AngularObjectTest {
     Thread.sleep(500);
     assertEquals(1, onWatch.get());
   }
+
+  @Test
+  public void testWatcherCoalescedInOrder() throws InterruptedException {
+    AngularObject ao = new AngularObject("name", 0, "note1", null);
+    final List<Object[]> watched = new LinkedList<Object[]>();
+    final CountDownLatch firstWatch = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+
+    ao.addWatcher(new AngularObjectWatcher(null) {
+      @Override
+      public void watch(Object oldObject, Object newObject, InterpreterContext context) {
+        synchronized (watched) {
+          watched.add(new Object[]{oldObject, newObject});
+        }
+        firstWatch.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+        }
+      }
+    });
+
+    ao.set(1);
+    firstWatch.await();
+    // watcher is busy with the first value. following values are coalesced
+    for (int i = 2; i <= 100; i++) {
+      ao.set(i);
+    }
+    release.countDown();
+
+    Thread.sleep(500);
+    synchronized (watched) {
+      assertEquals(2, watched.size());
+      assertEquals(0, watched.get(0)[0]);
+      assertEquals(1, watched.get(0)[1]);
+      assertEquals(1, watched.get(1)[0]);
+      assertEquals(100, watched.get(1)[1]);
+    }
+  }
 }
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.display;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class AngularObjectUpdateCoalescerTest {
+  private List<List<AngularObject>> batches;
+  private AngularObjectUpdateCoalescer.BatchListener listener;
+
+  @Before
+  public void setUp() {
+    batches = new LinkedList<List<AngularObject>>();
+    listener = new AngularObjectUpdateCoalescer.BatchListener() {
+      @Override
+      public void updated(List<AngularObject> objects) {
+        synchronized (batches) {
+          batches.add(objects);
+        }
+      }
+    };
+  }
+
+  @Test
+  public void testLastValueWins() throws InterruptedException {
+    AngularObjectUpdateCoalescer coalescer = new AngularObjectUpdateCoalescer(100, listener);
+    AngularObject<Integer> a = new AngularObject<Integer>("a", 0, "note1", null);
+    AngularObject<Integer> b = new AngularObject<Integer>("b", 0, "note1", null);
+    AngularObject<Integer> aGlobal = new AngularObject<Integer>("a", 0, null, null);
+
+    for (int i = 1; i <= 100; i++) {
+      a.set(i);
+      coalescer.updated(a);
+    }
+    coalescer.updated(b);
+    coalescer.updated(aGlobal);
+    coalescer.updated(a);
+
+    Thread.sleep(500);
+    synchronized (batches) {
+      assertEquals(1, batches.size());
+      List<AngularObject> batch = batches.get(0);
+      assertEquals(3, batch.size());
+      assertEquals(a, batch.get(0));
+      assertEquals(100, batch.get(0).get());
+      assertEquals(b, batch.get(1));
+      assertEquals(aGlobal, batch.get(2));
+    }
+  }
+
+  @Test
+  public void testClear() throws InterruptedException {
+    AngularObjectUpdateCoalescer coalescer = new AngularObjectUpdateCoalescer(100, listener);
+    coalescer.updated(new AngularObject<Integer>("a", 0, "note1", null));
+    coalescer.clear();
+
+    Thread.sleep(300);
+    synchronized (batches) {
+      assertEquals(0, batches.size());
+    }
+  }
+
+  @Test
+  public void testRemoved() throws InterruptedException {
+    AngularObjectUpdateCoalescer coalescer = new AngularObjectUpdateCoalescer(100, listener);
+    AngularObject<Integer> a = new AngularObject<Integer>("a", 0, "note1", null);
+    AngularObject<Integer> b = new AngularObject<Integer>("b", 0, "note1", null);
+    coalescer.updated(a);
+    coalescer.updated(b);
+    coalescer.removed("note1", "a");
+
+    Thread.sleep(500);
+    synchronized (batches) {
+      assertEquals(1, batches.size());
+      assertEquals(1, batches.get(0).size());
+      assertEquals(b, batches.get(0).get(0));
+    }
+  }
+
+  @Test
+  public void testFlushAndNoWindow() {
+    AngularObjectUpdateCoalescer coalescer = new AngularObjectUpdateCoalescer(60 * 1000, listener);
+    AngularObject<Integer> a = new AngularObject<Integer>("a", 0, "note1", null);
+    coalescer.updated(a);
+    assertEquals(0, batches.size());
+    coalescer.flush();
+    assertEquals(1, batches.size());
+
+    coalescer.setWindow(0);
+    coalescer.updated(a);
+    coalescer.updated(a);
+    assertEquals(3, batches.size());
+  }
+}
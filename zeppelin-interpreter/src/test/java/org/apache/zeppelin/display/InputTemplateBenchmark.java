@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.display;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Measures building the inputs and the query of a run of a SQL paragraph with dynamic forms,
+ * parsing the script every run (Input.extractSimpleQueryParam and Input.getSimpleQuery) and
+ * with a template kept between runs. Scripts have one line per joined table, and every line
+ * up to the number of forms has a form of one of
+ *   ${from=2016-01-01}, ${checkbox:c=a,a|b|c}, ${p(Param)=1,1|2|3}, _${h=10}, ${limit}
+ * Half of the forms have a param value.
+ *
+ * Not run by the build. Run with
+ *   java -cp [test classpath] org.apache.zeppelin.display.InputTemplateBenchmark
+ *     [forms:lines,...=5:20,20:200,50:1000] [msec per run=3000]
+ */
+public class InputTemplateBenchmark {
+
+  public static void main(String[] args) {
+    String sizes = args.length > 0 ? args[0] : "5:20,20:200,50:1000";
+    long duration = args.length > 1 ? Long.parseLong(args[1]) : 3000;
+
+    System.out.println("forms   lines    chars   parse usec/run   template usec/run");
+    for (String size : sizes.split(",")) {
+      String[] formsAndLines = size.split(":");
+      int forms = Integer.parseInt(formsAndLines[0].trim());
+      int lines = Integer.parseInt(formsAndLines[1].trim());
+      String script = script(forms, lines);
+
+      Map<String, Object> params = new HashMap<String, Object>();
+      int i = 0;
+      for (String name : Input.extractSimpleQueryParam(script).keySet()) {
+        if (i++ % 2 == 0) {
+          params.put(name, "value" + i);
+        }
+      }
+
+      // warm up
+      run(script, params, false, duration / 2);
+      double parse = run(script, params, false, duration);
+      run(script, params, true, duration / 2);
+      double template = run(script, params, true, duration);
+      System.out.println(String.format("%5d %7d %8d %16.1f %19.1f",
+          forms, lines, script.length(), parse, template));
+    }
+  }
+
+  /**
+   * @return usec per run
+   */
+  private static double run(String script, Map<String, Object> params, boolean keepTemplate,
+      long duration) {
+    InputTemplate template = InputTemplate.parse(script);
+    long runs = 0;
+    long length = 0;
+    long start = System.nanoTime();
+    long end = start + duration * 1000000;
+    while (System.nanoTime() < end) {
+      if (keepTemplate) {
+        length += template.getInputs().size();
+        length += template.render(params).length();
+      } else {
+        length += Input.extractSimpleQueryParam(script).size();
+        length += Input.getSimpleQuery(params, script).length();
+      }
+      runs++;
+    }
+    if (length == 0) {
+      throw new IllegalStateException();
+    }
+    return (System.nanoTime() - start) / 1000.0 / runs;
+  }
+
+  private static String script(int forms, int lines) {
+    StringBuilder script = new StringBuilder("select t0.id, t0.name, count(*)\n");
+    script.append("from events t0\n");
+    for (int l = 0; l < lines; l++) {
+      script.append("  join dim_").append(l).append(" t").append(l + 1)
+          .append(" on t").append(l + 1).append(".id = t0.dim_").append(l)
+          .append(" and t").append(l + 1).append(".country = 'kr'");
+      if (l < forms) {
+        String table = " and t" + (l + 1);
+        int kind = l % 5;
+        if (kind == 0) {
+          script.append(" and t0.day >= '${from").append(l).append("=2016-01-01}'");
+        } else if (kind == 1) {
+          script.append(table).append(".col = '${checkbox:c").append(l).append("=a,a|b|c}'");
+        } else if (kind == 2) {
+          script.append(table).append(".x = ${p").append(l)
+              .append("(Param ").append(l).append(")=1,1|2|3}");
+        } else if (kind == 3) {
+          script.append(table).append(".y > _${h").append(l).append("=10}");
+        } else {
+          script.append(table).append(".z < ${limit").append(l).append("}");
+        }
+      }
+      script.append("\n");
+    }
+    script.append("group by t0.id, t0.name\n");
+    return script.toString();
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.display;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class InputTemplateTest {
+
+  @Test
+  public void testInputs() {
+    InputTemplate template = InputTemplate.parse(
+        "select * from t where a = ${a} and b = ${checkbox:b(B)=x,x|y(Y)} and c < _${c=3}"
+        + " and ${pql}");
+    Map<String, Input> inputs = template.getInputs();
+    assertEquals(3, inputs.size());
+    assertFalse(inputs.containsKey("pql"));
+
+    Input a = inputs.get("a");
+    assertEquals("", a.getDefaultValue());
+    assertNull(a.getOptions());
+    assertFalse(a.isHidden());
+
+    Input b = inputs.get("b");
+    assertEquals("checkbox", b.getType());
+    assertEquals("B", b.getDisplayName());
+    assertEquals("x", b.getDefaultValue());
+    assertEquals(2, b.getOptions().length);
+    assertEquals("y", b.getOptions()[1].getValue());
+    assertEquals("Y", b.getOptions()[1].getDisplayName());
+
+    Input c = inputs.get("c");
+    assertEquals("3", c.getDefaultValue());
+    assertTrue(c.isHidden());
+
+    // each call builds new inputs, callers may change them
+    assertNotSame(a, template.getInputs().get("a"));
+  }
+
+  @Test
+  public void testRender() {
+    InputTemplate template = InputTemplate.parse(
+        "a=${a}, b=${b(B)=1,1|2}, c=_${c=3}, d=${d}, e=${type:e=$1}, ${unclosed");
+    Map<String, Object> params = new HashMap<String, Object>();
+    params.put("a", "A");
+    params.put("e", "$2");
+
+    assertEquals("a=A, b=1, c=3, d=${d}, e=$2, ${unclosed", template.render(params));
+    params.put("b", 2);
+    params.put("c", "C");
+    params.put("d", "D");
+    assertEquals("a=A, b=2, c=C, d=D, e=$2, ${unclosed", template.render(params));
+    assertEquals("a=${a}, b=1, c=3, d=${d}, e=$1, ${unclosed", template.render(null));
+  }
+
+  @Test
+  public void testSameNameInManyForms() {
+    InputTemplate template = InputTemplate.parse("${n=1} + ${n} + ${ n }");
+    assertEquals(1, template.getInputs().size());
+
+    Map<String, Object> params = new HashMap<String, Object>();
+    assertEquals("1 + ${n} + ${ n }", template.render(params));
+    params.put("n", 5);
+    assertEquals("5 + 5 + 5", template.render(params));
+  }
+
+  @Test
+  public void testInputStaticMethods() {
+    String script = "select ${col=id} from t limit ${limit=10}";
+    Map<String, Object> params = new HashMap<String, Object>();
+    params.put("limit", 20);
+
+    assertEquals(2, Input.extractSimpleQueryParam(script).size());
+    assertEquals("select id from t limit 20", Input.getSimpleQuery(params, script));
+    assertEquals("no forms", Input.getSimpleQuery(params, "no forms"));
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.interpreter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.PrintStream;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class InterpreterOutputStreamTest implements InterpreterOutputListener {
+  private List<String> chunks;
+
+  @Before
+  public void setUp() {
+    chunks = new LinkedList<String>();
+  }
+
+  @Override
+  public void onAppend(InterpreterOutput out, String output) {
+    chunks.add(output);
+  }
+
+  @Test
+  public void testResultKeepsAllOutputBelowLimit() {
+    InterpreterOutputStream out = new InterpreterOutputStream(100, 0);
+    PrintStream print = new PrintStream(out);
+    print.print("hello\n");
+    print.print("world\n");
+    assertEquals("hello\nworld\n", out.toString());
+    assertEquals(0, out.getTruncatedBytes());
+
+    out.reset();
+    assertEquals("", out.toString());
+  }
+
+  @Test
+  public void testResultKeepsTail() {
+    InterpreterOutputStream out = new InterpreterOutputStream(10, 0);
+    PrintStream print = new PrintStream(out);
+    for (int i = 0; i < 10; i++) {
+      print.print(i + "\n");
+    }
+    // 20 bytes written, the first 10 are dropped
+    assertEquals(10, out.getTruncatedBytes());
+    assertEquals("... 10 bytes truncated ...\n5\n6\n7\n8\n9\n", out.toString());
+
+    print.print("0123456789AB");
+    assertEquals(22, out.getTruncatedBytes());
+    assertTrue(out.toString().endsWith("\n23456789AB"));
+  }
+
+  @Test
+  public void testLinesAreStreamed() {
+    InterpreterOutputStream out = new InterpreterOutputStream(1000, 0);
+    out.setInterpreterOutput(new InterpreterOutput(this));
+    PrintStream print = new PrintStream(out);
+
+    print.print("line 1\n");
+    print.print("partial");
+    assertEquals(1, chunks.size());
+    assertEquals("line 1\n", chunks.get(0));
+
+    print.print(" line 2\n");
+    assertEquals(2, chunks.size());
+    assertEquals("partial line 2\n", chunks.get(1));
+  }
+
+  @Test
+  public void testOutputIsBatchedWithinFlushInterval() {
+    InterpreterOutputStream out = new InterpreterOutputStream(1000, 16, 60000);
+    out.setInterpreterOutput(new InterpreterOutput(this));
+    PrintStream print = new PrintStream(out);
+
+    print.print("a\n");
+    print.print("b\n");
+    assertEquals(0, chunks.size());
+
+    out.flush();
+    assertEquals(1, chunks.size());
+    assertEquals("a\nb\n", chunks.get(0));
+
+    // a full chunk is sent without waiting for the interval
+    print.print("0123456789\n0123456789");
+    assertEquals(2, chunks.size());
+    assertEquals("0123456789\n0123456789", chunks.get(1));
+  }
+
+  @Test
+  public void testStreamingStopsAtLimit() {
+    InterpreterOutputStream out = new InterpreterOutputStream(8, 0);
+    out.setInterpreterOutput(new InterpreterOutput(this));
+    PrintStream print = new PrintStream(out);
+
+    print.print("123\n");
+    print.print("456\n789\n");
+    print.print("more\n");
+
+    assertEquals(2, chunks.size());
+    assertEquals("123\n", chunks.get(0));
+    assertTrue(chunks.get(1).startsWith("456\n"));
+    assertTrue(chunks.get(1).contains("output exceeds 8 bytes"));
+    assertEquals("... 9 bytes truncated ...\n89\nmore\n", out.toString());
+  }
+
+  @Test
+  public void testMultiByteCharacterIsNotSplit() {
+    InterpreterOutputStream out = new InterpreterOutputStream(1000, 4, 60000);
+    out.setInterpreterOutput(new InterpreterOutput(this));
+    byte[] bytes = {'a', 'b', 'c', (byte) 0xC3, (byte) 0xA9};
+
+    out.write(bytes, 0, 4);
+    assertEquals(1, chunks.size());
+    assertEquals("abc", chunks.get(0));
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.interpreter.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JdbcExecutorTest {
+  private List<Connection> created;
+  private List<Statement> statements;
+  private JdbcExecutor executor;
+
+  @Before
+  public void setUp() {
+    created = new LinkedList<Connection>();
+    statements = new LinkedList<Statement>();
+    JdbcConnectionProvider provider = new JdbcConnectionProvider() {
+      @Override
+      public Connection getConnection() throws SQLException {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        when(connection.createStatement()).thenReturn(statement);
+        synchronized (created) {
+          created.add(connection);
+          statements.add(statement);
+        }
+        return connection;
+      }
+    };
+    executor = new JdbcExecutor(new JdbcConnectionPool(provider, 2, 2, 1000, null));
+  }
+
+  @After
+  public void tearDown() {
+    executor.close();
+  }
+
+  @Test
+  public void testConnectionReused() throws SQLException {
+    StatementCallback<Integer> callback = new StatementCallback<Integer>() {
+      @Override
+      public Integer doInStatement(Statement statement) throws SQLException {
+        return executor.getPool().getNumActive();
+      }
+    };
+    assertEquals(1, (int) executor.execute("p1", callback));
+    assertEquals(1, (int) executor.execute("p2", callback));
+
+    assertEquals(1, created.size());
+    verify(statements.get(0), times(2)).close();
+    assertEquals(0, executor.getPool().getNumActive());
+    assertEquals(1, executor.getPool().getNumIdle());
+  }
+
+  @Test
+  public void testCancelOnlyTargetParagraph() throws Exception {
+    final CountDownLatch running = new CountDownLatch(2);
+    final CountDownLatch release = new CountDownLatch(1);
+    final Statement[] byParagraph = new Statement[2];
+
+    Thread[] threads = new Thread[2];
+    for (int i = 0; i < 2; i++) {
+      final int index = i;
+      threads[i] = new Thread() {
+        public void run() {
+          try {
+            executor.execute("p" + index, new StatementCallback<Void>() {
+              @Override
+              public Void doInStatement(Statement statement) throws SQLException {
+                byParagraph[index] = statement;
+                running.countDown();
+                try {
+                  release.await();
+                } catch (InterruptedException e) {
+                  throw new SQLException(e);
+                }
+                return null;
+              }
+            });
+          } catch (SQLException e) {
+            fail(e.getMessage());
+          }
+        }
+      };
+      threads[i].start();
+    }
+
+    assertTrue(running.await(5, TimeUnit.SECONDS));
+    assertEquals(2, created.size());
+    assertNotSame(byParagraph[0], byParagraph[1]);
+    assertTrue(executor.isRunning("p0"));
+
+    executor.cancel("p1");
+    verify(byParagraph[1]).cancel();
+    verify(byParagraph[0], never()).cancel();
+
+    release.countDown();
+    for (Thread t : threads) {
+      t.join();
+    }
+    assertFalse(executor.isRunning("p0"));
+    assertFalse(executor.isRunning("p1"));
+  }
+
+  @Test
+  public void testBrokenConnectionIsReplaced() throws SQLException {
+    try {
+      executor.execute("p1", new StatementCallback<Void>() {
+        @Override
+        public Void doInStatement(Statement statement) throws SQLException {
+          when(created.get(0).isClosed()).thenReturn(true);
+          throw new SQLException("connection reset");
+        }
+      });
+      fail("exception expected");
+    } catch (SQLException e) {
+      assertEquals("connection reset", e.getMessage());
+    }
+    verify(created.get(0)).close();
+
+    executor.execute("p1", new StatementCallback<Void>() {
+      @Override
+      public Void doInStatement(Statement statement) throws SQLException {
+        return null;
+      }
+    });
+    assertEquals(2, created.size());
+  }
+}
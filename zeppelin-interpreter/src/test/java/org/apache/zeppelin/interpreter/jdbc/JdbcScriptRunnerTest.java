@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.zeppelin.interpreter.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.zeppelin.interpreter.InterpreterResult;
+import org.apache.zeppelin.interpreter.InterpreterResult.Code;
+import org.apache.zeppelin.interpreter.InterpreterResult.Type;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JdbcScriptRunnerTest {
+  private JdbcConnectionProvider provider;
+  private JdbcExecutor executor;
+  private List<String> events;
+
+  @Before
+  public void setUp() {
+    events = Collections.synchronizedList(new LinkedList<String>());
+    provider = new JdbcConnectionProvider() {
+      @Override
+      public Connection getConnection() throws SQLException {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        when(connection.createStatement()).thenReturn(statement);
+        return connection;
+      }
+    };
+    executor = new JdbcExecutor(new JdbcConnectionPool(provider, 4, 4, 1000, null));
+  }
+
+  @After
+  public void tearDown() {
+    executor.close();
+  }
+
+  @Test
+  public void testSingleStatementKeepsResultType() {
+    JdbcScriptRunner runner = new JdbcScriptRunner(executor, 4);
+    InterpreterResult result = runner.run(null, "select 1;", new SqlStatementCallback() {
+      @Override
+      public String doInStatement(String sql, Statement statement) throws SQLException {
+        assertEquals("select 1", sql);
+        return "%table a\n1\n";
+      }
+    });
+    assertEquals(Code.SUCCESS, result.code());
+    assertEquals(Type.TABLE, result.type());
+    assertEquals("a\n1\n", result.message());
+  }
+
+  @Test
+  public void testLastStatementResult() {
+    JdbcScriptRunner runner = new JdbcScriptRunner(executor, 1);
+
+    InterpreterResult result = runner.run(null, "set search_path = s; select 2",
+        new RecordingCallback());
+
+    assertEquals(Code.SUCCESS, result.code());
+    assertEquals(Type.TABLE, result.type());
+    assertEquals("v\nselect 2\n", result.message());
+  }
+
+  @Test
+  public void testFailedStatementResult() {
+    JdbcScriptRunner runner = new JdbcScriptRunner(executor, 1);
+
+    InterpreterResult result = runner.run(null, "select 1; fail; select 3",
+        new RecordingCallback());
+
+    assertEquals(Code.ERROR, result.code());
+    assertEquals(Type.TEXT, result.type());
+    assertEquals("fail\nfailed on purpose", result.message());
+    assertFalse(events.contains("start select 3"));
+  }
+
+  @Test
+  public void testSelectsRunConcurrently() {
+    final CountDownLatch allStarted = new CountDownLatch(3);
+    JdbcScriptRunner runner = new JdbcScriptRunner(executor, 3, true);
+
+    InterpreterResult result = runner.run(null, "select 1; select 2; select 3",
+        new SqlStatementCallback() {
+          @Override
+          public String doInStatement(String sql, Statement statement) throws SQLException {
+            allStarted.countDown();
+            try {
+              if (!allStarted.await(5, TimeUnit.SECONDS)) {
+                throw new SQLException("statements did not run concurrently");
+              }
+            } catch (InterruptedException e) {
+              throw new SQLException(e);
+            }
+            return "%table v\n" + sql + "\n";
+          }
+        });
+
+    assertEquals(Code.SUCCESS, result.code());
+    assertEquals(Type.HTML, result.type());
+    assertTrue(result.message().contains("<td>select 1</td>"));
+    assertTrue(result.message().contains("<td>select 2</td>"));
+    assertTrue(result.message().contains("<td>select 3</td>"));
+  }
+
+  @Test
+  public void testWriteWaitsForPrecedingStatements() {
+    JdbcScriptRunner runner = new JdbcScriptRunner(executor, 3);
+
+    InterpreterResult result = runner.run(null,
+        "select 1; select 2; insert into t values (1); select 3",
+        new RecordingCallback());
+
+    assertEquals(Code.SUCCESS, result.code());
+    int insertStart = events.indexOf("start insert into t values (1)");
+    int insertEnd = events.indexOf("end insert into t values (1)");
+    assertTrue(events.indexOf("end select 1") < insertStart);
+    assertTrue(events.indexOf("end select 2") < insertStart);
+    assertTrue(insertEnd < events.indexOf("start select 3"));
+  }
+
+  @Test
+  public void testStopAtFirstFailure() {
+    JdbcScriptRunner runner = new JdbcScriptRunner(executor, 1, true);
+
+    InterpreterResult result = runner.run(null, "select 1; fail; select 3",
+        new RecordingCallback());
+
+    assertEquals(Code.ERROR, result.code());
+    assertTrue(result.message().contains("failed on purpose"));
+    assertTrue(result.message().contains(JdbcScriptRunner.NOT_EXECUTED));
+    assertFalse(events.contains("start select 3"));
+  }
+
+  @Test
+  public void testSequentialStatementsShareSession() {
+    // no idle connections, every borrow gets a new connection
+    JdbcExecutor unpooled = new JdbcExecutor(new JdbcConnectionPool(provider, 4, 0, 1000, null));
+    JdbcScriptRunner runner = new JdbcScriptRunner(unpooled, 1);
+    SessionCallback callback = new SessionCallback();
+
+    try {
+      InterpreterResult result = runner.run(null,
+          "set search_path = s; create temp table t (v int); select * from t",
+          callback);
+
+      assertEquals(Code.SUCCESS, result.code());
+      assertEquals("search_path\ns\n", result.message());
+      assertEquals(1, callback.sessions.size());
+    } finally {
+      unpooled.close();
+    }
+  }
+
+  @Test
+  public void testConcurrentSelectsUseOtherConnections() {
+    JdbcScriptRunner runner = new JdbcScriptRunner(executor, 3);
+    SessionCallback callback = new SessionCallback();
+
+    InterpreterResult result = runner.run(null,
+        "create temp table t (v int); select * from t", callback);
+
+    assertEquals(Code.ERROR, result.code());
+    assertTrue(result.message().contains("relation t does not exist"));
+  }
+
+  @Test
+  public void testSelectsRunOnSessionWhenPoolExhausted() {
+    // the paragraph session holds the only connection
+    JdbcExecutor single = new JdbcExecutor(new JdbcConnectionPool(provider, 1, 1, 1000, null));
+    JdbcScriptRunner runner = new JdbcScriptRunner(single, 3);
+    SessionCallback callback = new SessionCallback();
+
+    try {
+      long start = System.currentTimeMillis();
+      InterpreterResult result = runner.run(null,
+          "create temp table t (v int); select * from t; select * from t", callback);
+
+      assertEquals(Code.SUCCESS, result.code());
+      assertEquals(1, callback.sessions.size());
+      assertTrue(System.currentTimeMillis() - start < 1000);
+    } finally {
+      single.close();
+    }
+  }
+
+  /**
+   * Keeps the search path and temporary tables per statement, the test connections
+   * return the same statement each time so that it stands for the connection session.
+   */
+  private class SessionCallback implements SqlStatementCallback {
+    private final Map<Statement, List<String>> sessions =
+        new ConcurrentHashMap<Statement, List<String>>();
+
+    @Override
+    public String doInStatement(String sql, Statement statement) throws SQLException {
+      List<String> session = sessions.get(statement);
+      if (session == null) {
+        session = new LinkedList<String>();
+        sessions.put(statement, session);
+      }
+      if (sql.startsWith("set search_path = ")) {
+        session.add(sql.substring("set search_path = ".length()));
+        return "";
+      } else if (sql.startsWith("create temp table ")) {
+        session.add(sql.split(" ")[3]);
+        return "";
+      } else if (sql.equals("select * from t")) {
+        if (!session.contains("t")) {
+          throw new SQLException("relation t does not exist");
+        }
+        return "%table search_path\n" + (session.contains("s") ? "s" : "public") + "\n";
+      }
+      throw new SQLException("unexpected " + sql);
+    }
+  }
+
+  private class RecordingCallback implements SqlStatementCallback {
+    @Override
+    public String doInStatement(String sql, Statement statement) throws SQLException {
+      events.add("start " + sql);
+      try {
+        if (sql.equals("fail")) {
+          throw new SQLException("failed on purpose");
+        }
+        Thread.sleep(100);
+      } catch (InterruptedException e) {
+        throw new SQLException(e);
+      } finally {
+        events.add("end " + sql);
+      }
+      return "%table v\n" + sql + "\n";
+    }
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.zeppelin.interpreter.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.zeppelin.interpreter.InterpreterContext;
+import org.apache.zeppelin.interpreter.InterpreterResult;
+import org.apache.zeppelin.interpreter.InterpreterResult.Code;
+import org.junit.Before;
+import org.junit.Test;
+
+public class QueryResultCacheTest {
+  private long now;
+  private AtomicInteger executions;
+  private QueryResultCache cache;
+
+  @Before
+  public void setUp() {
+    now = 0;
+    executions = new AtomicInteger();
+    cache = new TestCache(true, 1000, 2, 100);
+  }
+
+  @Test
+  public void testHitAndMiss() {
+    InterpreterResult first = cache.execute(null, "select * from t", query(Code.SUCCESS));
+    InterpreterResult second = cache.execute(null, "select *\n  from t;", query(Code.SUCCESS));
+
+    assertSame(first, second);
+    assertEquals(1, executions.get());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  public void testCountersRegistered() throws Exception {
+    QueryResultCache registered = new QueryResultCache(true, 1000, 2, 100);
+    ObjectName name = new ObjectName("org.apache.zeppelin:type=QueryResultCache,interpreter=test");
+    registered.register(name.toString());
+    registered.execute(null, "select 1", query(Code.SUCCESS));
+    registered.execute(null, "select 1", query(Code.SUCCESS));
+
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    assertEquals(1L, server.getAttribute(name, "HitCount"));
+    assertEquals(1L, server.getAttribute(name, "MissCount"));
+    assertEquals(1, server.getAttribute(name, "Size"));
+
+    registered.close();
+    assertFalse(server.isRegistered(name));
+  }
+
+  @Test
+  public void testQuotedTextIsNotNormalized() {
+    cache.execute(null, "select 'a  b'", query(Code.SUCCESS));
+    cache.execute(null, "select 'a b'", query(Code.SUCCESS));
+    assertEquals(2, executions.get());
+  }
+
+  @Test
+  public void testTtl() {
+    cache.execute(null, "select 1", query(Code.SUCCESS));
+    now = 1001;
+    cache.execute(null, "select 1", query(Code.SUCCESS));
+
+    assertEquals(2, executions.get());
+    assertEquals(1, cache.getEvictionCount());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedIsEvicted() {
+    cache.execute(null, "select 1", query(Code.SUCCESS));
+    cache.execute(null, "select 2", query(Code.SUCCESS));
+    cache.execute(null, "select 1", query(Code.SUCCESS));
+    cache.execute(null, "select 3", query(Code.SUCCESS));
+    assertEquals(2, cache.size());
+
+    cache.execute(null, "select 1", query(Code.SUCCESS));
+    assertEquals(3, executions.get());
+    cache.execute(null, "select 2", query(Code.SUCCESS));
+    assertEquals(4, executions.get());
+  }
+
+  @Test
+  public void testLargeResultIsNotCached() {
+    cache = new TestCache(true, 1000, 2, 3);
+    cache.execute(null, "select 1", query(Code.SUCCESS));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testErrorIsNotCached() {
+    cache.execute(null, "select 1", query(Code.ERROR));
+    cache.execute(null, "select 1", query(Code.ERROR));
+    assertEquals(2, executions.get());
+  }
+
+  @Test
+  public void testWriteInvalidates() {
+    cache.execute(null, "select 1", query(Code.SUCCESS));
+    cache.execute(null, "insert into t values (1)", query(Code.SUCCESS));
+    assertEquals(0, cache.size());
+    cache.execute(null, "insert into t values (1)", query(Code.SUCCESS));
+    assertEquals(3, executions.get());
+  }
+
+  @Test
+  public void testParagraphBypass() {
+    HashMap<String, Object> config = new HashMap<String, Object>();
+    config.put(QueryResultCache.BYPASS_CONFIG, true);
+    InterpreterContext context = new InterpreterContext("note", "paragraph", null, null,
+        config, null, null, null);
+
+    cache.execute(null, "select 1", query(Code.SUCCESS));
+    cache.execute(context, "select 1", query(Code.SUCCESS));
+    cache.execute(null, "select 1", query(Code.SUCCESS));
+
+    assertEquals(2, executions.get());
+    assertEquals(1, cache.getBypassCount());
+    assertEquals(1, cache.getHitCount());
+  }
+
+  @Test
+  public void testDisabled() {
+    cache = new TestCache(false, 1000, 2, 100);
+    cache.execute(null, "select 1", query(Code.SUCCESS));
+    cache.execute(null, "select 1", query(Code.SUCCESS));
+    assertEquals(2, executions.get());
+  }
+
+  private Callable<InterpreterResult> query(final Code code) {
+    return new Callable<InterpreterResult>() {
+      @Override
+      public InterpreterResult call() {
+        executions.incrementAndGet();
+        return new InterpreterResult(code, "%table a\n1\n");
+      }
+    };
+  }
+
+  private class TestCache extends QueryResultCache {
+    public TestCache(boolean enabled, long ttlMillis, int maxEntries, int maxResultSize) {
+      super(enabled, ttlMillis, maxEntries, maxResultSize);
+    }
+
+    @Override
+    protected long currentTimeMillis() {
+      return now;
+    }
+  }
+}
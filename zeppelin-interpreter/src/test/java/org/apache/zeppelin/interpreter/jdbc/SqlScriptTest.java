@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.zeppelin.interpreter.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class SqlScriptTest {
+
+  @Test
+  public void testSplit() {
+    List<String> statements = SqlScript.split(
+        "select 1;\n select ';' as a, \"x;y\" from t -- comment;\n;"
+        + "/* ; */ insert into t values ('it''s;');;  ");
+    assertEquals(3, statements.size());
+    assertEquals("select 1", statements.get(0));
+    assertEquals("select ';' as a, \"x;y\" from t -- comment;", statements.get(1));
+    assertEquals("/* ; */ insert into t values ('it''s;')", statements.get(2));
+  }
+
+  @Test
+  public void testSplitDollarQuoted() {
+    List<String> statements = SqlScript.split(
+        "create function f() returns int as $body$ begin return 1; end; $body$ language plpgsql;"
+        + "select $$a;b$$, $1");
+    assertEquals(2, statements.size());
+    assertTrue(statements.get(0).endsWith("language plpgsql"));
+    assertEquals("select $$a;b$$, $1", statements.get(1));
+  }
+
+  @Test
+  public void testSplitOnlyComments() {
+    assertEquals(0, SqlScript.split("-- nothing;\n /* here */").size());
+    assertEquals(1, SqlScript.split("select 1").size());
+  }
+
+  @Test
+  public void testIsReadOnly() {
+    assertTrue(SqlScript.isReadOnly("SELECT * FROM t"));
+    assertTrue(SqlScript.isReadOnly("-- report\n with a as (select 1) select * from a"));
+    assertTrue(SqlScript.isReadOnly("explain select 1"));
+    assertTrue(SqlScript.isReadOnly("select 'insert into' from t"));
+
+    assertFalse(SqlScript.isReadOnly("select * into t2 from t"));
+    assertFalse(SqlScript.isReadOnly("with d as (delete from t returning *) select * from d"));
+    assertFalse(SqlScript.isReadOnly("insert into t values (1)"));
+    assertFalse(SqlScript.isReadOnly("upsert into t values (1)"));
+    assertFalse(SqlScript.isReadOnly("create table t (a int)"));
+    assertFalse(SqlScript.isReadOnly("selection"));
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.interpreter.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.pool2.PooledObject;
+import org.apache.zeppelin.interpreter.remote.RemoteInterpreterServer.ServerType;
+import org.apache.zeppelin.interpreter.thrift.RemoteInterpreterService.Client;
+import org.junit.After;
+import org.junit.Test;
+
+public class ClientFactoryTest {
+  private RemoteInterpreterServer server;
+
+  @After
+  public void tearDown() throws Exception {
+    if (server != null) {
+      server.shutdown();
+    }
+  }
+
+  @Test
+  public void testThreadPoolServer() throws Exception {
+    testCreateValidateDestroy(ServerType.THREADPOOL);
+  }
+
+  @Test
+  public void testHsHaServer() throws Exception {
+    testCreateValidateDestroy(ServerType.HSHA);
+  }
+
+  @Test
+  public void testSelectorServer() throws Exception {
+    testCreateValidateDestroy(ServerType.SELECTOR);
+  }
+
+  private void testCreateValidateDestroy(ServerType serverType) throws Exception {
+    startServer(serverType);
+    ClientFactory factory = new ClientFactory("localhost", server.getPort(),
+        serverType.isFramed(), 10 * 1000);
+
+    PooledObject<Client> p = factory.makeObject();
+    assertEquals("Unknown", p.getObject().getStatus("unknownJob"));
+    assertTrue(factory.validateObject(p));
+    assertEquals(1, factory.clientSocketMap.size());
+
+    factory.destroyObject(p);
+    assertFalse(factory.validateObject(p));
+    assertEquals(0, factory.clientSocketMap.size());
+  }
+
+  private void startServer(ServerType serverType) throws Exception {
+    server = new RemoteInterpreterServer(
+        RemoteInterpreterUtils.findRandomAvailablePortOnAllLocalInterfaces(), -1, serverType,
+        RemoteInterpreterServer.DEFAULT_WORKER_THREADS);
+    server.start();
+    long startTime = System.currentTimeMillis();
+    while (!server.isRunning() && System.currentTimeMillis() - startTime < 10 * 1000) {
+      Thread.sleep(100);
+    }
+    assertTrue(server.isRunning());
+  }
+}
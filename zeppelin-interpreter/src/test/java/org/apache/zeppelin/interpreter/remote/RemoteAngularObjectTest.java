@@ -20,6 +20,7 @@ package org.apache.zeppelin.interpreter.remote;
 import static org.junit.Assert.assertEquals;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Properties;
@@ -173,6 +174,51 @@ public class RemoteAngularObjectTest implements AngularObjectRegistryListener {
     assertEquals("1", result[0]); // size of registry
   }
 
+  @Test
+  public void testAngularObjectAddKeepsValueType() throws InterruptedException {
+    localRegistry.addAndNotifyRemoteProcess("list", Arrays.asList(1, 2), "note");
+    localRegistry.addAndNotifyRemoteProcess("num", 3, "note");
+    localRegistry.addAndNotifyRemoteProcess("bool", true, "note");
+    localRegistry.addAndNotifyRemoteProcess("str", "v1", "note");
+
+    assertEquals("java.util.ArrayList [1.0, 2.0]", intp.interpret("type list", context).message());
+    assertEquals("java.lang.Integer 3", intp.interpret("type num", context).message());
+    assertEquals("java.lang.Boolean true", intp.interpret("type bool", context).message());
+    assertEquals("java.lang.String v1", intp.interpret("type str", context).message());
+  }
+
+  @Test
+  public void testAngularObjectsPushedToNewProcess() throws InterruptedException {
+    // objects kept in the registry are sent to a new process when it starts,
+    // e.g. after the idle process was shut down
+    InterpreterGroup newGroup = new InterpreterGroup("newIntpId");
+    RemoteAngularObjectRegistry newRegistry =
+        new RemoteAngularObjectRegistry("newIntpId", this, newGroup);
+    newGroup.setAngularObjectRegistry(newRegistry);
+    RemoteInterpreter newIntp = new RemoteInterpreter(
+        new Properties(),
+        MockInterpreterAngular.class.getName(),
+        new File("../bin/interpreter.sh").getAbsolutePath(),
+        "fake",
+        env,
+        10 * 1000
+        );
+    newGroup.add(newIntp);
+    newIntp.setInterpreterGroup(newGroup);
+
+    newRegistry.add("list", Arrays.asList("a", "b"), "note", false);
+    newRegistry.add("num", 3L, "note", false);
+    newIntp.open();
+    try {
+      assertEquals("java.util.ArrayList [a, b]",
+          newIntp.interpret("type list", context).message());
+      assertEquals("java.lang.Long 3", newIntp.interpret("type num", context).message());
+    } finally {
+      newIntp.close();
+      newGroup.destroy();
+    }
+  }
+
   @Override
   public void onAdd(String interpreterGroupId, AngularObject object) {
     onAdd.incrementAndGet();
@@ -19,10 +19,13 @@ package org.apache.zeppelin.interpreter.remote;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.*;
 
 import java.util.HashMap;
 
+import org.apache.zeppelin.interpreter.InterpreterException;
 import org.apache.zeppelin.interpreter.InterpreterGroup;
 import org.apache.zeppelin.interpreter.thrift.RemoteInterpreterService.Client;
 import org.junit.Test;
@@ -66,4 +69,84 @@ public class RemoteInterpreterProcessTest {
 
     rip.dereference();
   }
+
+  @Test
+  public void testIdleTime() throws InterruptedException {
+    InterpreterGroup intpGroup = new InterpreterGroup();
+    RemoteInterpreterProcess rip = new RemoteInterpreterProcess(
+        "../bin/interpreter.sh", "nonexists", new HashMap<String, String>(),
+        mock(RemoteInterpreterEventPoller.class), 10 * 1000);
+    assertEquals(-1, rip.getIdleTime());
+
+    rip.reference(intpGroup);
+    Thread.sleep(200);
+    assertTrue(rip.getIdleTime() >= 200);
+
+    rip.touch();
+    assertTrue(rip.getIdleTime() < 200);
+
+    rip.dereference();
+    assertEquals(-1, rip.getIdleTime());
+  }
+
+  @Test
+  public void testAdmission() {
+    InterpreterGroup intpGroup = new InterpreterGroup();
+    RemoteInterpreterProcess rip = new RemoteInterpreterProcess(
+        "../bin/interpreter.sh", "nonexists", new HashMap<String, String>(),
+        mock(RemoteInterpreterEventPoller.class), 10 * 1000);
+    RemoteInterpreterProcessAdmission admission = mock(RemoteInterpreterProcessAdmission.class);
+    rip.setAdmission(admission);
+
+    rip.reference(intpGroup);
+    verify(admission).admit(rip);
+    verify(admission).started(rip);
+    assertTrue(rip.getPid() > 0);
+
+    rip.dereference();
+    verify(admission, atLeastOnce()).terminated(rip);
+    assertEquals(-1, rip.getPid());
+  }
+
+  @Test
+  public void testRejectedByAdmission() {
+    InterpreterGroup intpGroup = new InterpreterGroup();
+    RemoteInterpreterProcess rip = new RemoteInterpreterProcess(
+        "../bin/interpreter.sh", "nonexists", new HashMap<String, String>(),
+        mock(RemoteInterpreterEventPoller.class), 10 * 1000);
+    RemoteInterpreterProcessAdmission admission = mock(RemoteInterpreterProcessAdmission.class);
+    doThrow(new InterpreterException("over budget")).when(admission).admit(rip);
+    rip.setAdmission(admission);
+
+    try {
+      rip.reference(intpGroup);
+      fail("process start should be rejected");
+    } catch (InterpreterException e) {
+      assertEquals("over budget", e.getMessage());
+    }
+    assertFalse(rip.isRunning());
+    assertEquals(0, rip.referenceCount());
+  }
+
+  @Test
+  public void testHsHaServer() throws Exception {
+    InterpreterGroup intpGroup = new InterpreterGroup();
+    RemoteInterpreterProcess rip = new RemoteInterpreterProcess(
+        "../bin/interpreter.sh", "nonexists", new HashMap<String, String>(),
+        mock(RemoteInterpreterEventPoller.class), 10 * 1000);
+    rip.setServerType(RemoteInterpreterServer.ServerType.HSHA, 16);
+    rip.reference(intpGroup);
+    assertTrue(rip.isRunning());
+
+    Client client1 = rip.getClient();
+    Client client2 = rip.getClient();
+    assertEquals("Unknown", client1.getStatus("unknownJob"));
+    assertEquals("Unknown", client2.getStatus("unknownJob"));
+    rip.releaseClient(client1);
+    rip.releaseClient(client2);
+    assertEquals(2, rip.getNumIdleClient());
+
+    assertEquals(0, rip.dereference());
+    assertFalse(rip.isRunning());
+  }
 }
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.interpreter.remote;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.commons.pool2.PooledObject;
+import org.apache.zeppelin.interpreter.remote.RemoteInterpreterServer.ServerType;
+import org.apache.zeppelin.interpreter.thrift.RemoteInterpreterService.Client;
+
+/**
+ * Compares RPC latency and thread count of RemoteInterpreterServer types
+ * under many concurrent notes. Each note keeps its own connection, like a running paragraph,
+ * and calls the server periodically, like the status and progress pollers.
+ *
+ * Not run by the build. Run with
+ *   java -cp [test classpath] org.apache.zeppelin.interpreter.remote.RemoteInterpreterServerBenchmark
+ *     [notes=100] [calls per note=200] [msec between calls=10]
+ */
+public class RemoteInterpreterServerBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    int notes = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+    int calls = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+    int interval = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+    System.out.println(notes + " notes, " + calls + " calls each, " + interval + "ms apart");
+    System.out.println("server      p50(us)   p99(us)   max(us)   threads");
+    for (ServerType serverType : ServerType.values()) {
+      run(serverType, notes, calls, interval);
+    }
+  }
+
+  private static void run(ServerType serverType, int notes, final int calls,
+      final int interval) throws Exception {
+    RemoteInterpreterServer server = new RemoteInterpreterServer(
+        RemoteInterpreterUtils.findRandomAvailablePortOnAllLocalInterfaces(), -1, serverType,
+        RemoteInterpreterServer.DEFAULT_WORKER_THREADS);
+    server.start();
+    while (!server.isRunning()) {
+      Thread.sleep(10);
+    }
+
+    final ClientFactory factory = new ClientFactory("localhost", server.getPort(),
+        serverType.isFramed(), 10 * 1000);
+    final long[][] latencies = new long[notes][];
+    final CountDownLatch connected = new CountDownLatch(notes);
+    final CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new LinkedList<Thread>();
+    ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    int baseThreads = threadMXBean.getThreadCount();
+
+    for (int i = 0; i < notes; i++) {
+      final int note = i;
+      Thread t = new Thread() {
+        public void run() {
+          try {
+            PooledObject<Client> client = factory.makeObject();
+            connected.countDown();
+            start.await();
+            latencies[note] = callRepeatedly(client.getObject(), calls, interval);
+            factory.destroyObject(client);
+          } catch (Exception e) {
+            throw new RuntimeException(e);
+          }
+        }
+      };
+      t.start();
+      threads.add(t);
+    }
+
+    connected.await();
+    start.countDown();
+    Thread.sleep(interval * calls / 2);
+    // client threads of this benchmark are the same for all server types
+    int threadCount = threadMXBean.getThreadCount() - baseThreads - notes;
+
+    for (Thread t : threads) {
+      t.join();
+    }
+    server.shutdown();
+
+    long[] all = new long[notes * calls];
+    for (int i = 0; i < notes; i++) {
+      System.arraycopy(latencies[i], 0, all, i * calls, calls);
+    }
+    Arrays.sort(all);
+    System.out.println(String.format("%-10s %8d  %8d  %8d  %8d", serverType.name().toLowerCase(),
+        all[all.length / 2] / 1000, all[all.length * 99 / 100] / 1000,
+        all[all.length - 1] / 1000, threadCount));
+  }
+
+  private static long[] callRepeatedly(Client client, int calls, int interval)
+      throws Exception {
+    long[] latencies = new long[calls];
+    for (int i = 0; i < calls; i++) {
+      long start = System.nanoTime();
+      client.getStatus("job");
+      latencies[i] = System.nanoTime() - start;
+      Thread.sleep(interval);
+    }
+    return latencies;
+  }
+}
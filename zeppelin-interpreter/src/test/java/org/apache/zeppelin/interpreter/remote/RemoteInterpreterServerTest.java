@@ -18,10 +18,31 @@
 package org.apache.zeppelin.interpreter.remote;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.thrift.TException;
+import org.apache.thrift.protocol.TBinaryProtocol;
+import org.apache.thrift.transport.TFramedTransport;
+import org.apache.thrift.transport.TSocket;
+import org.apache.thrift.transport.TTransport;
+import org.apache.zeppelin.interpreter.remote.RemoteInterpreterServer.ServerType;
+import org.apache.zeppelin.interpreter.remote.mock.MockInterpreterA;
+import org.apache.zeppelin.interpreter.thrift.RemoteInterpreterContext;
+import org.apache.zeppelin.interpreter.thrift.RemoteInterpreterService.Client;
 import org.apache.zeppelin.interpreter.remote.RemoteInterpreterServer;
 import org.apache.zeppelin.interpreter.remote.RemoteInterpreterUtils;
 import org.junit.After;
@@ -72,5 +93,89 @@ public class RemoteInterpreterServerTest {
     assertEquals(false, running);
   }
 
+  @Test
+  public void testReadinessCallback() throws InterruptedException, IOException, TException {
+    ServerSocket callback = new ServerSocket(0, 1, InetAddress.getByName("localhost"));
+    callback.setSoTimeout(10 * 1000);
+    RemoteInterpreterServer server = new RemoteInterpreterServer(
+        RemoteInterpreterUtils.findRandomAvailablePortOnAllLocalInterfaces(),
+        callback.getLocalPort());
+    server.start();
+
+    Socket socket = callback.accept();
+    BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+    String[] readiness = reader.readLine().split(" ");
+    assertEquals(Integer.toString(server.getPort()), readiness[0]);
+    assertTrue(Long.parseLong(readiness[1]) > 0);
+    socket.close();
+    callback.close();
+
+    // the server accepts calls once it has notified readiness
+    assertEquals(true, RemoteInterpreterUtils.checkIfRemoteEndpointAccessible("localhost", server.getPort()));
+    server.shutdown();
+  }
 
+  @Test
+  public void testShortCallsServedWhileInterpretRuns() throws Exception {
+    // 2 workers, one of them kept for short calls
+    RemoteInterpreterServer server = new RemoteInterpreterServer(
+        RemoteInterpreterUtils.findRandomAvailablePortOnAllLocalInterfaces(), -1,
+        ServerType.SELECTOR, 2);
+    server.start();
+    long startTime = System.currentTimeMillis();
+    while (!server.isRunning() && System.currentTimeMillis() - startTime < 10 * 1000) {
+      Thread.sleep(100);
+    }
+
+    final TTransport longTransport = connect(server.getPort());
+    TTransport shortTransport = connect(server.getPort());
+    final Client longCalls = new Client(new TBinaryProtocol(longTransport));
+    Client shortCalls = new Client(new TBinaryProtocol(shortTransport));
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      shortCalls.createInterpreter(MockInterpreterA.class.getName(),
+          new HashMap<String, String>());
+      Future<String> running = executor.submit(new Callable<String>() {
+        @Override
+        public String call() throws Exception {
+          return longCalls.interpret(MockInterpreterA.class.getName(), "2000", context())
+              .getMsg();
+        }
+      });
+      Thread.sleep(500);
+
+      // no worker left for another interpret, it fails instead of waiting
+      try {
+        shortCalls.interpret(MockInterpreterA.class.getName(), "10", context());
+        fail("interpret should be rejected");
+      } catch (TException e) {
+        // expected
+      }
+      // while cancel and progress are still served
+      long start = System.currentTimeMillis();
+      shortCalls.getProgress(MockInterpreterA.class.getName(), context());
+      shortCalls.cancel(MockInterpreterA.class.getName(), context());
+      assertTrue(System.currentTimeMillis() - start < 1000);
+      assertTrue(!running.isDone());
+
+      assertEquals("2000", running.get(10, TimeUnit.SECONDS));
+      assertEquals("10",
+          shortCalls.interpret(MockInterpreterA.class.getName(), "10", context()).getMsg());
+    } finally {
+      executor.shutdownNow();
+      longTransport.close();
+      shortTransport.close();
+      server.shutdown();
+    }
+  }
+
+  private static TTransport connect(int port) throws TException {
+    TTransport transport = new TFramedTransport(new TSocket("localhost", port));
+    transport.open();
+    return transport;
+  }
+
+  private static RemoteInterpreterContext context() {
+    return new RemoteInterpreterContext("note", "paragraph", "", "", "{}", "{}", "[]");
+  }
 }
@@ -20,6 +20,7 @@ package org.apache.zeppelin.interpreter.remote;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
@@ -36,11 +37,14 @@ import org.apache.zeppelin.display.GUI;
 import org.apache.zeppelin.interpreter.InterpreterContext;
 import org.apache.zeppelin.interpreter.InterpreterContextRunner;
 import org.apache.zeppelin.interpreter.InterpreterGroup;
+import org.apache.zeppelin.interpreter.InterpreterOutput;
+import org.apache.zeppelin.interpreter.InterpreterOutputListener;
 import org.apache.zeppelin.interpreter.InterpreterResult;
 import org.apache.zeppelin.interpreter.InterpreterResult.Code;
 import org.apache.zeppelin.interpreter.remote.RemoteInterpreterServer.InterpretJob;
 import org.apache.zeppelin.interpreter.remote.mock.MockInterpreterA;
 import org.apache.zeppelin.interpreter.remote.mock.MockInterpreterB;
+import org.apache.zeppelin.interpreter.remote.mock.MockInterpreterOutput;
 import org.apache.zeppelin.scheduler.Job;
 import org.apache.zeppelin.scheduler.Job.Status;
 import org.apache.zeppelin.scheduler.Scheduler;
@@ -579,4 +583,55 @@ public class RemoteInterpreterTest {
     processA.dereference();     // intpA.close();
 
   }
+
+  @Test
+  public void testOutputAppend() {
+    Properties p = new Properties();
+
+    RemoteInterpreter intp = new RemoteInterpreter(
+        p,
+        MockInterpreterOutput.class.getName(),
+        new File("../bin/interpreter.sh").getAbsolutePath(),
+        "fake",
+        env,
+        10 * 1000
+        );
+
+    intpGroup.add(intp);
+    intp.setInterpreterGroup(intpGroup);
+    intp.open();
+
+    StringBuilder statement = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      statement.append("line").append(i).append("\n");
+    }
+    final StringBuilder appended = new StringBuilder();
+    InterpreterResult ret = intp.interpret(statement.toString(),
+        new InterpreterContext(
+            "note",
+            "id",
+            "title",
+            "text",
+            new HashMap<String, Object>(),
+            new GUI(),
+            new AngularObjectRegistry(intpGroup.getId(), null),
+            new LinkedList<InterpreterContextRunner>(),
+            new InterpreterOutput(new InterpreterOutputListener() {
+              @Override
+              public void onAppend(InterpreterOutput out, String output) {
+                synchronized (appended) {
+                  appended.append(output);
+                }
+              }
+            })));
+
+    assertEquals(Code.SUCCESS, ret.code());
+    // every line is delivered in order before interpret returns
+    synchronized (appended) {
+      assertEquals(statement.toString(), appended.toString());
+    }
+    assertNull(intp.getInterpreterProcess().getInterpreterOutput("note", "id"));
+
+    intp.close();
+  }
 }
@@ -85,6 +85,9 @@ public class MockInterpreterAngular extends Interpreter {
       registry.get(name, context.getNoteId()).set(value);
     } else if (cmd.equals("remove")) {
       registry.remove(name, context.getNoteId());
+    } else if (cmd.equals("type")) {
+      Object o = registry.get(name, context.getNoteId()).get();
+      return new InterpreterResult(Code.SUCCESS, o.getClass().getName() + " " + o);
     }
 
     try {
@@ -154,6 +154,30 @@ public class InterpreterRestApi {
     return new JsonResponse(Status.OK, "", setting).build();
   }
 
+  /**
+   * Get state of the interpreter process of a setting: STOPPED, IDLE or ACTIVE,
+   * with msec since its last activity
+   */
+  @GET
+  @Path("setting/state/{settingId}")
+  public Response getSettingState(@PathParam("settingId") String settingId) {
+    InterpreterProcessState state = interpreterFactory.getProcessState(settingId);
+    if (state == null) {
+      return new JsonResponse(Status.NOT_FOUND, "", settingId).build();
+    }
+    return new JsonResponse(Status.OK, "", state).build();
+  }
+
+  /**
+   * Get memory used by interpreter processes against
+   * zeppelin.interpreter.memory.budget, in bytes
+   */
+  @GET
+  @Path("process/usage")
+  public Response getProcessUsage() {
+    return new JsonResponse(Status.OK, "", interpreterFactory.getProcessUsage()).build();
+  }
+
   /**
    * List all available interpreters by group
    */
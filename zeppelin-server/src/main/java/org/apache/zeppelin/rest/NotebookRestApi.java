@@ -18,6 +18,7 @@
 package org.apache.zeppelin.rest;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -26,9 +27,12 @@ import javax.ws.rs.*;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 
+import org.apache.zeppelin.interpreter.InterpreterResult;
 import org.apache.zeppelin.interpreter.InterpreterSetting;
 import org.apache.zeppelin.notebook.Note;
 import org.apache.zeppelin.notebook.Notebook;
+import org.apache.zeppelin.notebook.Paragraph;
+import org.apache.zeppelin.notebook.ParagraphResultHistory;
 import org.apache.zeppelin.rest.message.InterpreterSettingListForNoteBind;
 import org.apache.zeppelin.rest.message.NewInterpreterSettingRequest;
 import org.apache.zeppelin.rest.message.NewNotebookRequest;
@@ -185,4 +189,60 @@ public class NotebookRestApi {
     notebookServer.broadcastNoteList();
     return new JsonResponse(Status.CREATED, "", newNote.getId()).build();
   }
+
+  /**
+   * List kept result versions of a paragraph REST API
+   * @param
+   * @return JSON with version, status, dates, code and type of each version, oldest first
+   */
+  @GET
+  @Path("{notebookId}/paragraph/{paragraphId}/result")
+  public Response getParagraphResultVersions(@PathParam("notebookId") String notebookId,
+      @PathParam("paragraphId") String paragraphId) {
+    Paragraph p = getParagraph(notebookId, paragraphId);
+    if (p == null) {
+      return new JsonResponse(Status.NOT_FOUND, "paragraph not found.").build();
+    }
+
+    List<Map<String, Object>> versions = new LinkedList<Map<String, Object>>();
+    for (ParagraphResultHistory.Version v : p.getResultHistory().getVersions()) {
+      Map<String, Object> version = new HashMap<String, Object>();
+      version.put("version", v.getVersion());
+      version.put("status", v.getStatus());
+      version.put("dateStarted", v.getDateStarted());
+      version.put("dateFinished", v.getDateFinished());
+      version.put("code", v.getCode());
+      version.put("type", v.getType());
+      versions.add(version);
+    }
+    return new JsonResponse(Status.OK, "", versions).build();
+  }
+
+  /**
+   * Get a kept result version of a paragraph REST API
+   * @param
+   * @return JSON with the result
+   */
+  @GET
+  @Path("{notebookId}/paragraph/{paragraphId}/result/{version}")
+  public Response getParagraphResult(@PathParam("notebookId") String notebookId,
+      @PathParam("paragraphId") String paragraphId, @PathParam("version") int version) {
+    Paragraph p = getParagraph(notebookId, paragraphId);
+    if (p == null) {
+      return new JsonResponse(Status.NOT_FOUND, "paragraph not found.").build();
+    }
+    InterpreterResult result = p.getResultHistory().getResult(version);
+    if (result == null) {
+      return new JsonResponse(Status.NOT_FOUND, "result version not found.").build();
+    }
+    return new JsonResponse(Status.OK, "", result).build();
+  }
+
+  private Paragraph getParagraph(String notebookId, String paragraphId) {
+    Note note = notebook.getNote(notebookId);
+    if (note == null) {
+      return null;
+    }
+    return note.getParagraph(paragraphId);
+  }
 }
@@ -49,6 +49,11 @@ public class Message {
               // @param id paragraph id
               // @param progress percentage progress
 
+    PARAGRAPH_APPEND_OUTPUT, // [s-c] append output of a running paragraph
+                             // @param noteId note id
+                             // @param paragraphId paragraph id
+                             // @param data output to append
+
     NEW_NOTE, // [c-s] create new notebook
     DEL_NOTE, // [c-s] delete notebook
               // @param id note id
@@ -98,9 +103,24 @@ public class Message {
     PING,
 
     ANGULAR_OBJECT_UPDATE,  // [s-c] add/update angular object
+                            // @param angularObject name, noteId and object (full value)
+                            // @param interpreterGroupId interpreter group id
+                            // @param noteId note id
+                            // @param version version of the value
+                            // @param baseVersion version patch applies to
+                            // @param patch difference from the value of baseVersion
+                            //        sent instead of the full value when the client has
+                            //        the value of baseVersion
     ANGULAR_OBJECT_REMOVE,  // [s-c] add angular object del
 
-    ANGULAR_OBJECT_UPDATED  // [c-s] angular object value updated
+    ANGULAR_OBJECT_UPDATED,  // [c-s] angular object value updated
+
+    ANGULAR_OBJECT_REQUEST  // [c-s] request full value of angular object,
+                            // when a patch can't be applied
+                            // @param noteId note id
+                            // @param interpreterGroupId interpreter group id
+                            // @param name name of the object
+                            // @param objectNoteId noteId of the object. null when global
   }
 
   public OP op;
@@ -20,6 +20,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.UnknownHostException;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -28,10 +29,16 @@ import javax.servlet.http.HttpServletRequest;
 import org.apache.zeppelin.conf.ZeppelinConfiguration;
 import org.apache.zeppelin.conf.ZeppelinConfiguration.ConfVars;
 import org.apache.zeppelin.display.AngularObject;
+import org.apache.zeppelin.display.AngularObjectDeltaEncoder;
 import org.apache.zeppelin.display.AngularObjectRegistry;
 import org.apache.zeppelin.display.AngularObjectRegistryListener;
+import org.apache.zeppelin.display.AngularObjectUpdateCoalescer;
+import org.apache.zeppelin.interpreter.InterpreterGroup;
+import org.apache.zeppelin.interpreter.InterpreterGroupListener;
+import org.apache.zeppelin.interpreter.InterpreterOutput;
 import org.apache.zeppelin.interpreter.InterpreterResult;
 import org.apache.zeppelin.interpreter.InterpreterSetting;
+import org.apache.zeppelin.notebook.CompletionDebouncer;
 import org.apache.zeppelin.notebook.JobListenerFactory;
 import org.apache.zeppelin.notebook.Note;
 import org.apache.zeppelin.notebook.Notebook;
@@ -48,19 +55,39 @@ import org.quartz.SchedulerException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.google.common.base.Strings;
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 /**
  * Zeppelin websocket service.
  *
  * @author anthonycorbacho
  */
 public class NotebookServer extends WebSocketServlet implements
-        NotebookSocketListener, JobListenerFactory, AngularObjectRegistryListener {
+        NotebookSocketListener, JobListenerFactory, AngularObjectRegistryListener,
+        InterpreterGroupListener {
   private static final Logger LOG = LoggerFactory
           .getLogger(NotebookServer.class);
-  Gson gson = new Gson();
+  // result history of paragraphs is served by the rest api, not sent with every note update
+  Gson gson = new GsonBuilder().setExclusionStrategies(new ExclusionStrategy() {
+    @Override
+    public boolean shouldSkipField(FieldAttributes f) {
+      return f.getDeclaringClass() == Paragraph.class && f.getName().equals("resultHistory");
+    }
+
+    @Override
+    public boolean shouldSkipClass(Class<?> clazz) {
+      return false;
+    }
+  }).create();
   final Map<String, List<NotebookSocket>> noteSocketMap = new HashMap<>();
   final List<NotebookSocket> connectedSockets = new LinkedList<>();
+  final Map<String, AngularObjectUpdateCoalescer> angularObjectUpdates = new HashMap<>();
+  // each update of an angular object is encoded once, for all sockets
+  final AngularObjectDeltaEncoder angularObjectEncoder = new AngularObjectDeltaEncoder();
+  // version of each angular object last sent to a socket
+  final Map<NotebookSocket, Map<String, Long>> angularObjectVersions = new HashMap<>();
 
   private Notebook notebook() {
     return ZeppelinServer.notebook;
@@ -149,6 +176,9 @@ public class NotebookServer extends WebSocketServlet implements
           case ANGULAR_OBJECT_UPDATED:
             angularObjectUpdated(conn, notebook, messagereceived);
             break;
+          case ANGULAR_OBJECT_REQUEST:
+            angularObjectRequested(conn, notebook, messagereceived);
+            break;
           default:
             broadcastNoteList();
             break;
@@ -166,6 +196,9 @@ public class NotebookServer extends WebSocketServlet implements
     synchronized (connectedSockets) {
       connectedSockets.remove(conn);
     }
+    synchronized (angularObjectVersions) {
+      angularObjectVersions.remove(conn);
+    }
   }
 
   private Message deserializeMessage(String msg) {
@@ -457,21 +490,30 @@ public class NotebookServer extends WebSocketServlet implements
     }
   }
 
-  private void completion(NotebookSocket conn, Notebook notebook,
+  private void completion(final NotebookSocket conn, Notebook notebook,
       Message fromMessage) throws IOException {
     String paragraphId = (String) fromMessage.get("id");
     String buffer = (String) fromMessage.get("buf");
     int cursor = (int) Double.parseDouble(fromMessage.get("cursor").toString());
-    Message resp = new Message(OP.COMPLETION_LIST).put("id", paragraphId);
+    final Message resp = new Message(OP.COMPLETION_LIST).put("id", paragraphId);
     if (paragraphId == null) {
       conn.send(serializeMessage(resp));
       return;
     }
 
     final Note note = notebook.getNote(getOpenNoteId(conn));
-    List<String> candidates = note.completion(paragraphId, buffer, cursor);
-    resp.put("completions", candidates);
-    conn.send(serializeMessage(resp));
+    notebook.getCompletionDebouncer().completion(note, paragraphId, buffer, cursor,
+        new CompletionDebouncer.CompletionListener() {
+          @Override
+          public void onCompletion(List<String> candidates) {
+            resp.put("completions", candidates);
+            try {
+              conn.send(serializeMessage(resp));
+            } catch (IOException e) {
+              LOG.error("Can't send completion list", e);
+            }
+          }
+        });
   }
 
   /**
@@ -632,7 +674,8 @@ public class NotebookServer extends WebSocketServlet implements
    * Need description here.
    *
    */
-  public static class ParagraphJobListener implements JobListener {
+  public static class ParagraphJobListener
+      implements org.apache.zeppelin.notebook.ParagraphJobListener {
     private NotebookServer notebookServer;
     private Note note;
     public ParagraphJobListener(NotebookServer notebookServer, Note note) {
@@ -670,6 +713,19 @@ public class NotebookServer extends WebSocketServlet implements
       }
       notebookServer.broadcastNote(note);
     }
+
+    /**
+     * Partial output of a running paragraph.
+     */
+    @Override
+    public void onOutputAppend(Paragraph paragraph, InterpreterOutput out, String output) {
+      notebookServer.broadcast(
+          note.id(),
+          new Message(OP.PARAGRAPH_APPEND_OUTPUT)
+              .put("noteId", note.id())
+              .put("paragraphId", paragraph.getId())
+              .put("data", output));
+    }
   }
 
   @Override
@@ -680,6 +736,12 @@ public class NotebookServer extends WebSocketServlet implements
   }
 
   private void sendAllAngularObjects(Note note, NotebookSocket conn) throws IOException {
+    // the page of the note starts without values
+    Map<String, Long> versions = getAngularObjectVersions(conn);
+    synchronized (versions) {
+      versions.clear();
+    }
+
     List<InterpreterSetting> settings = note.getNoteReplLoader()
         .getInterpreterSettings();
     if (settings == null || settings.size() == 0) {
@@ -691,15 +753,166 @@ public class NotebookServer extends WebSocketServlet implements
           .getAngularObjectRegistry();
       List<AngularObject> objects = registry.getAllWithGlobal(note.id());
       for (AngularObject object : objects) {
-        conn.send(serializeMessage(new Message(OP.ANGULAR_OBJECT_UPDATE)
-            .put("angularObject", object)
-            .put("interpreterGroupId",
-                intpSetting.getInterpreterGroup().getId())
-            .put("noteId", note.id())));
+        sendAngularObject(conn, intpSetting.getInterpreterGroup().getId(), note.id(), object);
+      }
+    }
+  }
+
+  /**
+   * Client asks for the full value of an angular object,
+   * when it can't apply a patch to the value it has.
+   */
+  private void angularObjectRequested(NotebookSocket conn, Notebook notebook,
+      Message fromMessage) throws IOException {
+    String noteId = (String) fromMessage.get("noteId");
+    String interpreterGroupId = (String) fromMessage.get("interpreterGroupId");
+    String name = (String) fromMessage.get("name");
+    String objectNoteId = (String) fromMessage.get("objectNoteId");
+
+    Note note = notebook.getNote(noteId);
+    if (note == null) {
+      return;
+    }
+    for (InterpreterSetting setting : note.getNoteReplLoader().getInterpreterSettings()) {
+      InterpreterGroup interpreterGroup = setting.getInterpreterGroup();
+      if (interpreterGroup == null || !interpreterGroup.getId().equals(interpreterGroupId)) {
+        continue;
+      }
+      AngularObject object = interpreterGroup.getAngularObjectRegistry()
+          .get(name, objectNoteId);
+      if (object != null) {
+        sendAngularObject(conn, interpreterGroupId, noteId, object);
+      }
+      return;
+    }
+  }
+
+  private Map<String, Long> getAngularObjectVersions(NotebookSocket conn) {
+    synchronized (angularObjectVersions) {
+      Map<String, Long> versions = angularObjectVersions.get(conn);
+      if (versions == null) {
+        versions = new HashMap<>();
+        angularObjectVersions.put(conn, versions);
+      }
+      return versions;
+    }
+  }
+
+  /**
+   * Send the full value of the object to the socket.
+   */
+  private void sendAngularObject(NotebookSocket conn, String interpreterGroupId,
+      String noteId, AngularObject object) throws IOException {
+    String key = AngularObjectDeltaEncoder.key(
+        interpreterGroupId, object.getNoteId(), object.getName());
+    Object value = object.get();
+    long version = angularObjectEncoder.versionOf(key, value);
+    if (version == 0) {
+      // changed since the last broadcast. sockets having the previous version
+      // request the full value when they can't apply the next patch
+      version = ((Number) angularObjectEncoder.encode(key, value).get("version")).longValue();
+    }
+
+    AngularObjectMessages messages = new AngularObjectMessages(
+        interpreterGroupId, noteId, object, value, version);
+    Map<String, Long> versions = getAngularObjectVersions(conn);
+    synchronized (versions) {
+      versions.remove(key);
+      sendAngularObject(conn, versions, key, messages);
+    }
+  }
+
+  /**
+   * Send the patch when the socket has the value it applies to, the full value otherwise.
+   * Messages of a version older than the one the socket has are dropped.
+   */
+  private void sendAngularObject(NotebookSocket conn, Map<String, Long> versions, String key,
+      AngularObjectMessages messages) throws IOException {
+    synchronized (versions) {
+      Long sent = versions.get(key);
+      if (sent != null && sent >= messages.version) {
+        return;
+      }
+      try {
+        if (messages.patch != null && messages.baseVersion.equals(sent)) {
+          conn.send(messages.patch());
+        } else {
+          conn.send(messages.full());
+        }
+        versions.put(key, messages.version);
+      } catch (IOException e) {
+        // the socket may not have the value. send it in full next time
+        versions.remove(key);
+        throw e;
       }
     }
   }
 
+  /**
+   * ANGULAR_OBJECT_UPDATE messages of one version of an object for the sockets of a note,
+   * serialized once when first sent.
+   */
+  private class AngularObjectMessages {
+    final String interpreterGroupId;
+    final String noteId;
+    final AngularObject object;
+    final Object value;
+    final long version;
+    final Long baseVersion;
+    final Object patch;
+    private String fullMessage;
+    private String patchMessage;
+
+    AngularObjectMessages(String interpreterGroupId, String noteId, AngularObject object,
+        Object value, long version) {
+      this(interpreterGroupId, noteId, object, value, version, null, null);
+    }
+
+    AngularObjectMessages(String interpreterGroupId, String noteId, AngularObject object,
+        Object value, long version, Long baseVersion, Object patch) {
+      this.interpreterGroupId = interpreterGroupId;
+      this.noteId = noteId;
+      this.object = object;
+      this.value = value;
+      this.version = version;
+      this.baseVersion = baseVersion;
+      this.patch = patch;
+    }
+
+    synchronized String full() {
+      if (fullMessage == null) {
+        Map<String, Object> angularObject = angularObject();
+        angularObject.put("object", value);
+        fullMessage = serializeMessage(message(angularObject));
+      }
+      return fullMessage;
+    }
+
+    synchronized String patch() {
+      if (patchMessage == null) {
+        patchMessage = serializeMessage(message(angularObject())
+            .put("baseVersion", baseVersion)
+            .put("patch", patch));
+      }
+      return patchMessage;
+    }
+
+    private Map<String, Object> angularObject() {
+      Map<String, Object> angularObject = new HashMap<>();
+      angularObject.put("name", object.getName());
+      angularObject.put("noteId", object.getNoteId());
+      return angularObject;
+    }
+
+    private Message message(Map<String, Object> angularObject) {
+      return new Message(OP.ANGULAR_OBJECT_UPDATE)
+          .put("angularObject", angularObject)
+          .put("interpreterGroupId", interpreterGroupId)
+          .put("noteId", noteId)
+          .put("version", version);
+    }
+  }
+
   @Override
   public void onAdd(String interpreterGroupId, AngularObject object) {
     onUpdate(interpreterGroupId, object);
@@ -707,11 +920,48 @@ public class NotebookServer extends WebSocketServlet implements
 
   @Override
   public void onUpdate(String interpreterGroupId, AngularObject object) {
+    getAngularObjectUpdates(interpreterGroupId).updated(object);
+  }
+
+  /**
+   * Updates from an interpreter group are broadcast once per window, with the latest value.
+   */
+  private AngularObjectUpdateCoalescer getAngularObjectUpdates(
+      final String interpreterGroupId) {
+    synchronized (angularObjectUpdates) {
+      AngularObjectUpdateCoalescer updates = angularObjectUpdates.get(interpreterGroupId);
+      if (updates == null) {
+        long window = ZeppelinConfiguration.create()
+            .getLong(ConfVars.ZEPPELIN_ANGULAR_OBJECT_UPDATE_WINDOW);
+        updates = new AngularObjectUpdateCoalescer(window,
+            new AngularObjectUpdateCoalescer.BatchListener() {
+              @Override
+              public void updated(List<AngularObject> objects) {
+                for (AngularObject object : objects) {
+                  broadcastAngularObjectUpdate(interpreterGroupId, object);
+                }
+              }
+            });
+        angularObjectUpdates.put(interpreterGroupId, updates);
+      }
+      return updates;
+    }
+  }
+
+  private void broadcastAngularObjectUpdate(String interpreterGroupId, AngularObject object) {
     Notebook notebook = notebook();
     if (notebook == null) {
       return;
     }
 
+    String key = AngularObjectDeltaEncoder.key(
+        interpreterGroupId, object.getNoteId(), object.getName());
+    Object value = object.get();
+    Map<String, Object> encoded = angularObjectEncoder.encode(key, value);
+    long version = ((Number) encoded.get("version")).longValue();
+    Long baseVersion = encoded.containsKey("baseVersion")
+        ? ((Number) encoded.get("baseVersion")).longValue() : null;
+
     List<Note> notes = notebook.getAllNotes();
     for (Note note : notes) {
       if (object.getNoteId() != null && !note.id().equals(object.getNoteId())) {
@@ -724,12 +974,52 @@ public class NotebookServer extends WebSocketServlet implements
         continue;
       for (InterpreterSetting setting : intpSettings) {
         if (setting.getInterpreterGroup().getId().equals(interpreterGroupId)) {
-          broadcast(
-              note.id(),
-              new Message(OP.ANGULAR_OBJECT_UPDATE)
-                  .put("angularObject", object)
-                  .put("interpreterGroupId", interpreterGroupId)
-                  .put("noteId", note.id()));
+          List<NotebookSocket> sockets;
+          synchronized (noteSocketMap) {
+            sockets = noteSocketMap.get(note.id());
+            if (sockets == null) {
+              continue;
+            }
+            sockets = new LinkedList<>(sockets);
+          }
+          AngularObjectMessages messages = new AngularObjectMessages(interpreterGroupId,
+              note.id(), object, value, version, baseVersion, encoded.get("patch"));
+          for (NotebookSocket conn : sockets) {
+            try {
+              sendAngularObject(conn, getAngularObjectVersions(conn), key, messages);
+            } catch (IOException e) {
+              LOG.error("socket error", e);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Drop the pending updates and sent values of the objects of a restarted or removed
+   * interpreter group.
+   */
+  @Override
+  public void onDestroy(String interpreterGroupId) {
+    AngularObjectUpdateCoalescer updates;
+    synchronized (angularObjectUpdates) {
+      updates = angularObjectUpdates.remove(interpreterGroupId);
+    }
+    if (updates != null) {
+      updates.clear();
+    }
+    String prefix = AngularObjectDeltaEncoder.key(interpreterGroupId);
+    angularObjectEncoder.forgetStartingWith(prefix);
+    synchronized (angularObjectVersions) {
+      for (Map<String, Long> versions : angularObjectVersions.values()) {
+        synchronized (versions) {
+          Iterator<String> it = versions.keySet().iterator();
+          while (it.hasNext()) {
+            if (it.next().startsWith(prefix)) {
+              it.remove();
+            }
+          }
         }
       }
     }
@@ -737,6 +1027,16 @@ public class NotebookServer extends WebSocketServlet implements
 
   @Override
   public void onRemove(String interpreterGroupId, String name, String noteId) {
+    getAngularObjectUpdates(interpreterGroupId).removed(noteId, name);
+    String key = AngularObjectDeltaEncoder.key(interpreterGroupId, noteId, name);
+    angularObjectEncoder.forget(key);
+    synchronized (angularObjectVersions) {
+      for (Map<String, Long> versions : angularObjectVersions.values()) {
+        synchronized (versions) {
+          versions.remove(key);
+        }
+      }
+    }
     Notebook notebook = notebook();
     List<Note> notes = notebook.getAllNotes();
     for (Note note : notes) {
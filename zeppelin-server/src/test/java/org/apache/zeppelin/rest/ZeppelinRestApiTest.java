@@ -26,6 +26,7 @@ import org.apache.commons.httpclient.methods.GetMethod;
 import org.apache.commons.httpclient.methods.PostMethod;
 import org.apache.commons.httpclient.methods.PutMethod;
 import org.apache.zeppelin.conf.ZeppelinConfiguration;
+import org.apache.zeppelin.conf.ZeppelinConfiguration.ConfVars;
 import org.apache.zeppelin.interpreter.InterpreterSetting;
 import org.apache.zeppelin.notebook.Note;
 import org.apache.zeppelin.notebook.Paragraph;
@@ -300,5 +301,43 @@ public class ZeppelinRestApiTest extends AbstractTestRestApi {
     get.releaseConnection();
   }
 
-}
+  @Test
+  public void testParagraphResultHistory() throws IOException, InterruptedException {
+    LOG.info("testParagraphResultHistory");
+    System.setProperty(ConfVars.ZEPPELIN_NOTEBOOK_RESULT_HISTORY.getVarName(), "5");
+    Note note = ZeppelinServer.notebook.createNote();
+    Paragraph p = note.addParagraph();
+    for (String text : new String[] {"%md first", "%md second"}) {
+      p.setText(text);
+      note.run(p.getId());
+      while (p.isTerminated() == false || p.getResult() == null) {
+        Thread.sleep(100);
+      }
+    }
+
+    String url = "/notebook/" + note.getId() + "/paragraph/" + p.getId() + "/result";
+    GetMethod get = httpGet(url);
+    assertThat("list result versions", get, isAllowed());
+    Map<String, Object> resp = gson.fromJson(get.getResponseBodyAsString(),
+        new TypeToken<Map<String, Object>>() {}.getType());
+    List<Map<String, Object>> versions = (List<Map<String, Object>>) resp.get("body");
+    assertEquals(2, versions.size());
+    assertEquals(1, ((Double) versions.get(0).get("version")).intValue());
+    get.releaseConnection();
 
+    get = httpGet(url + "/1");
+    assertThat("get result version", get, isAllowed());
+    resp = gson.fromJson(get.getResponseBodyAsString(),
+        new TypeToken<Map<String, Object>>() {}.getType());
+    assertEquals("<p>first</p>\n", ((Map<String, Object>) resp.get("body")).get("msg"));
+    get.releaseConnection();
+
+    get = httpGet(url + "/3");
+    assertEquals(404, get.getStatusCode());
+    get.releaseConnection();
+
+    //cleanup
+    ZeppelinServer.notebook.removeNote(note.getId());
+    System.clearProperty(ConfVars.ZEPPELIN_NOTEBOOK_RESULT_HISTORY.getVarName());
+  }
+}
@@ -40,6 +40,8 @@ angular.module('zeppelinWebApp').controller('NotebookCtrl', function($scope, $ro
   $scope.saveTimer = null;
 
   var angularObjectRegistry = {};
+  // last value received for each angular object, to apply differences to
+  var angularObjectValues = {};
   var connectedOnce = false;
 
   $scope.$on('setConnectedStatus', function(event, param) {
@@ -493,12 +495,61 @@ angular.module('zeppelinWebApp').controller('NotebookCtrl', function($scope, $ro
     }
   };
 
+  var applyAngularObjectPatch = function(value, patch) {
+    for (var i = 0; i < patch.length; i++) {
+      var op = patch[i];
+      var path = op.path;
+      var opValue = (op.value === undefined) ? null : op.value;
+      if (path.length === 0) {
+        value = angular.copy(opValue);
+        continue;
+      }
+
+      var target = value;
+      var depth = (op.op === 'truncate' || op.op === 'append') ? path.length : path.length - 1;
+      for (var j = 0; j < depth; j++) {
+        target = target[path[j]];
+      }
+
+      var last = path[path.length - 1];
+      if (op.op === 'set') {
+        target[last] = angular.copy(opValue);
+      } else if (op.op === 'remove') {
+        delete target[last];
+      } else if (op.op === 'truncate') {
+        target.length = op.length;
+      } else if (op.op === 'append') {
+        Array.prototype.push.apply(target, angular.copy(op.values));
+      }
+    }
+    return value;
+  };
+
   $scope.$on('angularObjectUpdate', function(event, data) {
     if (data.noteId === $scope.note.id) {
       var scope = $rootScope.compiledScope;
       var varName = data.angularObject.name;
+      var key = data.interpreterGroupId + '/' + data.angularObject.noteId + '/' + varName;
+
+      var value;
+      if (data.patch) {
+        var received = angularObjectValues[key];
+        if (!received || received.version !== data.baseVersion) {
+          console.log('Can not update angular object %o to version %o', varName, data.version);
+          delete angularObjectValues[key];
+          websocketMsgSrv.requestAngularObject($scope.note.id, varName, data.angularObject.noteId,
+            data.interpreterGroupId);
+          return;
+        }
+        value = applyAngularObjectPatch(received.value, data.patch);
+      } else {
+        value = data.angularObject.object;
+      }
+      angularObjectValues[key] = {name : varName, version : data.version, value : value};
+      // scope value may be changed by the page. keep the received value intact
+      value = angular.copy(value);
 
-      if (angular.equals(data.angularObject.object, scope[varName])) {
+      if (angular.equals(value, scope[varName])) {
         // return when update has no change
         return;
       }
@@ -520,7 +571,7 @@ angular.module('zeppelinWebApp').controller('NotebookCtrl', function($scope, $ro
           websocketMsgSrv.updateAngularObject($routeParams.noteId, varName, newValue, angularObjectRegistry[varName].interpreterGroupId);
         });
       }
-      scope[varName] = data.angularObject.object;
+      scope[varName] = value;
     }
   });
 
@@ -529,6 +580,12 @@ angular.module('zeppelinWebApp').controller('NotebookCtrl', function($scope, $ro
       var scope = $rootScope.compiledScope;
       var varName = data.name;
 
+      for (var key in angularObjectValues) {
+        if (angularObjectValues[key].name === varName) {
+          delete angularObjectValues[key];
+        }
+      }
+
       // clear watcher
       if (angularObjectRegistry[varName]) {
         angularObjectRegistry[varName].clearWatcher();
@@ -369,6 +369,22 @@ angular.module('zeppelinWebApp')
     commitParagraph($scope.paragraph.title, $scope.paragraph.text, newConfig, newParams);
   };
 
+  $scope.useResultCache = function () {
+    var newParams = angular.copy($scope.paragraph.settings.params);
+    var newConfig = angular.copy($scope.paragraph.config);
+    newConfig.bypassResultCache = false;
+
+    commitParagraph($scope.paragraph.title, $scope.paragraph.text, newConfig, newParams);
+  };
+
+  $scope.bypassResultCache = function () {
+    var newParams = angular.copy($scope.paragraph.settings.params);
+    var newConfig = angular.copy($scope.paragraph.config);
+    newConfig.bypassResultCache = true;
+
+    commitParagraph($scope.paragraph.title, $scope.paragraph.text, newConfig, newParams);
+  };
+
   $scope.columnWidthClass = function(n) {
     if ($scope.asIframe) {
       return 'col-md-12';
@@ -714,6 +730,32 @@ angular.module('zeppelinWebApp')
     }
   });
 
+  /** partial output of the running paragraph. replaced by the final result once it finishes */
+  $scope.$on('appendParagraphOutput', function(event, data) {
+    if (data.paragraphId === $scope.paragraph.id && $scope.paragraph.status === 'RUNNING') {
+      if ($scope.appendedOutputStarted !== $scope.paragraph.dateStarted) {
+        $scope.appendedOutputStarted = $scope.paragraph.dateStarted;
+        $scope.appendedOutput = '';
+      }
+      $scope.appendedOutput += data.data;
+
+      var tableMagic = '%table ';
+      if ($scope.appendedOutput.indexOf(tableMagic) === 0) {
+        $scope.paragraph.result = {
+          type: 'TABLE',
+          msg: $scope.appendedOutput.substring(tableMagic.length)
+        };
+        $scope.loadTableData($scope.paragraph.result);
+        $scope.setGraphMode($scope.getGraphMode(), false, true);
+      } else {
+        $scope.paragraph.result = {
+          type: 'TEXT',
+          msg: $scope.appendedOutput
+        };
+      }
+    }
+  });
+
   $scope.$on('focusParagraph', function(event, paragraphId, cursorPos) {
     if ($scope.paragraph.id === paragraphId) {
       // focus editor
@@ -52,6 +52,8 @@ angular.module('zeppelinWebApp').factory('websocketEvents', function($rootScope,
       $rootScope.$broadcast('updateParagraph', data);
     } else if (op === 'PROGRESS') {
       $rootScope.$broadcast('updateProgress', data);
+    } else if (op === 'PARAGRAPH_APPEND_OUTPUT') {
+      $rootScope.$broadcast('appendParagraphOutput', data);
     } else if (op === 'COMPLETION_LIST') {
       $rootScope.$broadcast('completionList', data);
     } else if (op === 'ANGULAR_OBJECT_UPDATE') {
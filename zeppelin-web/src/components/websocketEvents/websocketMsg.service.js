@@ -64,6 +64,18 @@ angular.module('zeppelinWebApp').service('websocketMsgSrv', function($rootScope,
       });
     },
 
+    requestAngularObject: function(noteId, name, objectNoteId, interpreterGroupId) {
+      websocketEvents.sendNewEvent({
+        op: 'ANGULAR_OBJECT_REQUEST',
+        data: {
+          noteId: noteId,
+          name: name,
+          objectNoteId: objectNoteId,
+          interpreterGroupId: interpreterGroupId
+        }
+      });
+    },
+
     cancelParagraphRun: function(paragraphId) {
       websocketEvents.sendNewEvent({op: 'CANCEL_PARAGRAPH', data: {id: paragraphId}});
     },
@@ -413,6 +413,15 @@ public class ZeppelinConfiguration extends XMLConfiguration {
         + "org.apache.zeppelin.kylin.KylinInterpreter"),
     ZEPPELIN_INTERPRETER_DIR("zeppelin.interpreter.dir", "interpreter"),
     ZEPPELIN_INTERPRETER_CONNECT_TIMEOUT("zeppelin.interpreter.connect.timeout", 30000),
+    ZEPPELIN_INTERPRETER_PREWARM("zeppelin.interpreter.prewarm", false),
+    ZEPPELIN_INTERPRETER_IDLE_TIMEOUT("zeppelin.interpreter.idle.timeout", -1),
+    ZEPPELIN_INTERPRETER_MEMORY_BUDGET("zeppelin.interpreter.memory.budget", -1L),
+    ZEPPELIN_INTERPRETER_ADMISSION_TIMEOUT("zeppelin.interpreter.admission.timeout", 60000L),
+    ZEPPELIN_INTERPRETER_THRIFT_SERVER("zeppelin.interpreter.thrift.server", "threadpool"),
+    ZEPPELIN_INTERPRETER_THRIFT_WORKERS("zeppelin.interpreter.thrift.workers", 256),
+    ZEPPELIN_ANGULAR_OBJECT_UPDATE_WINDOW("zeppelin.angular.object.update.window", 50L),
+    ZEPPELIN_COMPLETION_CACHE_TTL("zeppelin.completion.cache.ttl", 30000L),
+    ZEPPELIN_COMPLETION_DEBOUNCE("zeppelin.completion.debounce", 100L),
     ZEPPELIN_ENCODING("zeppelin.encoding", "UTF-8"),
     ZEPPELIN_NOTEBOOK_DIR("zeppelin.notebook.dir", "notebook"),
     // use specified notebook (id) as homescreen
@@ -426,6 +435,14 @@ public class ZeppelinConfiguration extends XMLConfiguration {
     // If set false, modified notebooks or new notebooks added on file system level
     // won't be reflected on Zeppelin till user restarts Zeppelin.
     ZEPPELIN_NOTEBOOK_RELOAD_FROM_STORAGE("zeppelin.notebook.reloadAllNotesFromStorage", false),
+    // CronLockStore class. When set, a cron trigger of a note runs it on one server only,
+    // among the servers sharing the store
+    ZEPPELIN_NOTEBOOK_CRON_LOCK_STORE("zeppelin.notebook.cron.lock.store", ""),
+    ZEPPELIN_NOTEBOOK_CRON_LOCK_DIR("zeppelin.notebook.cron.lock.dir", "cron"),
+    ZEPPELIN_NOTEBOOK_CRON_LOCK_LEASE("zeppelin.notebook.cron.lock.lease", 600000L),
+    ZEPPELIN_NOTEBOOK_CRON_HISTORY("zeppelin.notebook.cron.history", 20),
+    ZEPPELIN_NOTEBOOK_CRON_CONCURRENT("zeppelin.notebook.cron.concurrent", -1),
+    ZEPPELIN_NOTEBOOK_RESULT_HISTORY("zeppelin.notebook.result.history", 0),
     ZEPPELIN_INTERPRETER_REMOTE_RUNNER("zeppelin.interpreter.remoterunner", "bin/interpreter.sh"),
     // Decide when new note is created, interpreter settings will be binded automatically or not.
     ZEPPELIN_NOTEBOOK_AUTO_INTERPRETER_BINDING("zeppelin.notebook.autoInterpreterBinding", true),
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.interpreter;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Caches code completion candidates per interpreter.
+ *
+ * Candidates are keyed by the text before the word under the cursor. While the user keeps
+ * typing the same word, candidates of the shorter prefix are filtered locally instead of
+ * asking the interpreter again. Entries expire after ttl msec and are dropped whenever a
+ * paragraph runs on the interpreter, since the run may define new names.
+ */
+public class CompletionCache {
+  private static final int MAX_ENTRIES = 64;
+
+  private final long ttl;
+  private final Map<Interpreter, Map<String, Entry>> cache =
+      new WeakHashMap<Interpreter, Map<String, Entry>>();
+
+  /**
+   * @param ttl msec an entry can be reused. 0 or less disables the cache
+   */
+  public CompletionCache(long ttl) {
+    this.ttl = ttl;
+  }
+
+  public List<String> completion(Interpreter repl, String buffer, int cursor) {
+    if (ttl <= 0 || buffer == null || cursor < 0 || cursor > buffer.length()) {
+      return repl.completion(buffer, cursor);
+    }
+
+    int start = wordStart(buffer, cursor);
+    String context = buffer.substring(0, start);
+    String word = buffer.substring(start, cursor);
+
+    List<String> candidates = get(repl, context, word);
+    if (candidates != null) {
+      return candidates;
+    }
+
+    candidates = repl.completion(buffer, cursor);
+    if (candidates != null && startWith(candidates, word)) {
+      put(repl, context, word, candidates);
+    }
+    return candidates;
+  }
+
+  /**
+   * Drop all entries of the interpreter.
+   */
+  public void invalidate(Interpreter repl) {
+    synchronized (cache) {
+      cache.remove(repl);
+    }
+  }
+
+  private List<String> get(Interpreter repl, String context, String word) {
+    Entry entry;
+    synchronized (cache) {
+      Map<String, Entry> entries = cache.get(repl);
+      if (entries == null) {
+        return null;
+      }
+      entry = entries.get(context);
+      if (entry == null) {
+        return null;
+      }
+      if (System.currentTimeMillis() - entry.created > ttl) {
+        entries.remove(context);
+        return null;
+      }
+    }
+
+    if (!word.startsWith(entry.word)) {
+      return null;
+    }
+
+    List<String> candidates = new LinkedList<String>();
+    for (String c : entry.candidates) {
+      if (c.startsWith(word)) {
+        candidates.add(c);
+      }
+    }
+    return candidates;
+  }
+
+  private void put(Interpreter repl, String context, String word, List<String> candidates) {
+    synchronized (cache) {
+      Map<String, Entry> entries = cache.get(repl);
+      if (entries == null) {
+        entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+          }
+        };
+        cache.put(repl, entries);
+      }
+      entries.put(context, new Entry(word, new LinkedList<String>(candidates)));
+    }
+  }
+
+  /**
+   * Only candidates which complete the typed word can be narrowed down locally.
+   */
+  private static boolean startWith(List<String> candidates, String word) {
+    for (String c : candidates) {
+      if (c == null || !c.startsWith(word)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static int wordStart(String buffer, int cursor) {
+    int start = cursor;
+    while (start > 0 && Character.isJavaIdentifierPart(buffer.charAt(start - 1))) {
+      start--;
+    }
+    return start;
+  }
+
+  private static class Entry {
+    final String word;
+    final List<String> candidates;
+    final long created;
+
+    Entry(String word, List<String> candidates) {
+      this.word = word;
+      this.candidates = candidates;
+      this.created = System.currentTimeMillis();
+    }
+  }
+}
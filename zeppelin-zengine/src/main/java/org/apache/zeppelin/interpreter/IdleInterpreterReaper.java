@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.interpreter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically shuts down remote interpreter processes which have been idle longer than
+ * the configured timeout. See {@link InterpreterFactory#shutdownIdleInterpreters(long)}.
+ */
+public class IdleInterpreterReaper extends Thread {
+  private static final Logger logger = LoggerFactory.getLogger(IdleInterpreterReaper.class);
+  private static final long MAX_CHECK_INTERVAL_MS = 60 * 1000;
+
+  private final InterpreterFactory interpreterFactory;
+  private final long idleTimeout;
+  private final long checkInterval;
+  private volatile boolean shutdown;
+
+  public IdleInterpreterReaper(InterpreterFactory interpreterFactory, long idleTimeout) {
+    super("IdleInterpreterReaper");
+    setDaemon(true);
+    this.interpreterFactory = interpreterFactory;
+    this.idleTimeout = idleTimeout;
+    this.checkInterval = Math.max(1, Math.min(idleTimeout / 4, MAX_CHECK_INTERVAL_MS));
+    shutdown = false;
+  }
+
+  @Override
+  public void run() {
+    while (!shutdown) {
+      synchronized (this) {
+        try {
+          wait(checkInterval);
+        } catch (InterruptedException e) {
+          // check shutdown flag
+        }
+      }
+      if (shutdown) {
+        break;
+      }
+
+      try {
+        interpreterFactory.shutdownIdleInterpreters(idleTimeout);
+      } catch (Exception e) {
+        logger.error("Can't shutdown idle interpreters", e);
+      }
+    }
+  }
+
+  public void shutdown() {
+    shutdown = true;
+    synchronized (this) {
+      notify();
+    }
+  }
+}
@@ -44,11 +44,15 @@ import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.NullArgumentException;
 import org.apache.zeppelin.conf.ZeppelinConfiguration;
 import org.apache.zeppelin.conf.ZeppelinConfiguration.ConfVars;
+import org.apache.zeppelin.display.AngularObject;
 import org.apache.zeppelin.display.AngularObjectRegistry;
 import org.apache.zeppelin.display.AngularObjectRegistryListener;
 import org.apache.zeppelin.interpreter.Interpreter.RegisteredInterpreter;
 import org.apache.zeppelin.interpreter.remote.RemoteAngularObjectRegistry;
 import org.apache.zeppelin.interpreter.remote.RemoteInterpreter;
+import org.apache.zeppelin.interpreter.remote.RemoteInterpreterServer;
+import org.apache.zeppelin.scheduler.ExecutorFactory;
+import org.apache.zeppelin.scheduler.Scheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -61,6 +65,8 @@ import com.google.gson.GsonBuilder;
  */
 public class InterpreterFactory {
   Logger logger = LoggerFactory.getLogger(InterpreterFactory.class);
+  private static final int PREWARM_THREADS = 4;
+  private static final long DEFAULT_INTERPRETER_HEAP = 1024L * 1024 * 1024;
 
   private Map<String, URLClassLoader> cleanCl = Collections
       .synchronizedMap(new HashMap<String, URLClassLoader>());
@@ -77,7 +83,12 @@ public class InterpreterFactory {
 
   private InterpreterOption defaultOption;
 
+  private IdleInterpreterReaper idleInterpreterReaper;
+  private InterpreterProcessAdmissionController processAdmissionController;
+  private CompletionCache completionCache;
+
   AngularObjectRegistryListener angularObjectRegistryListener;
+  private InterpreterGroupListener interpreterGroupListener;
 
   public InterpreterFactory(ZeppelinConfiguration conf,
       AngularObjectRegistryListener angularObjectRegistryListener)
@@ -95,6 +106,18 @@ public class InterpreterFactory {
     String replsConf = conf.getString(ConfVars.ZEPPELIN_INTERPRETERS);
     interpreterClassList = replsConf.split(",");
 
+    // bin/common.sh starts interpreter processes with ZEPPELIN_INTP_MEM, or ZEPPELIN_MEM
+    String intpMem = System.getenv("ZEPPELIN_INTP_MEM");
+    if (intpMem == null) {
+      intpMem = System.getenv("ZEPPELIN_MEM");
+    }
+    long budgetMb = conf.getLong(ConfVars.ZEPPELIN_INTERPRETER_MEMORY_BUDGET);
+    processAdmissionController = new InterpreterProcessAdmissionController(
+        budgetMb > 0 ? budgetMb * 1024 * 1024 : -1,
+        conf.getLong(ConfVars.ZEPPELIN_INTERPRETER_ADMISSION_TIMEOUT),
+        InterpreterProcessAdmissionController.parseMaxHeap(intpMem, DEFAULT_INTERPRETER_HEAP));
+    completionCache = new CompletionCache(conf.getLong(ConfVars.ZEPPELIN_COMPLETION_CACHE_TTL));
+
     GsonBuilder builder = new GsonBuilder();
     builder.setPrettyPrinting();
     builder.registerTypeAdapter(Interpreter.class, new InterpreterSerializer());
@@ -191,6 +214,12 @@ public class InterpreterFactory {
         logger.info("  className = {}", interpreter.getClassName());
       }
     }
+
+    long idleTimeout = conf.getInt(ConfVars.ZEPPELIN_INTERPRETER_IDLE_TIMEOUT);
+    if (idleTimeout > 0) {
+      idleInterpreterReaper = new IdleInterpreterReaper(this, idleTimeout);
+      idleInterpreterReaper.start();
+    }
   }
 
   private void loadFromFile() throws IOException {
@@ -357,6 +386,16 @@ public class InterpreterFactory {
       InterpreterOption option,
       Properties properties)
       throws InterpreterException , NullArgumentException {
+    return createInterpreterGroup(id, groupName, option, properties,
+        conf.getBoolean(ConfVars.ZEPPELIN_INTERPRETER_PREWARM));
+  }
+
+  private InterpreterGroup createInterpreterGroup(String id,
+      String groupName,
+      InterpreterOption option,
+      Properties properties,
+      boolean prewarm)
+      throws InterpreterException , NullArgumentException {
 
     //When called from REST API without option we receive NPE
     if (option == null )
@@ -407,15 +446,43 @@ public class InterpreterFactory {
         }
       }
     }
+
+    if (option.isRemote() && prewarm) {
+      prewarm(interpreterGroup);
+    }
     return interpreterGroup;
   }
 
+  /**
+   * Start the interpreter process of the group in background, so the first paragraph
+   * doesn't wait for the process to fork and its interpreters to be created.
+   * Opening one interpreter of the group starts the process shared by all of them.
+   */
+  private void prewarm(final InterpreterGroup interpreterGroup) {
+    if (interpreterGroup.isEmpty()) {
+      return;
+    }
+    ExecutorFactory.singleton().createOrGet("InterpreterPrewarm", PREWARM_THREADS).submit(
+        new Runnable() {
+          @Override
+          public void run() {
+            long start = System.currentTimeMillis();
+            try {
+              interpreterGroup.getFirst().open();
+              logger.info("Interpreter group {} prewarmed in {} ms", interpreterGroup.getId(),
+                  System.currentTimeMillis() - start);
+            } catch (Exception e) {
+              logger.error("Can't prewarm interpreter group " + interpreterGroup.getId(), e);
+            }
+          }
+        });
+  }
+
   public void remove(String id) throws IOException {
     synchronized (interpreterSettings) {
       if (interpreterSettings.containsKey(id)) {
         InterpreterSetting intp = interpreterSettings.get(id);
-        intp.getInterpreterGroup().close();
-        intp.getInterpreterGroup().destroy();
+        destroyInterpreterGroup(intp.getInterpreterGroup());
 
         interpreterSettings.remove(id);
         for (List<String> settings : interpreterBindings.values()) {
@@ -517,8 +584,7 @@ public class InterpreterFactory {
     synchronized (interpreterSettings) {
       InterpreterSetting intpsetting = interpreterSettings.get(id);
       if (intpsetting != null) {
-        intpsetting.getInterpreterGroup().close();
-        intpsetting.getInterpreterGroup().destroy();
+        destroyInterpreterGroup(intpsetting.getInterpreterGroup());
 
         intpsetting.setOption(option);
 
@@ -538,8 +604,7 @@ public class InterpreterFactory {
     synchronized (interpreterSettings) {
       InterpreterSetting intpsetting = interpreterSettings.get(id);
       if (intpsetting != null) {
-        intpsetting.getInterpreterGroup().close();
-        intpsetting.getInterpreterGroup().destroy();
+        destroyInterpreterGroup(intpsetting.getInterpreterGroup());
 
         InterpreterGroup interpreterGroup = createInterpreterGroup(
             intpsetting.id(),
@@ -553,7 +618,135 @@ public class InterpreterFactory {
   }
 
 
+  public void setInterpreterGroupListener(InterpreterGroupListener interpreterGroupListener) {
+    this.interpreterGroupListener = interpreterGroupListener;
+  }
+
+  private void destroyInterpreterGroup(InterpreterGroup interpreterGroup) {
+    interpreterGroup.close();
+    interpreterGroup.destroy();
+    if (interpreterGroupListener != null) {
+      interpreterGroupListener.onDestroy(interpreterGroup.getId());
+    }
+  }
+
+  /**
+   * Lock shutdownIdleInterpreters() holds while it checks and closes interpreter groups.
+   * Hold it while looking up an interpreter and submitting a job to its scheduler,
+   * so the process is not shut down in between.
+   */
+  public Object getShutdownLock() {
+    return interpreterSettings;
+  }
+
+  /**
+   * Shut down remote interpreter processes with no running or waiting job and no activity
+   * for idleTimeout msec. Their interpreter groups are recreated like restart() does,
+   * keeping angular objects, so the process starts again on next use.
+   * Jobs are submitted under getShutdownLock(), so no job is submitted to a group
+   * between its idle check and close().
+   */
+  public void shutdownIdleInterpreters(long idleTimeout) {
+    synchronized (interpreterSettings) {
+      for (InterpreterSetting intpsetting : interpreterSettings.values()) {
+        InterpreterGroup interpreterGroup = intpsetting.getInterpreterGroup();
+        long idleTime = getIdleTime(interpreterGroup);
+        if (idleTime < idleTimeout || isActive(interpreterGroup)) {
+          continue;
+        }
+
+        logger.info("Shutdown interpreter setting {} idle for {} ms",
+            intpsetting.getName(), idleTime);
+        List<AngularObject> angularObjects =
+            interpreterGroup.getAngularObjectRegistry().getAllNotesAndGlobal();
+        interpreterGroup.close();
+        interpreterGroup.destroy();
+
+        InterpreterGroup newInterpreterGroup = createInterpreterGroup(
+            intpsetting.id(),
+            intpsetting.getGroup(), intpsetting.getOption(), intpsetting.getProperties(),
+            false);
+        AngularObjectRegistry registry = newInterpreterGroup.getAngularObjectRegistry();
+        for (AngularObject ao : angularObjects) {
+          registry.add(ao.getName(), ao.get(), ao.getNoteId(), false);
+        }
+        intpsetting.setInterpreterGroup(newInterpreterGroup);
+      }
+    }
+  }
+
+  /**
+   * @return state of the interpreter process of the setting,
+   *         null when setting is not found
+   */
+  public InterpreterProcessState getProcessState(String id) {
+    InterpreterGroup interpreterGroup;
+    synchronized (interpreterSettings) {
+      InterpreterSetting intpsetting = interpreterSettings.get(id);
+      if (intpsetting == null) {
+        return null;
+      }
+      interpreterGroup = intpsetting.getInterpreterGroup();
+    }
+
+    long idleTime = getIdleTime(interpreterGroup);
+    InterpreterProcessState.State state;
+    if (idleTime < 0) {
+      state = InterpreterProcessState.State.STOPPED;
+    } else if (isActive(interpreterGroup)) {
+      state = InterpreterProcessState.State.ACTIVE;
+    } else {
+      state = InterpreterProcessState.State.IDLE;
+    }
+    return new InterpreterProcessState(id, state, idleTime,
+        conf.getInt(ConfVars.ZEPPELIN_INTERPRETER_IDLE_TIMEOUT));
+  }
+
+  public CompletionCache getCompletionCache() {
+    return completionCache;
+  }
+
+  /**
+   * @return memory usage of remote interpreter processes against the budget
+   */
+  public InterpreterProcessAdmissionController.Usage getProcessUsage() {
+    return processAdmissionController.getUsage();
+  }
+
+  /**
+   * @return msec since last activity of the remote interpreter process,
+   *         -1 when the process is not running or interpreters are not remote
+   */
+  private long getIdleTime(InterpreterGroup interpreterGroup) {
+    if (interpreterGroup.isEmpty()) {
+      return -1;
+    }
+    Interpreter intp = interpreterGroup.getFirst();
+    while (intp instanceof WrappedInterpreter) {
+      intp = ((WrappedInterpreter) intp).getInnerInterpreter();
+    }
+    if (!(intp instanceof RemoteInterpreter)) {
+      return -1;
+    }
+    return ((RemoteInterpreter) intp).getInterpreterProcess().getIdleTime();
+  }
+
+  private boolean isActive(InterpreterGroup interpreterGroup) {
+    for (Interpreter intp : interpreterGroup) {
+      Scheduler scheduler = intp.getScheduler();
+      if (scheduler != null && (!scheduler.getJobsRunning().isEmpty()
+          || !scheduler.getJobsWaiting().isEmpty())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   public void close() {
+    if (idleInterpreterReaper != null) {
+      idleInterpreterReaper.shutdown();
+    }
+
     List<Thread> closeThreads = new LinkedList<Thread>();
     synchronized (interpreterSettings) {
       Collection<InterpreterSetting> intpsettings = interpreterSettings.values();
@@ -611,8 +804,9 @@ public class InterpreterFactory {
       }
       Thread.currentThread().setContextClassLoader(cl);
 
-      Class<Interpreter> replClass = (Class<Interpreter>) cl.loadClass(className);
-      Constructor<Interpreter> constructor =
+      Class<? extends Interpreter> replClass =
+          cl.loadClass(className).asSubclass(Interpreter.class);
+      Constructor<? extends Interpreter> constructor =
           replClass.getConstructor(new Class[] {Properties.class});
       Interpreter repl = constructor.newInstance(property);
       repl.setClassloaderUrls(ccl.getURLs());
@@ -643,9 +837,17 @@ public class InterpreterFactory {
       Properties property) {
 
     int connectTimeout = conf.getInt(ConfVars.ZEPPELIN_INTERPRETER_CONNECT_TIMEOUT);
-    LazyOpenInterpreter intp = new LazyOpenInterpreter(new RemoteInterpreter(
+    RemoteInterpreter remoteInterpreter = new RemoteInterpreter(
         property, className, conf.getInterpreterRemoteRunnerPath(),
-        interpreterPath, connectTimeout));
+        interpreterPath, connectTimeout);
+    remoteInterpreter.setProcessAdmission(processAdmissionController);
+    remoteInterpreter.setServerType(
+        RemoteInterpreterServer.ServerType.fromString(
+            conf.getString(ConfVars.ZEPPELIN_INTERPRETER_THRIFT_SERVER)),
+        conf.getInt(ConfVars.ZEPPELIN_INTERPRETER_THRIFT_WORKERS));
+    remoteInterpreter.setAngularObjectUpdateWindow(
+        conf.getLong(ConfVars.ZEPPELIN_ANGULAR_OBJECT_UPDATE_WINDOW));
+    LazyOpenInterpreter intp = new LazyOpenInterpreter(remoteInterpreter);
     return intp;
   }
 
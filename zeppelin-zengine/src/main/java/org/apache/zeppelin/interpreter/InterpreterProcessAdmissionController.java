@@ -0,0 +1,279 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.interpreter;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.zeppelin.interpreter.remote.RemoteInterpreterProcess;
+import org.apache.zeppelin.interpreter.remote.RemoteInterpreterProcessAdmission;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Admits remote interpreter processes against a memory budget of the host.
+ *
+ * Each running process is accounted with the larger of its declared heap (-Xmx) and
+ * its actual resident set size, read from /proc when available.
+ * When a new process does not fit in the budget, its start waits for other processes
+ * to terminate, up to a timeout, and is then rejected.
+ * The first process is always admitted.
+ */
+public class InterpreterProcessAdmissionController implements RemoteInterpreterProcessAdmission {
+  private static final Logger logger =
+      LoggerFactory.getLogger(InterpreterProcessAdmissionController.class);
+  private static final long MB = 1024 * 1024;
+  private static final Pattern XMX = Pattern.compile("-Xmx(\\d+)([kKmMgG]?)");
+  private static final Pattern VM_RSS = Pattern.compile("VmRSS:\\s+(\\d+)\\s+kB");
+
+  private final long budget;
+  private final long admissionTimeout;
+  private final long declaredHeap;
+  private final Map<RemoteInterpreterProcess, ProcessUsage> processes =
+      new IdentityHashMap<RemoteInterpreterProcess, ProcessUsage>();
+
+  /**
+   * @param budget bytes available to interpreter processes, -1 for unlimited
+   * @param admissionTimeout msec to wait for memory to become available
+   * @param declaredHeap heap bytes declared for each interpreter process
+   */
+  public InterpreterProcessAdmissionController(long budget, long admissionTimeout,
+      long declaredHeap) {
+    this.budget = budget;
+    this.admissionTimeout = admissionTimeout;
+    this.declaredHeap = declaredHeap;
+  }
+
+  @Override
+  public void admit(RemoteInterpreterProcess process) throws InterpreterException {
+    long deadline = System.currentTimeMillis() + admissionTimeout;
+    synchronized (processes) {
+      while (!fits()) {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+          throw new InterpreterException("Can't start interpreter process: "
+              + (getUsedBytes() / MB) + "MB of " + (budget / MB) + "MB memory budget used "
+              + "by " + processes.size() + " interpreter processes");
+        }
+        logger.info("Interpreter process waits for memory, {}MB of {}MB used",
+            getUsedBytes() / MB, budget / MB);
+        try {
+          processes.wait(remaining);
+        } catch (InterruptedException e) {
+          throw new InterpreterException(e);
+        }
+      }
+      processes.put(process, new ProcessUsage(declaredHeap));
+    }
+  }
+
+  private boolean fits() {
+    if (budget < 0 || processes.isEmpty()) {
+      return true;
+    }
+    refreshRss();
+    return getUsedBytes() + declaredHeap <= budget;
+  }
+
+  @Override
+  public void started(RemoteInterpreterProcess process) {
+    synchronized (processes) {
+      ProcessUsage usage = processes.get(process);
+      if (usage != null) {
+        usage.pid = process.getPid();
+        usage.port = process.getPort();
+      }
+    }
+  }
+
+  @Override
+  public void terminated(RemoteInterpreterProcess process) {
+    synchronized (processes) {
+      if (processes.remove(process) != null) {
+        processes.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * @return current memory usage of interpreter processes
+   */
+  public Usage getUsage() {
+    synchronized (processes) {
+      refreshRss();
+      List<ProcessUsage> list = new LinkedList<ProcessUsage>();
+      for (ProcessUsage usage : processes.values()) {
+        list.add(usage.copy());
+      }
+      return new Usage(budget, getUsedBytes(), list);
+    }
+  }
+
+  private long getUsedBytes() {
+    long used = 0;
+    for (ProcessUsage usage : processes.values()) {
+      used += Math.max(usage.declaredHeap, usage.rss);
+    }
+    return used;
+  }
+
+  private void refreshRss() {
+    for (ProcessUsage usage : processes.values()) {
+      if (usage.pid > 0) {
+        usage.rss = readRss(new File("/proc/" + usage.pid + "/status"));
+      }
+    }
+  }
+
+  /**
+   * @return resident set size in bytes from a /proc/[pid]/status file, -1 if unknown
+   */
+  static long readRss(File status) {
+    if (!status.canRead()) {
+      return -1;
+    }
+    BufferedReader reader = null;
+    try {
+      reader = new BufferedReader(new InputStreamReader(new FileInputStream(status), "UTF-8"));
+      String line;
+      while ((line = reader.readLine()) != null) {
+        Matcher m = VM_RSS.matcher(line);
+        if (m.find()) {
+          return Long.parseLong(m.group(1)) * 1024;
+        }
+      }
+    } catch (IOException e) {
+      logger.debug("Can't read " + status, e);
+    } finally {
+      if (reader != null) {
+        try {
+          reader.close();
+        } catch (IOException e) {
+          logger.debug("Can't close " + status, e);
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @param javaOpts jvm options, e.g. "-Xmx1024m -XX:MaxPermSize=512m"
+   * @param defaultValue returned when javaOpts has no -Xmx
+   * @return max heap bytes of the last -Xmx option
+   */
+  static long parseMaxHeap(String javaOpts, long defaultValue) {
+    if (javaOpts == null) {
+      return defaultValue;
+    }
+    long maxHeap = defaultValue;
+    Matcher m = XMX.matcher(javaOpts);
+    while (m.find()) {
+      long value = Long.parseLong(m.group(1));
+      String unit = m.group(2).toLowerCase();
+      if (unit.equals("k")) {
+        value *= 1024;
+      } else if (unit.equals("m")) {
+        value *= MB;
+      } else if (unit.equals("g")) {
+        value *= MB * 1024;
+      }
+      maxHeap = value;
+    }
+    return maxHeap;
+  }
+
+  /**
+   * Memory usage of all interpreter processes
+   */
+  public static class Usage {
+    long budget;
+    long used;
+    List<ProcessUsage> processes;
+
+    Usage(long budget, long used, List<ProcessUsage> processes) {
+      this.budget = budget;
+      this.used = used;
+      this.processes = processes;
+    }
+
+    /**
+     * @return budget in bytes, -1 for unlimited
+     */
+    public long getBudget() {
+      return budget;
+    }
+
+    public long getUsed() {
+      return used;
+    }
+
+    public List<ProcessUsage> getProcesses() {
+      return processes;
+    }
+  }
+
+  /**
+   * Memory usage of an interpreter process
+   */
+  public static class ProcessUsage {
+    long pid = -1;
+    int port = -1;
+    long declaredHeap;
+    long rss = -1;
+
+    ProcessUsage(long declaredHeap) {
+      this.declaredHeap = declaredHeap;
+    }
+
+    ProcessUsage copy() {
+      ProcessUsage usage = new ProcessUsage(declaredHeap);
+      usage.pid = pid;
+      usage.port = port;
+      usage.rss = rss;
+      return usage;
+    }
+
+    public long getPid() {
+      return pid;
+    }
+
+    public int getPort() {
+      return port;
+    }
+
+    public long getDeclaredHeap() {
+      return declaredHeap;
+    }
+
+    /**
+     * @return resident set size in bytes, -1 if unknown
+     */
+    public long getRss() {
+      return rss;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.interpreter;
+
+/**
+ * State of the remote interpreter process of an interpreter setting
+ */
+public class InterpreterProcessState {
+  /**
+   * STOPPED: process not running (not started yet, shut down while idle, or not remote)
+   * IDLE: process running, no paragraph running
+   * ACTIVE: process running paragraphs
+   */
+  public static enum State {
+    STOPPED,
+    IDLE,
+    ACTIVE
+  }
+
+  private String id;
+  private State state;
+  private long idleTime;
+  private long idleTimeout;
+
+  public InterpreterProcessState(String id, State state, long idleTime, long idleTimeout) {
+    this.id = id;
+    this.state = state;
+    this.idleTime = idleTime;
+    this.idleTimeout = idleTimeout;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public State getState() {
+    return state;
+  }
+
+  /**
+   * @return msec since last activity, -1 when process is not running
+   */
+  public long getIdleTime() {
+    return idleTime;
+  }
+
+  /**
+   * @return msec of inactivity after which the process is shut down, -1 for never
+   */
+  public long getIdleTimeout() {
+    return idleTimeout;
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.notebook;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delays completion requests and drops the ones superseded by a newer request of the same
+ * paragraph, so a burst of keystrokes reaches the interpreter once.
+ * A request superseded while the interpreter is computing it gets no response.
+ */
+public class CompletionDebouncer {
+  Logger logger = LoggerFactory.getLogger(CompletionDebouncer.class);
+  private static final int THREADS = 4;
+
+  /**
+   * Receives completion candidates of a request which was not superseded.
+   */
+  public static interface CompletionListener {
+    public void onCompletion(List<String> candidates);
+  }
+
+  private final long delay;
+  private final AtomicLong sequence = new AtomicLong();
+  private final ConcurrentHashMap<String, Long> latest = new ConcurrentHashMap<String, Long>();
+  private final ScheduledExecutorService executor;
+
+  /**
+   * @param delay msec to wait for a newer request before asking the interpreter
+   */
+  public CompletionDebouncer(long delay) {
+    this.delay = Math.max(0, delay);
+    executor = Executors.newScheduledThreadPool(THREADS, new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread t = new Thread(r, "CompletionDebouncer");
+        t.setDaemon(true);
+        return t;
+      }
+    });
+  }
+
+  public void completion(final Note note, final String paragraphId, final String buffer,
+      final int cursor, final CompletionListener listener) {
+    final String key = note.id() + "/" + paragraphId;
+    final Long seq = sequence.incrementAndGet();
+    latest.put(key, seq);
+
+    executor.schedule(new Runnable() {
+      @Override
+      public void run() {
+        if (!seq.equals(latest.get(key))) {
+          return;
+        }
+
+        List<String> candidates;
+        try {
+          candidates = note.completion(paragraphId, buffer, cursor);
+        } catch (Exception e) {
+          logger.error("Completion failed on paragraph " + paragraphId, e);
+          candidates = null;
+        }
+
+        // remove() succeeds only if no newer request arrived meanwhile
+        if (latest.remove(key, seq)) {
+          listener.onCompletion(candidates);
+        }
+      }
+    }, delay, TimeUnit.MILLISECONDS);
+  }
+}
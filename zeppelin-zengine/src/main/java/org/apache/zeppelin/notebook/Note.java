@@ -20,12 +20,15 @@ package org.apache.zeppelin.notebook;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 
 import org.apache.zeppelin.conf.ZeppelinConfiguration;
+import org.apache.zeppelin.conf.ZeppelinConfiguration.ConfVars;
 import org.apache.zeppelin.display.AngularObject;
 import org.apache.zeppelin.display.AngularObjectRegistry;
 import org.apache.zeppelin.interpreter.Interpreter;
@@ -44,6 +47,9 @@ import org.slf4j.LoggerFactory;
  * Binded interpreters for a note
  */
 public class Note implements Serializable, JobListener {
+  public static final String RUN_MODE = "runMode";
+  public static final String RUN_MODE_DAG = "dag";
+
   transient Logger logger = LoggerFactory.getLogger(Note.class);
   List<Paragraph> paragraphs = new LinkedList<Paragraph>();
   private String name;
@@ -60,6 +66,9 @@ public class Note implements Serializable, JobListener {
    * note configurations.
    *
    * - looknfeel - cron
+   * - runMode : "dag" runs paragraphs as a dependency graph on runAll
+   * - cronPolicy : "skip", "queue" or "cancel" when cron fires during the previous run
+   * - cronQueueSize : max runs waiting with the "queue" cronPolicy
    */
   private Map<String, Object> config = new HashMap<String, Object>();
 
@@ -67,6 +76,7 @@ public class Note implements Serializable, JobListener {
    * note information.
    *
    * - cron : cron expression validity.
+   * - runAll : wall time and time saved by the last runAll in "dag" runMode.
    */
   private Map<String, Object> info = new HashMap<String, Object>();
 
@@ -126,6 +136,20 @@ public class Note implements Serializable, JobListener {
     this.repo = repo;
   }
 
+  public void setConf(ZeppelinConfiguration conf) {
+    this.conf = conf;
+  }
+
+  /**
+   * @return number of results kept per paragraph
+   */
+  int getResultHistorySize() {
+    if (conf == null) {
+      return ConfVars.ZEPPELIN_NOTEBOOK_RESULT_HISTORY.getIntValue();
+    }
+    return conf.getInt(ConfVars.ZEPPELIN_NOTEBOOK_RESULT_HISTORY);
+  }
+
   public Map<String, List<AngularObject>> getAngularObjects() {
     return angularObjects;
   }
@@ -180,6 +204,8 @@ public class Note implements Serializable, JobListener {
         Paragraph p = paragraphs.get(i);
         if (p.getId().equals(paragraphId)) {
           paragraphs.remove(i);
+          // a run of the note waiting for it doesn't wait forever
+          p.terminated(Status.ABORT);
           return p;
         }
       }
@@ -255,19 +281,75 @@ public class Note implements Serializable, JobListener {
   }
 
   /**
-   * Run all paragraphs sequentially.
+   * Run all paragraphs sequentially, or as a dependency graph in "dag" runMode.
    *
    * @param jobListener
    */
   public void runAll() {
+    runAll(null);
+  }
+
+  /**
+   * Run all paragraphs sequentially, or as a dependency graph in "dag" runMode.
+   *
+   * @param onFinished run once every paragraph terminated, or was skipped in "dag" runMode.
+   *                   may be null
+   */
+  public void runAll(final Runnable onFinished) {
+    if (RUN_MODE_DAG.equals(getConfig().get(RUN_MODE))) {
+      runAllAsDag(onFinished);
+      return;
+    }
+
+    final Set<Paragraph> remaining;
+    boolean empty;
     synchronized (paragraphs) {
+      remaining = new HashSet<Paragraph>(paragraphs);
+      empty = remaining.isEmpty();
+      Paragraph.TerminationCallback callback = new Paragraph.TerminationCallback() {
+        @Override
+        public void terminated(Paragraph paragraph, Status status) {
+          boolean allDone;
+          synchronized (remaining) {
+            allDone = remaining.remove(paragraph) && remaining.isEmpty();
+          }
+          if (allDone) {
+            onFinished.run();
+          }
+        }
+      };
+
       for (Paragraph p : paragraphs) {
         p.setNoteReplLoader(replLoader);
         p.setListener(jobListenerFactory.getParagraphJobListener(this));
-        Interpreter intp = replLoader.get(p.getRequiredReplName());
-        intp.getScheduler().submit(p);
+        if (onFinished != null) {
+          p.onTermination(callback);
+        }
+        if (replLoader.submit(p.getRequiredReplName(), p) == null) {
+          throw new InterpreterException("Interpreter " + p.getRequiredReplName()
+              + " not found");
+        }
+      }
+    }
+
+    if (empty && onFinished != null) {
+      onFinished.run();
+    }
+  }
+
+  private void runAllAsDag(Runnable onFinished) {
+    List<Paragraph> all = getParagraphs();
+    Map<Paragraph, Interpreter> interpreters = new HashMap<Paragraph, Interpreter>();
+    for (Paragraph p : all) {
+      p.setNoteReplLoader(replLoader);
+      p.setListener(jobListenerFactory.getParagraphJobListener(this));
+      Interpreter intp = replLoader.get(p.getRequiredReplName());
+      if (intp == null) {
+        throw new InterpreterException("Interpreter " + p.getRequiredReplName() + " not found");
       }
+      interpreters.put(p, intp);
     }
+    new ParagraphDagRunner(this, all, interpreters, onFinished).run();
   }
 
   /**
@@ -279,11 +361,10 @@ public class Note implements Serializable, JobListener {
     Paragraph p = getParagraph(paragraphId);
     p.setNoteReplLoader(replLoader);
     p.setListener(jobListenerFactory.getParagraphJobListener(this));
-    Interpreter intp = replLoader.get(p.getRequiredReplName());
+    Interpreter intp = replLoader.submit(p.getRequiredReplName(), p);
     if (intp == null) {
       throw new InterpreterException("Interpreter " + p.getRequiredReplName() + " not found");
     }
-    intp.getScheduler().submit(p);
   }
 
   public List<String> completion(String paragraphId, String buffer, int cursor) {
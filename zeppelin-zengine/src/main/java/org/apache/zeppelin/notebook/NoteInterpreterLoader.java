@@ -21,12 +21,14 @@ import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
 
+import org.apache.zeppelin.interpreter.CompletionCache;
 import org.apache.zeppelin.interpreter.Interpreter;
 import org.apache.zeppelin.interpreter.Interpreter.RegisteredInterpreter;
 import org.apache.zeppelin.interpreter.InterpreterException;
 import org.apache.zeppelin.interpreter.InterpreterFactory;
 import org.apache.zeppelin.interpreter.InterpreterGroup;
 import org.apache.zeppelin.interpreter.InterpreterSetting;
+import org.apache.zeppelin.scheduler.Job;
 
 /**
  * Repl loader per note.
@@ -73,6 +75,25 @@ public class NoteInterpreterLoader {
     return settings;
   }
 
+  public CompletionCache getCompletionCache() {
+    return factory.getCompletionCache();
+  }
+
+  /**
+   * Look up the interpreter and submit the job to its scheduler,
+   * atomically with the idle interpreter shutdown of the factory.
+   * @return interpreter the job is submitted to. null when not found
+   */
+  public Interpreter submit(String replName, Job job) {
+    synchronized (factory.getShutdownLock()) {
+      Interpreter intp = get(replName);
+      if (intp != null) {
+        intp.getScheduler().submit(job);
+      }
+      return intp;
+    }
+  }
+
   public Interpreter get(String replName) {
     List<InterpreterSetting> settings = getInterpreterSettings();
 
@@ -18,6 +18,9 @@
 package org.apache.zeppelin.notebook;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Constructor;
+import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -27,6 +30,7 @@ import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 import org.apache.zeppelin.conf.ZeppelinConfiguration;
 import org.apache.zeppelin.conf.ZeppelinConfiguration.ConfVars;
@@ -36,11 +40,17 @@ import org.apache.zeppelin.interpreter.InterpreterFactory;
 import org.apache.zeppelin.interpreter.InterpreterGroup;
 import org.apache.zeppelin.interpreter.InterpreterSetting;
 import org.apache.zeppelin.interpreter.remote.RemoteAngularObjectRegistry;
+import org.apache.zeppelin.notebook.cron.CronLockStore;
+import org.apache.zeppelin.notebook.cron.CronRun;
+import org.apache.zeppelin.notebook.cron.CronRunQueue;
 import org.apache.zeppelin.notebook.repo.NotebookRepo;
+import org.apache.zeppelin.scheduler.Job.Status;
 import org.apache.zeppelin.scheduler.SchedulerFactory;
+import org.quartz.CronExpression;
 import org.quartz.CronScheduleBuilder;
 import org.quartz.CronTrigger;
 import org.quartz.JobBuilder;
+import org.quartz.JobDataMap;
 import org.quartz.JobDetail;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
@@ -51,6 +61,8 @@ import org.quartz.impl.StdSchedulerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.gson.JsonParseException;
+
 /**
  * Collection of Notes.
  */
@@ -65,6 +77,11 @@ public class Notebook {
   private org.quartz.Scheduler quartzSched;
   private JobListenerFactory jobListenerFactory;
   private NotebookRepo notebookRepo;
+  private CompletionDebouncer completionDebouncer;
+  private CronLockStore cronLockStore;
+  private CronRunQueue cronRunQueue;
+  private final String cronOwner =
+      ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID();
 
   public Notebook(ZeppelinConfiguration conf, NotebookRepo notebookRepo,
       SchedulerFactory schedulerFactory,
@@ -75,10 +92,14 @@ public class Notebook {
     this.schedulerFactory = schedulerFactory;
     this.replFactory = replFactory;
     this.jobListenerFactory = jobListenerFactory;
+    this.completionDebouncer =
+        new CompletionDebouncer(conf.getLong(ConfVars.ZEPPELIN_COMPLETION_DEBOUNCE));
     quertzSchedFact = new org.quartz.impl.StdSchedulerFactory();
     quartzSched = quertzSchedFact.getScheduler();
     quartzSched.start();
     CronJob.notebook = this;
+    cronLockStore = createCronLockStore(conf);
+    cronRunQueue = new CronRunQueue(conf.getInt(ConfVars.ZEPPELIN_NOTEBOOK_CRON_CONCURRENT));
 
     loadAllNotes();
   }
@@ -106,6 +127,7 @@ public class Notebook {
   public Note createNote(List<String> interpreterIds) throws IOException {
     NoteInterpreterLoader intpLoader = new NoteInterpreterLoader(replFactory);
     Note note = new Note(notebookRepo, intpLoader, jobListenerFactory);
+    note.setConf(conf);
     intpLoader.setNoteId(note.id());
     synchronized (notes) {
       notes.put(note.id(), note);
@@ -227,6 +249,7 @@ public class Notebook {
 
     // set notebookRepo
     note.setNotebookRepo(notebookRepo);
+    note.setConf(conf);
 
     Map<String, SnapshotAngularObject> angularObjectSnapshot =
         new HashMap<String, SnapshotAngularObject>();
@@ -375,6 +398,22 @@ public class Notebook {
     this.jobListenerFactory = jobListenerFactory;
   }
 
+  private static CronLockStore createCronLockStore(ZeppelinConfiguration conf)
+      throws IOException {
+    String className = conf.getString(ConfVars.ZEPPELIN_NOTEBOOK_CRON_LOCK_STORE);
+    if (className == null || className.trim().length() == 0) {
+      return null;
+    }
+
+    try {
+      Constructor<?> constructor = Class.forName(className.trim())
+          .getConstructor(ZeppelinConfiguration.class);
+      return (CronLockStore) constructor.newInstance(conf);
+    } catch (Exception e) {
+      throw new IOException("Can't create cron lock store " + className, e);
+    }
+  }
+
   /**
    * Cron task for the note.
    *
@@ -386,13 +425,114 @@ public class Notebook {
 
     @Override
     public void execute(JobExecutionContext context) throws JobExecutionException {
+      JobDataMap data = context.getJobDetail().getJobDataMap();
+      String noteId = data.getString("noteId");
+      Notebook owner = (Notebook) data.get("notebook");
+      if (owner == null) {
+        owner = notebook;
+      }
+
+      CronExpression cron = null;
+      if (context.getTrigger() instanceof CronTrigger) {
+        CronTrigger trigger = (CronTrigger) context.getTrigger();
+        try {
+          cron = new CronExpression(trigger.getCronExpression());
+          cron.setTimeZone(trigger.getTimeZone());
+        } catch (ParseException e) {
+          // trigger was built from the expression
+        }
+      }
+      owner.runCron(noteId, cron, context.getScheduledFireTime(), context.getFireTime());
+    }
+  }
+
+  /**
+   * Run the note by its cron trigger. With a CronLockStore, only the server that acquires
+   * the lock of the trigger runs the note. The CronRunQueue decides when the run starts.
+   *
+   * @param cron cron expression of the trigger. null if unknown
+   * @param scheduledFireTime time quartz scheduled the trigger at
+   * @param fireTime time the trigger fired
+   */
+  void runCron(String noteId, CronExpression cron, Date scheduledFireTime, Date fireTime) {
+    final Note note = getNote(noteId);
+    if (note == null) {
+      return;
+    }
+    if (cronLockStore == null) {
+      cronRunQueue.trigger(note);
+      return;
+    }
+
+    // a misfired trigger fires once, as soon as possible, at a different time on every server.
+    // lock the time the cron expression was due at instead, which is the same on all servers
+    long lease = conf.getLong(ConfVars.ZEPPELIN_NOTEBOOK_CRON_LOCK_LEASE);
+    Date due = lastFireTime(cron, fireTime);
+    if (due == null) {
+      due = scheduledFireTime;
+    }
+    boolean misfire = !due.equals(scheduledFireTime);
 
-      String noteId = context.getJobDetail().getJobDataMap().getString("noteId");
-      Note note = notebook.getNote(noteId);
-      note.runAll();
+    try {
+      if (cronLockStore.tryLock(noteId + "_" + due.getTime(), cronOwner, lease)) {
+        final CronRun run = new CronRun(noteId, due, fireTime, cronOwner, misfire);
+        cronRunQueue.trigger(note, new Runnable() {
+          @Override
+          public void run() {
+            cronRunFinished(note, run);
+          }
+        });
+      } else {
+        logger.info("Cron trigger of note {} at {} runs on another server", noteId, due);
+      }
+      note.getInfo().put("cronRuns", cronLockStore.getRuns(noteId));
+    } catch (IOException | JsonParseException e) {
+      // running without the lock may run the note twice
+      logger.error("Can't lock cron trigger of note " + noteId + ". Skip", e);
+    }
+  }
+
+  /**
+   * Keep the run in the history of the cron runs of the note, with the status each paragraph
+   * ended with.
+   */
+  private void cronRunFinished(Note note, CronRun run) {
+    Map<String, Status> paragraphStatus = new LinkedHashMap<String, Status>();
+    for (Paragraph p : note.getParagraphs()) {
+      paragraphStatus.put(p.getId(), p.getStatus());
+    }
+    run.finished(new Date(), paragraphStatus);
+    try {
+      cronLockStore.addRun(run);
+      note.getInfo().put("cronRuns", cronLockStore.getRuns(note.id()));
+    } catch (IOException | JsonParseException e) {
+      logger.error("Can't keep cron run of note " + note.id(), e);
     }
   }
 
+  /**
+   * @return last time the expression was due at, no later than time. null if none in a year
+   */
+  static Date lastFireTime(CronExpression cron, Date time) {
+    if (cron == null) {
+      return null;
+    }
+    // widen the window until it contains a fire time, then walk to the last one
+    for (long window = 1000; window <= 366L * 24 * 3600 * 1000; window *= 2) {
+      Date next = cron.getTimeAfter(new Date(time.getTime() - window));
+      if (next != null && !next.after(time)) {
+        Date last = next;
+        next = cron.getTimeAfter(next);
+        while (next != null && !next.after(time)) {
+          last = next;
+          next = cron.getTimeAfter(next);
+        }
+        return last;
+      }
+    }
+    return null;
+  }
+
   public void refreshCron(String id) {
     removeCron(id);
     synchronized (notes) {
@@ -412,8 +552,11 @@ public class Notebook {
       }
 
 
+      JobDataMap data = new JobDataMap();
+      data.put("noteId", id);
+      data.put("notebook", this);
       JobDetail newJob =
-          JobBuilder.newJob(CronJob.class).withIdentity(id, "note").usingJobData("noteId", id)
+          JobBuilder.newJob(CronJob.class).withIdentity(id, "note").usingJobData(data)
           .build();
 
       Map<String, Object> info = note.getInfo();
@@ -450,6 +593,10 @@ public class Notebook {
     }
   }
 
+  public CompletionDebouncer getCompletionDebouncer() {
+    return completionDebouncer;
+  }
+
   public InterpreterFactory getInterpreterFactory() {
     return replFactory;
   }
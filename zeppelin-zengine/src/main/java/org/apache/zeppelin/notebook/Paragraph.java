@@ -20,6 +20,7 @@ package org.apache.zeppelin.notebook;
 import org.apache.zeppelin.display.AngularObjectRegistry;
 import org.apache.zeppelin.display.GUI;
 import org.apache.zeppelin.display.Input;
+import org.apache.zeppelin.display.InputTemplate;
 import org.apache.zeppelin.interpreter.*;
 import org.apache.zeppelin.interpreter.Interpreter.FormType;
 import org.apache.zeppelin.scheduler.Job;
@@ -30,6 +31,8 @@ import org.slf4j.LoggerFactory;
 import java.io.Serializable;
 import java.util.*;
 
+import com.google.gson.Gson;
+
 /**
  * Paragraph is a representation of an execution unit.
  *
@@ -37,14 +40,29 @@ import java.util.*;
  */
 public class Paragraph extends Job implements Serializable, Cloneable {
   private static final transient long serialVersionUID = -6328572073497992016L;
+  private static final transient Gson gson = new Gson();
   private transient NoteInterpreterLoader replLoader;
   private transient Note note;
+  // parsed forms of the last script run
+  private transient InputTemplate inputTemplate;
+  // result of the current run is in resultHistory
+  private transient boolean resultKept;
+  // called once the current run terminates, whatever listener is set meanwhile
+  private transient List<TerminationCallback> terminationCallbacks;
+
+  /**
+   * Called once the paragraph finished, failed or was aborted.
+   */
+  static interface TerminationCallback {
+    public void terminated(Paragraph paragraph, Status status);
+  }
 
   String title;
   String text;
   Date dateUpdated;
   private Map<String, Object> config; // paragraph configs like isOpen, colWidth, etc
   public final GUI settings;          // form and parameter settings
+  private ParagraphResultHistory resultHistory;
 
   public Paragraph(Note note, JobListener listener, NoteInterpreterLoader replLoader) {
     super(generateId(), listener);
@@ -155,7 +173,11 @@ public class Paragraph extends Job implements Serializable, Cloneable {
       return null;
     }
 
-    return repl.completion(body, cursor);
+    CompletionCache completionCache = replLoader.getCompletionCache();
+    if (completionCache == null) {
+      return repl.completion(body, cursor);
+    }
+    return completionCache.completion(repl, body, cursor);
   }
 
   public void setNoteReplLoader(NoteInterpreterLoader repls) {
@@ -198,13 +220,23 @@ public class Paragraph extends Job implements Serializable, Cloneable {
       settings.clear();
     } else if (repl.getFormType() == FormType.SIMPLE) {
       String scriptBody = getScriptBody();
-      Map<String, Input> inputs = Input.extractSimpleQueryParam(scriptBody); // inputs will be built
-                                                                             // from script body
+      InputTemplate template = inputTemplate;
+      if (template == null || !template.getScript().equals(scriptBody)) {
+        template = InputTemplate.parse(scriptBody);
+        inputTemplate = template;
+      }
+      Map<String, Input> inputs = template.getInputs(); // inputs will be built
+                                                        // from script body
       settings.setForms(inputs);
-      script = Input.getSimpleQuery(settings.getParams(), scriptBody);
+      script = template.render(settings.getParams());
     }
     logger().debug("RUN : " + script);
     InterpreterResult ret = repl.interpret(script, getInterpreterContext());
+    // names defined by this run are not in the cached completion candidates
+    CompletionCache completionCache = replLoader.getCompletionCache();
+    if (completionCache != null) {
+      completionCache.invalidate(repl);
+    }
     return ret;
   }
 
@@ -236,7 +268,16 @@ public class Paragraph extends Job implements Serializable, Cloneable {
             this.getConfig(),
             this.settings,
             registry,
-            runners);
+            runners,
+            new InterpreterOutput(new InterpreterOutputListener() {
+              @Override
+              public void onAppend(InterpreterOutput out, String output) {
+                JobListener listener = getListener();
+                if (listener instanceof ParagraphJobListener) {
+                  ((ParagraphJobListener) listener).onOutputAppend(Paragraph.this, out, output);
+                }
+              }
+            }));
     return interpreterContext;
   }
 
@@ -270,10 +311,83 @@ public class Paragraph extends Job implements Serializable, Cloneable {
   }
 
   public void setReturn(InterpreterResult value, Throwable t) {
+    getResultHistory();
     setResult(value);
     setException(t);
   }
 
+  /**
+   * @return kept results. the last one is the paragraph's result, until it is replaced
+   */
+  public synchronized ParagraphResultHistory getResultHistory() {
+    if (resultHistory == null) {
+      resultHistory = new ParagraphResultHistory();
+    }
+    Object ret = getReturn();
+    if (ret instanceof Map) {
+      // result read back from the notebook repo
+      ret = gson.fromJson(gson.toJsonTree(ret), InterpreterResult.class);
+    }
+    if (ret instanceof InterpreterResult) {
+      resultHistory.attach((InterpreterResult) ret);
+    }
+    return resultHistory;
+  }
+
+  @Override
+  public void setStatus(Status status) {
+    if (status == Status.PENDING || status == Status.RUNNING) {
+      resultKept = false;
+      // before the run replaces the result of the last kept version
+      getResultHistory();
+    }
+    // keep the result before listeners persist the note. a scheduler may report the end of
+    // a run more than once
+    if ((status == Status.FINISHED || status == Status.ERROR) && !resultKept
+        && getReturn() != null) {
+      resultKept = true;
+      Object ret = getReturn();
+      InterpreterResult result = ret instanceof InterpreterResult ? (InterpreterResult) ret
+          : new InterpreterResult(InterpreterResult.Code.ERROR, ret.toString());
+      int historySize = note == null ? 0 : note.getResultHistorySize();
+      getResultHistory().add(status, getDateStarted(), getDateFinished(), result, historySize);
+    }
+    super.setStatus(status);
+    if (status == Status.FINISHED || status == Status.ERROR || status == Status.ABORT) {
+      terminated(status);
+    }
+  }
+
+  /**
+   * Call back once the run the paragraph is submitted for terminates. Unlike a JobListener,
+   * the callback stays when the paragraph is run again meanwhile, which sets a new listener.
+   */
+  void onTermination(TerminationCallback callback) {
+    synchronized (this) {
+      if (terminationCallbacks == null) {
+        terminationCallbacks = new LinkedList<TerminationCallback>();
+      }
+      terminationCallbacks.add(callback);
+    }
+  }
+
+  /**
+   * Call back the termination callbacks now, as the paragraph won't run anymore.
+   */
+  void terminated(Status status) {
+    List<TerminationCallback> callbacks;
+    synchronized (this) {
+      if (terminationCallbacks == null || terminationCallbacks.isEmpty()) {
+        return;
+      }
+      callbacks = terminationCallbacks;
+      terminationCallbacks = null;
+    }
+    for (TerminationCallback callback : callbacks) {
+      callback.terminated(this, status);
+    }
+  }
+
   @Override
   public Object clone() throws CloneNotSupportedException {
     Paragraph paraClone = (Paragraph) super.clone();
@@ -289,6 +403,8 @@ public class Paragraph extends Job implements Serializable, Cloneable {
     paraClone.settings.setParams(param);
     paraClone.setTitle(this.getTitle());
     paraClone.setText(this.getText());
+    // a copy starts without the previous results
+    paraClone.resultHistory = null;
     return paraClone;
   }
 }
@@ -0,0 +1,315 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.notebook;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.zeppelin.interpreter.Interpreter;
+import org.apache.zeppelin.interpreter.InterpreterGroup;
+import org.apache.zeppelin.interpreter.InterpreterResult;
+import org.apache.zeppelin.scheduler.Job.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs paragraphs of a note as a dependency graph.
+ *
+ * A paragraph depends on the previous paragraph of the same interpreter group, and on the
+ * paragraphs listed in its "dependsOn" config. It is submitted to the scheduler of its
+ * interpreter once all of its dependencies finished, so independent paragraphs of different
+ * interpreter groups run at the same time. Paragraphs depending on a paragraph that did not
+ * finish successfully are not run, and are marked ABORT with the reason as their result.
+ * The note is saved when the run ends, with a summary of the run in its info.
+ */
+class ParagraphDagRunner {
+  public static final String DEPENDS_ON = "dependsOn";
+
+  Logger logger = LoggerFactory.getLogger(ParagraphDagRunner.class);
+
+  private final Note note;
+  private final List<Paragraph> paragraphs;
+  private final Map<Paragraph, Set<Paragraph>> waitingFor;
+  private final Map<Paragraph, List<Paragraph>> dependents =
+      new HashMap<Paragraph, List<Paragraph>>();
+  private final Set<Paragraph> done = new HashSet<Paragraph>();
+  private final Runnable onFinished;
+
+  private long started;
+  private long paragraphTime;
+  private int skipped;
+
+  /**
+   * @param paragraphs paragraphs in note order
+   * @param interpreters interpreter of each paragraph, to find its interpreter group.
+   *                     paragraphs are submitted to the interpreter the note finds
+   *                     when they are ready
+   * @param onFinished run once every paragraph terminated or was skipped. may be null
+   */
+  ParagraphDagRunner(Note note, List<Paragraph> paragraphs,
+      Map<Paragraph, Interpreter> interpreters, Runnable onFinished) {
+    this.note = note;
+    this.paragraphs = paragraphs;
+    this.onFinished = onFinished;
+
+    Map<Paragraph, String> groups = new HashMap<Paragraph, String>();
+    for (Paragraph p : paragraphs) {
+      Interpreter intp = interpreters.get(p);
+      InterpreterGroup group = intp.getInterpreterGroup();
+      groups.put(p, group == null ? intp.getClassName() : group.getId());
+    }
+
+    Map<Paragraph, Set<Paragraph>> dependencies = dependencies(paragraphs, groups, true);
+    if (dependencies == null) {
+      logger.warn("Dependencies declared in note {} form a cycle. Ignore them", note.id());
+      dependencies = dependencies(paragraphs, groups, false);
+    }
+    waitingFor = dependencies;
+
+    for (Paragraph p : paragraphs) {
+      dependents.put(p, new LinkedList<Paragraph>());
+    }
+    for (Paragraph p : paragraphs) {
+      for (Paragraph dependency : waitingFor.get(p)) {
+        dependents.get(dependency).add(p);
+      }
+    }
+  }
+
+  /**
+   * @param paragraphs paragraphs in note order
+   * @param groups interpreter group of each paragraph
+   * @param declared include dependencies declared in paragraph config
+   * @return dependencies of each paragraph. null when they form a cycle
+   */
+  static Map<Paragraph, Set<Paragraph>> dependencies(List<Paragraph> paragraphs,
+      Map<Paragraph, String> groups, boolean declared) {
+    Map<String, Paragraph> byId = new HashMap<String, Paragraph>();
+    for (Paragraph p : paragraphs) {
+      byId.put(p.getId(), p);
+    }
+
+    Map<Paragraph, Set<Paragraph>> dependencies = new HashMap<Paragraph, Set<Paragraph>>();
+    Map<String, Paragraph> lastOfGroup = new HashMap<String, Paragraph>();
+    for (Paragraph p : paragraphs) {
+      Set<Paragraph> set = new HashSet<Paragraph>();
+      Paragraph previous = lastOfGroup.put(groups.get(p), p);
+      if (previous != null) {
+        set.add(previous);
+      }
+      if (declared) {
+        for (String id : declaredDependencies(p)) {
+          Paragraph dependency = byId.get(id);
+          if (dependency != null && dependency != p) {
+            set.add(dependency);
+          }
+        }
+      }
+      dependencies.put(p, set);
+    }
+
+    return isAcyclic(dependencies) ? dependencies : null;
+  }
+
+  private static Collection<String> declaredDependencies(Paragraph p) {
+    List<String> ids = new LinkedList<String>();
+    Object value = p.getConfig().get(DEPENDS_ON);
+    if (value instanceof String) {
+      ids.add((String) value);
+    } else if (value instanceof Collection) {
+      for (Object id : (Collection<?>) value) {
+        if (id != null) {
+          ids.add(id.toString());
+        }
+      }
+    }
+    return ids;
+  }
+
+  private static boolean isAcyclic(Map<Paragraph, Set<Paragraph>> dependencies) {
+    Map<Paragraph, Set<Paragraph>> remaining = new HashMap<Paragraph, Set<Paragraph>>();
+    for (Map.Entry<Paragraph, Set<Paragraph>> e : dependencies.entrySet()) {
+      remaining.put(e.getKey(), new HashSet<Paragraph>(e.getValue()));
+    }
+
+    boolean progress = true;
+    while (!remaining.isEmpty() && progress) {
+      progress = false;
+      List<Paragraph> free = new LinkedList<Paragraph>();
+      for (Map.Entry<Paragraph, Set<Paragraph>> e : remaining.entrySet()) {
+        if (e.getValue().isEmpty()) {
+          free.add(e.getKey());
+        }
+      }
+      for (Paragraph p : free) {
+        remaining.remove(p);
+        progress = true;
+      }
+      for (Set<Paragraph> set : remaining.values()) {
+        set.removeAll(free);
+      }
+    }
+    return remaining.isEmpty();
+  }
+
+  public void run() {
+    List<Paragraph> ready = new LinkedList<Paragraph>();
+    boolean allDone = false;
+    synchronized (this) {
+      started = System.currentTimeMillis();
+      for (Paragraph p : paragraphs) {
+        if (waitingFor.get(p).isEmpty()) {
+          ready.add(p);
+        }
+      }
+      if (paragraphs.isEmpty()) {
+        finished();
+        allDone = true;
+      }
+    }
+
+    for (Paragraph p : ready) {
+      submit(p);
+    }
+    if (allDone) {
+      end();
+    }
+  }
+
+  private void submit(Paragraph p) {
+    p.onTermination(new Paragraph.TerminationCallback() {
+      @Override
+      public void terminated(Paragraph paragraph, Status status) {
+        ParagraphDagRunner.this.terminated(paragraph, status);
+      }
+    });
+    note.getNoteReplLoader().submit(p.getRequiredReplName(), p);
+  }
+
+  private void terminated(Paragraph p, Status status) {
+    List<Paragraph> ready = new LinkedList<Paragraph>();
+    List<Paragraph> skippedParagraphs = new LinkedList<Paragraph>();
+    boolean allDone = false;
+    synchronized (this) {
+      if (!done.add(p)) {
+        return;
+      }
+      if (p.getDateStarted() != null && p.getDateFinished() != null) {
+        paragraphTime += p.getDateFinished().getTime() - p.getDateStarted().getTime();
+      }
+      release(p, succeeded(p, status), ready, skippedParagraphs);
+      if (done.size() == paragraphs.size()) {
+        finished();
+        allDone = true;
+      }
+    }
+
+    // outside the lock, status listeners save and broadcast the note
+    for (Paragraph skippedParagraph : skippedParagraphs) {
+      skip(skippedParagraph, p, status);
+    }
+    for (Paragraph next : ready) {
+      submit(next);
+    }
+    if (allDone) {
+      end();
+    }
+  }
+
+  /**
+   * @return false when the paragraph failed or was aborted. A local scheduler reports
+   *         FINISHED for an ERROR result, a remote one reports ERROR
+   */
+  private static boolean succeeded(Paragraph p, Status status) {
+    if (status != Status.FINISHED) {
+      return false;
+    }
+    Object result = p.getReturn();
+    return !(result instanceof InterpreterResult)
+        || ((InterpreterResult) result).code() != InterpreterResult.Code.ERROR;
+  }
+
+  /**
+   * @param ready dependents of p that can run now
+   * @param skippedParagraphs dependents of p, direct or not, that won't run because p failed
+   */
+  private void release(Paragraph p, boolean succeeded, List<Paragraph> ready,
+      List<Paragraph> skippedParagraphs) {
+    for (Paragraph dependent : dependents.get(p)) {
+      if (!succeeded) {
+        if (done.add(dependent)) {
+          skipped++;
+          skippedParagraphs.add(dependent);
+          release(dependent, false, ready, skippedParagraphs);
+        }
+        continue;
+      }
+
+      Set<Paragraph> set = waitingFor.get(dependent);
+      set.remove(p);
+      if (set.isEmpty() && !done.contains(dependent)) {
+        ready.add(dependent);
+      }
+    }
+  }
+
+  /**
+   * Replace the status and result of the last run of a paragraph that is not run.
+   */
+  private void skip(Paragraph p, Paragraph failed, Status status) {
+    String reason = "Skipped: dependency " + failed.getId()
+        + (status == Status.ABORT ? " was aborted" : " failed");
+    logger.info("{} {}", p.getId(), reason);
+    p.setReturn(new InterpreterResult(InterpreterResult.Code.ERROR, reason), null);
+    p.setStatus(Status.ABORT);
+  }
+
+  /**
+   * Save the note with the summary of the run, then notify.
+   */
+  private void end() {
+    try {
+      note.persist();
+    } catch (IOException e) {
+      logger.error("Can't save note " + note.id() + " after running it", e);
+    }
+    if (onFinished != null) {
+      onFinished.run();
+    }
+  }
+
+  private void finished() {
+    long wallTime = System.currentTimeMillis() - started;
+    Map<String, Object> run = new HashMap<String, Object>();
+    run.put("mode", Note.RUN_MODE_DAG);
+    run.put("started", started);
+    run.put("wallTime", wallTime);
+    run.put("paragraphTime", paragraphTime);
+    run.put("timeSaved", Math.max(0, paragraphTime - wallTime));
+    run.put("skipped", skipped);
+    note.getInfo().put("runAll", run);
+    logger.info("Ran note {} in {} ms, {} ms less than running paragraphs one by one",
+        note.id(), wallTime, run.get("timeSaved"));
+  }
+}
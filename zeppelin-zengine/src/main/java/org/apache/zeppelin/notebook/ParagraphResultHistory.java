@@ -0,0 +1,308 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.notebook;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.apache.zeppelin.interpreter.InterpreterResult;
+import org.apache.zeppelin.interpreter.InterpreterResult.Code;
+import org.apache.zeppelin.interpreter.InterpreterResult.Type;
+import org.apache.zeppelin.scheduler.Job.Status;
+
+/**
+ * Last results of a paragraph, stored with the paragraph in the notebook repo.
+ *
+ * The newest kept result is the paragraph's own result and is not stored again. Every older one
+ * is stored as the lines changed from the result after it, so rerunning a paragraph adds only
+ * the lines of the output that changed.
+ */
+public class ParagraphResultHistory {
+  // edit distance in lines above which a result is stored as replacing the next one
+  private static final int MAX_DIFF = 500;
+
+  private int lastVersion;
+  private LinkedList<Version> versions = new LinkedList<Version>();
+  // result of the last version, the paragraph's result it was attached from
+  private transient InterpreterResult lastResult;
+
+  /**
+   * Result of a run.
+   */
+  public static class Version {
+    int version;
+    Status status;
+    Date dateStarted;
+    Date dateFinished;
+    Code code;
+    Type type;
+    // hash of the message, to tell the paragraph's result still is the one of this version
+    int hash;
+    // changes from the message of the next version. null for the last version
+    List<Edit> delta;
+
+    public int getVersion() {
+      return version;
+    }
+
+    public Status getStatus() {
+      return status;
+    }
+
+    public Date getDateStarted() {
+      return dateStarted;
+    }
+
+    public Date getDateFinished() {
+      return dateFinished;
+    }
+
+    public Code getCode() {
+      return code;
+    }
+
+    public Type getType() {
+      return type;
+    }
+  }
+
+  /**
+   * Replaces deleted lines from start of the next message by inserted lines.
+   */
+  static class Edit {
+    int start;
+    int deleted;
+    List<String> inserted = new ArrayList<String>();
+
+    Edit(int start) {
+      this.start = start;
+    }
+  }
+
+  /**
+   * Take the result of the paragraph as the result of the last version, if it is. Call before
+   * the paragraph's result is replaced.
+   */
+  public synchronized void attach(InterpreterResult result) {
+    if (lastResult != null || result == null || versions.isEmpty()) {
+      return;
+    }
+    if (versions.getLast().hash == message(result).hashCode()) {
+      lastResult = result;
+    }
+  }
+
+  /**
+   * Add the result of a run as the last version. When the result of the last version was not
+   * attached, older versions can't be rebuilt and are dropped.
+   *
+   * @param maxVersions number of versions to keep. older versions are removed
+   */
+  public synchronized void add(Status status, Date dateStarted, Date dateFinished,
+      InterpreterResult result, int maxVersions) {
+    String message = message(result);
+    if (lastResult == null) {
+      versions.clear();
+    } else if (!versions.isEmpty()) {
+      Version last = versions.getLast();
+      last.delta = diff(message, message(lastResult));
+    }
+
+    Version v = new Version();
+    v.version = ++lastVersion;
+    v.status = status;
+    v.dateStarted = dateStarted;
+    v.dateFinished = dateFinished;
+    v.code = result.code();
+    v.type = result.type();
+    v.hash = message.hashCode();
+    versions.add(v);
+    lastResult = result;
+
+    while (versions.size() > Math.max(maxVersions, 0)) {
+      versions.removeFirst();
+    }
+    if (versions.isEmpty()) {
+      lastResult = null;
+    }
+  }
+
+  /**
+   * @return kept versions, oldest first
+   */
+  public synchronized List<Version> getVersions() {
+    return new ArrayList<Version>(versions);
+  }
+
+  /**
+   * @return result of the version. null if not kept
+   */
+  public synchronized InterpreterResult getResult(int version) {
+    if (lastResult == null) {
+      return null;
+    }
+    String message = message(lastResult);
+    Iterator<Version> it = versions.descendingIterator();
+    while (it.hasNext()) {
+      Version v = it.next();
+      if (v.delta != null) {
+        message = apply(message, v.delta);
+      }
+      if (v.version == version) {
+        return new InterpreterResult(v.code, v.type, message);
+      }
+    }
+    return null;
+  }
+
+  private static String message(InterpreterResult result) {
+    return result.message() == null ? "" : result.message();
+  }
+
+  static String apply(String base, List<Edit> delta) {
+    String[] lines = lines(base);
+    List<String> applied = new ArrayList<String>(lines.length);
+    int pos = 0;
+    for (Edit edit : delta) {
+      for (; pos < edit.start; pos++) {
+        applied.add(lines[pos]);
+      }
+      applied.addAll(edit.inserted);
+      pos += edit.deleted;
+    }
+    for (; pos < lines.length; pos++) {
+      applied.add(lines[pos]);
+    }
+
+    StringBuilder message = new StringBuilder();
+    for (int i = 0; i < applied.size(); i++) {
+      if (i > 0) {
+        message.append('\n');
+      }
+      message.append(applied.get(i));
+    }
+    return message.toString();
+  }
+
+  /**
+   * Line changes from base to target, found by the Myers diff algorithm. When more than
+   * MAX_DIFF lines changed, the changed part of base is replaced as a whole.
+   */
+  static List<Edit> diff(String base, String target) {
+    String[] a = lines(base);
+    String[] b = lines(target);
+
+    int prefix = 0;
+    while (prefix < a.length && prefix < b.length && a[prefix].equals(b[prefix])) {
+      prefix++;
+    }
+    int suffix = 0;
+    while (suffix < a.length - prefix && suffix < b.length - prefix
+        && a[a.length - 1 - suffix].equals(b[b.length - 1 - suffix])) {
+      suffix++;
+    }
+
+    int n = a.length - prefix - suffix;
+    int m = b.length - prefix - suffix;
+    int max = Math.min(n + m, MAX_DIFF);
+    int offset = max + 1;
+    int[] v = new int[2 * max + 3];
+    List<int[]> trace = new ArrayList<int[]>();
+
+    for (int d = 0; d <= max; d++) {
+      trace.add(v.clone());
+      for (int k = -d; k <= d; k += 2) {
+        int x;
+        if (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) {
+          x = v[offset + k + 1];
+        } else {
+          x = v[offset + k - 1] + 1;
+        }
+        int y = x - k;
+        while (x < n && y < m && a[prefix + x].equals(b[prefix + y])) {
+          x++;
+          y++;
+        }
+        v[offset + k] = x;
+        if (x >= n && y >= m) {
+          return edits(trace, offset, d, n, m, b, prefix);
+        }
+      }
+    }
+
+    List<Edit> edits = new ArrayList<Edit>();
+    Edit edit = new Edit(prefix);
+    edit.deleted = n;
+    for (int i = 0; i < m; i++) {
+      edit.inserted.add(b[prefix + i]);
+    }
+    edits.add(edit);
+    return edits;
+  }
+
+  private static List<Edit> edits(List<int[]> trace, int offset, int distance, int n, int m,
+      String[] b, int prefix) {
+    // single line deletes and inserts, last first. {position in base, line of target or -1}
+    LinkedList<int[]> changes = new LinkedList<int[]>();
+    int x = n;
+    int y = m;
+    for (int d = distance; d > 0; d--) {
+      int[] v = trace.get(d);
+      int k = x - y;
+      int prevK;
+      if (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) {
+        prevK = k + 1;
+      } else {
+        prevK = k - 1;
+      }
+      int prevX = v[offset + prevK];
+      int prevY = prevX - prevK;
+      if (prevK == k + 1) {
+        changes.addFirst(new int[] {prevX, prevY});
+      } else {
+        changes.addFirst(new int[] {prevX, -1});
+      }
+      x = prevX;
+      y = prevY;
+    }
+
+    List<Edit> edits = new ArrayList<Edit>();
+    Edit edit = null;
+    for (int[] change : changes) {
+      int start = prefix + change[0];
+      boolean delete = change[1] < 0;
+      if (edit == null || edit.start + edit.deleted != start) {
+        edit = new Edit(start);
+        edits.add(edit);
+      }
+      if (delete) {
+        edit.deleted++;
+      } else {
+        edit.inserted.add(b[prefix + change[1]]);
+      }
+    }
+    return edits;
+  }
+
+  private static String[] lines(String message) {
+    return message.split("\n", -1);
+  }
+}
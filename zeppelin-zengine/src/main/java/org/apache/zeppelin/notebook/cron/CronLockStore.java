@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.notebook.cron;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Locks and run history of cron triggers, shared by zeppelin servers serving the same notebooks.
+ *
+ * Every server fires the cron triggers of the notes. The server that acquires the lock of a
+ * trigger runs the note, the others skip it.
+ *
+ * Implementations have a constructor taking ZeppelinConfiguration.
+ */
+public interface CronLockStore {
+  /**
+   * Acquire the lock, unless another owner holds it and its lease has not expired.
+   *
+   * @param lockId id of the lock. Same on all servers for the same trigger
+   * @param owner id of the server
+   * @param lease msec the lock is held
+   * @return true when owner holds the lock
+   */
+  public boolean tryLock(String lockId, String owner, long lease) throws IOException;
+
+  public void addRun(CronRun run) throws IOException;
+
+  /**
+   * @return recent runs of the note, oldest first
+   */
+  public List<CronRun> getRuns(String noteId) throws IOException;
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.notebook.cron;
+
+import java.util.Date;
+import java.util.Map;
+
+import org.apache.zeppelin.scheduler.Job.Status;
+
+/**
+ * A run of a note by its cron trigger.
+ */
+public class CronRun {
+  private String noteId;
+  private Date scheduledFireTime;
+  private Date fireTime;
+  private String owner;
+  private boolean misfire;
+  private Date dateFinished;
+  private Map<String, Status> paragraphStatus;
+
+  public CronRun(String noteId, Date scheduledFireTime, Date fireTime, String owner,
+      boolean misfire) {
+    this.noteId = noteId;
+    this.scheduledFireTime = scheduledFireTime;
+    this.fireTime = fireTime;
+    this.owner = owner;
+    this.misfire = misfire;
+  }
+
+  public String getNoteId() {
+    return noteId;
+  }
+
+  /**
+   * @return time the cron expression scheduled the run at
+   */
+  public Date getScheduledFireTime() {
+    return scheduledFireTime;
+  }
+
+  public Date getFireTime() {
+    return fireTime;
+  }
+
+  /**
+   * @return server that ran the note
+   */
+  public String getOwner() {
+    return owner;
+  }
+
+  /**
+   * @return true when the trigger fired late, e.g. no server was up at the scheduled time
+   */
+  public boolean isMisfire() {
+    return misfire;
+  }
+
+  /**
+   * Set once the run finished.
+   *
+   * @param paragraphStatus status of each paragraph of the note at the end of the run, by id
+   */
+  public void finished(Date dateFinished, Map<String, Status> paragraphStatus) {
+    this.dateFinished = dateFinished;
+    this.paragraphStatus = paragraphStatus;
+  }
+
+  public Date getDateFinished() {
+    return dateFinished;
+  }
+
+  /**
+   * @return status of each paragraph at the end of the run, by paragraph id
+   */
+  public Map<String, Status> getParagraphStatus() {
+    return paragraphStatus;
+  }
+}
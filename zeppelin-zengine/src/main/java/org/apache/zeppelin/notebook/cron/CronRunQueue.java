@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.notebook.cron;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.zeppelin.notebook.Note;
+import org.apache.zeppelin.notebook.Paragraph;
+import org.apache.zeppelin.scheduler.Job.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Starts the runs of notes fired by their cron triggers, one run of a note at a time.
+ *
+ * When a trigger fires before the previous run of the note finished, the "cronPolicy" note
+ * config decides what happens.
+ * <ul>
+ *   <li>skip (default) : the trigger is ignored</li>
+ *   <li>queue : the run starts after the previous one. At most "cronQueueSize" (default 1)
+ *   runs wait, later triggers are ignored</li>
+ *   <li>cancel : the previous run is aborted, and the new one starts once it stopped</li>
+ * </ul>
+ *
+ * At most maxConcurrent runs, of all notes, run at the same time, so scheduled notes leave
+ * interpreters to users. Other runs wait in the order they were triggered.
+ */
+public class CronRunQueue {
+  public static final String POLICY = "cronPolicy";
+  public static final String POLICY_SKIP = "skip";
+  public static final String POLICY_QUEUE = "queue";
+  public static final String POLICY_CANCEL = "cancel";
+  public static final String QUEUE_SIZE = "cronQueueSize";
+
+  Logger logger = LoggerFactory.getLogger(CronRunQueue.class);
+
+  private final int maxConcurrent;
+  private int running = 0;
+  private final Map<String, NoteRuns> notes = new HashMap<String, NoteRuns>();
+  private final LinkedList<Note> waiting = new LinkedList<Note>();
+
+  private static class NoteRuns {
+    boolean running;
+    boolean waiting;
+    int queued;
+    // callbacks of the waiting and queued runs, in start order
+    LinkedList<Runnable> callbacks = new LinkedList<Runnable>();
+    // callback of the running run
+    Runnable current;
+  }
+
+  /**
+   * @param maxConcurrent max number of runs at the same time. 0 or less for no limit
+   */
+  public CronRunQueue(int maxConcurrent) {
+    this.maxConcurrent = maxConcurrent;
+  }
+
+  /**
+   * Called when the cron trigger of the note fires.
+   *
+   * @return false when the trigger is ignored
+   */
+  public boolean trigger(Note note) {
+    return trigger(note, null);
+  }
+
+  /**
+   * Called when the cron trigger of the note fires.
+   *
+   * @param onFinished called once the run started for the trigger finished. Not called when
+   *        the run is dropped before it started, or the trigger joins a run waiting to start.
+   *        null for none
+   * @return false when the trigger is ignored
+   */
+  public boolean trigger(Note note, Runnable onFinished) {
+    boolean accepted = true;
+    boolean cancel = false;
+    List<Note> ready;
+
+    synchronized (this) {
+      NoteRuns runs = notes.get(note.id());
+      if (runs == null) {
+        runs = new NoteRuns();
+        notes.put(note.id(), runs);
+      }
+
+      if (!runs.running && !runs.waiting) {
+        runs.waiting = true;
+        runs.callbacks.add(onFinished);
+        waiting.add(note);
+      } else {
+        String policy = policy(note);
+        if (POLICY_QUEUE.equals(policy) && runs.queued < queueSize(note)) {
+          runs.queued++;
+          runs.callbacks.add(onFinished);
+        } else if (POLICY_CANCEL.equals(policy)) {
+          // a run waiting to start is as recent as this one
+          if (runs.running) {
+            runs.queued = 1;
+            runs.callbacks.clear();
+            runs.callbacks.add(onFinished);
+            cancel = true;
+          }
+        } else {
+          logger.info("Previous run of note {} has not finished. Skip", note.id());
+          accepted = false;
+        }
+      }
+      ready = startable();
+    }
+
+    if (cancel) {
+      logger.info("Cancel previous run of note {}", note.id());
+      cancel(note);
+    }
+    start(ready);
+    return accepted;
+  }
+
+  public synchronized boolean isRunning(String noteId) {
+    NoteRuns runs = notes.get(noteId);
+    return runs != null && runs.running;
+  }
+
+  /**
+   * @return number of runs of the note waiting for the previous one
+   */
+  public synchronized int getQueued(String noteId) {
+    NoteRuns runs = notes.get(noteId);
+    return runs == null ? 0 : runs.queued;
+  }
+
+  private String policy(Note note) {
+    Object policy = note.getConfig().get(POLICY);
+    return policy == null ? POLICY_SKIP : policy.toString();
+  }
+
+  private int queueSize(Note note) {
+    Object size = note.getConfig().get(QUEUE_SIZE);
+    if (size instanceof Number) {
+      return ((Number) size).intValue();
+    } else if (size instanceof String) {
+      try {
+        return Integer.parseInt((String) size);
+      } catch (NumberFormatException e) {
+        logger.warn("Invalid {} of note {}: {}", QUEUE_SIZE, note.id(), size);
+      }
+    }
+    return 1;
+  }
+
+  private List<Note> startable() {
+    List<Note> ready = new LinkedList<Note>();
+    while (!waiting.isEmpty() && (maxConcurrent <= 0 || running < maxConcurrent)) {
+      Note note = waiting.removeFirst();
+      NoteRuns runs = notes.get(note.id());
+      runs.waiting = false;
+      runs.running = true;
+      runs.current = runs.callbacks.removeFirst();
+      running++;
+      ready.add(note);
+    }
+    return ready;
+  }
+
+  private void start(List<Note> ready) {
+    for (final Note note : ready) {
+      try {
+        note.runAll(new Runnable() {
+          @Override
+          public void run() {
+            finished(note);
+          }
+        });
+      } catch (RuntimeException e) {
+        logger.error("Can't run note " + note.id(), e);
+        finished(note);
+      }
+    }
+  }
+
+  private void finished(Note note) {
+    List<Note> ready;
+    Runnable onFinished;
+    synchronized (this) {
+      running--;
+      NoteRuns runs = notes.get(note.id());
+      runs.running = false;
+      onFinished = runs.current;
+      runs.current = null;
+      if (runs.queued > 0) {
+        runs.queued--;
+        runs.waiting = true;
+        waiting.add(note);
+      } else {
+        notes.remove(note.id());
+      }
+      ready = startable();
+    }
+    if (onFinished != null) {
+      try {
+        onFinished.run();
+      } catch (RuntimeException e) {
+        logger.error("Error after the run of note " + note.id(), e);
+      }
+    }
+    start(ready);
+  }
+
+  private void cancel(Note note) {
+    for (Paragraph p : note.getParagraphs()) {
+      if (p.getStatus() == Status.PENDING || p.getStatus() == Status.RUNNING) {
+        p.abort();
+      }
+    }
+  }
+}
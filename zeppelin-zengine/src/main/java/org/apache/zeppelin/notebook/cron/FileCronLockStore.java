@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.notebook.cron;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Type;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.zeppelin.conf.ZeppelinConfiguration;
+import org.apache.zeppelin.conf.ZeppelinConfiguration.ConfVars;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * CronLockStore in a directory, for servers on the same host or sharing a file system
+ * with working file locks.
+ *
+ * Files are replaced atomically, so a crash while writing leaves the previous content.
+ * A file that can't be parsed anyway is treated as empty.
+ */
+public class FileCronLockStore implements CronLockStore {
+  private static final Logger logger = LoggerFactory.getLogger(FileCronLockStore.class);
+  private static final String ENCODING = "UTF-8";
+  // file locks are held by the JVM, not by the thread
+  private static final Object JVM_LOCK = new Object();
+
+  private final File dir;
+  private final int historySize;
+  private final Gson gson = new Gson();
+
+  private static class Lease {
+    String owner;
+    long expires;
+  }
+
+  public FileCronLockStore(ZeppelinConfiguration conf) throws IOException {
+    this(new File(conf.getRelativeDir(ConfVars.ZEPPELIN_NOTEBOOK_CRON_LOCK_DIR)),
+        conf.getInt(ConfVars.ZEPPELIN_NOTEBOOK_CRON_HISTORY));
+  }
+
+  public FileCronLockStore(File dir, int historySize) throws IOException {
+    this.dir = dir;
+    this.historySize = historySize;
+    new File(dir, "history").mkdirs();
+    if (!dir.isDirectory()) {
+      throw new IOException("Can't create cron lock directory " + dir);
+    }
+  }
+
+  @Override
+  public boolean tryLock(String lockId, String owner, long lease) throws IOException {
+    synchronized (JVM_LOCK) {
+      FileLock lock = lockStore();
+      try {
+        File file = new File(dir, "locks.json");
+        Map<String, Lease> leases = read(file, new TypeToken<Map<String, Lease>>() {}.getType());
+        if (leases == null) {
+          leases = new HashMap<String, Lease>();
+        }
+
+        long now = System.currentTimeMillis();
+        Iterator<Lease> it = leases.values().iterator();
+        while (it.hasNext()) {
+          if (it.next().expires <= now) {
+            it.remove();
+          }
+        }
+
+        Lease current = leases.get(lockId);
+        if (current != null && !current.owner.equals(owner)) {
+          return false;
+        }
+
+        Lease acquired = new Lease();
+        acquired.owner = owner;
+        acquired.expires = now + lease;
+        leases.put(lockId, acquired);
+        write(file, gson.toJson(leases));
+        return true;
+      } finally {
+        release(lock);
+      }
+    }
+  }
+
+  @Override
+  public void addRun(CronRun run) throws IOException {
+    synchronized (JVM_LOCK) {
+      FileLock lock = lockStore();
+      try {
+        List<CronRun> runs = readRuns(run.getNoteId());
+        runs.add(run);
+        while (runs.size() > historySize) {
+          runs.remove(0);
+        }
+        write(historyFile(run.getNoteId()), gson.toJson(runs));
+      } finally {
+        release(lock);
+      }
+    }
+  }
+
+  @Override
+  public List<CronRun> getRuns(String noteId) throws IOException {
+    synchronized (JVM_LOCK) {
+      FileLock lock = lockStore();
+      try {
+        return readRuns(noteId);
+      } finally {
+        release(lock);
+      }
+    }
+  }
+
+  private List<CronRun> readRuns(String noteId) throws IOException {
+    List<CronRun> runs = read(historyFile(noteId), new TypeToken<List<CronRun>>() {}.getType());
+    return runs == null ? new LinkedList<CronRun>() : new LinkedList<CronRun>(runs);
+  }
+
+  /**
+   * @return null if the file does not exist or can't be parsed
+   */
+  private <T> T read(File file, Type type) throws IOException {
+    if (!file.exists()) {
+      return null;
+    }
+    try {
+      return gson.fromJson(FileUtils.readFileToString(file, ENCODING), type);
+    } catch (JsonParseException e) {
+      logger.warn("Ignore unparseable " + file, e);
+      return null;
+    }
+  }
+
+  /**
+   * Write to a temporary file in the same directory, then rename it over the file.
+   */
+  private void write(File file, String json) throws IOException {
+    File tmp = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+    try {
+      FileUtils.writeStringToFile(tmp, json, ENCODING);
+      try {
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      if (tmp.exists()) {
+        tmp.delete();
+      }
+    }
+  }
+
+  private File historyFile(String noteId) {
+    return new File(new File(dir, "history"), noteId + ".json");
+  }
+
+  private FileLock lockStore() throws IOException {
+    RandomAccessFile file = new RandomAccessFile(new File(dir, "store.lock"), "rw");
+    try {
+      return file.getChannel().lock();
+    } catch (IOException e) {
+      file.close();
+      throw e;
+    }
+  }
+
+  private void release(FileLock lock) throws IOException {
+    FileChannel channel = lock.channel();
+    try {
+      lock.release();
+    } finally {
+      channel.close();
+    }
+  }
+}
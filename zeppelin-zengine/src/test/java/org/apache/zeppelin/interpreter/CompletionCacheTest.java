@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.interpreter;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class CompletionCacheTest {
+
+  @Test
+  public void testNarrowDownWhileTyping() {
+    Interpreter repl = mock(Interpreter.class);
+    List<String> candidates = Arrays.asList("textFile", "toString");
+    when(repl.completion("sc.t", 4)).thenReturn(candidates);
+
+    CompletionCache cache = new CompletionCache(60 * 1000);
+    assertEquals(candidates, cache.completion(repl, "sc.t", 4));
+    assertEquals(candidates, cache.completion(repl, "sc.t", 4));
+    assertEquals(Arrays.asList("textFile"), cache.completion(repl, "sc.te", 5));
+    assertEquals(Arrays.asList("textFile"), cache.completion(repl, "sc.tex", 6));
+    verify(repl, times(1)).completion("sc.t", 4);
+    verify(repl, times(0)).completion("sc.te", 5);
+    verify(repl, times(0)).completion("sc.tex", 6);
+
+    // different context
+    cache.completion(repl, "sqlContext.t", 12);
+    verify(repl, times(1)).completion("sqlContext.t", 12);
+    // word erased
+    cache.completion(repl, "sc.", 3);
+    verify(repl, times(1)).completion("sc.", 3);
+  }
+
+  @Test
+  public void testInvalidate() {
+    Interpreter repl = mock(Interpreter.class);
+    when(repl.completion("va", 2)).thenReturn(Arrays.asList("val", "var"));
+
+    CompletionCache cache = new CompletionCache(60 * 1000);
+    cache.completion(repl, "va", 2);
+    cache.completion(repl, "va", 2);
+    verify(repl, times(1)).completion("va", 2);
+
+    cache.invalidate(repl);
+    cache.completion(repl, "va", 2);
+    verify(repl, times(2)).completion("va", 2);
+  }
+
+  @Test
+  public void testExpire() throws InterruptedException {
+    Interpreter repl = mock(Interpreter.class);
+    when(repl.completion("va", 2)).thenReturn(Arrays.asList("val", "var"));
+
+    CompletionCache cache = new CompletionCache(10);
+    cache.completion(repl, "va", 2);
+    Thread.sleep(50);
+    cache.completion(repl, "va", 2);
+    verify(repl, times(2)).completion("va", 2);
+  }
+
+  @Test
+  public void testNotCachedWhenCandidatesDoNotCompleteWord() {
+    Interpreter repl = mock(Interpreter.class);
+    when(repl.completion("print(x", 7)).thenReturn(Arrays.asList("print(x)"));
+
+    CompletionCache cache = new CompletionCache(60 * 1000);
+    cache.completion(repl, "print(x", 7);
+    cache.completion(repl, "print(x", 7);
+    verify(repl, times(2)).completion("print(x", 7);
+  }
+
+  @Test
+  public void testDisabled() {
+    Interpreter repl = mock(Interpreter.class);
+    when(repl.completion("va", 2)).thenReturn(Arrays.asList("val", "var"));
+
+    CompletionCache cache = new CompletionCache(0);
+    cache.completion(repl, "va", 2);
+    cache.completion(repl, "va", 2);
+    verify(repl, times(2)).completion("va", 2);
+  }
+}
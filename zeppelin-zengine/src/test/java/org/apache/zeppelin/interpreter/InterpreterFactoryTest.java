@@ -20,10 +20,12 @@ package org.apache.zeppelin.interpreter;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Properties;
 
@@ -97,6 +99,43 @@ public class InterpreterFactoryTest {
 		assertFalse(((LazyOpenInterpreter) repl1).isOpen());
 	}
 
+	@Test
+	public void testInterpreterGroupListener() throws IOException {
+		final List<String> destroyed = new LinkedList<String>();
+		factory.setInterpreterGroupListener(new InterpreterGroupListener() {
+			@Override
+			public void onDestroy(String interpreterGroupId) {
+				destroyed.add(interpreterGroupId);
+			}
+		});
+		List<String> all = factory.getDefaultInterpreterSettingList();
+		String groupId = factory.get(all.get(0)).getInterpreterGroup().getId();
+
+		factory.restart(all.get(0));
+		assertEquals(1, destroyed.size());
+		assertEquals(groupId, destroyed.get(0));
+
+		factory.remove(all.get(0));
+		assertEquals(2, destroyed.size());
+	}
+
+	@Test
+	public void testProcessState() {
+		List<String> all = factory.getDefaultInterpreterSettingList();
+
+		// interpreters in this test are not remote
+		InterpreterProcessState state = factory.getProcessState(all.get(0));
+		assertEquals(InterpreterProcessState.State.STOPPED, state.getState());
+		assertEquals(-1, state.getIdleTime());
+
+		assertNull(factory.getProcessState("unknown"));
+
+		// not remote interpreters are never shut down
+		InterpreterGroup interpreterGroup = factory.get(all.get(0)).getInterpreterGroup();
+		factory.shutdownIdleInterpreters(0);
+		assertSame(interpreterGroup, factory.get(all.get(0)).getInterpreterGroup());
+	}
+
   @Test
   public void testFactoryDefaultList() throws IOException {
     // get default list from default setting
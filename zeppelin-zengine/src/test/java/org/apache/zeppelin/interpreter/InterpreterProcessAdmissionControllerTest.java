@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.interpreter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.apache.zeppelin.interpreter.remote.RemoteInterpreterProcess;
+import org.junit.Test;
+
+public class InterpreterProcessAdmissionControllerTest {
+  private static final long MB = 1024 * 1024;
+
+  @Test
+  public void testParseMaxHeap() {
+    assertEquals(1024 * MB,
+        InterpreterProcessAdmissionController.parseMaxHeap("-Xmx1024m -XX:MaxPermSize=512m", 0));
+    assertEquals(2048 * MB,
+        InterpreterProcessAdmissionController.parseMaxHeap("-Xmx1g -Xmx2G", 0));
+    assertEquals(512 * 1024,
+        InterpreterProcessAdmissionController.parseMaxHeap("-Xmx512k", 0));
+    assertEquals(7, InterpreterProcessAdmissionController.parseMaxHeap("-Xms1g", 7));
+    assertEquals(7, InterpreterProcessAdmissionController.parseMaxHeap(null, 7));
+  }
+
+  @Test
+  public void testReadRss() throws IOException {
+    File status = File.createTempFile("status", "");
+    status.deleteOnExit();
+    FileOutputStream out = new FileOutputStream(status);
+    out.write("Name:\tjava\nVmPeak:\t 3000 kB\nVmRSS:\t    2048 kB\nThreads:\t10\n".getBytes());
+    out.close();
+
+    assertEquals(2048 * 1024, InterpreterProcessAdmissionController.readRss(status));
+    assertEquals(-1, InterpreterProcessAdmissionController.readRss(new File("nonexists")));
+  }
+
+  @Test
+  public void testFirstProcessIsAlwaysAdmitted() {
+    InterpreterProcessAdmissionController controller =
+        new InterpreterProcessAdmissionController(100 * MB, 0, 200 * MB);
+    controller.admit(mockProcess());
+    assertEquals(200 * MB, controller.getUsage().getUsed());
+  }
+
+  @Test
+  public void testRejectOverBudget() {
+    InterpreterProcessAdmissionController controller =
+        new InterpreterProcessAdmissionController(300 * MB, 0, 200 * MB);
+    RemoteInterpreterProcess p1 = mockProcess();
+    controller.admit(p1);
+    controller.started(p1);
+
+    try {
+      controller.admit(mockProcess());
+      fail("second process does not fit in the budget");
+    } catch (InterpreterException e) {
+      // expected
+    }
+    assertEquals(1, controller.getUsage().getProcesses().size());
+
+    controller.terminated(p1);
+    controller.terminated(p1);
+    assertEquals(0, controller.getUsage().getUsed());
+    controller.admit(mockProcess());
+  }
+
+  @Test
+  public void testQueueUntilTerminated() throws InterruptedException {
+    final InterpreterProcessAdmissionController controller =
+        new InterpreterProcessAdmissionController(300 * MB, 10 * 1000, 200 * MB);
+    final RemoteInterpreterProcess p1 = mockProcess();
+    controller.admit(p1);
+
+    Thread terminate = new Thread() {
+      public void run() {
+        try {
+          Thread.sleep(200);
+        } catch (InterruptedException e) {
+        }
+        controller.terminated(p1);
+      }
+    };
+    terminate.start();
+
+    long start = System.currentTimeMillis();
+    controller.admit(mockProcess());
+    assertTrue(System.currentTimeMillis() - start >= 100);
+    assertEquals(1, controller.getUsage().getProcesses().size());
+    terminate.join();
+  }
+
+  @Test
+  public void testUnlimitedBudget() {
+    InterpreterProcessAdmissionController controller =
+        new InterpreterProcessAdmissionController(-1, 0, 200 * MB);
+    for (int i = 0; i < 10; i++) {
+      controller.admit(mockProcess());
+    }
+    assertEquals(-1, controller.getUsage().getBudget());
+    assertEquals(2000 * MB, controller.getUsage().getUsed());
+  }
+
+  private RemoteInterpreterProcess mockProcess() {
+    RemoteInterpreterProcess process = mock(RemoteInterpreterProcess.class);
+    when(process.getPid()).thenReturn(-1L);
+    return process;
+  }
+}
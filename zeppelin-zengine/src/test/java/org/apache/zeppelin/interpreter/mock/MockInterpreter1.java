@@ -45,6 +45,9 @@ public class MockInterpreter1 extends Interpreter{
 
 	@Override
 	public InterpreterResult interpret(String st, InterpreterContext context) {
+		if ("fail".equals(st)) {
+			return new InterpreterResult(InterpreterResult.Code.ERROR, "repl1: failed");
+		}
 		return new InterpreterResult(InterpreterResult.Code.SUCCESS, "repl1: "+st);
 	}
 
@@ -18,32 +18,44 @@
 package org.apache.zeppelin.notebook;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.zeppelin.conf.ZeppelinConfiguration;
 import org.apache.zeppelin.conf.ZeppelinConfiguration.ConfVars;
 import org.apache.zeppelin.display.AngularObjectRegistry;
 import org.apache.zeppelin.interpreter.InterpreterFactory;
+import org.apache.zeppelin.interpreter.InterpreterResult;
 import org.apache.zeppelin.interpreter.InterpreterOption;
 import org.apache.zeppelin.interpreter.mock.MockInterpreter1;
 import org.apache.zeppelin.interpreter.mock.MockInterpreter2;
+import org.apache.zeppelin.notebook.cron.CronRun;
+import org.apache.zeppelin.notebook.cron.CronRunQueue;
+import org.apache.zeppelin.notebook.cron.FileCronLockStore;
 import org.apache.zeppelin.notebook.repo.NotebookRepo;
 import org.apache.zeppelin.notebook.repo.VFSNotebookRepo;
 import org.apache.zeppelin.scheduler.Job;
 import org.apache.zeppelin.scheduler.Job.Status;
 import org.apache.zeppelin.scheduler.JobListener;
+import org.apache.zeppelin.scheduler.Scheduler;
 import org.apache.zeppelin.scheduler.SchedulerFactory;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.quartz.CronExpression;
 import org.quartz.SchedulerException;
 
 public class NotebookTest implements JobListenerFactory{
@@ -160,6 +172,104 @@ public class NotebookTest implements JobListenerFactory{
     assertEquals(1, notebook2.getAllNotes().size());
   }
 
+  @Test
+  public void testResultHistory() throws Exception {
+    System.setProperty(ConfVars.ZEPPELIN_NOTEBOOK_RESULT_HISTORY.getVarName(), "5");
+    try {
+      Note note = notebook.createNote();
+      note.getNoteReplLoader().setInterpreters(factory.getDefaultInterpreterSettingList());
+
+      Paragraph p1 = note.addParagraph();
+      for (String text : new String[] {"a\nb\nc", "a\nB\nc", "a\nB\nc\nd"}) {
+        p1.setText(text);
+        note.run(p1.getId());
+        while (p1.isTerminated() == false || p1.getResult() == null) Thread.yield();
+      }
+      note.persist();
+
+      List<ParagraphResultHistory.Version> versions = p1.getResultHistory().getVersions();
+      assertEquals(3, versions.size());
+      assertEquals(3, versions.get(2).getVersion());
+      assertEquals(Status.FINISHED, versions.get(0).getStatus());
+      assertEquals("repl1: a\nb\nc", p1.getResultHistory().getResult(1).message());
+
+      // history is read back from the repo
+      Notebook notebook2 = new Notebook(conf, notebookRepo, schedulerFactory,
+          new InterpreterFactory(conf, null), this);
+      ParagraphResultHistory loaded =
+          notebook2.getNote(note.id()).getParagraph(p1.getId()).getResultHistory();
+      assertEquals(3, loaded.getVersions().size());
+      assertEquals("repl1: a\nB\nc", loaded.getResult(2).message());
+      assertEquals("repl1: a\nB\nc\nd", loaded.getResult(3).message());
+
+      // a copy of the note starts without history
+      Note cloned = notebook.cloneNote(note.id(), "clone");
+      assertEquals(0, cloned.getParagraphs().get(0).getResultHistory().getVersions().size());
+    } finally {
+      System.clearProperty(ConfVars.ZEPPELIN_NOTEBOOK_RESULT_HISTORY.getVarName());
+    }
+  }
+
+  @Test
+  public void testResultHistoryOffByDefault() throws Exception {
+    Note note = notebook.createNote();
+    note.getNoteReplLoader().setInterpreters(factory.getDefaultInterpreterSettingList());
+    Paragraph p1 = note.addParagraph();
+    p1.setText("a");
+    note.run(p1.getId());
+    while (p1.isTerminated() == false || p1.getResult() == null) Thread.yield();
+    assertEquals(0, p1.getResultHistory().getVersions().size());
+  }
+
+  @Test
+  public void testCronRunSurvivesInteractiveRun() throws Exception {
+    Note note = notebook.createNote();
+    note.getNoteReplLoader().setInterpreters(factory.getDefaultInterpreterSettingList());
+    Paragraph p1 = note.addParagraph();
+    p1.setText("p1");
+    Paragraph p2 = note.addParagraph();
+    p2.setText("p2");
+
+    // hold the scheduler, so the cron run is still pending when the user runs p1
+    final CountDownLatch hold = new CountDownLatch(1);
+    Scheduler scheduler = note.getNoteReplLoader().get(null).getScheduler();
+    scheduler.submit(new Job("hold", null) {
+      @Override
+      public int progress() {
+        return 0;
+      }
+
+      @Override
+      public Map<String, Object> info() {
+        return null;
+      }
+
+      @Override
+      protected Object jobRun() throws Throwable {
+        hold.await();
+        return null;
+      }
+
+      @Override
+      protected boolean jobAbort() {
+        return false;
+      }
+    });
+
+    CronRunQueue queue = new CronRunQueue(1);
+    assertTrue(queue.trigger(note));
+    // sets a new listener on p1
+    note.run(p1.getId());
+    hold.countDown();
+
+    long start = System.currentTimeMillis();
+    while (queue.isRunning(note.id()) && System.currentTimeMillis() - start < 10000) {
+      Thread.sleep(10);
+    }
+    assertFalse(queue.isRunning(note.id()));
+    assertTrue(queue.trigger(note));
+  }
+
   @Test
   public void testRunAll() throws IOException {
     Note note = notebook.createNote();
@@ -176,6 +286,89 @@ public class NotebookTest implements JobListenerFactory{
     assertEquals("repl1: p2", p2.getResult().message());
   }
 
+  @Test
+  public void testRunAllDag() throws IOException {
+    Note note = notebook.createNote();
+    note.getNoteReplLoader().setInterpreters(factory.getDefaultInterpreterSettingList());
+    note.getConfig().put(Note.RUN_MODE, Note.RUN_MODE_DAG);
+
+    Paragraph p1 = note.addParagraph();
+    p1.setText("p1");
+    Paragraph p2 = note.addParagraph();
+    p2.setText("%mock2.mock2 p2");
+    Paragraph p3 = note.addParagraph();
+    p3.setText("%mock2.mock2 p3");
+    Paragraph p4 = note.addParagraph();
+    p4.setText("p4");
+    p3.getConfig().put("dependsOn", Arrays.asList(p4.getId()));
+    note.runAll();
+
+    while (note.getInfo().get("runAll") == null) Thread.yield();
+    for (Paragraph p : note.getParagraphs()) {
+      assertEquals(Status.FINISHED, p.getStatus());
+    }
+    assertEquals("repl2: p3", p3.getResult().message());
+    // p3 waits for p2 (same interpreter) and p4 (declared)
+    assertFalse(p3.getDateStarted().before(p2.getDateFinished()));
+    assertFalse(p3.getDateStarted().before(p4.getDateFinished()));
+    assertFalse(p4.getDateStarted().before(p1.getDateFinished()));
+
+    Map<String, Object> run = (Map<String, Object>) note.getInfo().get("runAll");
+    assertEquals(0, run.get("skipped"));
+  }
+
+  @Test
+  public void testRunAllDagSkipsDependentsOfFailedParagraph() throws IOException {
+    Note note = notebook.createNote();
+    note.getNoteReplLoader().setInterpreters(factory.getDefaultInterpreterSettingList());
+    note.getConfig().put(Note.RUN_MODE, Note.RUN_MODE_DAG);
+
+    Paragraph p1 = note.addParagraph();
+    p1.setText("fail");
+    Paragraph p2 = note.addParagraph();
+    p2.setText("%mock2.mock2 p2");
+    Paragraph p3 = note.addParagraph();
+    p3.setText("%mock2.mock2 p3");
+    p2.getConfig().put("dependsOn", Arrays.asList(p1.getId()));
+    note.runAll();
+
+    // saved with the summary of the run once it ends
+    while (notebookRepo.get(note.id()).getInfo().get("runAll") == null) Thread.yield();
+    assertEquals(InterpreterResult.Code.ERROR, p1.getResult().code());
+    // p2 depends on p1, p3 on p2 (same interpreter)
+    for (Paragraph p : Arrays.asList(p2, p3)) {
+      assertEquals(Status.ABORT, p.getStatus());
+      assertEquals("Skipped: dependency " + p1.getId() + " failed",
+          p.getResult().message());
+    }
+    Map<String, Object> run = (Map<String, Object>) notebookRepo.get(note.id()).getInfo()
+        .get("runAll");
+    assertEquals(2, ((Number) run.get("skipped")).intValue());
+  }
+
+  @Test
+  public void testRunAllDagIgnoresCycle() throws IOException {
+    Note note = notebook.createNote();
+    Paragraph p1 = note.addParagraph();
+    Paragraph p2 = note.addParagraph();
+    Paragraph p3 = note.addParagraph();
+    p1.getConfig().put("dependsOn", p3.getId());
+    Map<Paragraph, String> groups = new HashMap<Paragraph, String>();
+    groups.put(p1, "a");
+    groups.put(p2, "b");
+    groups.put(p3, "a");
+
+    Map<Paragraph, Set<Paragraph>> dependencies = ParagraphDagRunner.dependencies(
+        note.getParagraphs(), groups, true);
+    assertNull(dependencies);
+
+    dependencies = ParagraphDagRunner.dependencies(note.getParagraphs(), groups, false);
+    assertTrue(dependencies.get(p1).isEmpty());
+    assertTrue(dependencies.get(p2).isEmpty());
+    assertEquals(1, dependencies.get(p3).size());
+    assertTrue(dependencies.get(p3).contains(p1));
+  }
+
   @Test
   public void testSchedule() throws InterruptedException, IOException{
     // create a note and a paragraph
@@ -204,6 +397,53 @@ public class NotebookTest implements JobListenerFactory{
     assertEquals(dateFinished, p.getDateFinished());
   }
 
+  @Test
+  public void testClusteredCron() throws Exception {
+    System.setProperty(ConfVars.ZEPPELIN_NOTEBOOK_CRON_LOCK_STORE.getVarName(),
+        FileCronLockStore.class.getName());
+    try {
+      Notebook server1 = new Notebook(conf, notebookRepo, schedulerFactory, factory, this);
+      Note note1 = server1.createNote();
+      note1.getNoteReplLoader().setInterpreters(factory.getDefaultInterpreterSettingList());
+      Paragraph p1 = note1.addParagraph();
+      p1.setText("p1");
+      note1.persist();
+
+      Notebook server2 = new Notebook(conf, notebookRepo, schedulerFactory, factory, this);
+      Note note2 = server2.getNote(note1.id());
+      Paragraph p2 = note2.getParagraph(p1.getId());
+
+      // both servers fire the trigger, hourly, late
+      CronExpression cron = new CronExpression("0 0 * * * ?");
+      Date now = new Date();
+      server1.runCron(note1.id(), cron, now, now);
+      server2.runCron(note1.id(), cron, new Date(now.getTime() + 10),
+          new Date(now.getTime() + 10));
+
+      // the run is kept once it finished
+      List<CronRun> runs = (List<CronRun>) note1.getInfo().get("cronRuns");
+      while (runs.isEmpty()) {
+        Thread.yield();
+        runs = (List<CronRun>) note1.getInfo().get("cronRuns");
+      }
+      assertNull(p2.getDateStarted());
+      assertEquals(1, runs.size());
+      assertTrue(runs.get(0).isMisfire());
+      assertEquals(cron.getTimeAfter(new Date(now.getTime() - 3600 * 1000)),
+          runs.get(0).getScheduledFireTime());
+      assertNotNull(runs.get(0).getDateFinished());
+      assertEquals(Status.FINISHED, runs.get(0).getParagraphStatus().get(p1.getId()));
+
+      // read back by the other server
+      server2.runCron(note1.id(), cron, now, now);
+      runs = (List<CronRun>) note2.getInfo().get("cronRuns");
+      assertEquals(1, runs.size());
+      assertEquals(Status.FINISHED, runs.get(0).getParagraphStatus().get(p1.getId()));
+    } finally {
+      System.clearProperty(ConfVars.ZEPPELIN_NOTEBOOK_CRON_LOCK_STORE.getVarName());
+    }
+  }
+
   @Test
   public void testAngularObjectRemovalOnNotebookRemove() throws InterruptedException,
       IOException {
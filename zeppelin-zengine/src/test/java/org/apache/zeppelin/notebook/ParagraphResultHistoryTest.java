@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.notebook;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.zeppelin.interpreter.InterpreterResult;
+import org.apache.zeppelin.interpreter.InterpreterResult.Code;
+import org.apache.zeppelin.interpreter.InterpreterResult.Type;
+import org.apache.zeppelin.scheduler.Job.Status;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+
+public class ParagraphResultHistoryTest {
+
+  private InterpreterResult table(int rows, int changed, Random random) {
+    StringBuilder msg = new StringBuilder("id\tvalue");
+    for (int i = 0; i < rows; i++) {
+      msg.append("\n").append(i).append("\t").append(i < changed ? random.nextInt() : i * 10);
+    }
+    return new InterpreterResult(Code.SUCCESS, Type.TABLE, msg.toString());
+  }
+
+  @Test
+  public void testDiff() {
+    Random random = new Random(1);
+    String[] lines = new String[] {"a", "b", "c", "d", ""};
+    for (int i = 0; i < 1000; i++) {
+      String base = randomText(random, lines);
+      String target = randomText(random, lines);
+      assertEquals(target, ParagraphResultHistory.apply(base,
+          ParagraphResultHistory.diff(base, target)));
+    }
+
+    List<ParagraphResultHistory.Edit> delta =
+        ParagraphResultHistory.diff("a\nb\nc\nd", "a\nB\nc\nd\ne");
+    assertEquals(2, delta.size());
+    assertEquals(1, delta.get(0).start);
+    assertEquals(1, delta.get(0).deleted);
+    assertEquals("B", delta.get(0).inserted.get(0));
+    assertEquals(4, delta.get(1).start);
+  }
+
+  private String randomText(Random random, String[] lines) {
+    StringBuilder text = new StringBuilder();
+    int size = random.nextInt(10);
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        text.append("\n");
+      }
+      text.append(lines[random.nextInt(lines.length)]);
+    }
+    return text.toString();
+  }
+
+  @Test
+  public void testBoundedHistory() {
+    Random random = new Random(1);
+    ParagraphResultHistory history = new ParagraphResultHistory();
+    InterpreterResult[] results = new InterpreterResult[6];
+    for (int i = 0; i < results.length; i++) {
+      results[i] = table(1000, 3, random);
+      history.add(Status.FINISHED, new Date(i), new Date(i + 1), results[i], 3);
+    }
+
+    List<ParagraphResultHistory.Version> versions = history.getVersions();
+    assertEquals(3, versions.size());
+    assertEquals(4, versions.get(0).getVersion());
+    assertNull(history.getResult(3));
+    for (int i = 3; i < results.length; i++) {
+      InterpreterResult result = history.getResult(i + 1);
+      assertEquals(results[i].message(), result.message());
+      assertEquals(Type.TABLE, result.type());
+    }
+  }
+
+  @Test
+  public void testStoredAsChanges() {
+    Random random = new Random(1);
+    ParagraphResultHistory history = new ParagraphResultHistory();
+    InterpreterResult last = null;
+    for (int i = 0; i < 5; i++) {
+      last = table(1000, 3, random);
+      history.add(Status.FINISHED, new Date(i), new Date(i + 1), last, 5);
+    }
+    Gson gson = new Gson();
+    String json = gson.toJson(history);
+    // the last result is the paragraph's. four times three changed lines
+    assertTrue(json.length() < gson.toJson(last.message()).length() * 0.2);
+
+    ParagraphResultHistory loaded = gson.fromJson(json, ParagraphResultHistory.class);
+    assertNull(loaded.getResult(3));
+    loaded.attach(last);
+    assertEquals(history.getResult(3).message(), loaded.getResult(3).message());
+    InterpreterResult next = table(1000, 3, random);
+    loaded.add(Status.ERROR, new Date(10), new Date(11), next, 5);
+    assertEquals(next.message(), loaded.getResult(6).message());
+    assertEquals(history.getResult(3).message(), loaded.getResult(3).message());
+  }
+
+  @Test
+  public void testResultNotAttached() {
+    ParagraphResultHistory history = new ParagraphResultHistory();
+    history.add(Status.FINISHED, new Date(0), new Date(1),
+        new InterpreterResult(Code.SUCCESS, "a"), 5);
+    ParagraphResultHistory loaded =
+        new Gson().fromJson(new Gson().toJson(history), ParagraphResultHistory.class);
+
+    // the paragraph's result was replaced without being kept
+    loaded.attach(new InterpreterResult(Code.SUCCESS, "b"));
+    assertNull(loaded.getResult(1));
+    loaded.add(Status.FINISHED, new Date(2), new Date(3),
+        new InterpreterResult(Code.SUCCESS, "c"), 5);
+    assertEquals(1, loaded.getVersions().size());
+    assertEquals("c", loaded.getResult(2).message());
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.notebook.cron;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.zeppelin.notebook.Note;
+import org.apache.zeppelin.notebook.Paragraph;
+import org.apache.zeppelin.scheduler.Job.Status;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class CronRunQueueTest {
+  private List<Runnable> running = new LinkedList<Runnable>();
+  private List<String> started = new LinkedList<String>();
+
+  private Note note(final String id, Map<String, Object> config, Paragraph... paragraphs) {
+    Note note = mock(Note.class);
+    when(note.id()).thenReturn(id);
+    when(note.getConfig()).thenReturn(config);
+    when(note.getParagraphs()).thenReturn(Arrays.asList(paragraphs));
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) {
+        started.add(id);
+        running.add((Runnable) invocation.getArguments()[0]);
+        return null;
+      }
+    }).when(note).runAll(any(Runnable.class));
+    return note;
+  }
+
+  private Map<String, Object> policy(String policy) {
+    Map<String, Object> config = new HashMap<String, Object>();
+    config.put(CronRunQueue.POLICY, policy);
+    return config;
+  }
+
+  private void finishFirst() {
+    running.remove(0).run();
+  }
+
+  @Test
+  public void testSkip() {
+    CronRunQueue queue = new CronRunQueue(-1);
+    Note note = note("note1", new HashMap<String, Object>());
+
+    assertTrue(queue.trigger(note));
+    assertFalse(queue.trigger(note));
+    assertEquals(1, started.size());
+    assertTrue(queue.isRunning("note1"));
+
+    finishFirst();
+    assertFalse(queue.isRunning("note1"));
+    assertTrue(queue.trigger(note));
+    assertEquals(2, started.size());
+  }
+
+  @Test
+  public void testQueue() {
+    CronRunQueue queue = new CronRunQueue(-1);
+    Map<String, Object> config = policy(CronRunQueue.POLICY_QUEUE);
+    // as read from note.json
+    config.put(CronRunQueue.QUEUE_SIZE, 2.0);
+    Note note = note("note1", config);
+
+    assertTrue(queue.trigger(note));
+    assertTrue(queue.trigger(note));
+    assertTrue(queue.trigger(note));
+    assertFalse(queue.trigger(note));
+    assertEquals(1, started.size());
+    assertEquals(2, queue.getQueued("note1"));
+
+    finishFirst();
+    assertEquals(2, started.size());
+    assertEquals(1, queue.getQueued("note1"));
+    finishFirst();
+    finishFirst();
+    assertEquals(3, started.size());
+    assertFalse(queue.isRunning("note1"));
+  }
+
+  @Test
+  public void testOnFinished() {
+    CronRunQueue queue = new CronRunQueue(-1);
+    Note note = note("note1", policy(CronRunQueue.POLICY_QUEUE));
+    final List<String> finished = new LinkedList<String>();
+
+    for (final String trigger : new String[] {"first", "second", "skipped"}) {
+      queue.trigger(note, new Runnable() {
+        @Override
+        public void run() {
+          finished.add(trigger);
+        }
+      });
+    }
+    assertTrue(finished.isEmpty());
+
+    finishFirst();
+    assertEquals(Arrays.asList("first"), finished);
+    finishFirst();
+    assertEquals(Arrays.asList("first", "second"), finished);
+  }
+
+  @Test
+  public void testCancel() {
+    CronRunQueue queue = new CronRunQueue(-1);
+    Paragraph finished = mock(Paragraph.class);
+    when(finished.getStatus()).thenReturn(Status.FINISHED);
+    Paragraph pending = mock(Paragraph.class);
+    when(pending.getStatus()).thenReturn(Status.PENDING);
+    Note note = note("note1", policy(CronRunQueue.POLICY_CANCEL), finished, pending);
+
+    queue.trigger(note);
+    assertTrue(queue.trigger(note));
+    verify(pending).abort();
+    verify(finished, never()).abort();
+
+    // next run starts once the aborted one stopped
+    assertEquals(1, started.size());
+    finishFirst();
+    assertEquals(2, started.size());
+    assertEquals(0, queue.getQueued("note1"));
+  }
+
+  @Test
+  public void testMaxConcurrent() {
+    CronRunQueue queue = new CronRunQueue(1);
+    Note note1 = note("note1", new HashMap<String, Object>());
+    Note note2 = note("note2", new HashMap<String, Object>());
+
+    queue.trigger(note1);
+    assertTrue(queue.trigger(note2));
+    // note2 waits for a slot, another trigger of it is not queued again
+    assertFalse(queue.trigger(note2));
+    assertEquals(Arrays.asList("note1"), started);
+
+    finishFirst();
+    assertEquals(Arrays.asList("note1", "note2"), started);
+    assertTrue(queue.isRunning("note2"));
+  }
+
+  @Test
+  public void testRunFailure() {
+    CronRunQueue queue = new CronRunQueue(1);
+    Note broken = mock(Note.class);
+    when(broken.id()).thenReturn("broken");
+    when(broken.getConfig()).thenReturn(new HashMap<String, Object>());
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) {
+        throw new IllegalStateException("cycle");
+      }
+    }).when(broken).runAll(any(Runnable.class));
+
+    queue.trigger(broken);
+    assertFalse(queue.isRunning("broken"));
+    // the slot is released
+    queue.trigger(note("note1", new HashMap<String, Object>()));
+    assertEquals(Arrays.asList("note1"), started);
+  }
+}
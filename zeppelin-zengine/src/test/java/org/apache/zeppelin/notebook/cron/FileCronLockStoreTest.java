@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.zeppelin.notebook.cron;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileCronLockStoreTest {
+  private File dir;
+  private FileCronLockStore server1;
+  private FileCronLockStore server2;
+
+  @Before
+  public void setUp() throws IOException {
+    dir = new File(System.getProperty("java.io.tmpdir") + "/ZeppelinLTest_cron_"
+        + System.currentTimeMillis());
+    server1 = new FileCronLockStore(dir, 3);
+    server2 = new FileCronLockStore(dir, 3);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(dir);
+  }
+
+  @Test
+  public void testLock() throws IOException {
+    assertTrue(server1.tryLock("note_1000", "server1", 60000));
+    assertFalse(server2.tryLock("note_1000", "server2", 60000));
+    assertTrue(server1.tryLock("note_1000", "server1", 60000));
+    assertTrue(server2.tryLock("note_2000", "server2", 60000));
+  }
+
+  @Test
+  public void testLeaseExpires() throws IOException, InterruptedException {
+    assertTrue(server1.tryLock("note_1000", "server1", 10));
+    Thread.sleep(50);
+    assertTrue(server2.tryLock("note_1000", "server2", 60000));
+    assertFalse(server1.tryLock("note_1000", "server1", 60000));
+  }
+
+  @Test
+  public void testHistory() throws IOException {
+    for (int i = 0; i < 5; i++) {
+      server1.addRun(new CronRun("note", new Date(i * 1000), new Date(i * 1000 + 1),
+          "server1", false));
+    }
+    server2.addRun(new CronRun("note2", new Date(0), new Date(1), "server2", true));
+
+    List<CronRun> runs = server2.getRuns("note");
+    assertEquals(3, runs.size());
+    assertEquals(2000, runs.get(0).getScheduledFireTime().getTime());
+    assertEquals(4000, runs.get(2).getScheduledFireTime().getTime());
+    assertEquals("server1", runs.get(2).getOwner());
+    assertTrue(server1.getRuns("note2").get(0).isMisfire());
+    assertTrue(server1.getRuns("note3").isEmpty());
+  }
+
+  @Test
+  public void testUnparseableFilesAreEmpty() throws IOException {
+    // left by a writer that did not replace the file atomically
+    FileUtils.writeStringToFile(new File(dir, "locks.json"), "{\"note_1000\": {\"own");
+    FileUtils.writeStringToFile(new File(dir, "history/note.json"), "[{\"noteId\"");
+
+    assertTrue(server1.tryLock("note_1000", "server1", 60000));
+    assertFalse(server2.tryLock("note_1000", "server2", 60000));
+    assertTrue(server1.getRuns("note").isEmpty());
+    server1.addRun(new CronRun("note", new Date(0), new Date(1), "server1", false));
+    assertEquals(1, server2.getRuns("note").size());
+  }
+
+  @Test
+  public void testNoTemporaryFilesLeft() throws IOException {
+    server1.tryLock("note_1000", "server1", 60000);
+    server1.addRun(new CronRun("note", new Date(0), new Date(1), "server1", false));
+
+    assertEquals(0, FileUtils.listFiles(dir, new String[]{"tmp"}, true).size());
+  }
+}